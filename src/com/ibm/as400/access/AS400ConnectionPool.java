@@ -125,23 +125,21 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
    **/
   void cleanupConnections()
   {
-    synchronized (as400ConnectionPool_)
+    // Work from a copy of the keys, so that the pool is not locked (and getConnection() is not held up) while connections are disconnected.
+    String[] keys = getKeys(as400ConnectionPool_);
+    for (int i = 0; i < keys.length; i++)
     {
-      Enumeration keys = as400ConnectionPool_.keys();
-      while (keys.hasMoreElements())
+      String key = keys[i];
+      try
       {
-        String key = (String)keys.nextElement();
-        try
-        {
-          ConnectionList connList = (ConnectionList)as400ConnectionPool_.get(key);
-          connList.removeExpiredConnections(poolListeners_);  
-        }
-        catch (Exception e)
-        {
-          log(e, key);
-        }
+        ConnectionList connList = (ConnectionList)as400ConnectionPool_.get(key);
+        if (connList != null) connList.removeExpiredConnections(poolListeners_);
+      }
+      catch (Exception e)
+      {
+        log(e, key);
       }
-    } 
+    }
     if (poolListeners_ != null)
     {
       ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(this, ConnectionPoolEvent.MAINTENANCE_THREAD_RUN);
@@ -183,6 +181,27 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
   }
 
 
+  /**
+   * Returns a copy of the keys of a connections hashtable.
+   *
+   * @param   pool  The hashtable.
+   * @return     The keys.
+   **/
+  private static String[] getKeys(Hashtable pool)
+  {
+    synchronized (pool)
+    {
+      String[] keys = new String[pool.size()];
+      Enumeration e = pool.keys();
+      for (int i = 0; i < keys.length; i++)
+      {
+        keys[i] = (String)e.nextElement();
+      }
+      return keys;
+    }
+  }
+
+
   /**
    * Create a key to use to access the connections hashtable.
    *
@@ -1712,44 +1731,37 @@ public class AS400ConnectionPool extends ConnectionPool implements Serializable
         {
           if (reduced)
           {
-            synchronized (as400ConnectionPool_)
+            String[] keys = getKeys(as400ConnectionPool_);
+            for (int i = 0; i < keys.length; i++)
             {
-              Enumeration keys = as400ConnectionPool_.keys();
-              while (keys.hasMoreElements())
+              String key = keys[i];
+              try
               {
-                String key = (String)keys.nextElement();
-                try
-                {
-                  ConnectionList connList = (ConnectionList)as400ConnectionPool_.get(key);
-                  connList.shutDownOldest(); 
-                }
-                catch (Exception e)
-                {
-                  if (log_ != null || Trace.traceOn_)
-                    log(e, key);
-                }
+                ConnectionList connList = (ConnectionList)as400ConnectionPool_.get(key);
+                if (connList != null) connList.shutDownOldest();
+              }
+              catch (Exception e)
+              {
+                if (log_ != null || Trace.traceOn_)
+                  log(e, key);
               }
             }
           }
           //@A6A Start new code
-          synchronized (removedAS400ConnectionPool_)                              
+          String[] removedKeys = getKeys(removedAS400ConnectionPool_);
+          for (int i = 0; i < removedKeys.length; i++)
           {
-            Enumeration removedKeys = removedAS400ConnectionPool_.keys();       
-            while (removedKeys != null && removedKeys.hasMoreElements())
+            //go through each list of systemName/userID
+            String key = removedKeys[i];
+            ConnectionList connList = (ConnectionList)removedAS400ConnectionPool_.get(key);
+            //disconnect and remove any unused connections from the list
+            if (connList != null && !connList.removeUnusedElements())  // this disconnects the connections
             {
-              //go through each list of systemName/userID
-              String key = (String)removedKeys.nextElement();                                                                                 
-              ConnectionList connList = (ConnectionList)removedAS400ConnectionPool_.get(key); 
-              //disconnect and remove any unused connections from the list
-              if (!connList.removeUnusedElements())  // this disconnects the connections
-              {
-                //if there are no more connections remaining, remove the 
-                //list from the pool
-                removedAS400ConnectionPool_.remove(key);                
-              }
-
-            }                                                                   
-          }                                                                       
+              //if there are no more connections remaining, remove the
+              //list from the pool
+              removedAS400ConnectionPool_.remove(key);
+            }
+          }
           //@A6A End new code
 
           maintenance_.notify();  // PoolMaintenance.run() calls ConnectionPool.cleanupConnections()
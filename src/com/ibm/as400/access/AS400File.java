@@ -2602,6 +2602,20 @@ abstract public class AS400File implements Serializable
      *this method.  The records are written to the end of the file.
      *The cursor is positioned to after the last record of the file as a result
      *of invoking this method.
+     *<p>The records are sent to the system in blocks of the blocking factor
+     *with which the file was opened.  Each block waits for the reply to the
+     *block before it, unless the
+     *<tt>com.ibm.as400.access.AS400File.pendingWrites</tt> system property
+     *allows more blocks to be sent before the reply to the first one is
+     *received (see {@link SystemProperties#AS400FILE_PENDING_WRITES
+     *SystemProperties.AS400FILE_PENDING_WRITES}).
+     *The blocks are written in order.  If the system returns an error for a
+     *block, no further blocks are sent, and the exception for the first block
+     *that failed is thrown after the replies to the blocks already sent have
+     *been received.  The blocks before the failed block have been written.
+     *When more than one block can be outstanding, blocks after it that were
+     *already sent may have been written too.
+     *To write all of the records or none of them, use commitment control.
      *@param records The records to write.  The records must have a format
      *which matches the record format of this object.  To ensure that this
      *requirement is met, use the
@@ -60,6 +60,10 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
   private static int lastCorrelationId_ = 0; //@B6C
   private static Object correlationIdLock_ = new Object(); //@B6A
 
+  // The most S38PUTM blocks that write(Record[]) sends before it waits for the
+  // reply to the oldest one, from SystemProperties.AS400FILE_PENDING_WRITES.
+  private static final int MAXIMUM_PENDING_PUTS_ = getMaximumPendingPuts();
+
   // Identify the DDM reply data streams to the AS400Server class.
   static
   {
@@ -2634,8 +2638,6 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
 
     connect();
 
-    // We will be chaining the S38BUF to the request, so the correlation ids must match
-    int correlationId = newCorrelationId(); //@B6C
     DDMRequestDataStream req = DDMRequestDataStream.getRequestS38PUTM(dclName_);
     req.setIsChained(true);  // Indicate that the request is chained
     req.setHasSameRequestCorrelation(true); // Indicate hat the ids will match
@@ -2661,35 +2663,159 @@ class AS400FileImplRemote extends AS400FileImplBase implements Serializable //@C
     }
     // End of changes for -------------------------------------------    @A2A
     
-    // Get the S38BUF object(s) containing the records to write.
-    DDMObjectDataStream[] dataToSend =
-    DDMObjectDataStream.getObjectS38BUF(records, openFeedback_, ssp_,    // #SSPDDM1 - add ssp_ parm
-        maxNumberOfFieldsPerFormatInFile);                             //@A2A
+    if (maxNumberOfFieldsPerFormatInFile == -1)
+    {
+      maxNumberOfFieldsPerFormatInFile = records[0].getNumberOfFields();
+    }
 
     // It is possible that we will have more than one S38BUF to send.  This case
     // occurs when the blocking factor is less than the number records to be written.
     // In that case we do multiple of S38PUTMs of blocking factor number of records.
-    Vector replys;
+    // Up to MAXIMUM_PENDING_PUTS_ blocks (1 unless the system property is set) are sent
+    // before the reply to the oldest one is received, and each S38BUF is built while the
+    // blocks before it are on their way.
+    // Each block has its own correlation id, and the replies are checked in order.
+    // Once a block fails, no more blocks are sent, the replies to the blocks already
+    // sent are received, and the error of the first failed block is thrown.
+    int blockingFactor = openFeedback_.getMaxNumberOfRecordsTransferred();
+    int[] pending = new int[MAXIMUM_PENDING_PUTS_];
+    int first = 0;
+    int pendingCount = 0;
+    int start = 0;
+    AS400Exception error = null;
     synchronized(server_) //@F1A - both datastreams must be written atomically
     { //@F1A
-      for (int i = 0; i < dataToSend.length; ++i)
-      { // For each S38BUF object, send the S38PUTM followed by the S38BUF
-        server_.send(req, correlationId);
-        replys = sendRequestAndReceiveReplies(dataToSend[i], correlationId);
-        // Reply expected: S38IOFB
-        if (((DDMDataStream)replys.elementAt(0)).getCodePoint() == DDMTerm.S38IOFB)
+      try
+      {
+        while (true)
         {
-          if (replys.size() != 1)
+          if (start < records.length && error == null && pendingCount < MAXIMUM_PENDING_PUTS_)
           {
-            handleErrorReply(replys, 1);
+            // Get the S38BUF object containing the next block of records to write.
+            int end = Math.min(start + blockingFactor, records.length);
+            DDMObjectDataStream dataToSend =
+            DDMObjectDataStream.getObjectS38BUF(records, start, end, openFeedback_, ssp_,    // #SSPDDM1 - add ssp_ parm
+                maxNumberOfFieldsPerFormatInFile);                                        //@A2A
+
+            // We will be chaining the S38BUF to the request, so the correlation ids must match
+            int correlationId = newCorrelationId(); //@B6C
+            try
+            {
+              server_.send(req, correlationId);
+              server_.send(dataToSend, correlationId);
+            }
+            catch (ConnectionDroppedException e)
+            {
+              connectionDropped(e);
+            }
+            pending[(first + pendingCount++) % MAXIMUM_PENDING_PUTS_] = correlationId;
+            start = end;
+            continue;
+          }
+          if (pendingCount == 0) break;
+
+          // Receive the replies to the oldest block.
+          Vector replys = receiveReplies(pending[first]);
+          first = (first + 1) % MAXIMUM_PENDING_PUTS_;
+          --pendingCount;
+          try
+          {
+            // Reply expected: S38IOFB
+            if (((DDMDataStream)replys.elementAt(0)).getCodePoint() == DDMTerm.S38IOFB)
+            {
+              if (replys.size() != 1)
+              {
+                handleErrorReply(replys, 1);
+              }
+            }
+            else
+            { // Error occurred
+              handleErrorReply(replys, 0);
+            }
+          }
+          catch (AS400Exception e)
+          {
+            if (error == null) error = e;
           }
         }
-        else
-        { // Error occurred
-          handleErrorReply(replys, 0);
+      }
+      finally
+      {
+        // If the write is abandoned, receive the replies that are still outstanding, so
+        // that none of them are left queued on the connection.  If they cannot be received,
+        // have the server throw them away as they arrive instead.
+        boolean receiving = true;
+        for (; pendingCount > 0; --pendingCount, first = (first + 1) % MAXIMUM_PENDING_PUTS_)
+        {
+          if (receiving)
+          {
+            try
+            {
+              receiveReplies(pending[first]);
+              continue;
+            }
+            catch (Exception e)
+            {
+              if (Trace.traceOn_) Trace.log(Trace.WARNING, "Unable to receive the replies to an abandoned write:", e);
+              receiving = false;
+            }
+          }
+          if (server_ != null) server_.discardReplyChain(pending[first]);
         }
       }
     } //@F1A
+    if (error != null) throw error;
+  }
+
+  // Receives the reply to a request sent with the correlation id, and any replies chained to it.
+  private Vector receiveReplies(int correlationId)
+  throws InterruptedException, IOException
+  {
+    Vector replys = new Vector();
+    DDMDataStream reply = null;
+    try
+    {
+      do
+      {
+        reply = (DDMDataStream)server_.receive(correlationId);
+        replys.addElement(reply);
+      }
+      while (reply.isChained());
+    }
+    catch (ConnectionDroppedException e)
+    {
+      connectionDropped(e);
+    }
+    return replys;
+  }
+
+  // Returns the number of S38PUTM blocks that write(Record[]) can have outstanding.
+  private static int getMaximumPendingPuts()
+  {
+    String value = SystemProperties.getProperty(SystemProperties.AS400FILE_PENDING_WRITES);
+    if (value != null)
+    {
+      try
+      {
+        int count = Integer.parseInt(value.trim());
+        if (count >= 1) return count;
+      }
+      catch (NumberFormatException e)
+      {
+      }
+      if (Trace.traceOn_) Trace.log(Trace.WARNING, "Ignoring invalid value for " + SystemProperties.AS400FILE_PENDING_WRITES + ": " + value);
+    }
+    return 1;
+  }
+
+  // Disconnects the server after the connection was dropped, and rethrows the exception.
+  private void connectionDropped(ConnectionDroppedException e)
+  throws ConnectionDroppedException
+  {
+    Trace.log(Trace.ERROR, "ConnectionDroppedException:", e);
+    system_.disconnectServer(server_);
+    resetState();
+    throw e;
   }
 
   // @B1A
@@ -1605,6 +1605,7 @@ public class AS400ImplRemote implements AS400Impl {
     // connect()...
     serverList.addElement(server);
 
+    if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service).recordConnect();
     fireConnectEvent(true, service);
 
     return server;
@@ -21,6 +21,13 @@ final class AS400JDBCBlobLocatorOutputStream extends AS400JDBCOutputStream
 
   private AS400JDBCBlobLocator blob_;
 
+  // When the "lob block size" property is set, the data is collected into
+  // blocks of that size, and each block is sent without waiting for the reply
+  // to the previous one.  The replies are checked by the locator.
+  private byte[] block_;
+  private int blockLength_;
+  private long blockPosition_;  // The position in the BLOB of the first byte of the block.
+
   AS400JDBCBlobLocatorOutputStream(AS400JDBCBlobLocator blob, long position)
   {
     super(position);
@@ -29,6 +36,10 @@ final class AS400JDBCBlobLocatorOutputStream extends AS400JDBCOutputStream
 
   int doWrite(long position, byte data) throws SQLException
   {
+    if (blob_.locator_.getBlockSize() > 0)
+    {
+      return doWrite(position, new byte[] { data }, 0, 1);
+    }
     synchronized(blob_)
     {
       JDLobLocator locator = blob_.locator_;
@@ -44,12 +55,47 @@ final class AS400JDBCBlobLocatorOutputStream extends AS400JDBCOutputStream
     synchronized(blob_)
     {
       JDLobLocator locator = blob_.locator_;
+      int blockSize = locator.getBlockSize();
+      if (blockSize > 0)
+      {
+        if (block_ == null) block_ = new byte[blockSize];
+        if (blockLength_ == 0) blockPosition_ = position;
+        int written = 0;
+        while (written < length)
+        {
+          int count = Math.min(length - written, block_.length - blockLength_);
+          System.arraycopy(data, offset + written, block_, blockLength_, count);
+          blockLength_ += count;
+          written += count;
+          if (blockLength_ == block_.length) sendBlock(locator);
+        }
+        return length;
+      }
       synchronized(locator)
       {
         return locator.writeData(position-1, data, offset, length, true);       //@K1A
       }
     }
   }
+
+  void doFlush() throws SQLException
+  {
+    synchronized(blob_)
+    {
+      JDLobLocator locator = blob_.locator_;
+      if (locator == null) return; // The BLOB has been freed.
+      if (blockLength_ > 0) sendBlock(locator);
+      locator.flushWrites();
+    }
+  }
+
+  private void sendBlock(JDLobLocator locator) throws SQLException
+  {
+    int length = blockLength_;
+    blockLength_ = 0;
+    locator.writeDataPipelined(blockPosition_-1, block_, 0, length, true);
+    blockPosition_ += length;
+  }
 }
 
 
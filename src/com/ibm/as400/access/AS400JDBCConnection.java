@@ -798,6 +798,41 @@ implements Connection
     throws SQLException;
 
 
+
+    /**
+    Returns a prepared statement that the application has closed to the
+    connection's statement cache.
+
+    @param   statement   The statement.
+    @return              true if the statement was put in the cache;
+                         false if it must be closed.
+    **/
+     abstract     boolean returnToStatementCache (AS400JDBCPreparedStatementImpl statement)
+    throws SQLException;
+
+
+
+    /**
+    Reserves memory for blocks of result set rows from the
+    connection's "fetch memory budget".
+
+    @param   bytes       The number of bytes wanted.
+    @return              The number of bytes reserved, which may
+                         be less than wanted, or 0.
+    **/
+     abstract     int reserveFetchMemory (int bytes);
+
+
+
+    /**
+    Returns memory reserved with reserveFetchMemory() to the
+    connection's "fetch memory budget".
+
+    @param   bytes       The number of bytes reserved.
+    **/
+     abstract     void releaseFetchMemory (int bytes);
+
+
     // @A3D - Moved this logic up into AS400JDBCDriver:
     //    private void open ()
     //        throws SQLException
@@ -1306,6 +1341,37 @@ implements Connection
     throws SQLException;
 
 
+    /**
+    Sends a request data stream to the system without waiting
+    for the reply.  The reply must later be retrieved with
+    receive(), or abandoned with AS400ReplyFuture.discard().
+
+    @param   request     The request.
+    @param   id          The id.
+    @return              The object used to retrieve the reply.
+
+    @exception           SQLException   If an error occurs.
+    **/
+    //
+    // See implementation notes for sendAndReceive().
+    //
+    abstract AS400ReplyFuture sendAsync (DBBaseRequestDS request, int id)
+    throws SQLException;
+
+
+    /**
+    Returns the reply to a request sent with sendAsync(),
+    waiting for it to arrive if necessary.
+
+    @param   reply       The object returned by sendAsync().
+    @return              The reply.
+
+    @exception           SQLException   If an error occurs.
+    **/
+    abstract DBReplyRequestedDS receive (AS400ReplyFuture reply)
+    throws SQLException;
+
+
     // @E4C
     /**
     Sets the auto-commit mode.   If the connection is in auto-commit
@@ -168,7 +168,7 @@ extends AS400JDBCConnection
     // The max number of open statements per connection.  If this          @DAA
     // changes, then change the relevant sentence in the javadoc, too.     @DAA
                    static final int            MAX_STATEMENTS_         = 9999;         // @DAC
-    private final boolean[] assigned_ = new boolean[MAX_STATEMENTS_]; //@P0C
+    private final JDStatementIdAllocator assigned_ = new JDStatementIdAllocator(DRDA_SCROLLABLE_CUTOFF_, DRDA_SCROLLABLE_MAX_, MAX_STATEMENTS_); //@P0C
 
 
 
@@ -229,6 +229,16 @@ extends AS400JDBCConnection
     private int statementCount_ = 0;                                    //@K1A
     private boolean thousandStatements_ = false;                        //@K1A
 
+    // Prepared statements that the application has closed, kept for reuse.  Null unless
+    // the "statement cache size" property is greater than 0.
+    private JDStatementCache statementCache_ = null;
+
+    // The "fetch memory budget" property in bytes, and the part of it that result
+    // sets have reserved for larger blocks of rows.  Guarded by fetchMemoryLock_.
+    private long fetchMemoryBudget_ = 0;
+    private long fetchMemoryReserved_ = 0;
+    private final Object fetchMemoryLock_ = new Object();
+
     private String qaqqiniLibrary_ = null;                              //@K2A
 
     //@KBA Specifies level of autocommit support to use.
@@ -568,6 +578,15 @@ extends AS400JDBCConnection
         // partial close (moved rollback and closing of all the statements).     @E1
         pseudoClose();
 
+        // The cached statements are not closed one at a time.  Their RPBs and
+        // ORSs go away with the server job when the connection is disconnected.
+        if (statementCache_ != null)
+        {
+            if (JDTrace.isTraceOn())
+                JDTrace.logInformation (this, statementCache_.getStatistics());
+            statementCache_.clear();
+        }
+
         // Disconnect from the system.
         if (server_ != null)
         {
@@ -1421,79 +1440,37 @@ throws SQLException
     @return                         The next unused id.
     **/
     //
-    // Implementation note:  This method needs to be synchronized
+    // Implementation note:  The allocator is synchronized
     // so that the same id does not get assigned twice.
     //
     public int getUnusedId (int resultSetType) //@P0C
     throws SQLException
     {
-      synchronized(assigned_) //@P1A
-      {
         // Note: We will always assume id 0 is being used,
         // since that represents the connection itself.
 
         // If this connection is being used for DRDA, then we
         // must use statement ids of 1-128 for non-scrollable
-        // cursors and 129-255 for scrollable cursors.
+        // cursors and 129-254 for scrollable cursors.
+        // If this connection is NOT being used for DRDA, then
+        // we can use any statement id.
+        int id;
         if (drda_)
         {
             if (resultSetType == ResultSet.TYPE_FORWARD_ONLY)
-            {
-                for (int i = 1; i < DRDA_SCROLLABLE_CUTOFF_; ++i)
-                {
-                    //@P0Dif (assigned_.get(i) == false)
-                    //@P0D{                                    // @DAC
-                    //@P0D  assigned_.set(i);                                               // @DAC
-                    //@P0D  return i;
-                    //@P0D}
-                    if (!assigned_[i]) //@P0A
-                    {
-                        assigned_[i] = true; //@P0A
-                        return i; //@P0A
-                    }
-                }
-            }
+                id = assigned_.allocate(JDStatementIdAllocator.RANGE_DRDA_NON_SCROLLABLE);
             else
-            {
-                for (int i = DRDA_SCROLLABLE_CUTOFF_; i < DRDA_SCROLLABLE_MAX_; ++i)
-                {  // @DAC
-                    //@P0Dif (assigned_.get(i) == false)
-                    //@P0D{                                    // @DAC
-                    //@P0D  assigned_.set(i);                                               // @DAC
-                    //@P0D  return i;
-                    //@P0D}
-                    if (!assigned_[i]) //@P0A
-                    {
-                        assigned_[i] = true; //@P0A
-                        return i; //@P0A
-                    }
-                }
-            }
+                id = assigned_.allocate(JDStatementIdAllocator.RANGE_DRDA_SCROLLABLE);
         }
-
-        // If this connection is NOT being used for DRDA, then
-        // we can use any statement id.
         else
         {
-            for (int i = 1; i < MAX_STATEMENTS_; ++i)
-            {
-                //@P0Dif (assigned_.get(i) == false)
-                //@P0D{                                    // @DAC
-                //@P0D  assigned_.set(i);                                               // @DAC
-                //@P0D  return i;
-                //@P0D}
-                if (!assigned_[i]) //@P0A
-                {
-                    assigned_[i] = true; //@P0A
-                    return i; //@P0A
-                }
-            }
+            id = assigned_.allocateAny();
         }
 
         // All ids are being used.
-        JDError.throwSQLException (this, JDError.EXC_MAX_STATEMENTS_EXCEEDED);
-        return -1;
-      }
+        if (id == -1)
+            JDError.throwSQLException (this, JDError.EXC_MAX_STATEMENTS_EXCEEDED);
+        return id;
     }
 
 
@@ -1853,16 +1830,82 @@ throws SQLException
     public void notifyClose (AS400JDBCStatement statement, int id)
     throws SQLException // @EGA
     {
-        statements_.removeElement(statement);           // @DAC
-        statementCount_--;                              //@K1A  Decrement statement counter
-        //@P0D assigned_.clear(id);                            // @DAC
-        synchronized(assigned_) //@P1A
+        if (statements_.removeElement(statement))       // @DAC
+            statementCount_--;                          //@K1A  Decrement statement counter
+        assigned_.release(id);                          // @DAC
+    }
+
+
+
+    /**
+    Returns a prepared statement that the application has closed to the
+    statement cache.  The statement keeps its id and its RPB and ORS on
+    the system, so it can be reused without preparing it again.  The cache
+    holds a copy of the statement, so the object the application closed
+    stays closed even after the copy is handed to the next caller.
+
+    @param   statement   The statement.
+    @return              true if the statement was put in the cache;
+                         false if it must be closed.
+    **/
+    boolean returnToStatementCache (AS400JDBCPreparedStatementImpl statement)
+    throws SQLException
+    {
+        if (statementCache_ == null || closing_ || server_ == null)
+            return false;
+        if (! statement.prepareForCache ())
+            return false;
+
+        if (statements_.removeElement(statement))
+            statementCount_--;
+
+        // The cache hands back the statement it has no room for, which is then closed for real.
+        AS400JDBCPreparedStatementImpl evicted = statementCache_.put(statement.cacheKey_, statement.copyForCache());
+        if (evicted != null)
+            evicted.closeFromCache();
+        return true;
+    }
+
+
+    /**
+    Reserves memory for blocks of result set rows from the
+    connection's "fetch memory budget".
+
+    @param   bytes       The number of bytes wanted.
+    @return              The number of bytes reserved, which may
+                         be less than wanted, or 0.
+    **/
+    int reserveFetchMemory (int bytes)
+    {
+        synchronized (fetchMemoryLock_)
         {
-        assigned_[id] = false; //@P0A
+            long available = fetchMemoryBudget_ - fetchMemoryReserved_;
+            int reserved = (available <= 0) ? 0 : (int)Math.min(bytes, available);
+            fetchMemoryReserved_ += reserved;
+            return reserved;
+        }
     }
+
+
+
+    /**
+    Returns memory reserved with reserveFetchMemory() to the
+    connection's "fetch memory budget".
+
+    @param   bytes       The number of bytes reserved.
+    **/
+    void releaseFetchMemory (int bytes)
+    {
+        synchronized (fetchMemoryLock_)
+        {
+            fetchMemoryReserved_ -= bytes;
+            if (fetchMemoryReserved_ < 0)
+                fetchMemoryReserved_ = 0;
+        }
     }
 
 
+
     // @A3D - Moved this logic up into AS400JDBCDriver:
     //    private void open ()
     //        throws SQLException
@@ -2299,12 +2342,25 @@ throws SQLException
         if (!checkHoldabilityConstants(resultSetHoldability))                   //@F3A
             JDError.throwSQLException (this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);    //@F3A
 
+        // Reuse a statement that the application closed, if the statement cache has one.
+        AS400JDBCPreparedStatementImpl statement = null;
+        String cacheKey = null;
+        if (statementCache_ != null)
+        {
+            cacheKey = JDStatementCache.getKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+            statement = statementCache_.get(cacheKey);
+            if (statement != null)
+                statement.reopenFromCache();
+        }
+
+        if (statement == null)
+        {
         // Create the statement.
         JDSQLStatement sqlStatement = new JDSQLStatement (sql,
                                                           properties_.getString (JDProperties.DECIMAL_SEPARATOR), true,
                                                           properties_.getString (JDProperties.PACKAGE_CRITERIA), con);  // @A2A @G4A
         int statementId = getUnusedId (resultSetType); // @B1C
-        AS400JDBCPreparedStatementImpl statement = new AS400JDBCPreparedStatementImpl (con,
+        statement = new AS400JDBCPreparedStatementImpl (con,
                                                                                statementId, transactionManager_, packageManager_,
                                                                                properties_.getString (JDProperties.BLOCK_CRITERIA),
                                                                                properties_.getInt (JDProperties.BLOCK_SIZE),
@@ -2313,6 +2369,8 @@ throws SQLException
                                                                                properties_.getString (JDProperties.PACKAGE_CRITERIA),
                                                                                resultSetType, resultSetConcurrency, resultSetHoldability, //@G4A
                                                                                AS400JDBCStatement.GENERATED_KEYS_NOT_SPECIFIED);                        //@G4A
+        statement.cacheKey_ = cacheKey;
+        }
         statements_.addElement(statement);                      // @DAC
         statementCount_++;                           //@K1A
         if(thousandStatements_ == false && statementCount_ == 1000)              //@K1A
@@ -3233,6 +3291,85 @@ throws SQLException
         return(DBReplyRequestedDS) reply;
     }
 
+    // Sends a request without waiting for the reply.  The request is
+    // prepared exactly as in sendAndReceive(), but heldRequestsLock_ is only
+    // held while the request is written, so other requests on this connection
+    // can be sent (and their replies received) before this reply is retrieved.
+    AS400ReplyFuture sendAsync (DBBaseRequestDS request, int id)
+    throws SQLException
+    {
+        checkCancel();
+        checkOpen();
+
+        AS400ReplyFuture reply = null;
+
+        try
+        {
+            request.setBasedOnORSHandle (0);
+
+            if (dataCompression_ == DATA_COMPRESSION_RLE_ && !disableCompression_)
+            {
+                request.addOperationResultBitmap(DBBaseRequestDS.ORS_BITMAP_REQUEST_RLE_COMPRESSION);
+                request.addOperationResultBitmap(DBBaseRequestDS.ORS_BITMAP_REPLY_RLE_COMPRESSION);
+                request.compress();
+            }
+
+            DataStream actualRequest;
+            synchronized(heldRequestsLock_)
+            {
+                if (heldRequests_ != null)
+                    actualRequest = new DBConcatenatedRequestDS(heldRequests_, request);
+                else
+                    actualRequest = request;
+                heldRequests_ = null;
+
+                reply = server_.sendAsync(actualRequest);
+            }
+
+            if (DEBUG_COMM_TRACE_ > 0)
+                debug (request);
+        }
+        catch (IOException e)
+        {
+            server_ = null;
+            JDError.throwSQLException (this, JDError.EXC_COMMUNICATION_LINK_FAILURE, e);
+        }
+        catch (Exception e)
+        {
+            JDError.throwSQLException (this, JDError.EXC_INTERNAL, e);
+        }
+
+        return reply;
+    }
+
+
+    DBReplyRequestedDS receive (AS400ReplyFuture future)
+    throws SQLException
+    {
+        DBReplyRequestedDS reply = null;
+
+        try
+        {
+            reply = (DBReplyRequestedDS)future.get();
+            reply.parse(dataCompression_);
+
+            if (DEBUG_COMM_TRACE_ > 0)
+                debug (reply);
+        }
+        catch (IOException e)
+        {
+            server_ = null;
+            JDError.throwSQLException (this, JDError.EXC_COMMUNICATION_LINK_FAILURE, e);
+        }
+        catch (Exception e)
+        {
+            JDError.throwSQLException (this, JDError.EXC_INTERNAL, e);
+        }
+
+        return reply;
+    }
+
+
     //@DA2 - sew added new receive method.
     public DBReplyRequestedDS receiveMoreData()
     throws SQLException{
@@ -3604,6 +3741,12 @@ throws SQLException
         if ( maximumBlockedInputRows_ > 32000 ) maximumBlockedInputRows_ = 32000;                     // @A6A
         if ( maximumBlockedInputRows_ < 1 ) maximumBlockedInputRows_ = 1;                             // @A6A
 
+        int statementCacheSize = properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+        if (statementCacheSize > 0)
+            statementCache_ = new JDStatementCache(statementCacheSize);
+
+        fetchMemoryBudget_ = properties_.getInt(JDProperties.FETCH_MEMORY_BUDGET) * 1024L;
+
         // Issue any warnings.
         if (dataSourceUrl_.isExtraPathSpecified ())
             postWarning (JDError.getSQLWarning (JDError.WARN_URL_EXTRA_IGNORED));
@@ -6243,11 +6386,18 @@ endif */
    * @param newConnection
    */
   void transferObjects(AS400JDBCConnectionImpl newConnection) {
-    for (int i =0; i< MAX_STATEMENTS_; i++) {
-      newConnection.assigned_[i] = assigned_[i]; 
-    }
+    newConnection.assigned_.copyFrom(assigned_); 
     newConnection.statements_ = statements_; 
     statements_ = new Vector(); 
+
+    // Cached statements are not moved, since they would not be reprepared on
+    // the new connection.  Their ids are freed there instead.
+    if (statementCache_ != null) {
+      AS400JDBCPreparedStatementImpl[] cached = statementCache_.clear();
+      for (int i = 0; i < cached.length; i++) {
+        newConnection.assigned_.release(cached[i].id_);
+      }
+    }
     
     
     
@@ -1315,6 +1315,19 @@ endif */
 
   }
 
+  synchronized boolean returnToStatementCache(AS400JDBCPreparedStatementImpl statement)
+      throws SQLException {
+    return currentConnection_.returnToStatementCache(statement);
+  }
+
+  int reserveFetchMemory(int bytes) {
+    return currentConnection_.reserveFetchMemory(bytes);
+  }
+
+  void releaseFetchMemory(int bytes) {
+    currentConnection_.releaseFetchMemory(bytes);
+  }
+
   public synchronized void postWarning(SQLWarning sqlWarning) throws SQLException {
     boolean retryOperation = true;
     while (retryOperation) {
@@ -1783,6 +1796,18 @@ endif */
 
   }
 
+  // Requests that are outstanding cannot be moved to another system, so the
+  // asynchronous methods are not retried when the connection fails over.
+  AS400ReplyFuture sendAsync(DBBaseRequestDS request, int id)
+      throws SQLException {
+    return currentConnection_.sendAsync(request, id);
+  }
+
+  DBReplyRequestedDS receive(AS400ReplyFuture reply)
+      throws SQLException {
+    return currentConnection_.receive(reply);
+  }
+
   public synchronized DBReplyRequestedDS receiveMoreData() throws SQLException {
     boolean retryOperation = true;
     while (retryOperation) {
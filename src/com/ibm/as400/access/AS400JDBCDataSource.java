@@ -949,6 +949,17 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getString(JDProperties.ERRORS);
     }
 
+    /**
+    *  Returns the memory in kilobytes that the result sets of each connection
+    *  can use to fetch larger blocks of rows.
+    *  @return The fetch memory budget.  The default value is 0, which means
+    *  that the size of each block is set by the "block size" property.
+    **/
+    public int getFetchMemoryBudget()
+    {
+        return properties_.getInt(JDProperties.FETCH_MEMORY_BUDGET);
+    }
+
     /**
     *  Returns the IBM i system libraries to add to the server job's library list.
     *  The libraries are delimited by commas or spaces, and
@@ -964,6 +975,19 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getString(JDProperties.LIBRARIES);
     }
 
+    /**
+    *  Returns the size in bytes of each request used to stream LOB (large object)
+    *  data through a locator.
+    *  @return The lob block size.  Valid range is 0-16777216.
+    *  The default value is 0, which means that each read from a LOB stream
+    *  is a separate request sized by the caller, and each write is sent
+    *  and waited for separately.
+    **/
+    public int getLobBlockSize()
+    {
+        return properties_.getInt(JDProperties.LOB_BLOCK_SIZE);
+    }
+
     /**
     *  Returns the maximum LOB (large object) size in bytes that
     *  can be retrieved as part of a result set.  LOBs that are larger
@@ -1108,6 +1132,24 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getString(JDProperties.PACKAGE_LIBRARY);
     }
 
+    /**
+    *  Returns the number of blocks of data that are requested from the system ahead of
+    *  time while a forward-only result set is read.
+    *  @return The number of blocks.
+    *  <p>Valid values include:
+    *  <ul>
+    *    <li> 0 - The default value.  No blocks are requested ahead of time.
+    *    <li> 1
+    *    <li> 2
+    *    <li> 3
+    *    <li> 4
+    *  </ul>
+    **/
+    public int getPrefetchBlocks()
+    {
+        return properties_.getInt(JDProperties.PREFETCH_BLOCKS);
+    }
+
     /**
     *  Returns the name of the proxy server.
     *  @return The proxy server.
@@ -1353,6 +1395,16 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
         return properties_.getString(JDProperties.SORT_WEIGHT);
     }
 
+    /**
+    *  Returns the number of closed prepared statements that each connection keeps for reuse.
+    *  @return The statement cache size.  The default value is 0, which means that
+    *  prepared statements are not kept.
+    **/
+    public int getStatementCacheSize()
+    {
+        return properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+    }
+
     /**
     *  Returns the time format used in time literals with SQL statements.
     *  @return The time format.
@@ -3007,6 +3059,35 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
     }
 
 
+    /**
+    *  Sets the memory in kilobytes that the result sets of each connection can
+    *  use to fetch larger blocks of rows.  When this is greater than 0, a
+    *  forward-only result set starts with blocks of the size set by the
+    *  "block size" property, and doubles the size of the next block for as
+    *  long as that lowers the measured time per kilobyte of the replies.  The
+    *  memory for the larger blocks is taken from this budget, so wide rows
+    *  and many open result sets do not grow without limit.  This has no
+    *  effect when the "block size" property is 0.
+    *
+    *  @param budget The fetch memory budget.  Valid range is 0-2097151.
+    *  The default value is 0.
+    **/
+    public void setFetchMemoryBudget(int budget)
+    {
+        String property = "fetchMemoryBudget";
+        if (budget < 0 || budget > 2097151)
+            throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        Integer oldValue = new Integer(getFetchMemoryBudget());
+        Integer newValue = new Integer(budget);
+
+        properties_.setString(JDProperties.FETCH_MEMORY_BUDGET, newValue.toString());
+        changes_.firePropertyChange(property, oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, property + ": " + budget);
+    }
+
     // @W1a new method
     /**
     *  Sets whether to fully open a file when performing a query.
@@ -3156,6 +3237,36 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, property + ": " + libraries);  //@A8C
     }
 
+    /**
+    *  Sets the size in bytes of each request used to stream LOB (large object)
+    *  data through a locator.  When this is greater than 0, streams returned by
+    *  Blob.getBinaryStream() and Clob.getCharacterStream() retrieve the LOB in
+    *  blocks of this size, and request the next block while the current one is
+    *  being read.  Streams returned by Blob.setBinaryStream() collect the data
+    *  into blocks of this size, and send each block without waiting for the
+    *  reply to the previous one.  Data written to such a stream is sent when a
+    *  block is full and when the stream is flushed or closed, and errors may be
+    *  reported by a later write, flush(), or close().
+    *
+    *  @param size The lob block size.  Valid range is 0-16777216.
+    *  The default value is 0.
+    **/
+    public void setLobBlockSize(int size)
+    {
+        String property = "lobBlockSize";
+        if (size < 0 || size > MAX_THRESHOLD)
+            throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        Integer oldValue = new Integer(getLobBlockSize());
+        Integer newValue = new Integer(size);
+
+        properties_.setString(JDProperties.LOB_BLOCK_SIZE, newValue.toString());
+        changes_.firePropertyChange(property, oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, property + ": " + size);
+    }
+
     /**
     *  Sets the maximum LOB (large object) size in bytes that
     *  can be retrieved as part of a result set.  LOBs that are larger
@@ -3506,6 +3617,39 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, "prefetch: " + prefetch);      //@A8C
     }
 
+    /**
+    *  Sets the number of blocks of data that are requested from the system ahead of
+    *  time while a forward-only result set is read.  Each block is requested as soon as
+    *  the previous one arrives, so that the application does not wait for the system at
+    *  every block boundary.  At most this many additional blocks, each limited by the
+    *  block size, are held in memory.  This property has no effect on scrollable or
+    *  updatable result sets, or when the block size is 0.
+    *  @param prefetchBlocks The number of blocks.
+    *  <p>Valid values include:
+    *  <ul>
+    *    <li> 0 - The default value.  No blocks are requested ahead of time.
+    *    <li> 1
+    *    <li> 2
+    *    <li> 3
+    *    <li> 4
+    *  </ul>
+    **/
+    public void setPrefetchBlocks(int prefetchBlocks)
+    {
+        String property = "prefetchBlocks";
+
+        Integer oldValue = new Integer(getPrefetchBlocks());
+        Integer newValue = new Integer(prefetchBlocks);
+
+        validateProperty(property, newValue.toString(), JDProperties.PREFETCH_BLOCKS);
+
+        properties_.setString(JDProperties.PREFETCH_BLOCKS, newValue.toString());
+        changes_.firePropertyChange(property, oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, property + ": " + prefetchBlocks);
+    }
+
     /**
     *  Sets whether the user should be prompted if a user name or password is
     *  needed to connect to the IBM i system.  If a connection can not be made
@@ -4177,6 +4321,31 @@ implements DataSource, Referenceable, Serializable, Cloneable //@PDC 550
             JDTrace.logInformation (this, property + ": " + sortWeight);  //@A8C
     }
 
+    /**
+    *  Sets the number of closed prepared statements that each connection keeps for reuse.
+    *  When a prepared statement is closed, it is kept, still prepared on the system, and
+    *  a later prepareStatement() call with the same SQL text, result set type, concurrency,
+    *  and holdability returns it without preparing the SQL again.  When more statements
+    *  are kept than this value allows, the least recently used one is deleted.
+    *  @param size The statement cache size.  The default value is 0, which means that
+    *  prepared statements are not kept.
+    **/
+    public void setStatementCacheSize(int size)
+    {
+        String property = "statementCacheSize";
+        if (size < 0)
+            throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        Integer oldValue = new Integer(getStatementCacheSize());
+        Integer newValue = new Integer(size);
+
+        properties_.setString(JDProperties.STATEMENT_CACHE_SIZE, newValue.toString());
+        changes_.firePropertyChange(property, oldValue, newValue);
+
+        if (JDTrace.isTraceOn())
+            JDTrace.logInformation (this, property + ": " + size);
+    }
+
     /**
     *  Sets whether a thread is used.
     *  @param threadUsed true if a thread is used; false otherwise.
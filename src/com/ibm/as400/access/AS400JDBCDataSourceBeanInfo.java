@@ -193,6 +193,12 @@ public class AS400JDBCDataSourceBeanInfo extends SimpleBeanInfo
             extendedMetadata.setShortDescription(AS400JDBCDriver.getResource("EXTENDED_METADATA_DESC",null));                         // @J2A
 
 
+            PropertyDescriptor fetchMemoryBudget = new PropertyDescriptor("fetchMemoryBudget", beanClass, "getFetchMemoryBudget", "setFetchMemoryBudget");
+            fetchMemoryBudget.setBound(true);
+            fetchMemoryBudget.setConstrained(false);
+            fetchMemoryBudget.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_FETCH_MEMORY_BUDGET",null));
+            fetchMemoryBudget.setShortDescription(AS400JDBCDriver.getResource("FETCH_MEMORY_BUDGET_DESC",null));
+
             PropertyDescriptor fullOpen = new PropertyDescriptor("fullOpen", beanClass, "isFullOpen", "setFullOpen");    // @W1A
             fullOpen.setBound(true);                                                                                     // @W1A
             fullOpen.setConstrained(false);                                                                              // @W1A
@@ -224,6 +230,12 @@ public class AS400JDBCDataSourceBeanInfo extends SimpleBeanInfo
             libraries.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_LIBRARIES",null));
             libraries.setShortDescription(AS400JDBCDriver.getResource("LIBRARIES_DESC",null));
 
+            PropertyDescriptor lobBlockSize = new PropertyDescriptor("lobBlockSize", beanClass, "getLobBlockSize", "setLobBlockSize");
+            lobBlockSize.setBound(true);
+            lobBlockSize.setConstrained(false);
+            lobBlockSize.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_LOB_BLOCK_SIZE",null));
+            lobBlockSize.setShortDescription(AS400JDBCDriver.getResource("LOB_BLOCK_SIZE_DESC",null));
+
             PropertyDescriptor lobThreshold = new PropertyDescriptor("lobThreshold", beanClass, "getLobThreshold", "setLobThreshold");
             lobThreshold.setBound(true);
             lobThreshold.setConstrained(false);
@@ -290,6 +302,12 @@ public class AS400JDBCDataSourceBeanInfo extends SimpleBeanInfo
             prefetch.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_PREFETCH",null));
             prefetch.setShortDescription(AS400JDBCDriver.getResource("PREFETCH_DESC",null));
 
+            PropertyDescriptor prefetchBlocks = new PropertyDescriptor("prefetchBlocks", beanClass, "getPrefetchBlocks", "setPrefetchBlocks");
+            prefetchBlocks.setBound(true);
+            prefetchBlocks.setConstrained(false);
+            prefetchBlocks.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_PREFETCH_BLOCKS",null));
+            prefetchBlocks.setShortDescription(AS400JDBCDriver.getResource("PREFETCH_BLOCKS_DESC",null));
+
             PropertyDescriptor prompt = new PropertyDescriptor("prompt", beanClass, "isPrompt", "setPrompt");
             prompt.setBound(true);
             prompt.setConstrained(false);
@@ -364,6 +382,12 @@ public class AS400JDBCDataSourceBeanInfo extends SimpleBeanInfo
             sortWeight.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_SORT_WEIGHT",null));
             sortWeight.setShortDescription(AS400JDBCDriver.getResource("SORT_WEIGHT_DESC",null));
 
+            PropertyDescriptor statementCacheSize = new PropertyDescriptor("statementCacheSize", beanClass, "getStatementCacheSize", "setStatementCacheSize");
+            statementCacheSize.setBound(true);
+            statementCacheSize.setConstrained(false);
+            statementCacheSize.setDisplayName(AS400JDBCDriver.getResource("PROP_NAME_STATEMENT_CACHE_SIZE",null));
+            statementCacheSize.setShortDescription(AS400JDBCDriver.getResource("STATEMENT_CACHE_SIZE_DESC",null));
+
             PropertyDescriptor threadUsed = new PropertyDescriptor("threadUsed", beanClass, "isThreadUsed", "setThreadUsed");
             threadUsed.setBound(true);
             threadUsed.setConstrained(false);
@@ -808,9 +832,9 @@ enableSeamlessFailover .setShortDescription(AS400JDBCDriver.getResource("ENABLE_
 
             
             properties_ = new PropertyDescriptor[] { access, behaviorOverride, bidiStringType, bigDecimal, blockCriteria, blockSize, cursorHold, cursorSensitivity, databaseName, dataCompression, dataSourceName, dataTruncation, dateFormat, dateSeparator, //@A4C @J6C @J7c
-                decimalSeparator, description, driver, errors, extendedDynamic, extendedMetaData, extendedMetadata, fullOpen, lazyClose, libraries, lobThreshold, naming, packageName, packageAdd, packageCache, packageClear,              //@W1c @J5C
-                packageCriteria, packageError, packageLibrary, password, prefetch, prompt, proxyServer, remarks, savePassword, secondaryUrl, secure, serverName, sort,
-                sortLanguage, sortTable, sortWeight, threadUsed, timeFormat, timeSeparator, trace, transactionIsolation, translateBinary, user,
+                decimalSeparator, description, driver, errors, extendedDynamic, extendedMetaData, extendedMetadata, fetchMemoryBudget, fullOpen, lazyClose, libraries, lobBlockSize, lobThreshold, naming, packageName, packageAdd, packageCache, packageClear,              //@W1c @J5C
+                packageCriteria, packageError, packageLibrary, password, prefetch, prefetchBlocks, prompt, proxyServer, remarks, savePassword, secondaryUrl, secure, serverName, sort,
+                sortLanguage, sortTable, sortWeight, statementCacheSize, threadUsed, timeFormat, timeSeparator, trace, transactionIsolation, translateBinary, user,
                 keepAlive, receiveBufferSize, sendBufferSize, soLinger, soTimeout, tcpNoDelay, packageCCSID, minimumDivideScale, maximumPrecision, maximumScale, translateHex, traceToolbox, qaqqiniLibrary, traceServerCategories, loginTimeout, trueAutoCommit, holdLocators, bidiImplicitReordering, bidiNumericOrdering, holdStatements, rollbackCursorHold, variableFieldCompression,  // @M0C - added package CCSID property and decimal scale & precision properties  //@j1c //@K2A //@K4A //@K5A //@KBC //@K24 //@KLA //@K94  //@K54
                 queryOptimizeGoal, xaLooselyCoupledSupport, translateBoolean, 
                 metaDataSource, queryStorageLimit, decfloatRoundingMode, 
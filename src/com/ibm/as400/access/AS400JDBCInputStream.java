@@ -37,6 +37,10 @@ transaction.
 //
 // 2.  We do not worry about buffering or caching, since the caller
 //     can just wrap this in a BufferedInputStream if they want that.
+//     The exception is when the "lob block size" property is set.  Then
+//     the data is retrieved in blocks of that size, and the request for
+//     the next block is sent before the current block is read, so that
+//     the system is sending it while the caller works.
 //
 class AS400JDBCInputStream extends InputStream
 {
@@ -49,6 +53,14 @@ class AS400JDBCInputStream extends InputStream
 
   private long mark_ = 0;
 
+  // Used when the "lob block size" property is set.
+  private byte[]           block_;          // The current block.
+  private int              blockPosition_;  // The next byte of the block to be read.
+  private int              blockLength_;    // The number of bytes in the block.
+  private long             blockOffset_;    // The offset of the block within the LOB, in LOB-characters.
+  private AS400ReplyFuture nextBlock_;      // The request for the next block, or null.
+  private long             nextBlockOffset_;
+
 /**
 Constructs an AS400JDBCInputStream object.  The data for the
 binary stream will be retrieved as requested, directly from the
@@ -146,6 +158,7 @@ Closes the stream and releases any associated system resources.
   public synchronized void close() throws IOException
   {
     closed_ = true;
+    discardNextBlock();
   }
 
 
@@ -264,6 +277,11 @@ exception is thrown.
         return -1;                          
       }
 
+      if (locator_.getBlockSize() > 0)
+      {
+        return readBlocks(data, start, length);
+      }
+
       //@CRS: Can lengthRead ever be greater than length?
       if (locator_.isGraphic()) length = length / 2;
       DBLobData lobData = locator_.retrieveData(offset_, length);
@@ -308,6 +326,7 @@ If mark() has not been called, repositions to the beginning of the stream.
   public synchronized void reset() throws IOException
   {
     offset_ = mark_;
+    blockPosition_ = blockLength_;
   }
 
 
@@ -345,6 +364,7 @@ Skips over and discards data.
       {
         offset_ = offset_ + length;
       }  
+      blockPosition_ = blockLength_;
       return length;         
     //}                                                     //@PDD jdbc40
     //catch (SQLException e)                                //@PDD jdbc40
@@ -358,4 +378,69 @@ Skips over and discards data.
      // throw new IOException(e.getMessage());              //@PDD jdbc40
     //}                                                     //@PDD jdbc40
   }
+
+
+  // Reads from the current block, retrieving the next block when it is used up.
+  // Called only when the "lob block size" property is set.
+  private int readBlocks(byte[] data, int start, int length) throws SQLException
+  {
+    boolean graphic = locator_.isGraphic();
+    if (blockPosition_ >= blockLength_)
+    {
+      int blockSize = locator_.getBlockSize();
+      if (graphic) blockSize = blockSize / 2;
+      if (blockSize < 1) blockSize = 1;
+
+      // Use the block requested ahead of time, if it is the one needed.
+      DBLobData lobData;
+      if (nextBlock_ != null && nextBlockOffset_ == offset_)
+      {
+        AS400ReplyFuture nextBlock = nextBlock_;
+        nextBlock_ = null;
+        lobData = locator_.receiveData(nextBlock);
+      }
+      else
+      {
+        discardNextBlock();
+        lobData = locator_.retrieveData(offset_, blockSize);
+      }
+
+      int lengthRead = lobData.getLength();
+      if (lengthRead == 0)
+      {
+        closed_ = true;
+        return -1;
+      }
+      if (block_ == null || block_.length < lengthRead) block_ = new byte[lengthRead];
+      System.arraycopy(lobData.getRawBytes(), lobData.getOffset(), block_, 0, lengthRead);
+      blockPosition_ = 0;
+      blockLength_ = lengthRead;
+      blockOffset_ = offset_;
+
+      // Request the next block, so that it arrives while this one is read.
+      long nextOffset = offset_ + (graphic ? lengthRead / 2 : lengthRead);
+      if (nextOffset < length_ && nextOffset < locator_.getMaxLength())
+      {
+        nextBlock_ = locator_.requestData(nextOffset, blockSize);
+        nextBlockOffset_ = nextOffset;
+      }
+    }
+
+    int lengthRead = Math.min(length, blockLength_ - blockPosition_);
+    System.arraycopy(block_, blockPosition_, data, start, lengthRead);
+    blockPosition_ += lengthRead;
+    offset_ = blockOffset_ + (graphic ? blockPosition_ / 2 : blockPosition_);
+    return lengthRead;
+  }
+
+
+  // Abandons the request for the next block, if there is one.
+  private void discardNextBlock()
+  {
+    if (nextBlock_ != null)
+    {
+      nextBlock_.discard();
+      nextBlock_ = null;
+    }
+  }
 }
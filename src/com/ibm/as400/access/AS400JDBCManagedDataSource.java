@@ -1146,6 +1146,17 @@ return connection;
     return properties_.getString(JDProperties.ERRORS);
   }
 
+  /**
+   Returns the memory in kilobytes that the result sets of each connection
+   can use to fetch larger blocks of rows.
+   @return The fetch memory budget.  The default value is 0, which means
+   that the size of each block is set by the "block size" property.
+   **/
+  public int getFetchMemoryBudget()
+  {
+    return properties_.getInt(JDProperties.FETCH_MEMORY_BUDGET);
+  }
+
   /**
    Returns the libraries to add to the server job's library list.
    The libraries are delimited by commas or spaces, and
@@ -1161,6 +1172,19 @@ return connection;
     return properties_.getString(JDProperties.LIBRARIES);
   }
 
+  /**
+   Returns the size in bytes of each request used to stream LOB (large object)
+   data through a locator.
+   @return The lob block size.  Valid range is 0-16777216.
+   The default value is 0, which means that each read from a LOB stream
+   is a separate request sized by the caller, and each write is sent
+   and waited for separately.
+   **/
+  public int getLobBlockSize()
+  {
+    return properties_.getInt(JDProperties.LOB_BLOCK_SIZE);
+  }
+
   /**
    Returns the maximum LOB (large object) size in bytes that
    can be retrieved as part of a result set.  LOBs that are larger
@@ -1628,6 +1652,16 @@ return connection;
     return properties_.getString(JDProperties.SORT_WEIGHT);
   }
 
+  /**
+   Returns the number of closed prepared statements that each connection keeps for reuse.
+   @return The statement cache size.  The default value is 0, which means that
+   prepared statements are not kept.
+   **/
+  public int getStatementCacheSize()
+  {
+    return properties_.getInt(JDProperties.STATEMENT_CACHE_SIZE);
+  }
+
   /**
    Returns the time format used in time literals with SQL statements.
    @return The time format.
@@ -2322,6 +2356,24 @@ return connection;
     return properties_.getBoolean(JDProperties.PREFETCH);
   }
 
+  /**
+   Returns the number of blocks of data that are requested from the system ahead of
+   time while a forward-only result set is read.
+   @return The number of blocks.
+   <p>Valid values include:
+   <ul>
+   <li> 0 - The default value.  No blocks are requested ahead of time.
+   <li> 1
+   <li> 2
+   <li> 3
+   <li> 4
+   </ul>
+   **/
+  public int getPrefetchBlocks()
+  {
+    return properties_.getInt(JDProperties.PREFETCH_BLOCKS);
+  }
+
   /**
    Indicates whether the user is prompted if a user name or password is
    needed to connect to the IBM i system.  If a connection can not be made
@@ -3247,6 +3299,24 @@ return connection;
   }
 
 
+  /**
+   Sets the memory in kilobytes that the result sets of each connection can
+   use to fetch larger blocks of rows.  When this is greater than 0, a
+   forward-only result set doubles the size of the next block for as long
+   as that lowers the measured time per kilobyte of the replies, within
+   this budget.
+   @param budget The fetch memory budget.  Valid range is 0-2097151.
+   The default value is 0.
+   **/
+  public void setFetchMemoryBudget(int budget)
+  {
+    final String property = "fetchMemoryBudget";
+    if (budget < 0 || budget > 2097151)
+      throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+    properties_.setString(JDProperties.FETCH_MEMORY_BUDGET, Integer.toString(budget));
+  }
+
   /**
    Sets whether to fully open a file when performing a query.
    By default the IBM i system optimizes opens so they perform better.
@@ -3341,6 +3411,24 @@ return connection;
     properties_.setString(JDProperties.LIBRARIES, libraries);
   }
 
+  /**
+   Sets the size in bytes of each request used to stream LOB (large object)
+   data through a locator.  When this is greater than 0, LOB input streams
+   request the next block while the current one is being read, and
+   Blob.setBinaryStream() streams send each block without waiting for the
+   reply to the previous one.
+   @param size The lob block size.  Valid range is 0-16777216.
+   The default value is 0.
+   **/
+  public void setLobBlockSize(int size)
+  {
+    final String property = "lobBlockSize";
+    if (size < 0 || size > MAX_THRESHOLD)
+      throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+    properties_.setString(JDProperties.LOB_BLOCK_SIZE, Integer.toString(size));
+  }
+
   /**
    Sets the maximum LOB (large object) size in bytes that
    can be retrieved as part of a result set.  LOBs that are larger
@@ -3602,6 +3690,33 @@ return connection;
       properties_.setString(JDProperties.PREFETCH, FALSE_);
   }
 
+  /**
+   Sets the number of blocks of data that are requested from the system ahead of
+   time while a forward-only result set is read.  At most this many additional blocks,
+   each limited by the block size, are held in memory.  This property has no effect on
+   scrollable or updatable result sets, or when the block size is 0.
+   @param prefetchBlocks The number of blocks.
+   <p>Valid values include:
+   <ul>
+   <li> 0 - The default value.  No blocks are requested ahead of time.
+   <li> 1
+   <li> 2
+   <li> 3
+   <li> 4
+   </ul>
+   **/
+  public void setPrefetchBlocks(int prefetchBlocks)
+  {
+    final String property = "prefetchBlocks";
+
+    validateProperty(property, Integer.toString(prefetchBlocks), JDProperties.PREFETCH_BLOCKS);
+
+    properties_.setString(JDProperties.PREFETCH_BLOCKS, Integer.toString(prefetchBlocks));
+
+    if (JDTrace.isTraceOn())
+      JDTrace.logInformation (this, property + ": " + prefetchBlocks);
+  }
+
   /**
    Sets whether the user should be prompted if a user name or password is
    needed to connect to the IBM i system.  If a connection can not be made
@@ -4258,6 +4373,23 @@ return connection;
     properties_.setString(JDProperties.SORT_WEIGHT, sortWeight);
   }
 
+  /**
+   Sets the number of closed prepared statements that each connection keeps for reuse.
+   When a prepared statement is closed, it is kept, still prepared on the system, and
+   a later prepareStatement() call with the same SQL text, result set type, concurrency,
+   and holdability returns it without preparing the SQL again.
+   @param size The statement cache size.  The default value is 0, which means that
+   prepared statements are not kept.
+   **/
+  public void setStatementCacheSize(int size)
+  {
+    final String property = "statementCacheSize";
+    if (size < 0)
+      throw new ExtendedIllegalArgumentException(property, ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+    properties_.setString(JDProperties.STATEMENT_CACHE_SIZE, Integer.toString(size));
+  }
+
   /**
    Sets whether a thread is used.
    @param threadUsed true if a thread is used; false otherwise.
@@ -45,18 +45,49 @@ abstract class AS400JDBCOutputStream extends OutputStream
   /**
    * Close the output stream.  
   **/
-  public void close()
+  public synchronized void close() throws IOException
   {
-    closed_ = true;
+    if (closed_) return;
+    try
+    {
+      flushWrites();
+    }
+    finally
+    {
+      closed_ = true;
+    }
   }
 
 
   /**
    * Flush the output stream.  
   **/
-  public void flush()
+  public synchronized void flush() throws IOException
   {
-    //no-op
+    if (closed_) return;
+    flushWrites();
+  }
+
+
+  // Sends any data held by the subclass and waits for the system to accept it.
+  private void flushWrites() throws IOException
+  {
+    try
+    {
+      doFlush();
+    }
+    catch (SQLException e)
+    {
+      if (JDTrace.isTraceOn()) {
+        JDTrace.logException(this, "Exception caught", e);
+      }
+      closed_ = true;
+      IOException throwException = new IOException(e.getMessage());
+      try { 
+        throwException.initCause(e); 
+      } catch (Throwable t) {}
+      throw throwException;
+    }
   }
 
 
@@ -159,4 +190,11 @@ abstract class AS400JDBCOutputStream extends OutputStream
   abstract int doWrite(long position, byte[] data, int offset, int length) throws SQLException;
   abstract int doWrite(long position, byte data) throws SQLException;
 
+  /**
+   * Sends any data that doWrite() has held back.  By default, nothing is held back.
+  **/
+  void doFlush() throws SQLException
+  {
+  }
+
 }
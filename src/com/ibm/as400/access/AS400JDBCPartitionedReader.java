@@ -0,0 +1,384 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400JDBCPartitionedReader.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+/**
+ Reads the result of a query in partitions, running each partition on its own connection at the same time.  This is intended for exporting large tables, where a single cursor on one connection limits the rate at which rows can be read.
+ <p>The query must contain one set of parameter markers that selects a partition, for example a range of relative record numbers:
+ <pre>
+ SELECT * FROM MYLIB.MYTABLE T WHERE RRN(T) &gt;= ? AND RRN(T) &lt; ?
+ </pre>
+ or a range of key values.  Each partition supplies the values of the parameter markers.  {@link #getRRNPartitions getRRNPartitions()} creates partitions of relative record numbers for a table.
+ <p>All of the partitions are read at the same time, each on its own thread with its own connection from the data source, so the number of partitions is also the number of connections used.  There is no separate limit on parallelism; to use fewer connections, use fewer partitions.
+ <p>The rows are returned by {@link #nextRow nextRow()}, each as an array with one element for each column.  The rows read by the partitions are held in a buffer of limited size, so a slow caller slows the partitions down instead of running out of memory.  When the reader is ordered, the rows are returned partition by partition, in the order of the partitions; otherwise, the rows are returned as soon as any partition has read them.
+ <p>The following example exports a table using four connections:
+ <pre>
+ AS400JDBCDataSource dataSource = new AS400JDBCDataSource("mySystem", "myUser", "myPassword");
+ Connection connection = dataSource.getConnection();
+ Object[][] partitions = AS400JDBCPartitionedReader.getRRNPartitions(connection, "MYLIB.MYTABLE", 4);
+ connection.close();
+ AS400JDBCPartitionedReader reader = new AS400JDBCPartitionedReader(dataSource,
+     "SELECT * FROM MYLIB.MYTABLE T WHERE RRN(T) &gt;= ? AND RRN(T) &lt; ?", partitions);
+ try
+ {
+     reader.open();
+     Object[] row;
+     while ((row = reader.nextRow()) != null)
+     {
+         // Write the row.
+     }
+ }
+ finally
+ {
+     reader.close();
+ }
+ </pre>
+ <p>The rows contain the values returned by ResultSet.getObject().  Large object values that are returned as locators are only valid while the partition is being read, so LOB columns should be read with a "lob threshold" large enough to return the data itself.
+ **/
+public class AS400JDBCPartitionedReader
+{
+    private final DataSource dataSource_;
+    private final String sql_;
+    private final Object[][] partitions_;
+    private boolean ordered_ = true;
+    private int bufferSize_ = 1000;
+    private int fetchSize_ = 0;
+
+    // State of an open reader, guarded by this.
+    private PartitionedReadBuffer buffer_ = null;
+    private Worker[] workers_ = null;
+    private boolean closed_ = false;
+
+    /**
+     Constructs an AS400JDBCPartitionedReader object.
+     @param  dataSource  The data source from which a connection is taken for each partition.
+     @param  sql  The SQL query, which contains the parameter markers that select a partition.
+     @param  partitions  The values of the parameter markers for each partition.  If there are no partitions, there are no rows.  One connection is used for each partition.
+     **/
+    public AS400JDBCPartitionedReader(DataSource dataSource, String sql, Object[][] partitions)
+    {
+        if (dataSource == null) throw new NullPointerException("dataSource");
+        if (sql == null) throw new NullPointerException("sql");
+        if (partitions == null) throw new NullPointerException("partitions");
+        dataSource_ = dataSource;
+        sql_ = sql;
+        partitions_ = partitions;
+    }
+
+    /**
+     Creates partitions of relative record numbers for a table.  Each partition has two values, the first relative record number of the partition and the first relative record number after it, for a query of the form <tt>WHERE RRN(T) &gt;= ? AND RRN(T) &lt; ?</tt>.  The partitions divide the range of relative record numbers in use evenly, so tables with many deleted records may have partitions of uneven size.
+     @param  connection  The connection used to find the range of relative record numbers.
+     @param  table  The qualified name of the table.
+     @param  count  The number of partitions.
+     @return  The partitions.  If the table is empty, there are no partitions.
+     @exception  SQLException  If the range of relative record numbers cannot be found.
+     **/
+    public static Object[][] getRRNPartitions(Connection connection, String table, int count) throws SQLException
+    {
+        if (connection == null) throw new NullPointerException("connection");
+        if (table == null) throw new NullPointerException("table");
+        if (count < 1) throw new ExtendedIllegalArgumentException("count", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+
+        long first;
+        long last;
+        Statement statement = connection.createStatement();
+        try
+        {
+            ResultSet resultSet = statement.executeQuery("SELECT MIN(RRN(T)), MAX(RRN(T)) FROM " + table + " T");
+            resultSet.next();
+            first = resultSet.getLong(1);
+            if (resultSet.wasNull()) return new Object[0][];
+            last = resultSet.getLong(2);
+        }
+        finally
+        {
+            statement.close();
+        }
+
+        long size = (last - first + count) / count;
+        Object[][] partitions = new Object[count][];
+        int used = 0;
+        for (long low = first; low <= last && used < count; low += size)
+        {
+            long high = (used == count - 1) ? last + 1 : Math.min(low + size, last + 1);
+            partitions[used++] = new Object[] { new Long(low), new Long(high) };
+        }
+        if (used < count)
+        {
+            Object[][] trimmed = new Object[used][];
+            System.arraycopy(partitions, 0, trimmed, 0, used);
+            partitions = trimmed;
+        }
+        return partitions;
+    }
+
+    /**
+     Indicates whether the rows are returned in the order of the partitions.
+     @return  true if the rows are returned in the order of the partitions; false if they are returned as soon as any partition has read them.  The default is true.
+     **/
+    public boolean isOrdered()
+    {
+        return ordered_;
+    }
+
+    /**
+     Sets whether the rows are returned in the order of the partitions.  This cannot be changed after the reader is opened.
+     @param  ordered  true to return the rows in the order of the partitions; false to return them as soon as any partition has read them.  The default is true.
+     **/
+    public synchronized void setOrdered(boolean ordered)
+    {
+        if (buffer_ != null) throw new ExtendedIllegalStateException("ordered", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        ordered_ = ordered;
+    }
+
+    /**
+     Returns the number of rows that can be read ahead of the caller.
+     @return  The number of rows.  The default is 1000.
+     **/
+    public int getBufferSize()
+    {
+        return bufferSize_;
+    }
+
+    /**
+     Sets the number of rows that can be read ahead of the caller.  When the reader is ordered, each partition may read this many rows ahead; otherwise, this is shared by all of the partitions.  This cannot be changed after the reader is opened.
+     @param  bufferSize  The number of rows.  The default is 1000.
+     **/
+    public synchronized void setBufferSize(int bufferSize)
+    {
+        if (bufferSize < 1) throw new ExtendedIllegalArgumentException("bufferSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        if (buffer_ != null) throw new ExtendedIllegalStateException("bufferSize", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        bufferSize_ = bufferSize;
+    }
+
+    /**
+     Sets the fetch size of the query of each partition.  This cannot be changed after the reader is opened.
+     @param  fetchSize  The fetch size, or 0 to use the default of the driver.
+     **/
+    public synchronized void setFetchSize(int fetchSize)
+    {
+        if (fetchSize < 0) throw new ExtendedIllegalArgumentException("fetchSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        if (buffer_ != null) throw new ExtendedIllegalStateException("fetchSize", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        fetchSize_ = fetchSize;
+    }
+
+    /**
+     Starts reading all of the partitions.
+     @exception  SQLException  If the reader has already been opened.
+     **/
+    public synchronized void open() throws SQLException
+    {
+        if (buffer_ != null) JDError.throwSQLException(JDError.EXC_FUNCTION_SEQUENCE);
+
+        int count = partitions_.length;
+        buffer_ = new PartitionedReadBuffer(count, bufferSize_, ordered_);
+
+        workers_ = new Worker[count];
+        for (int i = 0; i < count; ++i)
+        {
+            workers_[i] = new Worker(i, buffer_);
+            Thread thread = new Thread(workers_[i], "AS400JDBCPartitionedReader-" + i);
+            thread.setDaemon(true);
+            workers_[i].thread_ = thread;
+        }
+        for (int i = 0; i < count; ++i) workers_[i].thread_.start();
+    }
+
+    /**
+     Returns the next row.  This waits until a partition has read the row.
+     @return  The values of the columns of the row, or null if there are no more rows.
+     @exception  SQLException  If the reader is not open, or any partition failed.
+     **/
+    public Object[] nextRow() throws SQLException
+    {
+        PartitionedReadBuffer buffer;
+        synchronized (this)
+        {
+            if (buffer_ == null || closed_) JDError.throwSQLException(JDError.EXC_FUNCTION_SEQUENCE);
+            buffer = buffer_;
+        }
+
+        Object row = null;
+        try
+        {
+            row = buffer.next();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            JDError.throwSQLException(JDError.EXC_OPERATION_CANCELLED);
+        }
+        if (row == null)
+        {
+            SQLException error = (SQLException)buffer.getError();
+            if (error != null) throw error;
+            // The reader was closed by another thread.
+            JDError.throwSQLException(JDError.EXC_FUNCTION_SEQUENCE);
+        }
+        if (row == PartitionedReadBuffer.END_) return null;
+        return (Object[])row;
+    }
+
+    /**
+     Stops reading the partitions, and closes their connections.  This waits until all of the partitions have stopped.
+     **/
+    public void close()
+    {
+        Worker[] workers;
+        synchronized (this)
+        {
+            if (closed_ || workers_ == null)
+            {
+                closed_ = true;
+                return;
+            }
+            closed_ = true;
+            workers = workers_;
+            buffer_.close();
+        }
+
+        for (int i = 0; i < workers.length; ++i) workers[i].cancel();
+        for (int i = 0; i < workers.length; ++i)
+        {
+            try
+            {
+                workers[i].thread_.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Reads one partition on its own connection.
+    private final class Worker implements Runnable
+    {
+        private final int partition_;
+        private final PartitionedReadBuffer buffer_;
+        Thread thread_;
+        private Statement statement_ = null;
+
+        Worker(int partition, PartitionedReadBuffer buffer)
+        {
+            partition_ = partition;
+            buffer_ = buffer;
+        }
+
+        public void run()
+        {
+            Connection connection = null;
+            try
+            {
+                connection = dataSource_.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql_);
+                synchronized (this)
+                {
+                    statement_ = statement;
+                }
+                if (fetchSize_ > 0) statement.setFetchSize(fetchSize_);
+                Object[] values = partitions_[partition_];
+                for (int i = 0; i < values.length; ++i) statement.setObject(i + 1, values[i]);
+
+                if (JDTrace.isTraceOn()) JDTrace.logInformation(AS400JDBCPartitionedReader.this, "Reading partition " + partition_ + ".");
+                ResultSet resultSet = statement.executeQuery();
+                int columns = resultSet.getMetaData().getColumnCount();
+                long rows = 0;
+                while (resultSet.next())
+                {
+                    Object[] row = new Object[columns];
+                    for (int i = 0; i < columns; ++i) row[i] = resultSet.getObject(i + 1);
+                    if (!buffer_.put(partition_, row)) return;
+                    ++rows;
+                }
+                if (JDTrace.isTraceOn()) JDTrace.logInformation(AS400JDBCPartitionedReader.this, "Read " + rows + " rows from partition " + partition_ + ".");
+                buffer_.end(partition_);
+            }
+            catch (SQLException e)
+            {
+                buffer_.fail(e);
+            }
+            catch (InterruptedException e)
+            {
+                // close() does not interrupt the partitions, so the caller would otherwise wait for
+                // this partition forever.  A failure after the reader is closed is ignored.
+                try
+                {
+                    JDError.throwSQLException(AS400JDBCPartitionedReader.this, JDError.EXC_OPERATION_CANCELLED, e);
+                }
+                catch (SQLException sqlException)
+                {
+                    buffer_.fail(sqlException);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                // Report it to the caller, who would otherwise wait for this partition forever.
+                try
+                {
+                    JDError.throwSQLException(AS400JDBCPartitionedReader.this, JDError.EXC_INTERNAL, e);
+                }
+                catch (SQLException sqlException)
+                {
+                    buffer_.fail(sqlException);
+                }
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    statement_ = null;
+                }
+                if (connection != null)
+                {
+                    try
+                    {
+                        connection.close();
+                    }
+                    catch (SQLException e)
+                    {
+                        if (JDTrace.isTraceOn()) JDTrace.logException(AS400JDBCPartitionedReader.this, "Closing the connection of partition " + partition_ + " failed", e);
+                    }
+                }
+            }
+        }
+
+        // Cancels the query of the partition, if it is running.
+        void cancel()
+        {
+            Statement statement;
+            synchronized (this)
+            {
+                statement = statement_;
+            }
+            if (statement == null) return;
+            try
+            {
+                statement.cancel();
+            }
+            catch (SQLException e)
+            {
+                if (JDTrace.isTraceOn()) JDTrace.logException(AS400JDBCPartitionedReader.this, "Cancelling the query of partition " + partition_ + " failed", e);
+            }
+        }
+    }
+}
@@ -1485,6 +1485,42 @@ Object
   */
 
   public abstract long executeLargeUpdate() throws SQLException;
+
+  /**
+   * Sets whether the batch is streamed to the system. When streaming, addBatch()
+   * sends each block of rows to the system as soon as the block is full, and
+   * the rows that have been sent are not kept by the driver, so memory use does
+   * not grow with the size of the batch. executeBatch() sends the remaining rows
+   * and returns the update counts for every row added since the last
+   * executeBatch() or clearBatch(). The default is false.
+   *
+   * <p>Only statements that can be sent as block inserts are streamed. If a
+   * block fails, addBatch() throws a BatchUpdateException, and the rows that
+   * have not been sent are discarded.
+   *
+   * @param streamingBatch true to stream the batch, false otherwise.
+   * @exception SQLException If the statement is not open.
+   **/
+  public abstract void setStreamingBatch(boolean streamingBatch) throws SQLException;
+
+  /**
+   * Indicates whether the batch is streamed to the system.
+   *
+   * @return true if the batch is streamed, false otherwise.
+   * @exception SQLException If the statement is not open.
+   * @see #setStreamingBatch
+   **/
+  public abstract boolean isStreamingBatch() throws SQLException;
+
+  /**
+   * Returns the number of rows of the current batch that have already been
+   * sent to the system by addBatch().
+   *
+   * @return The number of rows sent.
+   * @exception SQLException If the statement is not open.
+   * @see #setStreamingBatch
+   **/
+  public abstract int getBatchRowsSent() throws SQLException;
   
   
   // Internal methods used by RowSet and parameter metadata
@@ -100,7 +100,7 @@ import java.util.Vector;
 // so don't do anything in that case. Also, the database supports returning
 // only integers so the metadata will always be an SQLInteger.
 //
-public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement  {
+public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement implements Cloneable {
   static final String copyright2 = "Copyright (C) 1997-2006 International Business Machines Corporation and others.";
 
   private int descriptorHandle_;
@@ -122,6 +122,9 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
   // @re-prep move to statement JDServerRow JDServerRow parameterRow_; //
   // private protected
   Vector batchParameterRows_; // private protected @G9A
+  private boolean streamingBatch_ = false; // Send full blocks from addBatch().
+  private int batchRowsSent_ = 0; // Rows sent since the last executeBatch().
+  private int batchUpdateCount_ = 0; // Update count for batchRowsSent_.
   private int parameterTotalSize_;
   private int indicatorTotalSize_; // @array Used with array containing data
                                    // only. Is total size of all indicators
@@ -146,6 +149,10 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
   private static final int LOCATOR_NOT_FOUND = 0;
   private static final int LOCATOR_FOUND = 1;
 
+  // Limits the size of the parameter data of one block insert, so a batch
+  // of wide rows is not sent as a single huge request.
+  private static final int MAXIMUM_BATCH_BLOCK_BYTES_ = 16 * 1024 * 1024;
+
   private static final short INDICATOR_NULL = -1; // @EIA
   private static final short INDICATOR_DEFAULT = -5; // @EIA
   private static final short INDICATOR_UNASSIGNED = -7; // @EIA
@@ -449,6 +456,12 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
       if (JDTrace.isTraceOn())
         JDTrace.logInformation(this, "addBatch()");
       batch_.addElement(parameters);
+
+      // When streaming, send each block as soon as it is full instead of
+      // holding every row until executeBatch().
+      if (streamingBatch_ && batch_.size() >= getBatchBlockRows()
+          && sqlStatement_.canBatch() && containsLocator_ != LOCATOR_FOUND)
+        flushBatch();
     }
   }
 
@@ -626,6 +639,44 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     }
   }
 
+  /**
+   * Prepares the statement to be put in the connection's statement cache. The
+   * parameter values are cleared, as in clearParameters().
+   **/
+  boolean prepareForCache() throws SQLException {
+    if (!super.prepareForCache())
+      return false;
+
+    for (int i = 0; i < parameterCount_; ++i) {
+      parameterNulls_[i] = false;
+      parameterDefaults_[i] = false;
+      parameterUnassigned_[i] = false;
+      parameterSet_[i] = false;
+    }
+    if (useReturnValueParameter_)
+      returnValueParameter_.set(0);
+    batchExecute_ = false;
+    streamingBatch_ = false;
+    batchRowsSent_ = 0;
+    batchUpdateCount_ = 0;
+    return true;
+  }
+
+  /**
+   * Returns a copy of this statement, which has just been prepared for the
+   * connection's statement cache, to be kept in the cache. The copy shares the
+   * statement's id, RPB, ORS and parameter storage, but is a different object,
+   * so that this object stays closed when the copy is handed out again. Any
+   * reference the application kept to this object cannot act on the copy.
+   **/
+  AS400JDBCPreparedStatementImpl copyForCache() {
+    try {
+      return (AS400JDBCPreparedStatementImpl) clone();
+    } catch (CloneNotSupportedException e) {
+      throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, e);
+    }
+  }
+
   /**
    * Releases the prepared statement's resources immediately instead of waiting
    * for them to be automatically released. This closes the current result set.
@@ -645,6 +696,11 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
       if (isClosed())
         return;
 
+      // If the statement came from the connection's statement cache, then
+      // return it there rather than closing it.
+      if (cacheKey_ != null && connection_.returnToStatementCache(this))
+        return;
+
       // If a descriptor was created somewhere along
       // the lines, then delete it now.
       if (descriptorHandle_ != 0) {
@@ -1529,12 +1585,13 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     synchronized (internalLock_) { // @F1A
       checkOpen();
 
-      if (batch_ == null || batch_.size() == 0)
+      if ((batch_ == null || batch_.size() == 0) && batchRowsSent_ == 0)
         return new int[0];
 
       batchParameterRows_ = new Vector();
 
-      int batchSize = batch_.size();
+      // Rows already sent by addBatch() are part of this batch.
+      int batchSize = batchRowsSent_ + batch_.size();
       int[] updateCounts = new int[batchSize];
 
       int numSuccessful = 0; // Number of successfully executed statements in
@@ -1568,106 +1625,11 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
         batchExecute_ = true; // @G9A
         rowsInserted_ = 0; // @G9A
 
-        // Prepare the statement if it is not already done.
-        if (!prepared_) {
-          // @H7 Native type should ONLY be BLOCK_INSERT if the statement is of
-          // type
-          // @H7 "INSERT INTO MYTABLE ? ROWS VALUES (?,?)" with a ROWS VALUES
-          // clause,
-          // @H7 not just if we are going to send the values as a batch to the
-          // system.
-          // @H7 We determine whether the statement is of that form in
-          // @H7 JDSQLStatement.java, not here.
-          // @H7D sqlStatement_.setNativeType(JDSQLStatement.TYPE_BLOCK_INSERT);
-          // // @G9A
-          resultRow_ = commonPrepare(sqlStatement_);
-          prepared_ = true;
-          // See if the prepare returned a ResultSet. If so, error out now to
-          // avoid
-          // opening a cursor. Note some stored procedures won't return a
-          // ResultSet
-          // until the execute, so we check in both places.
-          if (resultSet_ != null) {
-            closeResultSet(JDCursor.REUSE_YES);
-            JDError.throwSQLException(this, JDError.EXC_CURSOR_STATE_INVALID);
-          }
-        }
+        prepareBatch();
 
         // Execute.
         if (canBatch) {
-          int maximumBlockedInputRows = connection_
-              .getMaximumBlockedInputRows();
-          Enumeration list = batch_.elements();
-          int count = 0; // @K1A Added support for allowing more than 32000 SQL
-                         // Statements to be batched and run
-          int totalUpdateCount = 0; /* @A4A */
-          while (list.hasMoreElements()) {
-            batchParameterRows_.add(list.nextElement());
-            count++; // @K1A
-            if (count == maximumBlockedInputRows && list.hasMoreElements())// @K1A
-                                                                           // Checks
-                                                                           // if
-                                                                           // 32000
-                                                                           // statements
-                                                                           // have
-                                                                           // been
-                                                                           // added
-                                                                           // to
-                                                                           // the
-                                                                           // batch,
-                                                                           // if
-                                                                           // so
-                                                                           // execute
-                                                                           // the
-                                                                           // first
-                                                                           // 32000,
-                                                                           // then
-                                                                           // continue
-                                                                           // processing
-                                                                           // the
-                                                                           // batch
-            { // @K1A
-              if (JDTrace.isTraceOn())
-                JDTrace.logInformation(this,
-                    "Begin batching via server-side with "
-                        + batchParameterRows_.size() + " rows."); // @K1A
-              executingBatchedStatement_ = true; /* @DAA */
-              commonExecute(sqlStatement_, resultRow_); // @K1A
-              executingBatchedStatement_ = false; /* @DAA */
-              totalUpdateCount += updateCount_; /* @A4A */
-              batchParameterRows_.clear(); // @K1A
-
-              if (resultSet_ != null) // @K1A
-              { // @K1A
-                closeResultSet(JDCursor.REUSE_YES); // @K1A
-                JDError.throwSQLException(this,
-                    JDError.EXC_CURSOR_STATE_INVALID); // @K1A
-              } // @K1A
-              count = 0; // @K1A set the count for the number of statements in
-                         // the batch back to zero
-            } // @K1A
-          }
-          if (JDTrace.isTraceOn())
-            JDTrace.logInformation(this, "Begin batching via server-side with "
-                + batchParameterRows_.size() + " rows.");
-
-          //
-          // There is a quirk that if clearParameters is called after addBatch
-          // but before executeBatch then
-          // the commonExecute fails because it doesn't think the parameters are
-          // set.
-          // Set a flag that we are doing server side batching.
-          //
-          executingBatchedStatement_ = true; /* @DAA */
-          commonExecute(sqlStatement_, resultRow_);
-          executingBatchedStatement_ = false; /* @DAA */
-
-          totalUpdateCount += updateCount_; /* @A4A */
-          batchParameterRows_.clear();
-          if (resultSet_ != null) {
-            closeResultSet(JDCursor.REUSE_YES);
-            JDError.throwSQLException(this, JDError.EXC_CURSOR_STATE_INVALID);
-          }
+          sendBatchBlocks(true);
           numSuccessful = batchSize;
           // The host server does not currently report the update counts for
           // each statement in
@@ -1686,7 +1648,7 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
           // form insert ... VALUES(?,?,?) ... Any other form will not be
           // batched
           int updateCount = -2;
-          if (batchSize == totalUpdateCount && sqlStatement_.isInsert_) {
+          if (batchSize == batchUpdateCount_ && sqlStatement_.isInsert_) {
             updateCount = 1;
           }
           for (int i = 0; i < batchSize; ++i) {
@@ -1739,7 +1701,8 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
           // Since we don't have any update counts for each statement, use
           // Statement.SUCCESS_NO_INFO //@550
           // @550D counts = new int[] { rowsInserted_};
-          counts = new int[rowsInserted_]; // @550 batch update support
+          // Blocks that were already sent completed successfully.
+          counts = new int[batchRowsSent_ + rowsInserted_]; // @550 batch update support
           for (int i = 0; i < counts.length; i++)
             // @550
             counts[i] = Statement.SUCCESS_NO_INFO; // @550
@@ -1751,18 +1714,11 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
           counts = new int[numSuccessful];
           System.arraycopy(updateCounts, 0, counts, 0, numSuccessful);
         }
-        BatchUpdateException batchUpdateException = new BatchUpdateException(
-            e.getMessage(), e.getSQLState(), e.getErrorCode(), counts);
-        // Attempt to set the cause, ignoring any failures (i.e. in Pre JDK 1.4)
-        // /*@DAA*/
-        try {
-          batchUpdateException.initCause(e);
-        } catch (java.lang.NoSuchMethodError e2) {
-        }
-
-        throw batchUpdateException;
+        throw newBatchUpdateException(e, counts);
       } finally {
         batch_.removeAllElements();
+        batchRowsSent_ = 0;
+        batchUpdateCount_ = 0;
         batchExecute_ = false; // @K1A
         if (JDTrace.isTraceOn())
           JDTrace.logInformation(this, "Done batching.");
@@ -1771,6 +1727,189 @@ public class AS400JDBCPreparedStatementImpl extends AS400JDBCPreparedStatement
     }
   }
 
+  /**
+   * Clears the current batch of parameters, including the count of rows
+   * already sent to the system by a streaming batch.
+   * 
+   * @exception SQLException
+   *              If the statement is not open.
+   **/
+  public void clearBatch() throws SQLException {
+    synchronized (internalLock_) {
+      super.clearBatch();
+      batchRowsSent_ = 0;
+      batchUpdateCount_ = 0;
+    }
+  }
+
+  /**
+   * Sets whether the batch is streamed to the system. When streaming,
+   * addBatch() sends each block of rows to the system as soon as the block is
+   * full, and the rows that have been sent are not kept by the driver.
+   * 
+   * @param streamingBatch
+   *          true to stream the batch, false otherwise.
+   * @exception SQLException
+   *              If the statement is not open.
+   **/
+  public void setStreamingBatch(boolean streamingBatch) throws SQLException {
+    synchronized (internalLock_) {
+      checkOpen();
+      streamingBatch_ = streamingBatch;
+    }
+  }
+
+  /**
+   * Indicates whether the batch is streamed to the system.
+   * 
+   * @return true if the batch is streamed, false otherwise.
+   * @exception SQLException
+   *              If the statement is not open.
+   **/
+  public boolean isStreamingBatch() throws SQLException {
+    synchronized (internalLock_) {
+      checkOpen();
+      return streamingBatch_;
+    }
+  }
+
+  /**
+   * Returns the number of rows of the current batch that have already been
+   * sent to the system by addBatch().
+   * 
+   * @return The number of rows sent.
+   * @exception SQLException
+   *              If the statement is not open.
+   **/
+  public int getBatchRowsSent() throws SQLException {
+    synchronized (internalLock_) {
+      checkOpen();
+      return batchRowsSent_;
+    }
+  }
+
+  // Prepares the statement for executing the batch, if it is not already done.
+  private void prepareBatch() throws SQLException {
+    if (!prepared_) {
+      // @H7 Native type should ONLY be BLOCK_INSERT if the statement is of
+      // type
+      // @H7 "INSERT INTO MYTABLE ? ROWS VALUES (?,?)" with a ROWS VALUES
+      // clause,
+      // @H7 not just if we are going to send the values as a batch to the
+      // system.
+      // @H7 We determine whether the statement is of that form in
+      // @H7 JDSQLStatement.java, not here.
+      resultRow_ = commonPrepare(sqlStatement_);
+      prepared_ = true;
+      // See if the prepare returned a ResultSet. If so, error out now to
+      // avoid opening a cursor. Note some stored procedures won't return a
+      // ResultSet until the execute, so we check in both places.
+      if (resultSet_ != null) {
+        closeResultSet(JDCursor.REUSE_YES);
+        JDError.throwSQLException(this, JDError.EXC_CURSOR_STATE_INVALID);
+      }
+    }
+  }
+
+  // Returns the number of rows to send in one block insert. This is the
+  // connection's maximum blocked input rows, reduced for wide rows so the
+  // parameter data of a block stays within MAXIMUM_BATCH_BLOCK_BYTES_.
+  private int getBatchBlockRows() {
+    int rows = connection_.getMaximumBlockedInputRows();
+    if (parameterTotalSize_ > 0) {
+      int byteRows = MAXIMUM_BATCH_BLOCK_BYTES_ / parameterTotalSize_;
+      if (byteRows < rows)
+        rows = (byteRows < 1) ? 1 : byteRows;
+    }
+    return rows;
+  }
+
+  // Sends the rows in the batch to the system as block inserts. If all is
+  // false, only full blocks are sent and the remaining rows stay in the batch.
+  // The rows sent are removed from the batch, and are added to
+  // batchRowsSent_ and batchUpdateCount_.
+  private void sendBatchBlocks(boolean all) throws SQLException {
+    int blockRows = getBatchBlockRows();
+    int batchSize = batch_.size();
+    int sent = 0;
+    try {
+      while (batchSize - sent >= blockRows || (all && sent < batchSize)) {
+        int rows = Math.min(blockRows, batchSize - sent);
+        for (int i = sent; i < sent + rows; ++i)
+          batchParameterRows_.add(batch_.elementAt(i));
+        if (JDTrace.isTraceOn())
+          JDTrace.logInformation(this, "Begin batching via server-side with "
+              + rows + " rows.");
+
+        //
+        // There is a quirk that if clearParameters is called after addBatch
+        // but before executeBatch then
+        // the commonExecute fails because it doesn't think the parameters are
+        // set.
+        // Set a flag that we are doing server side batching.
+        //
+        executingBatchedStatement_ = true; /* @DAA */
+        commonExecute(sqlStatement_, resultRow_);
+        executingBatchedStatement_ = false; /* @DAA */
+        batchParameterRows_.clear();
+
+        if (resultSet_ != null) {
+          closeResultSet(JDCursor.REUSE_YES);
+          JDError.throwSQLException(this, JDError.EXC_CURSOR_STATE_INVALID);
+        }
+        sent += rows;
+        batchRowsSent_ += rows;
+        batchUpdateCount_ += updateCount_; /* @A4A */
+      }
+    } finally {
+      executingBatchedStatement_ = false;
+      batchParameterRows_.clear();
+      // Drop the rows that were sent, so the batch does not keep them.
+      if (sent == batchSize)
+        batch_.removeAllElements();
+      else if (sent > 0)
+        batch_.subList(0, sent).clear();
+    }
+  }
+
+  // Sends the full blocks of a streaming batch from addBatch(). If a block
+  // fails, the rest of the batch is discarded, as it would be by
+  // executeBatch().
+  private void flushBatch() throws SQLException {
+    try {
+      if (batchParameterRows_ == null)
+        batchParameterRows_ = new Vector();
+      batchExecute_ = true;
+      if (batchRowsSent_ == 0)
+        rowsInserted_ = 0;
+      prepareBatch();
+      sendBatchBlocks(false);
+    } catch (SQLException e) {
+      int[] counts = new int[batchRowsSent_ + rowsInserted_];
+      for (int i = 0; i < counts.length; i++)
+        counts[i] = Statement.SUCCESS_NO_INFO;
+      batch_.removeAllElements();
+      batchRowsSent_ = 0;
+      batchUpdateCount_ = 0;
+      throw newBatchUpdateException(e, counts);
+    } finally {
+      batchExecute_ = false;
+    }
+  }
+
+  private static BatchUpdateException newBatchUpdateException(SQLException e,
+      int[] counts) {
+    BatchUpdateException batchUpdateException = new BatchUpdateException(
+        e.getMessage(), e.getSQLState(), e.getErrorCode(), counts);
+    // Attempt to set the cause, ignoring any failures (i.e. in Pre JDK 1.4)
+    // /*@DAA*/
+    try {
+      batchUpdateException.initCause(e);
+    } catch (java.lang.NoSuchMethodError e2) {
+    }
+    return batchUpdateException;
+  }
+
   /**
    * Runs the SQL statement that returns a single result set. This closes the
    * current result set and clears warnings before executing the SQL statement
@@ -940,6 +940,18 @@ public class AS400JDBCPreparedStatementRedirect  extends AS400JDBCPreparedStatem
     stmt_.addBatch();
   }
 
+  public void setStreamingBatch(boolean streamingBatch) throws SQLException {
+    stmt_.setStreamingBatch(streamingBatch);
+  }
+
+  public boolean isStreamingBatch() throws SQLException {
+    return stmt_.isStreamingBatch();
+  }
+
+  public int getBatchRowsSent() throws SQLException {
+    return stmt_.getBatchRowsSent();
+  }
+
   public void setCharacterStream(int parameterIndex, Reader reader, int length)
       throws SQLException {
     int retryCount = AS400JDBCConnectionRedirect.SEAMLESS_RETRY_COUNT;
@@ -2963,6 +2963,21 @@ implements ResultSet
         synchronized(internalLock_)
         {                                            // @D1A
             // Get the data and check for SQL NULL.
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null)
+            {
+                if(wasNull_)
+                    return 0;
+                try
+                {
+                    return directRow.getDirectDouble (columnIndex);
+                }
+                catch(NumberFormatException e)
+                {
+                    // Not valid decimal data.  Let the SQLData object report it.
+                }
+            }
+
             SQLData data = getValue (columnIndex);
             double value = (data == null) ? 0 : data.getDouble ();
             testDataTruncation (columnIndex, data, true); //@trunc
@@ -3073,6 +3088,25 @@ implements ResultSet
         synchronized(internalLock_)
         {                                            // @D1A
             // Get the data and check for SQL NULL.
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null && directRow.getDirectType (columnIndex) == JDServerRow.DIRECT_INTEGER)
+            {
+                if(wasNull_)
+                    return 0;
+                try
+                {
+                    // Values that do not fit are left to the SQLData object, which
+                    // reports the truncation.
+                    long value = directRow.getDirectLong (columnIndex);
+                    if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                        return (int) value;
+                }
+                catch(NumberFormatException e)
+                {
+                    // Not valid decimal data.  Let the SQLData object report it.
+                }
+            }
+
             SQLData data = getValue (columnIndex);
             int value = (data == null) ? 0 : data.getInt ();
             testDataTruncation (columnIndex, data, true); //@trunc
@@ -3128,6 +3162,21 @@ implements ResultSet
         synchronized(internalLock_)
         {                                            // @D1A
             // Get the data and check for SQL NULL.
+            JDServerRow directRow = getDirectRow (columnIndex);
+            if(directRow != null && directRow.getDirectType (columnIndex) == JDServerRow.DIRECT_INTEGER)
+            {
+                if(wasNull_)
+                    return 0;
+                try
+                {
+                    return directRow.getDirectLong (columnIndex);
+                }
+                catch(NumberFormatException e)
+                {
+                    // Not valid decimal data.  Let the SQLData object report it.
+                }
+            }
+
             SQLData data = getValue (columnIndex);
             long value = (data == null) ? 0 : data.getLong ();
             testDataTruncation (columnIndex, data, true); //@trunc
@@ -3749,6 +3798,42 @@ implements ResultSet
 
 
 
+    /**
+    Returns the row, if the column is a simple numeric column that can be
+    decoded straight from the fetched data instead of through its SQLData
+    object.  The same checks are made and the same state is set as in
+    getValue(), so that wasNull() is set when the row is returned.
+    
+    @param  columnIndex   The column index (1-based).
+    @return               The row, or null if getValue() must be used.
+    
+    @exception  SQLException    If the result set is not open.
+    **/
+    private JDServerRow getDirectRow (int columnIndex)
+    throws SQLException
+    {
+        // Updates, the insert row, and errors are handled by getValue().
+        if(!(row_ instanceof JDServerRow) || (concurrency_ == CONCUR_UPDATABLE)
+           || (positionValid_ == false) || (positionInsert_ == true)
+           || (columnIndex < 1) || (columnIndex > columnCount_))
+            return null;
+
+        JDServerRow row = (JDServerRow)row_;
+        if(row.getDirectType (columnIndex) == JDServerRow.DIRECT_NONE)
+            return null;
+
+        checkOpen ();
+        clearCurrentValue ();
+
+        if(row.isDataMappingError (columnIndex))
+            return null;
+        wasNull_ = row.isNull (columnIndex);
+        wasDataMappingError_ = false;
+        return row;
+    }
+
+
+
     /**
     Returns a piece of row data for the specified index,
     and perform all appropriate validation.  Also check
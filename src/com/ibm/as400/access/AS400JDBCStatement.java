@@ -112,6 +112,7 @@ implements Statement
     private boolean                 prefetch_;    // private protected
     int                     queryTimeout_;                /*@D4A*/
     private     boolean                 queryTimeoutSet_ = false;  /*@B2A*/
+    String                  cacheKey_;    // Key in the connection's statement cache, or null if the statement is not cached.
     AS400JDBCResultSet      resultSet_;    // private protected
     private     int                     rowCountEstimate_;    // @ECA
     private     boolean                 rpbCreated_;
@@ -3751,6 +3752,66 @@ implements Statement
         return associatedWithLocators_;
     }
 
+    /*
+    Prepares this statement to be put in the connection's statement cache instead of
+    being closed.  The current result set is closed, the attributes that the application
+    may have changed are set back to their defaults, and the statement is marked as closed,
+    but the RPB and ORS are kept on the system.  Returns false if the statement cannot
+    be reused, in which case it must be closed as usual.  The caller holds internalLock_.
+    */
+    boolean prepareForCache()
+    throws SQLException
+    {
+        if(cancelled_ || threadInterrupted || queryTimeoutSet_ || (numberOfResults_ > 1)
+           || isAssociatedWithLocators() || isHoldStatement()
+           || !cursorDefaultName_.equals(cursor_.getName()))
+            return false;
+
+        // Clear this first, so that closing the result set does not close the statement.
+        closeOnCompletion_  = false;
+        closeResultSet(JDCursor.REUSE_YES);
+
+        if(generatedKeys_ != null)
+        {
+            generatedKeys_.close();
+            generatedKeys_ = null;
+        }
+        if(batch_ != null) batch_.removeAllElements();
+
+        escapeProcessing_   = true;
+        fetchDirection_     = ResultSet.FETCH_FORWARD;
+        fetchSize_          = 0;
+        maxFieldSize_       = 0;
+        maxRows_            = 0;
+        longMaxRows_        = 0;
+        sqlWarning_         = null;
+        updateCount_        = -1;
+        closed_             = true;
+        return true;
+    }
+
+    /*
+    Reopens a statement that has been taken out of the connection's statement cache.
+    */
+    void reopenFromCache()
+    {
+        closed_ = false;
+    }
+
+    /*
+    Closes a statement that has been removed from the connection's statement cache.
+    */
+    void closeFromCache()
+    throws SQLException
+    {
+        synchronized(internalLock_)
+        {
+            closed_ = false;
+            cacheKey_ = null;
+        }
+        close();
+    }
+
     /**
     Indicates if the statement is closed.
 
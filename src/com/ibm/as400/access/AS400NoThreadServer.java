@@ -38,6 +38,8 @@ class AS400NoThreadServer extends AS400Server
     private DataStream exchangeAttrReply_ = null;
     private Vector replyList_ = new Vector(5);
     private Vector discardList_ = new Vector();
+    // The correlations whose replies are discarded up to the end of the chain.
+    private Vector chainDiscardList_ = new Vector();
     private int lastCorrelationId_ = 0;
     private class CorrelationIdLock extends Object {}          //@C7A
 
@@ -106,6 +108,13 @@ class AS400NoThreadServer extends AS400Server
     public DataStream sendAndReceive(DataStream requestStream) throws IOException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and receive(): ..."); //@pdc 
+        if (AS400ServiceMetrics.ENABLED_)
+        {
+            long startTime = AS400ServiceMetrics.currentTime();
+            DataStream reply = receive(send(requestStream));
+            AS400ServiceMetrics.getInstance(service_).recordRoundTrip(startTime);
+            return reply;
+        }
         int correlationID = send(requestStream);
         return receive(correlationID);
     }
@@ -125,6 +134,45 @@ class AS400NoThreadServer extends AS400Server
         discardList_.addElement(new Integer(correlationID));
     }
     
+    void discardReply(int correlationId)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply(): ...", correlationId);
+        synchronized (replyList_)
+        {
+            for (int i = 0; i < replyList_.size(); i++)
+            {
+                if (((DataStream)replyList_.elementAt(i)).getCorrelation() == correlationId)
+                {
+                    replyList_.removeElementAt(i);
+                    return;
+                }
+            }
+        }
+        discardList_.addElement(new Integer(correlationId));
+    }
+
+    void discardReplyChain(int correlationId)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply chain(): ...", correlationId);
+        synchronized (replyList_)
+        {
+            for (int i = 0; i < replyList_.size(); )
+            {
+                DataStream ds = (DataStream)replyList_.elementAt(i);
+                if (ds.getCorrelation() == correlationId)
+                {
+                    replyList_.removeElementAt(i);
+                    if (ds.isEndOfReplyChain()) return;
+                }
+                else
+                {
+                    ++i;
+                }
+            }
+        }
+        chainDiscardList_.addElement(new Integer(correlationId));
+    }
+
     int send(DataStream requestStream) throws IOException
     {
       if (Trace.traceOn_) {
@@ -134,6 +182,7 @@ class AS400NoThreadServer extends AS400Server
         int correlationID = newCorrelationId();
         requestStream.setCorrelation(correlationID);
         requestStream.write(outStream_);
+        if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordSend(requestStream.getLength());
         return correlationID;
     }
 
@@ -154,6 +203,7 @@ class AS400NoThreadServer extends AS400Server
       }
         requestStream.setCorrelation(correlationId);
         requestStream.write(outStream_);
+        if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordSend(requestStream.getLength());
     }
 
     synchronized DataStream receive(int correlationId) throws IOException
@@ -199,6 +249,7 @@ class AS400NoThreadServer extends AS400Server
 
                 boolean keepDataStream = true;
                 int correlation = ds.getCorrelation();
+                if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordReceive(ds.getLength());
                 for (int i = 0; i < discardList_.size(); i++)
                 {
                     if (((Integer)discardList_.elementAt(i)).intValue() == correlation)
@@ -208,6 +259,14 @@ class AS400NoThreadServer extends AS400Server
                         break;
                     }
                 }
+                for (int i = 0; keepDataStream && i < chainDiscardList_.size(); i++)
+                {
+                    if (((Integer)chainDiscardList_.elementAt(i)).intValue() == correlation)
+                    {
+                        if (ds.isEndOfReplyChain()) chainDiscardList_.removeElementAt(i);
+                        keepDataStream = false;
+                    }
+                }
 
                 if (keepDataStream)
                 {
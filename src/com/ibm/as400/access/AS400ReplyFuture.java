@@ -0,0 +1,78 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400ReplyFuture.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.IOException;
+
+// Represents the outstanding reply to a request sent with AS400Server.sendAsync().
+// Any number of requests can be sent on one server job before their replies are received, so that the round trips overlap instead of being serialized.
+// Replies can be retrieved in any order; the server job matches them to their requests using the correlation ID.
+final class AS400ReplyFuture
+{
+    private final AS400Server server_;
+    private final int correlationId_;
+    // When the request was sent, for AS400ServiceMetrics.
+    private final long startTime_;
+
+    private DataStream reply_ = null;
+
+    AS400ReplyFuture(AS400Server server, int correlationId, long startTime)
+    {
+        server_ = server;
+        correlationId_ = correlationId;
+        startTime_ = startTime;
+    }
+
+    // Returns the correlation ID of the request.
+    final int getCorrelation()
+    {
+        return correlationId_;
+    }
+
+    // Indicates if the reply has already been retrieved by get().
+    final synchronized boolean isDone()
+    {
+        return reply_ != null;
+    }
+
+    // Returns the reply, waiting for it to arrive if necessary.  Subsequent calls return the same reply.
+    // @return  The reply data stream.
+    final synchronized DataStream get() throws IOException, InterruptedException
+    {
+        if (reply_ == null)
+        {
+            reply_ = server_.receive(correlationId_);
+            if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(server_.getService()).recordRoundTrip(startTime_);
+        }
+        return reply_;
+    }
+
+    // Tells the server job to throw away the reply when it arrives.  This is used when the caller abandons the request.
+    final synchronized void discard()
+    {
+        if (reply_ == null)
+        {
+            server_.discardReply(correlationId_);
+        }
+    }
+
+    // Tells the server job to throw away all of the replies to the request, up to the one that ends the chain, including any that have already arrived.
+    final synchronized void discardChain()
+    {
+        if (reply_ == null || !reply_.isEndOfReplyChain())
+        {
+            server_.discardReplyChain(correlationId_);
+        }
+    }
+}
@@ -107,6 +107,17 @@ public abstract class AS400Server
     }
 
 
+    // Sends a request without waiting for its reply.  Several requests can be outstanding on the same server job at once; their replies are matched up by correlation ID.
+    // @param  requestStream  The request data stream.
+    // @return  The object used to retrieve the reply.
+    final AS400ReplyFuture sendAsync(DataStream requestStream) throws IOException
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send async(): ...");
+        long startTime = AS400ServiceMetrics.ENABLED_ ? AS400ServiceMetrics.currentTime() : 0;
+        int correlationID = send(requestStream);
+        return new AS400ReplyFuture(this, correlationID, startTime);
+    }
+
     abstract int getService();
     abstract String getJobString();
     abstract boolean isConnected();
@@ -121,6 +132,9 @@ public abstract class AS400Server
     abstract int newCorrelationId();
     abstract void send(DataStream requestStream, int correlationId) throws IOException;
     abstract DataStream receive(int correlationId) throws IOException, InterruptedException;
+    abstract void discardReply(int correlationId);
+    // Throws away all of the replies to a request, up to the one that ends the chain, without waiting for them to arrive.
+    abstract void discardReplyChain(int correlationId);
     abstract void forceDisconnect();
     abstract void setSoTimeout(int timeout) throws SocketException; 
     abstract int  getSoTimeout()  throws SocketException; 
@@ -0,0 +1,479 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400ServiceMetrics.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.lang.reflect.Method;
+
+/**
+ Collects traffic statistics for one host server, across all of the connections in the Java virtual machine.  The statistics include the number of requests, replies, and round trips, the number of bytes sent and received, the effect of data stream compression, and a histogram of round trip latencies.
+ <p>Metrics are collected only if the <tt>com.ibm.as400.access.AS400.metrics</tt> system property is set to <tt>true</tt> (see {@link SystemProperties#AS400_METRICS SystemProperties.AS400_METRICS}).  When they are, each instance is also registered with the platform MBean server, if the Java runtime has one, so that the statistics can be viewed with any JMX console.
+ <p>The latency histogram has eight buckets for each power of two, so a reported percentile is at most 12.5 percent larger than the actual value.
+ **/
+public class AS400ServiceMetrics implements AS400ServiceMetricsMBean
+{
+    // Whether metrics are collected.  Callers check this before recording anything, so that the cost is a single test when metrics are off.
+    static final boolean ENABLED_ = Boolean.valueOf(SystemProperties.getProperty(SystemProperties.AS400_METRICS)).booleanValue();
+
+    // Latency histogram layout.  Values below SUB_BUCKETS_ have a bucket each; above that, each power of two is split into SUB_BUCKETS_ buckets.  Latencies of 2^(MAX_MSB_+1) microseconds (about 12 days) or more share the last bucket.
+    private static final int SUB_BUCKETS_ = 8;
+    private static final int SUB_BUCKET_BITS_ = 3;
+    private static final int MAX_MSB_ = 39;
+    private static final int BUCKETS_ = SUB_BUCKETS_ + (MAX_MSB_ - SUB_BUCKET_BITS_ + 1) * SUB_BUCKETS_;
+
+    private static final AS400ServiceMetrics[] instances_ = new AS400ServiceMetrics[8];
+
+    // System.nanoTime(), if the Java runtime has it.
+    private static Method nanoTime_ = null;
+    static
+    {
+        if (ENABLED_)
+        {
+            try
+            {
+                nanoTime_ = System.class.getMethod("nanoTime", new Class[0]);
+            }
+            catch (Throwable e)
+            {
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "System.nanoTime() is not available, using System.currentTimeMillis():", e);
+            }
+        }
+    }
+
+    private final int service_;
+
+    // All counters are guarded by this.
+    private long connects_ = 0;
+    private long requests_ = 0;
+    private long replies_ = 0;
+    private long roundTrips_ = 0;
+    private long bytesSent_ = 0;
+    private long bytesReceived_ = 0;
+    private long uncompressedBytes_ = 0;
+    private long compressedBytes_ = 0;
+    private long totalLatency_ = 0;
+    private long maxLatency_ = 0;
+    private final long[] latencyBuckets_ = new long[BUCKETS_];
+    private long fetchBlocks_ = 0;
+    private long fetchBlockBytes_ = 0;
+    private long fetchRows_ = 0;
+    private long maxFetchBlockBytes_ = 0;
+
+    private AS400ServiceMetrics(int service)
+    {
+        service_ = service;
+    }
+
+    /**
+     Returns the metrics for a host server.
+     @param  service  The host server, for example {@link AS400#DATABASE AS400.DATABASE}.
+     @return  The metrics for the host server.
+     **/
+    public static AS400ServiceMetrics getInstance(int service)
+    {
+        if (service < 0 || service >= instances_.length)
+        {
+            throw new ExtendedIllegalArgumentException("service (" + service + ")", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        }
+        synchronized (instances_)
+        {
+            AS400ServiceMetrics metrics = instances_[service];
+            if (metrics == null)
+            {
+                metrics = new AS400ServiceMetrics(service);
+                instances_[service] = metrics;
+                if (ENABLED_) metrics.register();
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     Indicates if metrics are being collected.
+     @return  true if metrics are being collected; false otherwise.
+     **/
+    public static boolean isEnabled()
+    {
+        return ENABLED_;
+    }
+
+    // Registers this object with the platform MBean server.  The JMX classes are loaded by reflection so that this class can be used on Java runtimes that do not have them.
+    private void register()
+    {
+        String objectName = "com.ibm.as400.access:type=AS400ServiceMetrics,service=" + getServiceName();
+        try
+        {
+            Class managementFactory = Class.forName("java.lang.management.ManagementFactory");
+            Object mbeanServer = managementFactory.getMethod("getPlatformMBeanServer", new Class[0]).invoke(null, new Object[0]);
+            Class objectNameClass = Class.forName("javax.management.ObjectName");
+            Object name = objectNameClass.getConstructor(new Class[] { String.class }).newInstance(new Object[] { objectName });
+            Class mbeanServerClass = Class.forName("javax.management.MBeanServer");
+            mbeanServerClass.getMethod("registerMBean", new Class[] { Object.class, objectNameClass }).invoke(mbeanServer, new Object[] { this, name });
+            if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Registered MBean " + objectName + ".");
+        }
+        catch (Throwable e)
+        {
+            if (Trace.traceOn_) Trace.log(Trace.WARNING, "Unable to register MBean " + objectName + ":", e);
+        }
+    }
+
+    // Returns the current time in microseconds, for measuring latency.  The value is only meaningful relative to another value returned by this method.
+    static long currentTime()
+    {
+        if (nanoTime_ != null)
+        {
+            try
+            {
+                return ((Long)nanoTime_.invoke(null, new Object[0])).longValue() / 1000;
+            }
+            catch (Throwable e)
+            {
+                nanoTime_ = null;
+            }
+        }
+        return System.currentTimeMillis() * 1000;
+    }
+
+    // Records a new connection to the host server.
+    final synchronized void recordConnect()
+    {
+        ++connects_;
+    }
+
+    // Records a request sent to the host server.
+    final synchronized void recordSend(int length)
+    {
+        ++requests_;
+        bytesSent_ += length;
+    }
+
+    // Records a reply received from the host server.
+    final synchronized void recordReceive(int length)
+    {
+        ++replies_;
+        bytesReceived_ += length;
+    }
+
+    // Records a data stream that was compressed before it was sent, or decompressed after it was received.
+    final synchronized void recordCompression(int uncompressedLength, int compressedLength)
+    {
+        uncompressedBytes_ += uncompressedLength;
+        compressedBytes_ += compressedLength;
+    }
+
+    // Records a completed round trip.
+    // @param  startTime  The value of currentTime() when the request was sent.
+    final void recordRoundTrip(long startTime)
+    {
+        long latency = currentTime() - startTime;
+        if (latency < 0) latency = 0;
+        int index = getBucketIndex(latency);
+        synchronized (this)
+        {
+            ++roundTrips_;
+            totalLatency_ += latency;
+            if (latency > maxLatency_) maxLatency_ = latency;
+            ++latencyBuckets_[index];
+        }
+    }
+
+    // Records a block of result set rows fetched from the database host server.
+    // @param  blockBytes  The length of the reply that held the block, in bytes.
+    // @param  rows  The number of rows in the block.
+    final synchronized void recordFetchBlock(int blockBytes, int rows)
+    {
+        ++fetchBlocks_;
+        fetchBlockBytes_ += blockBytes;
+        fetchRows_ += rows;
+        if (blockBytes > maxFetchBlockBytes_) maxFetchBlockBytes_ = blockBytes;
+    }
+
+    // Returns the histogram bucket that holds a latency.
+    static int getBucketIndex(long value)
+    {
+        if (value < SUB_BUCKETS_) return (int)value;
+        int msb = SUB_BUCKET_BITS_;
+        while ((value >>> (msb + 1)) != 0) ++msb;
+        if (msb > MAX_MSB_) return BUCKETS_ - 1;
+        int shift = msb - SUB_BUCKET_BITS_;
+        return SUB_BUCKETS_ + shift * SUB_BUCKETS_ + (int)((value >>> shift) & (SUB_BUCKETS_ - 1));
+    }
+
+    // Returns the largest latency held by a histogram bucket.
+    static long getBucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS_) return index;
+        int shift = (index - SUB_BUCKETS_) / SUB_BUCKETS_;
+        int subBucket = (index - SUB_BUCKETS_) % SUB_BUCKETS_;
+        return ((SUB_BUCKETS_ + subBucket + 1L) << shift) - 1;
+    }
+
+    /**
+     Returns the host server these metrics are for.
+     @return  The host server, for example {@link AS400#DATABASE AS400.DATABASE}.
+     **/
+    public int getService()
+    {
+        return service_;
+    }
+
+    /**
+     Returns the name of the host server, for example <tt>as-database</tt>.
+     @return  The name of the host server.
+     **/
+    public String getServiceName()
+    {
+        return AS400.getServerName(service_);
+    }
+
+    /**
+     Returns the number of connections made to the host server.
+     @return  The number of connections.
+     **/
+    public synchronized long getConnectCount()
+    {
+        return connects_;
+    }
+
+    /**
+     Returns the number of requests sent to the host server.
+     @return  The number of requests.
+     **/
+    public synchronized long getRequestCount()
+    {
+        return requests_;
+    }
+
+    /**
+     Returns the number of replies received from the host server.
+     @return  The number of replies.
+     **/
+    public synchronized long getReplyCount()
+    {
+        return replies_;
+    }
+
+    /**
+     Returns the number of requests for which the caller waited for the reply.
+     @return  The number of round trips.
+     **/
+    public synchronized long getRoundTripCount()
+    {
+        return roundTrips_;
+    }
+
+    /**
+     Returns the number of bytes sent to the host server, before compression.
+     @return  The number of bytes sent.
+     **/
+    public synchronized long getBytesSent()
+    {
+        return bytesSent_;
+    }
+
+    /**
+     Returns the number of bytes received from the host server, before decompression.
+     @return  The number of bytes received.
+     **/
+    public synchronized long getBytesReceived()
+    {
+        return bytesReceived_;
+    }
+
+    /**
+     Returns the total size of the data streams that were compressed or decompressed, before compression.
+     @return  The number of uncompressed bytes.
+     **/
+    public synchronized long getUncompressedBytes()
+    {
+        return uncompressedBytes_;
+    }
+
+    /**
+     Returns the total size of the data streams that were compressed or decompressed, after compression.
+     @return  The number of compressed bytes.
+     **/
+    public synchronized long getCompressedBytes()
+    {
+        return compressedBytes_;
+    }
+
+    /**
+     Returns the mean round trip latency, in microseconds.
+     @return  The mean latency, or 0 if there have been no round trips.
+     **/
+    public synchronized long getMeanLatency()
+    {
+        return roundTrips_ == 0 ? 0 : totalLatency_ / roundTrips_;
+    }
+
+    /**
+     Returns the largest round trip latency, in microseconds.
+     @return  The largest latency.
+     **/
+    public synchronized long getMaxLatency()
+    {
+        return maxLatency_;
+    }
+
+    /**
+     Returns a percentile of the round trip latency, in microseconds.
+     @param  percentile  The percentile, from 0 to 100.
+     @return  The latency, or 0 if there have been no round trips.
+     **/
+    public synchronized long getLatencyPercentile(double percentile)
+    {
+        if (percentile < 0 || percentile > 100)
+        {
+            throw new ExtendedIllegalArgumentException("percentile (" + percentile + ")", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        }
+        if (roundTrips_ == 0) return 0;
+        long target = (long)Math.ceil(roundTrips_ * percentile / 100);
+        if (target < 1) target = 1;
+        long count = 0;
+        for (int i = 0; i < BUCKETS_; ++i)
+        {
+            count += latencyBuckets_[i];
+            if (count >= target)
+            {
+                long upperBound = getBucketUpperBound(i);
+                return upperBound < maxLatency_ ? upperBound : maxLatency_;
+            }
+        }
+        return maxLatency_;
+    }
+
+    /**
+     Returns the median round trip latency, in microseconds.
+     @return  The median latency.
+     **/
+    public long getLatency50th()
+    {
+        return getLatencyPercentile(50);
+    }
+
+    /**
+     Returns the 90th percentile round trip latency, in microseconds.
+     @return  The 90th percentile latency.
+     **/
+    public long getLatency90th()
+    {
+        return getLatencyPercentile(90);
+    }
+
+    /**
+     Returns the 99th percentile round trip latency, in microseconds.
+     @return  The 99th percentile latency.
+     **/
+    public long getLatency99th()
+    {
+        return getLatencyPercentile(99);
+    }
+
+    /**
+     Returns the 99.9th percentile round trip latency, in microseconds.
+     @return  The 99.9th percentile latency.
+     **/
+    public long getLatency999th()
+    {
+        return getLatencyPercentile(99.9);
+    }
+
+    /**
+     Returns the number of blocks of result set rows fetched from the database host server.
+     @return  The number of blocks.
+     **/
+    public synchronized long getFetchBlockCount()
+    {
+        return fetchBlocks_;
+    }
+
+    /**
+     Returns the number of result set rows fetched in blocks from the database host server.
+     @return  The number of rows.
+     **/
+    public synchronized long getFetchRowCount()
+    {
+        return fetchRows_;
+    }
+
+    /**
+     Returns the mean size of the blocks of result set rows fetched from the database host server, in bytes.
+     @return  The mean size, or 0 if no blocks have been fetched.
+     **/
+    public synchronized long getMeanFetchBlockSize()
+    {
+        return fetchBlocks_ == 0 ? 0 : fetchBlockBytes_ / fetchBlocks_;
+    }
+
+    /**
+     Returns the size of the largest block of result set rows fetched from the database host server, in bytes.
+     @return  The largest size.
+     **/
+    public synchronized long getMaxFetchBlockSize()
+    {
+        return maxFetchBlockBytes_;
+    }
+
+    /**
+     Sets all of the counters and the latency histogram back to zero.
+     **/
+    public synchronized void reset()
+    {
+        connects_ = 0;
+        requests_ = 0;
+        replies_ = 0;
+        roundTrips_ = 0;
+        bytesSent_ = 0;
+        bytesReceived_ = 0;
+        uncompressedBytes_ = 0;
+        compressedBytes_ = 0;
+        totalLatency_ = 0;
+        maxLatency_ = 0;
+        for (int i = 0; i < BUCKETS_; ++i) latencyBuckets_[i] = 0;
+        fetchBlocks_ = 0;
+        fetchBlockBytes_ = 0;
+        fetchRows_ = 0;
+        maxFetchBlockBytes_ = 0;
+    }
+
+    /**
+     Returns the metrics as a string, for tracing.
+     @return  The metrics.
+     **/
+    public synchronized String toString()
+    {
+        StringBuffer buf = new StringBuffer("AS400ServiceMetrics [");
+        buf.append(getServiceName());
+        buf.append("] connects=").append(connects_);
+        buf.append(" requests=").append(requests_);
+        buf.append(" replies=").append(replies_);
+        buf.append(" roundTrips=").append(roundTrips_);
+        buf.append(" bytesSent=").append(bytesSent_);
+        buf.append(" bytesReceived=").append(bytesReceived_);
+        buf.append(" uncompressedBytes=").append(uncompressedBytes_);
+        buf.append(" compressedBytes=").append(compressedBytes_);
+        buf.append(" latency(us): mean=").append(getMeanLatency());
+        buf.append(" p50=").append(getLatencyPercentile(50));
+        buf.append(" p99=").append(getLatencyPercentile(99));
+        buf.append(" max=").append(maxLatency_);
+        if (fetchBlocks_ != 0)
+        {
+            buf.append(" fetchBlocks=").append(fetchBlocks_);
+            buf.append(" fetchRows=").append(fetchRows_);
+            buf.append(" fetchBlockSize: mean=").append(getMeanFetchBlockSize());
+            buf.append(" max=").append(maxFetchBlockBytes_);
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,139 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: AS400ServiceMetricsMBean.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+/**
+ The management interface of {@link AS400ServiceMetrics AS400ServiceMetrics}.  When metrics are enabled and the Java runtime provides a platform MBean server, one MBean is registered for each host server, with the object name <tt>com.ibm.as400.access:type=AS400ServiceMetrics,service=<i>server-name</i></tt>.
+ **/
+public interface AS400ServiceMetricsMBean
+{
+    /**
+     Returns the name of the host server, for example <tt>as-database</tt>.
+     @return  The name of the host server.
+     **/
+    public String getServiceName();
+
+    /**
+     Returns the number of connections made to the host server.
+     @return  The number of connections.
+     **/
+    public long getConnectCount();
+
+    /**
+     Returns the number of requests sent to the host server.
+     @return  The number of requests.
+     **/
+    public long getRequestCount();
+
+    /**
+     Returns the number of replies received from the host server.
+     @return  The number of replies.
+     **/
+    public long getReplyCount();
+
+    /**
+     Returns the number of requests for which the caller waited for the reply.
+     @return  The number of round trips.
+     **/
+    public long getRoundTripCount();
+
+    /**
+     Returns the number of bytes sent to the host server, before compression.
+     @return  The number of bytes sent.
+     **/
+    public long getBytesSent();
+
+    /**
+     Returns the number of bytes received from the host server, before decompression.
+     @return  The number of bytes received.
+     **/
+    public long getBytesReceived();
+
+    /**
+     Returns the total size of the data streams that were compressed or decompressed, before compression.
+     @return  The number of uncompressed bytes.
+     **/
+    public long getUncompressedBytes();
+
+    /**
+     Returns the total size of the data streams that were compressed or decompressed, after compression.
+     @return  The number of compressed bytes.
+     **/
+    public long getCompressedBytes();
+
+    /**
+     Returns the mean round trip latency, in microseconds.
+     @return  The mean latency, or 0 if there have been no round trips.
+     **/
+    public long getMeanLatency();
+
+    /**
+     Returns the largest round trip latency, in microseconds.
+     @return  The largest latency.
+     **/
+    public long getMaxLatency();
+
+    /**
+     Returns the median round trip latency, in microseconds.
+     @return  The median latency.
+     **/
+    public long getLatency50th();
+
+    /**
+     Returns the 90th percentile round trip latency, in microseconds.
+     @return  The 90th percentile latency.
+     **/
+    public long getLatency90th();
+
+    /**
+     Returns the 99th percentile round trip latency, in microseconds.
+     @return  The 99th percentile latency.
+     **/
+    public long getLatency99th();
+
+    /**
+     Returns the 99.9th percentile round trip latency, in microseconds.
+     @return  The 99.9th percentile latency.
+     **/
+    public long getLatency999th();
+
+    /**
+     Returns the number of blocks of result set rows fetched from the database host server.
+     @return  The number of blocks.
+     **/
+    public long getFetchBlockCount();
+
+    /**
+     Returns the number of result set rows fetched in blocks from the database host server.
+     @return  The number of rows.
+     **/
+    public long getFetchRowCount();
+
+    /**
+     Returns the mean size of the blocks of result set rows fetched from the database host server, in bytes.
+     @return  The mean size, or 0 if no blocks have been fetched.
+     **/
+    public long getMeanFetchBlockSize();
+
+    /**
+     Returns the size of the largest block of result set rows fetched from the database host server, in bytes.
+     @return  The largest size.
+     **/
+    public long getMaxFetchBlockSize();
+
+    /**
+     Sets all of the counters and the latency histogram back to zero.
+     **/
+    public void reset();
+}
@@ -17,12 +17,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketException;
+import java.util.Enumeration;
 import java.util.Hashtable;
 
 final class AS400ThreadedServer extends AS400Server implements Runnable
 {
     private static int threadCount_ = 0;
 
+    // Whether read daemons are created as virtual threads.
+    private static boolean useVirtualThreads_ = false;
+    static
+    {
+        String propVal = SystemProperties.getProperty(SystemProperties.AS400_VIRTUAL_THREADS);
+        if (propVal != null)
+        {
+            useVirtualThreads_ = Boolean.valueOf(propVal).booleanValue();
+        }
+    }
+
     private AS400ImplRemote system_;
     private int service_;
     private String jobString_;
@@ -62,7 +74,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         final void add(DataStream ds)
         {
             int id = ds.getCorrelation();
-            if (discardList_.remove(id))
+            if (discardList_.remove(id) || discardList_.removeChained(ds))
             {
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "ReplyList: Discarded datastream:", id);
                 ClassDecoupler.freeDBReplyStream(ds); ds = null; 
@@ -135,6 +147,8 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
     private static final class DiscardList
     {
         int[] ids_ = new int[8];
+        // The correlations whose replies are discarded up to the end of the chain, guarded by idsLock_.
+        int[] chainIds_ = new int[8];
         final Object idsLock_ = new Object();
         private ReplyList replyList_;
 
@@ -179,6 +193,54 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
             return false;
         }
 
+        // Discards the replies to the correlation that have already arrived.  If the end of the chain has not arrived yet, the rest of it is discarded as it arrives.
+        final void addChain(int correlation)
+        {
+            DataStream ds;
+            while ((ds = replyList_.remove(correlation)) != null)
+            {
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "DiscardList: Discarded datastream:", correlation);
+                boolean end = ds.isEndOfReplyChain();
+                ClassDecoupler.freeDBReplyStream(ds); ds = null;
+                if (end) return;
+            }
+            synchronized (idsLock_)
+            {
+                final int max = chainIds_.length;
+                for (int i = 0; i < max; ++i)
+                {
+                    if (chainIds_[i] == 0)
+                    {
+                        chainIds_[i] = correlation;
+                        return;
+                    }
+                }
+                int[] newIds = new int[max * 2];
+                System.arraycopy(chainIds_, 0, newIds, 0, max);
+                newIds[max] = correlation;
+                chainIds_ = newIds;
+            }
+        }
+
+        // Indicates if the reply is part of a chain being discarded.  The correlation is forgotten when the end of the chain arrives.
+        final boolean removeChained(DataStream ds)
+        {
+            int correlation = ds.getCorrelation();
+            synchronized (idsLock_)
+            {
+                final int max = chainIds_.length;
+                for (int i = 0; i < max; ++i)
+                {
+                    if (chainIds_[i] == correlation)
+                    {
+                        if (ds.isEndOfReplyChain()) chainIds_[i] = 0;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
         void setReplyList(ReplyList replyList)
         {
           replyList_ = replyList;
@@ -187,10 +249,19 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
 
     private int lastCorrelationId_ = 0;
     private class CorrelationIdLock extends Object {}          //@C7A
-    private class ReceiveLock extends Object {}          //@C7A
 
     private final CorrelationIdLock correlationIdLock_ = new CorrelationIdLock();
-    private final ReceiveLock receiveLock_ = new ReceiveLock();
+
+    // Threads blocked in receive() each wait on the slot registered for their correlation ID, so the read daemon only wakes the thread the reply belongs to, instead of every waiting thread.
+    private final Hashtable replyWaiters_ = new Hashtable();
+
+    private static final class ReplyWaiter
+    {
+        // Number of threads currently waiting on this correlation ID (guarded by replyWaiters_).
+        int count_ = 0;
+        // Set by the read daemon when a reply or exception is available (guarded by this).
+        boolean signaled_ = false;
+    }
 
     AS400ThreadedServer(AS400ImplRemote system, int service, SocketContainer socket, String jobString) throws IOException
     {
@@ -212,11 +283,35 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         if (jobString != null && jobString.length() != 0) jobID = jobString;
         else jobID = AS400.getServerName(service) + "/" + (++threadCount_);
 
-        readDaemon_ = new Thread(this, "AS400 Read Daemon [system:"+system.getSystemName() + ";job:" + jobID + "]");
-        readDaemon_.setDaemon(true);
+        readDaemon_ = newReadDaemon(this, "AS400 Read Daemon [system:"+system.getSystemName() + ";job:" + jobID + "]");
         readDaemon_.start();
     }
 
+    // Creates the (unstarted) read daemon thread, as a virtual thread if that has been requested and the JVM supports it.
+    private static Thread newReadDaemon(Runnable target, String name)
+    {
+        if (useVirtualThreads_)
+        {
+            try
+            {
+                // Use reflection, since virtual threads are only available in Java 21 and later.
+                Object builder = Thread.class.getMethod("ofVirtual", new Class[0]).invoke(null, new Object[0]);
+                Class builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", new Class[] { String.class }).invoke(builder, new Object[] { name });
+                // Virtual threads are always daemon threads.
+                return (Thread)builderClass.getMethod("unstarted", new Class[] { Runnable.class }).invoke(builder, new Object[] { target });
+            }
+            catch (Throwable e)
+            {
+                Trace.log(Trace.WARNING, "Virtual threads are not available, using platform threads:", e);
+                useVirtualThreads_ = false;
+            }
+        }
+        Thread thread = new Thread(target, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
     // Print is the only service that uses this method.
     final void addInstanceReplyStream(DataStream replyStream)
     {
@@ -306,39 +401,120 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
     final DataStream receive(int correlationId) throws IOException, InterruptedException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "AS400Server.receive");
-        synchronized (receiveLock_)
-        {
-      while (true) {
-        // Changed March 2018 to give priority to exceptions.. 
-        // Otherwise exceptions are being lost. 
-        if (readDaemonException_ != null) {
-          Trace.log(Trace.ERROR, "receive(): Read daemon exception:",
-              readDaemonException_);
-          throw readDaemonException_;
-        } else if (unlikelyException_ != null) {
-          Trace.log(Trace.ERROR, "receive(): Read daemon exception:",
-              unlikelyException_);
-          throw unlikelyException_;
-        } else {
-          DataStream ds = replyList_.remove(correlationId);
-          if (ds != null) {
-            if (Trace.traceOn_) {
-              Trace.log(Trace.DIAGNOSTIC, "receive(): Valid reply found:",
-                  correlationId);
+        ReplyWaiter waiter = registerWaiter(correlationId);
+        try
+        {
+            while (true)
+            {
+                // Changed March 2018 to give priority to exceptions..
+                // Otherwise exceptions are being lost.
+                if (readDaemonException_ != null)
+                {
+                    Trace.log(Trace.ERROR, "receive(): Read daemon exception:", readDaemonException_);
+                    throw readDaemonException_;
+                }
+                else if (unlikelyException_ != null)
+                {
+                    Trace.log(Trace.ERROR, "receive(): Read daemon exception:", unlikelyException_);
+                    throw unlikelyException_;
+                }
+                else
+                {
+                    DataStream ds = replyList_.remove(correlationId);
+                    if (ds != null)
+                    {
+                        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "receive(): Valid reply found:", correlationId);
+
+                        if (DBDSPool.monitor)
+                        {
+                            if (ds instanceof DBReplyRequestedDS)
+                            {
+                                ((DBReplyRequestedDS) ds).setAllocatedLocation();
+                            }
+                        } /* @B5A */
+
+                        return ds;
+                    }
+                }
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
+                synchronized (waiter)
+                {
+                    // The waiter is registered before the reply list is checked, so a reply added in between has already signaled it.
+                    while (!waiter.signaled_)
+                    {
+                        waiter.wait();
+                    }
+                    waiter.signaled_ = false;
+                }
             }
+        }
+        finally
+        {
+            unregisterWaiter(correlationId, waiter);
+        }
+    }
 
-            if (DBDSPool.monitor) {
-              if (ds instanceof DBReplyRequestedDS) {
-                ((DBReplyRequestedDS) ds).setAllocatedLocation();
-              }
-            } /* @B5A */
+    // Returns the slot to wait on for the given correlation ID, creating it if no other thread is waiting on that ID.
+    private final ReplyWaiter registerWaiter(int correlationId)
+    {
+        Integer key = new Integer(correlationId);
+        synchronized (replyWaiters_)
+        {
+            ReplyWaiter waiter = (ReplyWaiter)replyWaiters_.get(key);
+            if (waiter == null)
+            {
+                waiter = new ReplyWaiter();
+                replyWaiters_.put(key, waiter);
+            }
+            ++waiter.count_;
+            return waiter;
+        }
+    }
 
-            return ds;
-          }
+    private final void unregisterWaiter(int correlationId, ReplyWaiter waiter)
+    {
+        synchronized (replyWaiters_)
+        {
+            if (--waiter.count_ == 0)
+            {
+                replyWaiters_.remove(new Integer(correlationId));
+            }
         }
-        if (Trace.traceOn_)
-          Trace.log(Trace.DIAGNOSTIC, "receive(): Reply not found. Waiting...");
-        receiveLock_.wait();
+    }
+
+    // Wakes the threads waiting for the given correlation ID, if any.
+    private final void signalWaiter(int correlationId)
+    {
+        ReplyWaiter waiter = (ReplyWaiter)replyWaiters_.get(new Integer(correlationId));
+        if (waiter != null)
+        {
+            synchronized (waiter)
+            {
+                waiter.signaled_ = true;
+                waiter.notifyAll();  // Only threads waiting on this correlation ID.
+            }
+        }
+    }
+
+    // Wakes every waiting thread, so that each one sees the read daemon exception.
+    private final void signalAllWaiters()
+    {
+        ReplyWaiter[] waiters;
+        synchronized (replyWaiters_)
+        {
+            waiters = new ReplyWaiter[replyWaiters_.size()];
+            int i = 0;
+            for (Enumeration e = replyWaiters_.elements(); e.hasMoreElements(); )
+            {
+                waiters[i++] = (ReplyWaiter)e.nextElement();
+            }
+        }
+        for (int i = 0; i < waiters.length; ++i)
+        {
+            synchronized (waiters[i])
+            {
+                waiters[i].signaled_ = true;
+                waiters[i].notifyAll();
             }
         }
     }
@@ -365,15 +541,13 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                 // Note: the thread is blocked on the above call if the inputStream has nothing to receive.
 
                 int correlation = reply.getCorrelation();
+                if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordReceive(reply.getLength());
 
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Adding reply:", correlation);
                 replyList_.add(reply);
-                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();  // Notify all waiting threads.
-                }
-                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified.");
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying waiting thread.");
+                signalWaiter(correlation);
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Waiting thread notified.");
             }
             catch (IOException e)
             {
@@ -394,10 +568,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                     readDaemonException_ = e;
                 }
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads after IOException.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();  // Notify all waiting threads.
-                }
+                signalAllWaiters();  // Notify all waiting threads.
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified after IOException.");
             }
             catch (RuntimeException e)
@@ -408,10 +579,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
                     unlikelyException_ = e;
                 }
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Notifying threads after RuntimeException.");
-                synchronized (receiveLock_)
-                {
-                    receiveLock_.notifyAll();
-                }
+                signalAllWaiters();
                 if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "run(): Threads notified after RuntimeException.");
             }
             //@socket2 removed finally close because we were doing double closes. 
@@ -449,6 +617,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         int correlationID = newCorrelationId();
         requestStream.setCorrelation(correlationID);
         requestStream.write(outStream_);
+        if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordSend(requestStream.getLength());
         return correlationID;
     }
 
@@ -470,6 +639,7 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         }
         requestStream.setCorrelation(correlationId);
         requestStream.write(outStream_);
+        if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(service_).recordSend(requestStream.getLength());
     }
 
     final void sendAndDiscardReply(DataStream requestStream) throws IOException
@@ -487,9 +657,28 @@ final class AS400ThreadedServer extends AS400Server implements Runnable
         discardList_.add(correlationID);
     }
 
+    final void discardReply(int correlationId)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply(): ...", correlationId);
+        discardList_.add(correlationId);
+    }
+
+    final void discardReplyChain(int correlationId)
+    {
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "discard reply chain(): ...", correlationId);
+        discardList_.addChain(correlationId);
+    }
+
     public final DataStream sendAndReceive(DataStream requestStream) throws IOException, InterruptedException
     {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "send and receive(): ...");
+        if (AS400ServiceMetrics.ENABLED_)
+        {
+            long startTime = AS400ServiceMetrics.currentTime();
+            DataStream reply = receive(send(requestStream));
+            AS400ServiceMetrics.getInstance(service_).recordRoundTrip(startTime);
+            return reply;
+        }
         int correlationID = send(requestStream);
         return receive(correlationID);
     }
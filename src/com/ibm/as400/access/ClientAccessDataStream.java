@@ -196,17 +196,16 @@ public class ClientAccessDataStream extends DataStream
       //	}
       //}
       
-      // 
-      // TODO:   Restructure this code so that a new byte array is not always allocated.
-      // 
-      newDataStream.data_ = new byte[nowLength];
+      // Reply types that release their buffer explicitly receive into a pooled buffer instead of a new byte array.
+      newDataStream.data_ = newDataStream.allocateReplyBuffer(nowLength);
       System.arraycopy(baseDataStream.data_, 0, newDataStream.data_, 0, HEADER_LENGTH);
 
       
-      if (newDataStream.data_.length - HEADER_LENGTH > 0)
+      if (nowLength - HEADER_LENGTH > 0)
       {
         // Receive any remaining bytes.
-    	// The number of bytes to read is calculated from newDataStream.data_.length - HEADER_LENGTH 
+    	// The number of bytes to read is calculated from newDataStream.data_.length - HEADER_LENGTH,
+    	// or from the header length for reply types that use pooled buffers.
         newDataStream.readAfterHeader(is);
       }
       return newDataStream;
@@ -219,6 +218,21 @@ public class ClientAccessDataStream extends DataStream
     }
   }
 
+  // Returns the buffer that a reply of the given total length is received into.
+  // Reply types that can release their buffer explicitly (see releaseReplyBuffer()) override this to use DataStreamBufferPool.
+  // Such a buffer may be longer than the reply, so those types must also override readAfterHeader() to use getLength() instead of data_.length.
+  // @param  length  The total length of the reply, including the header.
+  // @return  The buffer.
+  byte[] allocateReplyBuffer(int length)
+  {
+    return new byte[length];
+  }
+
+  // Releases the buffer obtained by allocateReplyBuffer(), once the reply has been processed.  The data stream must not be used afterwards.
+  void releaseReplyBuffer()
+  {
+  }
+
   // Constructs an empty ClientAccessDataStream object. 
   protected ClientAccessDataStream()
   {
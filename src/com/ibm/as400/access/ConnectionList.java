@@ -16,7 +16,6 @@
 
 package com.ibm.as400.access;
 
-import java.util.Vector;    // Java 2
 import java.io.IOException;
 import java.util.Locale;      //@B2A
 
@@ -25,6 +24,13 @@ import java.util.Locale;      //@B2A
   *  connection list is used to create new connections and get connections from the pool.
   *  The connection list can remove connections that have exceeded inactivity time and 
   *  replace connections that have exceeded the maximum use count or maximum lifetime.
+  *  <p>
+  *  The list is kept in an array that is replaced, rather than changed, whenever a connection
+  *  is added or removed.  Threads getting a connection scan the current array without
+  *  holding any lock, and take a connection with PoolItem.claim(), which lets only one
+  *  thread have it.  The lock is held only while the array is replaced, and never while
+  *  connecting, disconnecting, or testing a connection, so a slow system does not hold up
+  *  other threads or the maintenance thread.
  **/
 final class ConnectionList 
 {
@@ -37,11 +43,14 @@ final class ConnectionList
   private static final String EXPIRED_MAX_USE_TIME = "CL_REMUSETIME";
   private static final String EXPIRED_FAILED_PRETEST = "CL_REMPRETEST";
 
+  private static final PoolItem[] NO_ITEMS = new PoolItem[0];
+
   private String systemName_;
   private String userID_;
   private ConnectionPoolProperties properties_;
   private Log log_;
-  private Vector connectionList_ = new Vector(); 
+  private volatile PoolItem[] connectionList_ = NO_ITEMS;  // Never modified; replaced under listLock_.
+  private final Object listLock_ = new Object();
 
   // Handles loading the appropriate resource bundle
 //@CRS  private static ResourceBundleLoader loader_;
@@ -71,6 +80,51 @@ final class ConnectionList
   }
 
 
+  /**
+   *  Adds a pool item to the list.
+   *
+   *  @param poolItem The pool item.
+   **/
+  private void addItem(PoolItem poolItem)
+  {
+    synchronized (listLock_)
+    {
+      PoolItem[] oldList = connectionList_;
+      PoolItem[] newList = new PoolItem[oldList.length + 1];
+      System.arraycopy(oldList, 0, newList, 0, oldList.length);
+      newList[oldList.length] = poolItem;
+      connectionList_ = newList;
+    }
+  }
+
+
+  /**
+   *  Removes a pool item from the list.
+   *
+   *  @param poolItem The pool item.
+   *  @return true if the pool item was in the list; false otherwise.
+   **/
+  private boolean removeItem(PoolItem poolItem)
+  {
+    synchronized (listLock_)
+    {
+      PoolItem[] oldList = connectionList_;
+      for (int i = 0; i < oldList.length; i++)
+      {
+        if (oldList[i] == poolItem)
+        {
+          PoolItem[] newList = new PoolItem[oldList.length - 1];
+          System.arraycopy(oldList, 0, newList, 0, i);
+          System.arraycopy(oldList, i + 1, newList, i, newList.length - i);
+          connectionList_ = newList;
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+
   /**
    * Sees if the specified connection is due for removal.
    *
@@ -118,15 +172,15 @@ final class ConnectionList
   {
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CLEANUP", new String[] {systemName_, userID_} ));
-    synchronized (connectionList_) 
+    PoolItem[] items;
+    synchronized (listLock_)
     {
-      int size = connectionList_.size();  //@A5M
-      for (int i=0; i<size; i++)
-      {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i); 
-        p.getAS400Object().disconnectAllServices();
-      }
-      connectionList_.removeAllElements();   
+      items = connectionList_;
+      connectionList_ = NO_ITEMS;
+    }
+    for (int i=0; i<items.length; i++)
+    {
+      items[i].getAS400Object().disconnectAllServices();
     }
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CLEANUPCOMP"));
@@ -151,7 +205,7 @@ final class ConnectionList
   private PoolItem createNewConnection(int service, boolean connect, boolean secure, 
                                        ConnectionPoolEventSupport poolListeners, Locale locale, AS400ConnectionPoolAuthentication poolAuth, SocketProperties socketProperties, int ccsid) //@B2C  //@B4C //@C1C
   throws AS400SecurityException, IOException, ConnectionPoolException  //@A1C
-  {     
+  {
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_CREATING", new String[] {systemName_, userID_} ));
 
@@ -199,7 +253,7 @@ final class ConnectionList
 
     // set the item is in use since we are going to return it to caller
     sys.setInUse(true);
-    connectionList_.addElement(sys);  
+    addItem(sys);
 
     if (poolListeners != null)
     {
@@ -220,15 +274,11 @@ final class ConnectionList
    **/
   PoolItem findElement(AS400 systemToFind)
   {
-    synchronized (connectionList_)
+    PoolItem[] items = connectionList_;
+    for (int i=0; i<items.length; i++)
     {
-      int size = connectionList_.size();        
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);
-        if (item.getAS400Object().equals(systemToFind))
-          return item;
-      }
+      if (items[i].getAS400Object().equals(systemToFind))
+        return items[i];
     }
     return null;
   }
@@ -241,16 +291,12 @@ final class ConnectionList
   public int getActiveConnectionCount()
   {
     int count = 0;
-    synchronized (connectionList_) 
+    PoolItem[] items = connectionList_;
+    for (int i=0; i<items.length; i++)
     {
-      int size = connectionList_.size();    
-      for (int i=0; i<size; i++)
+      if (items[i].isInUse())
       {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);      
-        if (p.isInUse())
-        {
-          count++;
-        }
+        count++;
       }
     }
     return count;
@@ -264,27 +310,67 @@ final class ConnectionList
   public int getAvailableConnectionCount()
   {
     int count = 0;
-    synchronized (connectionList_) 
+    PoolItem[] items = connectionList_;
+    for (int i=0; i<items.length; i++)
     {
-      int size = connectionList_.size();    
-      for (int i=0; i<size; i++)
+      if (!items[i].isInUse())
       {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);      
-        if (!p.isInUse())
-        {
-          count++;
-        }
+        count++;
       }
     }
     return count;
   }
 
 
+  /**
+   *  Claims the first available connection that matches the request.
+   *
+   *  @param secure  If true a secure AS400 object was requested.
+   *  @param locale The locale of the AS400 object.
+   *  @param service The service the connection must already be connected to, or -1 if any connection will do.
+   *  @return The pool item, which is now in use, or null if no connection is available.
+   **/
+  private PoolItem claimAvailableConnection(boolean secure, Locale locale, int service)
+  {
+    boolean pretestConnections = properties_.isPretestConnections();
+    PoolItem[] items = connectionList_;
+    for (int i=0; i<items.length; i++)
+    {
+      PoolItem item = items[i];
+      // check to see if that connection is in use
+      if (item.isInUse()) continue;
+
+      //@B2A Add a check for locales.  If the user did not specify a locale at
+      //creation time, item.getLocale() will be null.  If the user did
+      // not pass in a locale on their getConnection(), locale will be null.
+      AS400 system = item.getAS400Object();
+      if (secure != (system instanceof SecureAS400)) continue;
+      if (!((item.getLocale() == null && locale == null)        //@B2A //@C1C
+            || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))   //@B2A //@C1C
+        continue;
+      if (service >= 0 && !system.isConnected(service)) continue;
+      if (pretestConnections && item.isFailedPretest()) continue;
+
+      // Another thread may have taken the connection since it was checked above.
+      if (!item.claim()) continue;
+
+      // The pretest talks to the system, so it is done after the connection has been claimed.
+      if (pretestConnections && !isConnectionAlive(item))
+      {
+        item.setInUse(false);
+        continue;  // Skip this connection, since it's no longer valid.
+      }
+      return item;
+    }
+    return null;
+  }
+
+
   /**
    *  Get a connection from the pool.
    *
    *  @param secure  If true a secure AS400 object was requested.
-   *  @param poolListeners The pool listeners to which events will be fired.
+   *  @param poolListeners The pool listeners to which events will be fired. 
    *  @param locale The locale of the AS400 object.
    *  @param socketProperties The socket properties to use if a new AS400 object is created.
    *  If null, this parameter is ignored.
@@ -296,53 +382,7 @@ final class ConnectionList
   PoolItem getConnection(boolean secure, ConnectionPoolEventSupport poolListeners, Locale locale, AS400ConnectionPoolAuthentication poolAuth, SocketProperties socketProperties, int ccsid)    //@B2C //@B4C //@C1C
   throws AS400SecurityException, IOException, ConnectionPoolException
   {
-    PoolItem poolItem = null;
-    boolean pretestConnections = properties_.isPretestConnections();
-    synchronized(connectionList_)  //@A5A
-    {
-      int size = connectionList_.size();
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);    
-        // check to see if that connection is in use
-        if (!item.isInUse())
-        {
-          //@B2A Add a check for locales.  If the user did not specify a locale at
-          //creation time, item.getLocale() will be null.  If the user did 
-          // not pass in a locale on their getConnection(), locale will be null.
-          if (secure && item.getAS400Object() instanceof SecureAS400
-              && ((item.getLocale() == null && locale == null)        //@B2A //@C1C
-                  || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))   //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            // return item found
-            poolItem = item; 
-            break;   
-          }
-          
-          // NEED TO HANDLE WHEN item.getLocale() returns null BUT locale is NOT NULL... searching for a match, but no local in item.getLocale()
-          else if (!secure && !(item.getAS400Object() instanceof SecureAS400)
-                   && ((item.getLocale() == null && locale == null)   //@B2A //@C1C
-                       || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))   //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            // return item found
-            poolItem = item; 
-            break;
-          }
-        }
-      }  //end 'for' loop
-      if (poolItem != null)  //@A5A
-      {
-    	  synchronized (poolItem) { 
-             poolItem.setInUse(true);  //@A5M
-    	  }
-      }
-    } //end synchronized
+    PoolItem poolItem = claimAvailableConnection(secure, locale, -1);
 
     if (poolItem == null)
     {
@@ -358,7 +398,7 @@ final class ConnectionList
    *
    *  @param service The service.
    *  @param secure  If true a secure AS400 object was requested.
-   *  @param poolListeners The pool listeners to which events will be fired.
+   *  @param poolListeners The pool listeners to which events will be fired. 
    *  @param socketProperties The socket properties to use if a new AS400 object is created.
    *  If null, this parameter is ignored.
    *  @exception AS400SecurityException If a security error occured.
@@ -369,91 +409,33 @@ final class ConnectionList
   PoolItem getConnection(int service, boolean secure, ConnectionPoolEventSupport poolListeners, Locale locale, AS400ConnectionPoolAuthentication poolAuth, SocketProperties socketProperties, int ccsid)  //@B2C //@B4C //@C1C 
   throws AS400SecurityException, IOException, ConnectionPoolException
   {
-    PoolItem poolItem = null;
-    boolean pretestConnections = properties_.isPretestConnections();
-    synchronized (connectionList_)  //@B1A
+    PoolItem poolItem = claimAvailableConnection(secure, locale, service);
+    if (poolItem != null)
+    {
+      if (Trace.traceOn_)
+        log(Trace.INFORMATION, "Using already connected connection");
+    }
+    else
     {
-      int size = connectionList_.size();       
-      for (int i=0; i<size; i++)
+      // must not have found a suitable connected system, use the first available
+      poolItem = claimAvailableConnection(secure, locale, -1);
+      if (poolItem != null)
       {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);  
-        // check to see if that connection is in use
-        if (!item.isInUse())
+        if (Trace.traceOn_)
+          log(Trace.INFORMATION, "Must not have found a suitable connection, using first available.");
+        // The connection is already claimed, so no other thread can use it while the service is connected.
+        boolean connected = false;
+        try
         {
-          if (secure && item.getAS400Object() instanceof SecureAS400 &&
-              item.getAS400Object().isConnected(service) 
-              && ((item.getLocale() == null && locale == null)         //@B2A //@C1C
-                  || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale)))) //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            if (Trace.traceOn_)
-              log(Trace.INFORMATION, "Using already connected connection");
-            poolItem = item;
-            break;
-          }
-          else if (!secure && !(item.getAS400Object() instanceof SecureAS400) &&
-                   item.getAS400Object().isConnected(service)
-                   && ((item.getLocale() == null && locale == null)     //@B2A //@C1C
-                       || (locale != null && (item.getLocale() != null) && item.getLocale().equals(locale))))     //@B2A //@C1C
-          {
-            if (pretestConnections && !isConnectionAlive(item)) {
-              continue;  // Skip this connection, since it's no longer valid.
-            }
-            if (Trace.traceOn_)
-              log(Trace.INFORMATION, "Using already connected connection");
-            poolItem = item;
-            break;
-          }
+          if (!poolItem.getAS400Object().isConnected(service)) poolItem.getAS400Object().connectService(service); //@CRS
+          connected = true;
         }
-      }
-
-      if (poolItem == null)
-      {
-        // must not have found a suitable connected system, use the first available
-        //@B1D size = connectionList_.size();     
-        for (int i=0; i<size; i++)
+        finally
         {
-          PoolItem item = (PoolItem)connectionList_.elementAt(i);   
-          // check to see if that connection is in use
-          if (!item.isInUse())
-          {
-            if (secure && item.getAS400Object() instanceof SecureAS400
-                && ((item.getLocale() == null && locale == null)  //@B2A //@C1C
-                    || (locale != null && item.getLocale().equals(locale))))      //@B2A //@C1C
-            {
-              if (pretestConnections && !isConnectionAlive(item)) {
-                continue;  // Skip this connection, since it's no longer valid.
-              }
-              if (Trace.traceOn_)
-                log(Trace.INFORMATION, "Must not have found a suitable connection, using first available");
-              poolItem = item;                  
-              break;
-            }
-            else if (!secure && !(item.getAS400Object() instanceof SecureAS400)
-                     && ((item.getLocale() == null && locale == null)     //@B2A //@C1C
-                         || (locale != null && item.getLocale().equals(locale))))     //@B2A //@C1C
-            {
-              if (pretestConnections && !isConnectionAlive(item)) {
-                continue;  // Skip this connection, since it's no longer valid.
-              }
-              if (Trace.traceOn_)
-                log(Trace.INFORMATION, "Must not have found a suitable connection, using first available.");
-              poolItem = item;                  
-              break;
-            }
-          }
+          if (!connected) poolItem.setInUse(false);
         }
       }
-      if (poolItem != null)  //B1A
-      {
-    	synchronized(poolItem ) {   
-          if (!poolItem.getAS400Object().isConnected(service)) poolItem.getAS400Object().connectService(service); //@CRS
-          poolItem.setInUse(true); //@B1M
-    	}
-      }
-    }//@B1A end outer synchronized block
+    }
 
     if (poolItem == null)
     {
@@ -471,7 +453,7 @@ final class ConnectionList
    **/
   public int getConnectionCount()
   {
-    return connectionList_.size();      
+    return connectionList_.length;
   }
 
 
@@ -484,15 +466,11 @@ final class ConnectionList
    **/
   boolean hasConnectedConnection()
   {
-    synchronized (connectionList_)
+    PoolItem[] items = connectionList_;
+    for (int i=0; i<items.length; i++)
     {
-      int size = connectionList_.size();       
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);  
-        // Check to see if that connection is connected.
-        if (item.getAS400Object().isConnected()) return true; 
-      }
+      // Check to see if that connection is connected.
+      if (items[i].getAS400Object().isConnected()) return true;
     }
     return false;
   }
@@ -526,10 +504,10 @@ final class ConnectionList
 
   /**
    * Log the message to the log.
-   *   
+   *
    * @param   category  The trace category.
    * @param   msg  The message to log.
-   **/ 
+   **/
   private final void log(int category, String msg)
   {
     if (Trace.traceOn_ && Trace.isTraceOn(category))
@@ -541,7 +519,6 @@ final class ConnectionList
       }
     }
   }
-
   // Not used.
   //  /**
   //   * Log an exception and message to the event log.
@@ -613,7 +590,6 @@ final class ConnectionList
   //    }
   //  }
 
-
   /**
    * Removes any connection that has exceeded the time limits or usage count limits.
    *
@@ -623,124 +599,102 @@ final class ConnectionList
    **/
   void removeExpiredConnections(ConnectionPoolEventSupport poolListeners)   //@B1D synchronized
   throws AS400SecurityException, IOException
-  {    
-    synchronized (connectionList_)  //@B1A
+  {
+    // Each expired connection is taken out of the list first, and then disconnected,
+    // so that threads getting and returning connections never wait for the disconnect.
+    PoolItem[] items = connectionList_;
+    for (int i=items.length-1; i>=0; i--)
     {
-      int size = connectionList_.size();  
-      for (int i=size-1; i>=0; i--)
-      {
-        PoolItem p = (PoolItem)connectionList_.elementAt(i);    
+      PoolItem p = items[i];
 
-        // Be conservative about removing in-use connections.
-        if (p.isInUse())
+      // Be conservative about removing in-use connections.
+      if (p.isInUse())
+      {
+        // Reclaim an in-use connection, only if its maxUseTime limit is exceeded.
+        if ((properties_.getMaxUseTime() >= 0) &&
+                 (p.getInUseTime() >= properties_.getMaxUseTime()))
         {
-          // Reclaim an in-use connection, only if its maxUseTime limit is exceeded.
-          if ((properties_.getMaxUseTime() >= 0) &&
-                   (p.getInUseTime() >= properties_.getMaxUseTime()))
+          // Limit exceeded, so disconnect and remove the connection.
+          if (removeItem(p))
           {
-            // Limit exceeded, so disconnect and remove the connection.
-            if (log_ != null || Trace.traceOn_) {
-              log(ResourceBundleLoader.getText(EXPIRED_MAX_USE_TIME, new String[] {systemName_, userID_} ));
-            }
-            if (Trace.traceOn_) {
-              log(Trace.WARNING, "Disconnecting pooled connection (currently in use) because it has exceeded the maximum use time limit of " + properties_.getMaxUseTime() + " milliseconds.");
-            }
-            p.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(i);
-            if (poolListeners != null)
-            {
-              ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
-              poolListeners.fireConnectionExpiredEvent(poolEvent);  
-            }
+            expireConnection(p, EXPIRED_MAX_USE_TIME, Trace.WARNING, "Disconnecting pooled connection (currently in use) because it has exceeded the maximum use time limit of " + properties_.getMaxUseTime() + " milliseconds.", poolListeners);
           }
-        }  // if p.inUse()
-
+        }
+        continue;
+      }  // if p.inUse()
 
-        // The remaining cases are for connections that aren't currently in use.
 
+      // The remaining cases are for connections that aren't currently in use.
+      String expiration;
+      String reason;
 
-        // See if the pool item has failed a connection validity pretest.
-        else if (p.isFailedPretest())
-        {
-          // Failed a validation, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_FAILED_PRETEST, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has failed a validation pretest.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED);
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // See if the pool item has failed a connection validity pretest.
+      if (p.isFailedPretest())
+      {
+        expiration = EXPIRED_FAILED_PRETEST;
+        reason = "Disconnecting pooled connection (not currently in use) because it has failed a validation pretest.";
+      }
 
+      // See if the connection has exceeded the maximum inactivity time.
+      else if ((properties_.getMaxInactivity() >= 0) &&
+               (p.getInactivityTime() >= properties_.getMaxInactivity()))
+      {
+        expiration = EXPIRED_INACTIVE;
+        reason = "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum inactivity time limit of " + properties_.getMaxInactivity() + " milliseconds.";
+      }
 
-        // See if the connection has exceeded the maximum inactivity time.
-        else if ((properties_.getMaxInactivity() >= 0) && 
-                 (p.getInactivityTime() >= properties_.getMaxInactivity()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_INACTIVE, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum inactivity time limit of " + properties_.getMaxInactivity() + " milliseconds.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // See if the connection has exceeded the maximum use count.
+      else if ((properties_.getMaxUseCount() >= 0) &&
+               (p.getUseCount() >= properties_.getMaxUseCount()))
+      {
+        expiration = EXPIRED_MAX_USE_COUNT;
+        reason = "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum use count of " + properties_.getMaxUseCount();
+      }
 
-        // See if the connection has exceeded the maximum use count.
-        else if ((properties_.getMaxUseCount() >= 0) &&
-                 (p.getUseCount() >= properties_.getMaxUseCount()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_MAX_USE_COUNT, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum use count of " + properties_.getMaxUseCount());
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);             
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C //@B2C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // See if the connection has exceeded the maximum lifetime.
+      else if ( (properties_.getMaxLifetime() >= 0) &&
+                (p.getLifeSpan() >= properties_.getMaxLifetime()))
+      {
+        expiration = EXPIRED_MAX_LIFETIME;
+        reason = "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum lifetime limit of " + properties_.getMaxLifetime() + " milliseconds.";
+      }
+      else
+      {
+        continue;
+      }
 
-        // See if the connection has exceeded the maximum lifetime.
-        else if ( (properties_.getMaxLifetime() >= 0) && 
-                  (p.getLifeSpan() >= properties_.getMaxLifetime()))
-        {
-          // Limit exceeded, so disconnect and remove the connection.
-          if (log_ != null || Trace.traceOn_) {
-            log(ResourceBundleLoader.getText(EXPIRED_MAX_LIFETIME, new String[] {systemName_, userID_} ));
-          }
-          if (Trace.traceOn_) {
-            log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because it has exceeded the maximum lifetime limit of " + properties_.getMaxLifetime() + " milliseconds.");
-          }
-          p.getAS400Object().disconnectAllServices();
-          connectionList_.removeElementAt(i);           
-          if (poolListeners != null)
-          {
-            ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C //@B2C
-            poolListeners.fireConnectionExpiredEvent(poolEvent);  
-          }
-        }
+      // Limit exceeded, so disconnect and remove the connection.
+      // Claim it first, so that no other thread gets it in the meantime; if another thread already has, leave it alone.
+      if (p.claim() && removeItem(p))
+      {
+        expireConnection(p, expiration, Trace.DIAGNOSTIC, reason, poolListeners);
+      }
+    }//end 'for' loop
+  }
 
-      }//end 'for' loop
-    }//@B1A end synchronized
+  /**
+   * Disconnects a connection that has been removed from the list because it expired.
+   *
+   * @param p The pool item.
+   * @param expiration The MRI textID specifying the type of expiration.
+   * @param category The trace category for reason.
+   * @param reason The reason the connection is being disconnected.
+   * @param poolListeners The pool listeners to which events will be fired.
+   **/
+  private void expireConnection(PoolItem p, String expiration, int category, String reason, ConnectionPoolEventSupport poolListeners)
+  {
+    if (log_ != null || Trace.traceOn_) {
+      log(ResourceBundleLoader.getText(expiration, new String[] {systemName_, userID_} ));
+    }
+    if (Trace.traceOn_) {
+      log(category, reason);
+    }
+    p.getAS400Object().disconnectAllServices();
+    if (poolListeners != null)
+    {
+      ConnectionPoolEvent poolEvent = new ConnectionPoolEvent(p.getAS400Object(), ConnectionPoolEvent.CONNECTION_EXPIRED); //@A5C
+      poolListeners.fireConnectionExpiredEvent(poolEvent);
+    }
   }
 
   /**
@@ -754,20 +708,12 @@ final class ConnectionList
    **/
   boolean removeIfExpired(PoolItem poolItem, ConnectionPoolEventSupport poolListeners)
   {
-    if (connectionList_.isEmpty()) return false;
+    if (connectionList_.length == 0) return false;
 
-    boolean connectionIsExpired = false;
-    String expirationStatus = null;
-    synchronized (connectionList_)
-    {
-      expirationStatus = checkConnectionExpiration(poolItem);
-      if (expirationStatus == NOT_EXPIRED) {}  // do nothing
-      else {
-        connectionList_.removeElement(poolItem);
-        connectionIsExpired = true;
-      }
-    }
-    // Now that we're out of the sync block (and the connection has been removed from connectionList_), disconnect the connection.
+    String expirationStatus = checkConnectionExpiration(poolItem);
+    boolean connectionIsExpired = (expirationStatus != NOT_EXPIRED) && removeItem(poolItem);
+
+    // Now that the connection has been removed from connectionList_, disconnect the connection.
     if (connectionIsExpired)
     {
       if ((log_ != null || Trace.traceOn_) && expirationStatus != null)
@@ -795,32 +741,20 @@ final class ConnectionList
   **/
   boolean removeUnusedElements()
   {
-    synchronized (connectionList_)
+    //incrementally search the list, looking for elements that are not in
+    //use to remove
+    PoolItem[] items = connectionList_;
+    for (int numToCheck = items.length - 1; numToCheck >= 0; numToCheck--)
     {
-      if (connectionList_.size() > 0)
+      PoolItem item = items[numToCheck];
+      if (item.claim() && removeItem(item))
       {
-        int size = connectionList_.size();
-        //if there are no more elements remaining in the list, remove and 
-        //return false.
-        if (size == 0)
-          return false;
-        //incrementally search the list, looking for elements that are not in 
-        //use to remove
-
-        for (int numToCheck = size - 1; numToCheck >= 0; numToCheck--)
-        {
-          PoolItem item = (PoolItem)connectionList_.elementAt(numToCheck);
-          if (!item.isInUse())
-          {
-            if (Trace.traceOn_) {
-              log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because removeFromPool() was called.");
-            }
-            item.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(numToCheck);   
-          }
-        }// end 'for' loop
-      }//end if (connectionList_.size() > 0)	 
-    }//end synchronized
+        if (Trace.traceOn_) {
+          log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) because removeFromPool() was called.");
+        }
+        item.getAS400Object().disconnectAllServices();
+      }
+    }// end 'for' loop
     return true;
   }
 
@@ -831,19 +765,11 @@ final class ConnectionList
    **/
   void removeElement(AS400 systemToFind)
   {
-    synchronized(connectionList_)   //@A3A
+    PoolItem item = findElement(systemToFind);
+    if (item != null)
     {
-      int size = connectionList_.size();        
-      for (int i=0; i<size; i++)
-      {
-        PoolItem item = (PoolItem)connectionList_.elementAt(i);
-        if (item.getAS400Object().equals(systemToFind))   //@A3C //@A4C
-        {
-          connectionList_.removeElement(item);
-          return;     //@A3A
-        }
-      }  
-    }                   
+      removeItem(item);
+    }
   }
 
 
@@ -857,7 +783,7 @@ final class ConnectionList
   void setLog(Log log)
   {
     this.log_ = log;
-  } 
+  }
 
 
   /**
@@ -867,44 +793,35 @@ final class ConnectionList
   {
     if (log_ != null || Trace.traceOn_)
       log(ResourceBundleLoader.getText("CL_REMOLD", new String[] {systemName_, userID_} ));
-    int oldest = 0;
-    synchronized (connectionList_)
+    int reduce = ((getConnectionCount() - properties_.getMaxConnections() + 1));
+    for (int j = 0; j < reduce; j++)
     {
-      int reduce = ((getConnectionCount() - properties_.getMaxConnections() + 1));
-      for (int j = 0; j < reduce; j++)
+      PoolItem oldest = null;
+      long t = 0;
+      PoolItem[] items = connectionList_;
+      for (int i=0; i<items.length; i++)
       {
-        oldest = 0;
-        if (connectionList_.size() > 0)
+        PoolItem item = items[i];
+        if (!item.isInUse())
         {
-          long t = 0;
-          int size = connectionList_.size();            
-          for (int i=0; i<size; i++)
+          if (item.getInactivityTime() > t || oldest == null)
           {
-            PoolItem item = (PoolItem)connectionList_.elementAt(i);
-            if (!item.isInUse())
-            {
-              if (item.getInactivityTime() > t || oldest == 0)
-              {
-                oldest = i;
-                t = item.getInactivityTime();
-              }
-            }
+            oldest = item;
+            t = item.getInactivityTime();
           }
+        }
+      }
 
-          //only disconnect oldest item if it is not in use
-          PoolItem item = (PoolItem)connectionList_.elementAt(oldest);      
-          if (!item.isInUse())
-          {
-            if (Trace.traceOn_) {
-              log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) during removal of oldest unallocated connections.");
-            }
-            item.getAS400Object().disconnectAllServices();
-            connectionList_.removeElementAt(oldest);   
-            if (log_ != null || Trace.traceOn_)
-              log(ResourceBundleLoader.getText("CL_REMOLDCOMP", new String[] {systemName_, userID_} ));
-          }
-        }//end if (connectionList_.size() > 0)	
-      }//end 'for' loop
-    }//end synchronized
+      //only disconnect oldest item if it is not in use
+      if (oldest != null && oldest.claim() && removeItem(oldest))
+      {
+        if (Trace.traceOn_) {
+          log(Trace.DIAGNOSTIC, "Disconnecting pooled connection (not currently in use) during removal of oldest unallocated connections.");
+        }
+        oldest.getAS400Object().disconnectAllServices();
+        if (log_ != null || Trace.traceOn_)
+          log(ResourceBundleLoader.getText("CL_REMOLDCOMP", new String[] {systemName_, userID_} ));
+      }
+    }//end 'for' loop
   }//end shutDownOldest()
 }
@@ -45,8 +45,12 @@ public abstract class ConvTableSingleMap extends ConvTable
               "Converting byte array to string for ccsid: " + ccsid_+" offset:"+offset+" len:"+length, 
               buf, offset, length);
         char[] dest = new char[length];
+        char[] toUnicode = toUnicode_;
         // The 0x00FF is so we don't get any negative indices.
-        for (int i = 0; i < length; dest[i] = toUnicode_[0x00FF & buf[offset + (i++)]]);
+        for (int i = 0; i < length; ++i)
+        {
+            dest[i] = toUnicode[0x00FF & buf[offset + i]];
+        }
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination string for ccsid: " + ccsid_, ConvTable.dumpCharArray(dest));
         return String.copyValueOf(dest);
     }
@@ -54,48 +58,68 @@ public abstract class ConvTableSingleMap extends ConvTable
     // Perform a Unicode to OS/400 CCSID conversion.
     final byte[] stringToByteArray(String source, BidiConversionProperties properties)
     {
-        char[] src = source.toCharArray();
-        // Call char[] method.
-        return stringToByteArray(src, 0, src.length);
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(source.toCharArray()));
+        int length = source.length();
+        byte[] dest = new byte[length];
+        byte[] fromUnicode = fromUnicode_;
+        // Read the characters in place, rather than copying them out of the String first.
+        for (int i = 0; i < length; ++i)
+        {
+            dest[i] = fromUnicode[source.charAt(i)];
+        }
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, dest);
+        return dest;
     }
 
     public final byte[] stringToByteArray(char[] src, int offset, int length)
     {
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(src, offset, length));
         byte[] dest = new byte[length];
-        for (int i = offset; i < length; dest[i] = fromUnicode_[src[i++]]);
+        byte[] fromUnicode = fromUnicode_;
+        for (int i = 0; i < length; ++i)
+        {
+            dest[i] = fromUnicode[src[offset + i]];
+        }
         if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, dest);
         return dest;
     }
 
     public final void stringToByteArray(String source, byte[] buf, int offset) throws CharConversionException
     {
-        char[] src = source.toCharArray();
-        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(src));
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(source.toCharArray()));
+        int length = source.length();
+        byte[] fromUnicode = fromUnicode_;
         try
         {
-            for (int i = 0; i < src.length; buf[i + offset] = fromUnicode_[src[i++]]);
+            for (int i = 0; i < length; ++i)
+            {
+                buf[i + offset] = fromUnicode[source.charAt(i)];
+            }
         }
         catch (ArrayIndexOutOfBoundsException aioobe)
         {
             throw new CharConversionException();
         }
-        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, buf, offset, src.length);
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, buf, offset, length);
     }
 
     public final void stringToByteArray(String source, byte[] buf, int offset, int length) throws CharConversionException
     {
-        char[] src = source.toCharArray();
-        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(src));
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Converting string to byte array for ccsid: " + ccsid_, ConvTable.dumpCharArray(source.toCharArray()));
+        int count = Math.min(source.length(), length);
+        byte[] fromUnicode = fromUnicode_;
         try
         {
-            for (int i = 0; i < src.length && i < length; buf[i + offset] = fromUnicode_[src[i++]]);
+            for (int i = 0; i < count; ++i)
+            {
+                buf[i + offset] = fromUnicode[source.charAt(i)];
+            }
         }
         catch (ArrayIndexOutOfBoundsException aioobe)
         {
             throw new CharConversionException();
         }
-        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, buf, offset, src.length);
+        if (Trace.traceConversion_) Trace.log(Trace.CONVERSION, "Destination byte array for ccsid: " + ccsid_, buf, offset, source.length());
     }
     
     public void updateToUnicode(int ebcdic, char unicode) {
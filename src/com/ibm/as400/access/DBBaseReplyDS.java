@@ -628,6 +628,7 @@ Parses the datastream.
       System.arraycopy(data_, 4, newData, 4, 36);                             // @E2A
       DataStreamCompression.decompressRLE(data_, 50, get32bit(0)-50,          // @E2A @E3C
                                           newData, 40, DataStreamCompression.DEFAULT_ESCAPE, true);                 // @E2A
+      if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(AS400.DATABASE).recordCompression(newData.length, get32bit(0));
       data_ = newData;                                                        // @E2A
       byteCount_ = data_.length - 20;                                         // @E2A
     }                                                                           // @E2A
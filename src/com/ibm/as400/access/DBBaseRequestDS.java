@@ -201,6 +201,7 @@ extends ClientAccessDataStream
   private final DBStorage storage_ = DBDSPool.storagePool_.getUnusedStorage(); //@P0A
   private int[]                  sendHistory = new int[SEND_HISTORY_SIZE];  // @A8A
   private int                    sendHistoryOffset = 0;                     // @A8A
+  private DBDSFreeList           freeList_ = null;    // Set if this stream came from a DBDSPool free list.
 
   // Values for operation result bitmap.
   public static final int       ORS_BITMAP_RETURN_DATA                 = 0x80000000;    // Bit 1
@@ -1014,10 +1015,9 @@ Overrides the superclass to write the datastream.
       {                                              // @E3A
 
         // Get another piece of storage from the pool.                                     @E3A
-        DBStorage secondaryStorage = DBDSPool.storagePool_.getUnusedStorage();                  // @E3A @P0C
+        DBStorage secondaryStorage = DBDSPool.storagePool_.getUnusedStorage(currentOffset_);    // @E3A @P0C
         try //@P0A
         {
-          secondaryStorage.checkSize(currentOffset_);                                     // @E3A
           byte[] compressedBytes = secondaryStorage.getData();                      // @E3A @P0C
 
           // Compress the bytes not including the header (20 bytes) and template             @E3A
@@ -1059,6 +1059,7 @@ Overrides the superclass to write the datastream.
           if (useCompression)
           {                                                       // @E3A
             int compressedSizeWithHeader = compressedSize + 50;                         // @E3A @E5C
+            if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(AS400.DATABASE).recordCompression(currentOffset_, compressedSizeWithHeader);
             BinaryConverter.intToByteArray(compressedSizeWithHeader, compressedBytes, 0); // @E3A
             System.arraycopy(data_, 4, compressedBytes, 4, 36);                         // @E3A
             BinaryConverter.intToByteArray(compressedSize + 10, compressedBytes, 40);   // @E5A
@@ -1133,6 +1134,14 @@ Overrides the superclass to write the datastream.
 	  data_ = null;   //Safe, this is assigned during initialize.
 	  
 	  super.returnToPool(); 
+	  if (freeList_ != null) {
+		  freeList_.add(this); 
+	  }
+  }
+
+  // Remember the DBDSPool free list to return this stream to.
+  void setFreeList(DBDSFreeList freeList) {
+	  freeList_ = freeList; 
   }
 
 
@@ -0,0 +1,145 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DBDSFreeList.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+// A bounded free list of pooled data streams, used by DBDSPool.
+//
+// Rather than scanning an array of every stream ever created for one that is not in use,
+// streams are pushed onto the free list when they are returned and popped when they are
+// needed, so both operations are constant time.  The list is split into stripes, each with
+// its own lock, and a thread always starts with the same stripe so that concurrent
+// connections rarely contend.  Each stripe retains at most MAX_PER_STRIPE_ free streams;
+// streams returned beyond that are left to the garbage collector.
+final class DBDSFreeList
+{
+  private static final int STRIPES_ = 8;  // Must be a power of two.
+  private static final int MAX_PER_STRIPE_ = 64;
+
+  private final Stripe[] stripes_ = new Stripe[STRIPES_];
+
+  private static final class Stripe
+  {
+    final ClientAccessDataStream[] free_ = new ClientAccessDataStream[MAX_PER_STRIPE_];
+    int count_ = 0;
+
+    // Statistics, guarded by this.
+    long hits_ = 0;
+    long misses_ = 0;
+    long discards_ = 0;
+  }
+
+  DBDSFreeList()
+  {
+    for (int i = 0; i < STRIPES_; ++i)
+    {
+      stripes_[i] = new Stripe();
+    }
+  }
+
+  private static int getStripeIndex()
+  {
+    int h = System.identityHashCode(Thread.currentThread());
+    return (h ^ (h >>> 16)) & (STRIPES_ - 1);
+  }
+
+  // Returns a free stream, already marked as in use, or null if there is none.
+  // The caller's own stripe is tried first, then the others.
+  final ClientAccessDataStream get()
+  {
+    int start = getStripeIndex();
+    for (int n = 0; n < STRIPES_; ++n)
+    {
+      Stripe stripe = stripes_[(start + n) & (STRIPES_ - 1)];
+      synchronized (stripe)
+      {
+        while (stripe.count_ > 0)
+        {
+          ClientAccessDataStream ds = stripe.free_[--stripe.count_];
+          stripe.free_[stripe.count_] = null;
+          if (ds.canUse())
+          {
+            ++stripes_[start].hits_;
+            return ds;
+          }
+        }
+      }
+    }
+    synchronized (stripes_[start])
+    {
+      ++stripes_[start].misses_;
+    }
+    return null;
+  }
+
+  // Adds a stream that has been returned (inUse_ is false) to the free list.
+  final void add(ClientAccessDataStream ds)
+  {
+    Stripe stripe = stripes_[getStripeIndex()];
+    synchronized (stripe)
+    {
+      if (stripe.count_ < MAX_PER_STRIPE_)
+      {
+        stripe.free_[stripe.count_++] = ds;
+      }
+      else
+      {
+        ++stripe.discards_;
+      }
+    }
+  }
+
+  // Returns the number of requests satisfied from the free list.
+  final long getHits()
+  {
+    long total = 0;
+    for (int i = 0; i < STRIPES_; ++i)
+    {
+      synchronized (stripes_[i]) { total += stripes_[i].hits_; }
+    }
+    return total;
+  }
+
+  // Returns the number of requests that found the free list empty, and so allocated a new stream.
+  final long getMisses()
+  {
+    long total = 0;
+    for (int i = 0; i < STRIPES_; ++i)
+    {
+      synchronized (stripes_[i]) { total += stripes_[i].misses_; }
+    }
+    return total;
+  }
+
+  // Returns the number of returned streams that were dropped because their stripe was full.
+  final long getDiscards()
+  {
+    long total = 0;
+    for (int i = 0; i < STRIPES_; ++i)
+    {
+      synchronized (stripes_[i]) { total += stripes_[i].discards_; }
+    }
+    return total;
+  }
+
+  // Returns the number of free streams currently retained.
+  final int size()
+  {
+    int total = 0;
+    for (int i = 0; i < STRIPES_; ++i)
+    {
+      synchronized (stripes_[i]) { total += stripes_[i].count_; }
+    }
+    return total;
+  }
+}
@@ -11,12 +11,16 @@
 //                                                                             
 ///////////////////////////////////////////////////////////////////////////////
 
+
 package com.ibm.as400.access;
 
-import java.lang.ref.SoftReference;
 
 
 // This handles all of the datastream pooling for JDBC.
+//
+// Each kind of datastream has a DBDSFreeList.  Streams are put on their free list when they
+// are returned to the pool, and taken off it when they are needed; a new stream is only
+// created when the free list is empty.
 final class DBDSPool
 {
   static final String copyright = "Copyright (C) 1997-2010 International Business Machines Corporation and others.";
@@ -24,49 +28,26 @@ final class DBDSPool
   private DBDSPool() {}
 
   // Request streams.
-  private static DBSQLRPBDS[] dbsqlrpbdsPool_ = new DBSQLRPBDS[4];
-  private static final Object dbsqlrpbdsPoolLock_ = new Object(); //@P1A
-  
-  private static DBSQLDescriptorDS[] dbsqldescriptordsPool_ = new DBSQLDescriptorDS[4];
-  private static final Object dbsqldescriptordsPoolLock_ = new Object(); //@P1A
-  
-  private static DBSQLResultSetDS[] dbsqlresultsetdsPool_ = new DBSQLResultSetDS[4];
-  private static final Object dbsqlresultsetdsPoolLock_ = new Object(); //@P1A
-  
-  private static DBSQLRequestDS[] dbsqlrequestdsPool_ = new DBSQLRequestDS[4];
-  private static final Object dbsqlrequestdsPoolLock_ = new Object(); //@P1A
-  private static int          dbsqlrequestdsPoolHighMark_ = 0;        // @A8A
-  private static int          dbsqlrequestdsPoolAllocations_ = 0; 
-  private static int          dbsqlrequestdsPoolReclaimThreshold = 1000;  
-   
-  private static DBNativeDatabaseRequestDS[] dbnativedatabaserequestdsPool_ = new DBNativeDatabaseRequestDS[4];
-  private static final Object dbnativedatabaserequestdsPoolLock_ = new Object(); //@P1A
-  
-  private static DBReturnObjectInformationRequestDS[] dbreturnobjectinformationrequestdsPool_ = new DBReturnObjectInformationRequestDS[4];
-  private static final Object dbreturnobjectinformationrequestdsPoolLock_ = new Object(); //@P1A
-  
-  private static DBSQLAttributesDS[] dbsqlattributesdsPool_ = new DBSQLAttributesDS[4];
-  private static final Object dbsqlattributesdsPoolLock_ = new Object(); //@P1A
-  
-  private static DBXARequestDS[] dbxarequestdsPool_ = new DBXARequestDS[4];
-  private static final Object dbxarequestdsPoolLock_ = new Object(); //@P1A
+  private static final DBDSFreeList dbsqlrpbdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbsqldescriptordsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbsqlresultsetdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbsqlrequestdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbnativedatabaserequestdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbreturnobjectinformationrequestdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbsqlattributesdsPool_ = new DBDSFreeList();
+  private static final DBDSFreeList dbxarequestdsPool_ = new DBDSFreeList();
 
   // Reply streams.
-  /* private  */ 
-  static SoftReference[] dbreplyrequesteddsPool_ = new SoftReference[4];
-  private static final Object dbreplyrequesteddsPoolLock_ = new Object(); //@P1A
-  private static int dbReplyRequestedPoolSearchStart_=0;                                         //@B5A
-  private static final int DB_REPLY_REQUEST_POOL_SEARCH_RESET = 4096;         // @B5A
-  private static final int DB_REPLY_REQUEST_LOCALITY = 256; 
-  private static int       dbReplyRequestedPoolSearchCount_ = 0;                                    // @B5A
-  private static boolean   dbReplyRequestedPoolFull_ = false; 
+  private static final DBDSFreeList dbreplyrequesteddsPool_ = new DBDSFreeList();
+  private static int dbReplyRequestedPoolIndex_ = 0;                                         //@B5A
+  private static final Object dbReplyRequestedPoolIndexLock_ = new Object();
 
   static final DBStoragePool storagePool_ = new DBStoragePool();
   
   
   // IMPORTANT: These methods only retrieve free streams from their respective pools.
-  // It is up to the code using these pools to free up the streams by setting
-  // their inUse_ flags to false.
+  // It is up to the code using these pools to free up the streams by calling
+  // their returnToPool() methods.
   static String changeTime="2010/06/14 08:09"; 
   static boolean noDBReplyPooling = false;
   static boolean monitor = false;                                                                                 //@B5A
@@ -84,22 +65,40 @@ final class DBDSPool
   	  }
   }
   
-  static void returnToDBReplyRequestedPool(int poolIndex) {                                        //@B5A
-	  if (poolIndex >= 0) {
-	  if (dbReplyRequestedPoolFull_) {
-		  dbReplyRequestedPoolFull_ = false;
-	      dbReplyRequestedPoolSearchStart_ = poolIndex; 
-	  } else { 
-	    if (poolIndex < dbReplyRequestedPoolSearchStart_ &&
-		  poolIndex >= (dbReplyRequestedPoolSearchStart_ - DB_REPLY_REQUEST_LOCALITY )) {
-	      dbReplyRequestedPoolSearchStart_ = poolIndex; 
-	    }
-	  }
-	  }
+  static void returnToDBReplyRequestedPool(DBReplyRequestedDS ds) {                                        //@B5A
+	  dbreplyrequesteddsPool_.add(ds); 
   }
   
+  // Returns the number of free reply streams in the pool.
   public static int getDBReplyRequestedDSPoolSize() {
-	  return dbreplyrequesteddsPool_.length; 
+	  return dbreplyrequesteddsPool_.size(); 
+  }
+
+  // Returns the pool statistics, for tracing and monitoring.
+  static String getStatistics() {
+	  StringBuffer buf = new StringBuffer("DBDSPool:");
+	  appendStatistics(buf, "DBReplyRequestedDS", dbreplyrequesteddsPool_);
+	  appendStatistics(buf, "DBSQLRPBDS", dbsqlrpbdsPool_);
+	  appendStatistics(buf, "DBSQLDescriptorDS", dbsqldescriptordsPool_);
+	  appendStatistics(buf, "DBSQLResultSetDS", dbsqlresultsetdsPool_);
+	  appendStatistics(buf, "DBSQLRequestDS", dbsqlrequestdsPool_);
+	  appendStatistics(buf, "DBNativeDatabaseRequestDS", dbnativedatabaserequestdsPool_);
+	  appendStatistics(buf, "DBReturnObjectInformationRequestDS", dbreturnobjectinformationrequestdsPool_);
+	  appendStatistics(buf, "DBSQLAttributesDS", dbsqlattributesdsPool_);
+	  appendStatistics(buf, "DBXARequestDS", dbxarequestdsPool_);
+	  buf.append(" DBStorage[free=").append(storagePool_.getSize());
+	  buf.append(" hits=").append(storagePool_.getHits());
+	  buf.append(" allocations=").append(storagePool_.getAllocations());
+	  buf.append(" discards=").append(storagePool_.getDiscards()).append(']');
+	  return buf.toString();
+  }
+
+  private static void appendStatistics(StringBuffer buf, String name, DBDSFreeList pool) {
+	  buf.append(' ').append(name);
+	  buf.append("[free=").append(pool.size());
+	  buf.append(" hits=").append(pool.getHits());
+	  buf.append(" misses=").append(pool.getMisses());
+	  buf.append(" discards=").append(pool.getDiscards()).append(']');
   }
   
   static final DBReplyRequestedDS getDBReplyRequestedDS() {
@@ -108,398 +107,134 @@ final class DBDSPool
       unpooledDS.canUse();
       unpooledDS.setInPool(false); // @B5A
       return unpooledDS;
-    } else {
-      synchronized (dbreplyrequesteddsPoolLock_) // @P1C
-      {
-        // This pools is maintained as weak references to
-        // all the garbage collector to free up as needed.
-        // DBReplyRequestedDS[] pool = dbreplyrequesteddsPool_; //@P1M
-        SoftReference[] pool = dbreplyrequesteddsPool_; // @P1M
-        int max = pool.length;
-
-        // Periodically begin the search for free items at the beginning of the
-        // pool @B5A
-        int searchStart = dbReplyRequestedPoolSearchStart_;
-        if (dbReplyRequestedPoolFull_) {
-          searchStart = pool.length;
-        }
-        if (dbReplyRequestedPoolSearchCount_ > DB_REPLY_REQUEST_POOL_SEARCH_RESET) {
-          dbReplyRequestedPoolFull_ = false;
-          searchStart = 0;
-          dbReplyRequestedPoolSearchCount_ = 0;
-        }
-        dbReplyRequestedPoolSearchCount_++;
-
-        for (int i = searchStart; i < pool.length; ++i) {
-          if (pool[i] == null) {
-            DBReplyRequestedDS pooledDs = new DBReplyRequestedDS(monitor, i);
-            pooledDs.canUse();
-            pooledDs.setInPool(true);
-            pool[i] = new SoftReference(pooledDs);
-            dbReplyRequestedPoolSearchStart_ = i + 1;
-            return pooledDs;
-
-          } else {
-            DBReplyRequestedDS ds = (DBReplyRequestedDS) pool[i].get();
-            // Sometimes the pool gets unpooled entries.  If this is the case
-            // just remove it from the pool. 
-            // Sometimes ds.storage_ can be null because of a
-            // GC bug.  If so, do not use it. 
-            if (ds == null || ds.storage_ == null   ) {
-              ds = new DBReplyRequestedDS(monitor, i);
-              ds.canUse();
-              ds.setInPool(true);
-              pool[i] = new SoftReference(ds);
-              dbReplyRequestedPoolSearchStart_ = i + 1;
-              // pool[i].setPoolIndex(i);
-              return ds;
-
-            } else {
-              if ((ds.inUse_ == false) && (ds.canUse())) {
-            	  
-                // More code for the GC bug.  If the finalize
-            	  // happened to run after we checked then storage could have been null  
-                if (ds.storage_ == null) {
-                  // If the storage_ happens to be null, don't use it.
-                  // Keep looking for another one.  This will be cleaned 
-                  // up on the next search (see above). 
-                } else {
-                  ds.initialize();
-                  // pool[i].setPoolIndex(i);
-                  dbReplyRequestedPoolSearchStart_ = i + 1;
-                  return ds;
-                }
-              }
-            }
-          }
-        }
-        // All are in use, so expand the pool but keep the pool less than 16384
-        if (max * 2 < 16385) {
-          // Have a monitor so we can see the usage of these items @B5A
-          if (monitor) {
-            System.out.println("Expanding DBDSPool to size " + (max * 2));
-            for (int i = 0; i < max; i++) {
-              DBReplyRequestedDS ds = (DBReplyRequestedDS) pool[i].get();
-              if (ds == null) {
-                System.out.println("Entry " + i + " : null");
-              } else {
-                System.out.println("Entry " + i + " : "
-                    + ds.getAllocatedLocation());
-              }
-            }
-          }
-          SoftReference[] temp = new SoftReference[max * 2];
-          System.arraycopy(pool, 0, temp, 0, max);
-          DBReplyRequestedDS pooledDs = new DBReplyRequestedDS(monitor, max);
-          pooledDs.canUse(); 
-          pooledDs.setInPool(true); // @B5A
-          temp[max] = new SoftReference(pooledDs);
-          // temp[max].setPoolIndex(max);
-
-          dbreplyrequesteddsPool_ = temp;
-          // Start the search at zero after expanding
-          dbReplyRequestedPoolSearchStart_ = 0; // @B5A
-          return pooledDs;
-        } else {
-          DBReplyRequestedDS nonpooledDS = new DBReplyRequestedDS(monitor, -1);
-          nonpooledDS.canUse();
-          nonpooledDS.setInPool(false);
-          if (!dbReplyRequestedPoolFull_) {
-            dbReplyRequestedPoolFull_ = true;
-          }
-          return nonpooledDS;
-        }
-      } /* synchronized */ 
     }
+    DBReplyRequestedDS ds = (DBReplyRequestedDS) dbreplyrequesteddsPool_.get();
+    if (ds != null) {
+      ds.initialize();
+      return ds;
+    }
+    int poolIndex;
+    synchronized (dbReplyRequestedPoolIndexLock_) {
+      // Pooled streams have a non-negative index.
+      if (++dbReplyRequestedPoolIndex_ < 0) dbReplyRequestedPoolIndex_ = 0;
+      poolIndex = dbReplyRequestedPoolIndex_;
+    }
+    DBReplyRequestedDS pooledDs = new DBReplyRequestedDS(monitor, poolIndex);
+    pooledDs.canUse();
+    pooledDs.setInPool(true); // @B5A
+    return pooledDs;
   }
-  
-  static final DBXARequestDS getDBXARequestDS(int a, int b, int c, int d)
+
+  static final DBSQLRPBDS getDBSQLRPBDS(int a, int b, int c, int d)
   {
-    synchronized(dbxarequestdsPoolLock_) //@P1C
+    DBSQLRPBDS ds = (DBSQLRPBDS) dbsqlrpbdsPool_.get();
+    if (ds != null)
     {
-      DBXARequestDS[] pool = dbxarequestdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<pool.length; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBXARequestDS request = new DBXARequestDS(a,b,c,d);
-          request.canUse();
-          pool[i] = request; 
-          return request;
-        }
-         if (( pool[i].inUse_ == false) && pool[i].canUse())
-           {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-           }
-      }
-      // All are in use, so expand the pool.
-      DBXARequestDS[] temp = new DBXARequestDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBXARequestDS request = new DBXARequestDS(a,b,c,d);
-      request.canUse();
-      temp[max] = request; 
-      dbxarequestdsPool_ = temp;
-      return request;
+      ds.initialize(a,b,c,d);
+      return ds;
     }
+    ds = new DBSQLRPBDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbsqlrpbdsPool_);
+    return ds;
   }
 
-  static final DBSQLAttributesDS getDBSQLAttributesDS(int a, int b, int c, int d)
+  static final DBSQLDescriptorDS getDBSQLDescriptorDS(int a, int b, int c, int d)
   {
-    synchronized(dbsqlattributesdsPoolLock_) //@P1C
+    DBSQLDescriptorDS ds = (DBSQLDescriptorDS) dbsqldescriptordsPool_.get();
+    if (ds != null)
     {
-      DBSQLAttributesDS[] pool = dbsqlattributesdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<pool.length; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBSQLAttributesDS request = new DBSQLAttributesDS(a,b,c,d);
-          request.canUse(); 
-          pool[i] = request; 
-          return request;
-        }
-
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-          }
-      }
-      // All are in use, so expand the pool.
-      DBSQLAttributesDS[] temp = new DBSQLAttributesDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBSQLAttributesDS ds = new DBSQLAttributesDS(a,b,c,d);
-      ds.canUse();
-      temp[max]= ds;
-      dbsqlattributesdsPool_ = temp;
+      ds.initialize(a,b,c,d);
       return ds;
     }
+    ds = new DBSQLDescriptorDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbsqldescriptordsPool_);
+    return ds;
   }
 
-  static final DBNativeDatabaseRequestDS getDBNativeDatabaseRequestDS(int a, int b, int c, int d)
+  static final DBSQLResultSetDS getDBSQLResultSetDS(int a, int b, int c, int d)
   {
-    synchronized(dbnativedatabaserequestdsPoolLock_) //@P1C
+    DBSQLResultSetDS ds = (DBSQLResultSetDS) dbsqlresultsetdsPool_.get();
+    if (ds != null)
     {
-      DBNativeDatabaseRequestDS[] pool = dbnativedatabaserequestdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<pool.length; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBNativeDatabaseRequestDS request =  new DBNativeDatabaseRequestDS(a,b,c,d);
-          // Mark as used before placing in the pool
-          request.canUse(); 
-          pool[i] =request; 
-          return request;
-        }
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-          }
-      }
-      // All are in use, so expand the pool.
-      DBNativeDatabaseRequestDS[] temp = new DBNativeDatabaseRequestDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBNativeDatabaseRequestDS newRequest = new DBNativeDatabaseRequestDS(a,b,c,d);
-      // Mark as inuse before adding to the pool
-      newRequest.canUse(); 
-      temp[max] = newRequest; 
-  
-      dbnativedatabaserequestdsPool_ = temp;
-      return newRequest;
+      ds.initialize(a,b,c,d);
+      return ds;
     }
+    ds = new DBSQLResultSetDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbsqlresultsetdsPool_);
+    return ds;
   }
 
-  static final DBReturnObjectInformationRequestDS getDBReturnObjectInformationRequestDS(int a, int b, int c, int d)
+  static final DBSQLRequestDS getDBSQLRequestDS(int a, int b, int c, int d)
   {
-    synchronized(dbreturnobjectinformationrequestdsPoolLock_) //@P1C
+    DBSQLRequestDS ds = (DBSQLRequestDS) dbsqlrequestdsPool_.get();
+    if (ds != null)
     {
-      DBReturnObjectInformationRequestDS[] pool = dbreturnobjectinformationrequestdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<pool.length; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBReturnObjectInformationRequestDS request = new DBReturnObjectInformationRequestDS(a,b,c,d);
-          request.canUse(); 
-          pool[i] = request; 
-          
-          return request;
-        }
-    	synchronized(pool[i]) {   // @A7A  
-
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-         }
-        }
-      }
-      // All are in use, so expand the pool.
-      DBReturnObjectInformationRequestDS[] temp = new DBReturnObjectInformationRequestDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBReturnObjectInformationRequestDS newRequest = new DBReturnObjectInformationRequestDS(a,b,c,d);
-      newRequest.canUse(); 
-      temp[max] = newRequest; 
-      dbreturnobjectinformationrequestdsPool_ = temp;
-      return newRequest;
+      ds.initialize(a,b,c,d);
+      return ds;
     }
+    ds = new DBSQLRequestDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbsqlrequestdsPool_);
+    return ds;
   }
 
-  static final DBSQLDescriptorDS getDBSQLDescriptorDS(int a, int b, int c, int d)
+  static final DBNativeDatabaseRequestDS getDBNativeDatabaseRequestDS(int a, int b, int c, int d)
   {
-    synchronized(dbsqldescriptordsPoolLock_) //@P1C
+    DBNativeDatabaseRequestDS ds = (DBNativeDatabaseRequestDS) dbnativedatabaserequestdsPool_.get();
+    if (ds != null)
     {
-      DBSQLDescriptorDS[] pool = dbsqldescriptordsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<max; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBSQLDescriptorDS ds = new DBSQLDescriptorDS(a,b,c,d);
-          ds.canUse();
-          pool[i] = ds;
-          return ds;
-        }
-    	synchronized(pool[i]) {   // @A7A  
-
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-          }
-    	}
-      }
-      // All are in use, so expand the pool.
-      DBSQLDescriptorDS[] temp = new DBSQLDescriptorDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBSQLDescriptorDS ds = new DBSQLDescriptorDS(a,b,c,d);
-      ds.canUse();
-      temp[max] = ds; 
-      dbsqldescriptordsPool_ = temp;
+      ds.initialize(a,b,c,d);
       return ds;
     }
+    ds = new DBNativeDatabaseRequestDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbnativedatabaserequestdsPool_);
+    return ds;
   }
 
-  static final DBSQLRequestDS getDBSQLRequestDS(int a, int b, int c, int d)
+  static final DBReturnObjectInformationRequestDS getDBReturnObjectInformationRequestDS(int a, int b, int c, int d)
   {
-    synchronized(dbsqlrequestdsPoolLock_) //@P1C
+    DBReturnObjectInformationRequestDS ds = (DBReturnObjectInformationRequestDS) dbreturnobjectinformationrequestdsPool_.get();
+    if (ds != null)
     {
-      DBSQLRequestDS[] pool = dbsqlrequestdsPool_; //@P1M
-
-      int max = pool.length;
-
-      //  @A8A  
-      dbsqlrequestdsPoolAllocations_++; 
-      if (dbsqlrequestdsPoolAllocations_ > dbsqlrequestdsPoolReclaimThreshold) {
-    	  // System.out.println("Running cleanup in getDBSQLRequestDS"); 
-    	  dbsqlrequestdsPoolAllocations_ = 0; 
-    	  for (int i = dbsqlrequestdsPoolHighMark_+1; i < max; i++) {
-   	        if (pool[i] != null) {
-   	        	if (( pool[i].inUse_ == false) && pool[i].canUse()) {
-     	          pool[i].reclaim(); 
-     	          pool[i].returnToPool();
-   	            }
-   	        }
-    	  }
-    	  dbsqlrequestdsPoolHighMark_ = 0; 
-    	  // System.out.println("Finished cleanup in getDBSQLRequestDS"); 
-      }
-      
-      for (int i=0; i<max; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBSQLRequestDS ds = new DBSQLRequestDS(a,b,c,d);
-          ds.canUse();
-          pool[i] = ds; 
-          if (i > dbsqlrequestdsPoolHighMark_) dbsqlrequestdsPoolHighMark_ = i;   // @A8A
-          return ds;
-        }
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            if (i > dbsqlrequestdsPoolHighMark_) dbsqlrequestdsPoolHighMark_ = i; 
-            return pool[i];
-          }
-      }
-      // All are in use, so expand the pool.
-      DBSQLRequestDS[] temp = new DBSQLRequestDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBSQLRequestDS ds = new DBSQLRequestDS(a,b,c,d);
-      ds.canUse();
-      temp[max]=ds; 
-      dbsqlrequestdsPool_ = temp;
-      if (max > dbsqlrequestdsPoolHighMark_) dbsqlrequestdsPoolHighMark_ = max;   // @A8A
+      ds.initialize(a,b,c,d);
       return ds;
     }
+    ds = new DBReturnObjectInformationRequestDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbreturnobjectinformationrequestdsPool_);
+    return ds;
   }
 
-  static final DBSQLResultSetDS getDBSQLResultSetDS(int a, int b, int c, int d)
+  static final DBSQLAttributesDS getDBSQLAttributesDS(int a, int b, int c, int d)
   {
-    synchronized(dbsqlresultsetdsPoolLock_) //@P1C
+    DBSQLAttributesDS ds = (DBSQLAttributesDS) dbsqlattributesdsPool_.get();
+    if (ds != null)
     {
-      DBSQLResultSetDS[] pool = dbsqlresultsetdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<max; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBSQLResultSetDS ds = new DBSQLResultSetDS(a,b,c,d);
-          ds.canUse();
-          pool[i] = ds; 
-          return ds;
-        }
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-          }
-      }
-      // All are in use, so expand the pool.
-      DBSQLResultSetDS[] temp = new DBSQLResultSetDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBSQLResultSetDS ds = new DBSQLResultSetDS(a,b,c,d);
-      ds.canUse();
-      temp[max] = ds; 
-      dbsqlresultsetdsPool_ = temp;
+      ds.initialize(a,b,c,d);
       return ds;
     }
+    ds = new DBSQLAttributesDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbsqlattributesdsPool_);
+    return ds;
   }
 
-  static final DBSQLRPBDS getDBSQLRPBDS(int a, int b, int c, int d)
+  static final DBXARequestDS getDBXARequestDS(int a, int b, int c, int d)
   {
-    synchronized(dbsqlrpbdsPoolLock_) //@P1C
+    DBXARequestDS ds = (DBXARequestDS) dbxarequestdsPool_.get();
+    if (ds != null)
     {
-      DBSQLRPBDS[] pool = dbsqlrpbdsPool_; //@P1M
-      int max = pool.length;
-      for (int i=0; i<max; ++i)
-      {
-        if (pool[i] == null)
-        {
-          DBSQLRPBDS ds = new DBSQLRPBDS(a,b,c,d);
-          ds.canUse();
-          pool[i] = ds; 
-          return ds;
-        }
-          if (( pool[i].inUse_ == false) && pool[i].canUse())
-          {
-            pool[i].initialize(a,b,c,d);
-            return pool[i];
-          }
-      }
-      // All are in use, so expand the pool.
-      DBSQLRPBDS[] temp = new DBSQLRPBDS[max*2];
-      System.arraycopy(pool, 0, temp, 0, max);
-      DBSQLRPBDS ds = new DBSQLRPBDS(a,b,c,d);
-      ds.canUse();
-      temp[max] = ds; 
-      dbsqlrpbdsPool_ = temp;
+      ds.initialize(a,b,c,d);
       return ds;
     }
+    ds = new DBXARequestDS(a,b,c,d);
+    ds.canUse();
+    ds.setFreeList(dbxarequestdsPool_);
+    return ds;
   }
 
 }
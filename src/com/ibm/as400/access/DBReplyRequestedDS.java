@@ -81,10 +81,11 @@ final class DBReplyRequestedDS extends DBBaseReplyDS
  } /*@B5A*/
 
   void returnToPool() {
+	  super.returnToPool();
+	  // Only put the stream on the free list once it is marked as not in use.
 	  if (poolIndex >= 0) {
-		  DBDSPool.returnToDBReplyRequestedPool(poolIndex);
+		  DBDSPool.returnToDBReplyRequestedPool(this);
 	  }
-	  super.returnToPool();
 	} /*@B5A*/
 
 
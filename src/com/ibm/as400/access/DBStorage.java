@@ -47,6 +47,19 @@ final class DBStorage //@P0C
 	  pool_ = pool;
   }
 
+  /**
+  Constructs a DBStorage object with data of the given size.
+
+  @param     id   an id assigned by the pool.  This is -1 if the storage does not belong to the pool.
+  @param     pool  pool that this object belongs to
+  @param     size  the initial size of the data
+  **/
+  DBStorage(int id, DBStoragePool pool, int size) {
+	  id_ = id;
+	  pool_ = pool;
+	  if (size != DEFAULT_SIZE) data_ = new byte[size];
+  }
+
 /**
 Constructs a DBStorage object.
 
@@ -160,7 +173,7 @@ public void returnToPool() {
 	   inUse_ = false;
   }
 	if (id_>= 0) {
-	  pool_.returned(id_);   //@B5A
+	  pool_.returned(this);   //@B5A
 	}
 }
 
@@ -186,6 +199,14 @@ public boolean canUse() {
 }
 
 
+/**
+ * get the current size of the data buffer
+ * @return the size of the data buffer
+ */
+synchronized int getCapacity() {
+	return data_.length;
+}
+
 /**
  * get the data buffer
  * @return the data buffer
@@ -11,13 +11,11 @@
 //                                                                             
 ///////////////////////////////////////////////////////////////////////////////
 
+
 package com.ibm.as400.access;
 
 import java.lang.ref.SoftReference;
 
-//@P0D import java.util.BitSet;
-//@P0D import java.util.Vector;
-
 
 
 /**
@@ -25,55 +23,59 @@ import java.lang.ref.SoftReference;
 in creating request datastreams.  This enables reduction in
 the number of allocations and the amount of synchronization
 involved in sending request datastreams.
+
+<p>Free storage is kept in power-of-two size classes, from
+DBStorage.DEFAULT_SIZE up to 16 MB, each with its own lock and
+a bounded number of retained entries.  Getting and returning
+storage is constant time; storage returned to a full size class
+is left to the garbage collector.  Retained entries are only
+softly reachable, so the garbage collector can still reclaim
+them when memory runs low.
 **/
 class DBStoragePool
 {
   static final String copyright = "Copyright (C) 1997-2001 International Business Machines Corporation and others.";
 
-  static final int MAX_POOL_INCREMENT = 4096;  //@B5A
-
-  private static final int STORAGE_POOL_LOCALITY = 256;  //@B5A
+  private static final int MIN_SHIFT = 10;  // DBStorage.DEFAULT_SIZE
+  private static final int MAX_SHIFT = 24;
+  private static final int MAX_RETAINED = 32;
 
+  private final SizeClass[] sizeClasses_ = new SizeClass[MAX_SHIFT - MIN_SHIFT + 1];
 
-  //@P0D private int     count_;
-  //@P0D private BitSet  lockState_;
-  //@P0D private Vector  pool_;
+  private static final class SizeClass
+  {
+    // 
+    // Use soft references to avoid running the JVM out of memory
+    // 
+    final SoftReference[] free_ = new SoftReference[MAX_RETAINED];
+    int count_ = 0;
+
+    // Statistics, guarded by this.
+    long hits_ = 0;
+    long allocations_ = 0;
+    long discards_ = 0;
+  }
 
-  // 
-  // Use soft references to avoid running the JVM out of memory
-  // 
-  private SoftReference[] pool_ = new SoftReference[16]; //@P0A
-  private int lastReturned_;                                                   // @B5A
-  private int searches_ = 0;                                                  // @B5A
-  
-/**
-Constructs a DBStoragePool object.
-**/
-//@P0D	DBStoragePool ()
-//@P0D	{
-//@P0D	    count_ = 0;
-
-  // The initial capacity is 128.  This is pretty
-  // large and would only be hit if we had 128 data
-  // streams being created at the same time.  Even
-  // if this does happen (an extremely stressed
-  // scenario), the resizing should not happen too
-  // often.
-//@P0D	    lockState_ = new BitSet (128);
-//@P0D	    pool_ = new Vector (128, 128);
-//@P0D    }
-
-  int getSize() { return pool_.length; }                 // @B5A
+  private int nextId_ = 0;
 
-/**
-Frees a DBStorage object for reuse.
+  DBStoragePool()
+  {
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      sizeClasses_[i] = new SizeClass();
+    }
+  }
 
-@param      a DBStorage object.
-**/
-//@P0D    synchronized void freeStorage (DBStorage storage) // @B1C
-//@P0D    {
-//@P0D        lockState_.clear (storage.getId ());
-//@P0D    }
+  // Returns the number of free storage objects currently retained, including any the garbage collector has since cleared.
+  int getSize()
+  {
+    int total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].count_; }
+    }
+    return total;
+  }                 // @B5A
 
 
   /**
@@ -83,7 +85,7 @@ Frees a DBStorage object for reuse.
   **/
   
 
-  final synchronized DBStorage getUnpooledStorage() {
+  final DBStorage getUnpooledStorage() {
 	  DBStorage storage = new DBStorage(-1, this); 
       storage.canUse(); 
 	  return storage; 
@@ -95,93 +97,109 @@ are available, a brand new one will be allocated.
 
 @return     a DBStorage object.
 **/
-//
-// Note: This method must be synchronized to make it
-//       threadsafe.
-//
-  final synchronized DBStorage getUnusedStorage() // @B0C @B1C @P0C
+  final DBStorage getUnusedStorage() // @B0C @B1C @P0C
   {
-//@P0D        DBStorage storage;
-    int max = pool_.length; //@P0A
-    
-    // Start the search at the last returned location @B5A
-    int searchStart = lastReturned_;
-    searches_++; 
-    if (searches_ > MAX_POOL_INCREMENT) {
-    	searchStart = 0; 
-    	searches_ = 0; 
-    }
-    // Find an unused storage object.
-    for (int i=searchStart; i<max; ++i) //@P0C
+    return getUnusedStorage(DBStorage.DEFAULT_SIZE);
+  }
+
+/**
+Returns an unused DBStorage object whose data is at least
+the given size.  If none are available, a brand new one will
+be allocated.
+
+@param  size  the minimum size of the data.
+@return     a DBStorage object.
+**/
+  final DBStorage getUnusedStorage(int size)
+  {
+    int shift = MIN_SHIFT;
+    while (shift < MAX_SHIFT && (1 << shift) < size) ++shift;
+    SizeClass sizeClass = sizeClasses_[shift - MIN_SHIFT];
+    synchronized (sizeClass)
     {
-      /*@P0D
-        if (lockState_.get (i) == false) {
-            lockState_.set (i);
-            storage = (DBStorage) pool_.elementAt (i);
-            storage.clear ();
-            return storage;
+      while (sizeClass.count_ > 0)
+      {
+        DBStorage storage = (DBStorage)sizeClass.free_[--sizeClass.count_].get();
+        sizeClass.free_[sizeClass.count_] = null;
+        if (storage != null && storage.canUse())
+        {
+          ++sizeClass.hits_;
+          storage.checkSize(size);
+          return storage;
         }
-      *///@P0D
-
-      	
-      DBStorage storage;  //@P0A  Local variables are faster.
-      if (pool_[i] == null) {
-    	  storage=null; 
-      } else {
-    	  storage= (DBStorage) pool_[i].get(); 
       }
-      if (storage == null) //@P0A
+      ++sizeClass.allocations_;
+    }
+
+    int id;
+    synchronized (this)
+    {
+      // Don't allow -1, which marks unpooled storage.
+      if (++nextId_ < 0) nextId_ = 0;
+      id = nextId_;
+    }
+    // Allocate the full size class, so the storage is filed back under the same class when it is returned.
+    DBStorage storage = new DBStorage(id, this, Math.max(size, 1 << shift));
+    storage.canUse();
+    return storage;
+  }
+
+/**
+Puts storage that is no longer in use back into the pool.  It
+is filed under the largest size class that its data fills.
+
+@param  storage  the DBStorage object.
+**/
+  final void returned(DBStorage storage)
+  {
+    int length = storage.getCapacity();
+    if (length < (1 << MIN_SHIFT)) return;
+    int shift = MIN_SHIFT;
+    while (shift < MAX_SHIFT && (1 << (shift + 1)) <= length) ++shift;
+    SizeClass sizeClass = sizeClasses_[shift - MIN_SHIFT];
+    synchronized (sizeClass)
+    {
+      if (sizeClass.count_ < MAX_RETAINED)
       {
-        storage = new DBStorage(i, this); //@P0A
-        storage.canUse(); //@P0A
-        pool_[i] = new SoftReference(storage); //@P0A
-        lastReturned_ = i+1; 
-        return storage; //@P0A
+        sizeClass.free_[sizeClass.count_++] = new SoftReference(storage);
       }
-      else {
-    	  if (storage.canUse()) //@P0A
-            {
-              lastReturned_ = i+1; 
-             return storage; //@P0A
-
-            }
+      else
+      {
+        ++sizeClass.discards_;
       }
     }
+  }
 
-    // If all are being used, then allocate a new one.
-    if (JDTrace.isTraceOn())                                                     // @B2C
-      JDTrace.logInformation(this, "Creating new DBStoragePool of size "+max*2); // @P0A @B2C
-
-    int increment = max;                                                                                                  //@B5A
-    if (max > MAX_POOL_INCREMENT) increment = MAX_POOL_INCREMENT;             // @B5A
-    
-    SoftReference[] tempPool = new SoftReference[max+increment]; //@P0A@B5C
+  // Returns the number of requests satisfied with pooled storage.
+  final long getHits()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].hits_; }
+    }
+    return total;
+  }
 
-    for (int i=0; i<max; ++i) //@P0A
+  // Returns the number of requests that had to allocate new storage.
+  final long getAllocations()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
     {
-      tempPool[i] = pool_[i]; //@P0A
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].allocations_; }
     }
-    DBStorage storage = new DBStorage(max, this); //@P0A
-    storage.canUse(); //@P0A
-    tempPool[max] = new SoftReference(storage); //@P0A
-    pool_ = tempPool; //@P0A
-                      
-    lastReturned_ = 0; // Always start the search at zero when expanding 
-    /*@P0D
-    storage = new DBStorage (count_);
-    pool_.addElement (storage);
-    lockState_.set (count_);
-    ++count_;
-    *///@P0D
-    
-    return storage;
+    return total;
   }
 
-  public synchronized void returned(int id_) {
-	if (id_ < lastReturned_ && (id_ >= (lastReturned_ - STORAGE_POOL_LOCALITY))) { 
-	   lastReturned_ = id_; 
-	}
+  // Returns the number of returned storage objects that were dropped because their size class was full.
+  final long getDiscards()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].discards_; }
+    }
+    return total;
   }
 }
-
-
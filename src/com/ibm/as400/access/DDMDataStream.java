@@ -308,6 +308,12 @@ class DDMDataStream extends DataStream
 	return ((data_[3] & CHAINED_MASK) != 0);
     }
 
+    // A chained reply is followed by another reply with the same correlation.
+    boolean isEndOfReplyChain()
+    {
+        return !isChained();
+    }
+
     // Indicates whether this data stream is continued.  If a data stream is continued, the next reply will have a truncated header that consists of two bytes indicating the length of the reply.  This differs from chaining where a complete header is sent with the object.
     boolean isContinued()
     {
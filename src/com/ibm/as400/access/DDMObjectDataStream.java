@@ -118,12 +118,15 @@ class DDMObjectDataStream extends DDMDataStream
   throws CharConversionException,
   UnsupportedEncodingException
   {
-    // Get the record format, the record increment, and the blocking
-    // factor.
-    RecordFormat format = records[0].getRecordFormat();
-    int recordIncrement = openFeedback.getRecordIncrement();
+    // Get the blocking factor.
     int blockingFactor = openFeedback.getMaxNumberOfRecordsTransferred();
 
+    // Use the same null field map layout for every block.
+    if (maxNumberOfFieldsPerFormatInFile == -1)
+    {
+      maxNumberOfFieldsPerFormatInFile = records[0].getNumberOfFields();
+    }
+
     // Instantiate an array of data streams.
     DDMObjectDataStream[] dataStreams =
     new DDMObjectDataStream[records.length / blockingFactor +
@@ -131,7 +134,7 @@ class DDMObjectDataStream extends DDMDataStream
 
     // Create a data stream every 'blockingFactor' records.
     for (int dataStreamIndex = 0, recordIndex = 0;
-        dataStreamIndex < dataStreams.length; dataStreamIndex++)
+        dataStreamIndex < dataStreams.length; dataStreamIndex++, recordIndex += blockingFactor)
     {
       // We can only copy 'blockingFactor' records per data stream.
       // Calculate the end index of the last record to be copied to the
@@ -141,100 +144,133 @@ class DDMObjectDataStream extends DDMDataStream
       {
         endIndex = records.length;
       }
+      dataStreams[dataStreamIndex] = getObjectS38BUF(records, recordIndex, endIndex, openFeedback,
+                                                     isSSPFile, maxNumberOfFieldsPerFormatInFile);
+    }
 
-      // Compute the total data stream length, the record data offset, and
-      // the S38BUF LL.  If the record data length is greater than the
-      // maximum data stream length, we must account for extra bookkeeping
-      // data.
-      int fourByteLength = 0;
-      int recDataLength =  recordIncrement * (endIndex - recordIndex);
-      int recordOffset = 10;
-      int dsLength = recDataLength + 10;
-      int s38BUFLL = recDataLength + 4;
-      if (recDataLength > MAX_DATA_STREAM_LEN - 10)
-      {
-        if (recDataLength > MAX_DATA_STREAM_LEN - 4)
-        {
-          // We need the four byte length indicator.
-          fourByteLength = recDataLength;
-          recDataLength -= 4;
-          dsLength += 4; // 4 byte length indicator
-          s38BUFLL = 0x8008;
-          recordOffset = 14;
-        }
+    return dataStreams;
+  }
 
-        // Subtract from record data length the amount before the packets.
-        recDataLength -= (MAX_DATA_STREAM_LEN - 10);
+  /**
+   *Returns the S38BUF object data stream for some of the records.  This
+   *is used to build one block of records at a time, so that a block can
+   *be built while the previous blocks are being sent.
+   *@param records the records.
+   *@param start the index of the first record in the block.
+   *@param end the index after the last record in the block.
+   *The number of records must not be more than the blocking factor.
+   *@param openFeedback the open feedback for the file.
+   *@param isSSPFile true if the null field map is not written.
+   *@param maxNumberOfFieldsPerFormatInFile indicates the largest of the
+   * record.getNumberOfFields() values for this file, or -1 to use the
+   * number of fields of the first record in the block.
+   *@return S38BUF data stream
+   *@exception CharConversionException If an error occurs during conversion.
+   *@exception UnsupportedEncodingException If an error occurs during conversion.
+  **/
+  static DDMObjectDataStream getObjectS38BUF(Record[] records,
+                                             int start,
+                                             int end,
+                                             DDMS38OpenFeedback openFeedback,
+                                             boolean isSSPFile,
+                                             int maxNumberOfFieldsPerFormatInFile)
+  throws CharConversionException,
+  UnsupportedEncodingException
+  {
+    int recordIncrement = openFeedback.getRecordIncrement();
+
+    // Compute the total data stream length, the record data offset, and
+    // the S38BUF LL.  If the record data length is greater than the
+    // maximum data stream length, we must account for extra bookkeeping
+    // data.
+    int fourByteLength = 0;
+    int recDataLength =  recordIncrement * (end - start);
+    int recordOffset = 10;
+    int dsLength = recDataLength + 10;
+    int s38BUFLL = recDataLength + 4;
+    if (recDataLength > MAX_DATA_STREAM_LEN - 10)
+    {
+      if (recDataLength > MAX_DATA_STREAM_LEN - 4)
+      {
+        // We need the four byte length indicator.
+        fourByteLength = recDataLength;
+        recDataLength -= 4;
+        dsLength += 4; // 4 byte length indicator
+        s38BUFLL = 0x8008;
+        recordOffset = 14;
       }
 
-      // Instantiate the data stream.
-      dataStreams[dataStreamIndex] = new DDMObjectDataStream(dsLength);
+      // Subtract from record data length the amount before the packets.
+      recDataLength -= (MAX_DATA_STREAM_LEN - 10);
+    }
 
-      // Set the S38BUF LL, and CP.
-      dataStreams[dataStreamIndex].set16bit(s38BUFLL, 6);
-      dataStreams[dataStreamIndex].set16bit(DDMTerm.S38BUF, 8);
+    // Instantiate the data stream.
+    DDMObjectDataStream dataStream = new DDMObjectDataStream(dsLength);
 
-      // Set the four byte length indicator if needed.
-      if (fourByteLength != 0)
-      {
-        dataStreams[dataStreamIndex].set32bit(fourByteLength, 10);
-      }
+    // Set the S38BUF LL, and CP.
+    dataStream.set16bit(s38BUFLL, 6);
+    dataStream.set16bit(DDMTerm.S38BUF, 8);
 
-      // For each record, write the record data and the null field byte
-      // map after the record data.
-      for (; recordIndex < endIndex; recordIndex++,
-          recordOffset += recordIncrement)
+    // Set the four byte length indicator if needed.
+    if (fourByteLength != 0)
+    {
+      dataStream.set32bit(fourByteLength, 10);
+    }
+
+    // For each record, write the record data and the null field byte
+    // map after the record data.
+    for (int recordIndex = start; recordIndex < end; recordIndex++,
+        recordOffset += recordIncrement)
+    {
+      // Copy the record data to the data stream.
+      byte[] recordData = records[recordIndex].getContents();
+      System.arraycopy(recordData, 0, dataStream.data_,
+                       recordOffset, recordData.length);
+
+      // Write the null field byte map array after the record data.  It
+      // immediately preceeds the next record. 0xf1 = null, 0xf0 != null
+      // There may be a gap between the end of the record data and the
+      // start of the null field byte map.
+      int numFields = records[recordIndex].getNumberOfFields();
+      // Skip writing the null field map for SSP files					    	// #SSPDDM1
+      if (!isSSPFile)                                 // #SSPDDM1
       {
-        // Copy the record data to the data stream.
-        byte[] recordData = records[recordIndex].getContents();
-        System.arraycopy(recordData, 0, dataStreams[dataStreamIndex].data_,
-                         recordOffset, recordData.length);
-
-        // Write the null field byte map array after the record data.  It
-        // immediately preceeds the next record. 0xf1 = null, 0xf0 != null
-        // There may be a gap between the end of the record data and the
-        // start of the null field byte map.
-        int numFields = records[recordIndex].getNumberOfFields();
-        // Skip writing the null field map for SSP files					    	// #SSPDDM1
-        if (!isSSPFile)                                 // #SSPDDM1
+        // The NULL byte field map is left justified and has as many bytes as there @A1A 
+        // are fields in the file.  In the case of a multi-format logical file, some
+        // formats may have more/less getNumberOfFields() than others.  In that case,
+        // the NULL byte field map has entries for the format with the largest 
+        // getNumberOfFields().
+        // The parameter maxNumberOfFieldsPerFormatInFile is the largest of the 
+        // record format's getNumberOfFields() values.
+        // Therefore, if we are writing a    
+        // record to a format that has 2 fields we need to set two entries into the NULL
+        // byte field map.  However, since the file could be a multi-format logical file
+        // there may be other recordFormats in the file that have more fields than the one
+        // currently being written to.  So, for example if maxNumberOfFieldsPerFormatInFile
+        // is 3 then we need to start writing the 0xf1 or 0xf0 values at an offset as if 
+        // there were 3 fields, but only need to set 2 values (if there are 2 fields in 
+        // this particular record's recordFormat)
+        // Previously, the code was setting the 0xf0 and 0xf1 values in the NULL byte 
+        // field map right-justified because we did not know/care about  
+        // maxNumberOfFieldsPerFormatInFile. This would work for physical files, single 
+        // format logical files, and multi-format logical files only if each of the formats 
+        // in the multi-format logical file had the exact same number of fields.
+        // #SSPDDM1
+        // If maxNumberOfFieldsPerFormatInFile
+        if (maxNumberOfFieldsPerFormatInFile == -1)                                      //@A1A
         {
-          // The NULL byte field map is left justified and has as many bytes as there @A1A 
-          // are fields in the file.  In the case of a multi-format logical file, some
-          // formats may have more/less getNumberOfFields() than others.  In that case,
-          // the NULL byte field map has entries for the format with the largest 
-          // getNumberOfFields().
-          // The parameter maxNumberOfFieldsPerFormatInFile is the largest of the 
-          // record format's getNumberOfFields() values.
-          // Therefore, if we are writing a    
-          // record to a format that has 2 fields we need to set two entries into the NULL
-          // byte field map.  However, since the file could be a multi-format logical file
-          // there may be other recordFormats in the file that have more fields than the one
-          // currently being written to.  So, for example if maxNumberOfFieldsPerFormatInFile
-          // is 3 then we need to start writing the 0xf1 or 0xf0 values at an offset as if 
-          // there were 3 fields, but only need to set 2 values (if there are 2 fields in 
-          // this particular record's recordFormat)
-          // Previously, the code was setting the 0xf0 and 0xf1 values in the NULL byte 
-          // field map right-justified because we did not know/care about  
-          // maxNumberOfFieldsPerFormatInFile. This would work for physical files, single 
-          // format logical files, and multi-format logical files only if each of the formats 
-          // in the multi-format logical file had the exact same number of fields.
-          // #SSPDDM1
-          // If maxNumberOfFieldsPerFormatInFile
-          if (maxNumberOfFieldsPerFormatInFile == -1)                                      //@A1A
-          {
-            maxNumberOfFieldsPerFormatInFile = numFields;                                  //@A1A
-          }
-          for (int f = 0, fieldOffset = recordOffset +                                     //@A1C
-               (recordIncrement - maxNumberOfFieldsPerFormatInFile); f < numFields; fieldOffset++, f++)
-          {
-            dataStreams[dataStreamIndex].data_[fieldOffset] =
-            (records[recordIndex].isNullField(f) ? (byte) 0xf1 : (byte) 0xf0);
-          }
-        }                                        // #SSPDDM1
-      }
+          maxNumberOfFieldsPerFormatInFile = numFields;                                  //@A1A
+        }
+        for (int f = 0, fieldOffset = recordOffset +                                     //@A1C
+             (recordIncrement - maxNumberOfFieldsPerFormatInFile); f < numFields; fieldOffset++, f++)
+        {
+          dataStream.data_[fieldOffset] =
+          (records[recordIndex].isNullField(f) ? (byte) 0xf1 : (byte) 0xf0);
+        }
+      }                                        // #SSPDDM1
     }
 
-    return dataStreams;
+    return dataStream;
   }
 
 /* COMMENT OUT UNUSED METHOD                                                                @A1D
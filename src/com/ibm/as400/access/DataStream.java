@@ -191,6 +191,13 @@ public abstract class DataStream
     // @return  The length of the data stream.
     abstract int getLength();
 
+    // Indicates if this is the last reply to its request.  Data streams whose replies can be chained, so that several replies have the same correlation, override this.
+    // @return  true if no more replies follow with the same correlation; false otherwise.
+    boolean isEndOfReplyChain()
+    {
+        return true;
+    }
+
     // Get a new instance of this class.  The code for this method should be provided by the subclasses.  In the event that a sub-class does not override this method, null will be returned.
     // @return  Object representing a clone of this object.
     public Object getNewDataStream()
@@ -0,0 +1,179 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: DataStreamBufferPool.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+// This class pools the byte arrays that large data streams are received into, so that
+// reading a big reply does not allocate (and later garbage collect) a new array every time.
+//
+// Buffers are kept in power-of-two size classes.  Each size class has its own lock and
+// retains at most MAX_RETAINED_ buffers; anything beyond that is left to the garbage collector.
+// A buffer obtained from getBuffer() may be longer than requested, so callers must track the
+// number of valid bytes themselves.  Buffers must be released explicitly with releaseBuffer(),
+// and must not be referenced after they are released.
+final class DataStreamBufferPool
+{
+  private DataStreamBufferPool() {}
+
+  // Smallest and largest pooled size class (1 KB and 16 MB).  Requests outside of this range are not pooled.
+  static final int MIN_SHIFT_ = 10;
+  static final int MAX_SHIFT_ = 24;
+
+  // Maximum number of free buffers retained per size class.
+  private static final int MAX_RETAINED_ = 8;
+
+  private static final SizeClass[] sizeClasses_ = new SizeClass[MAX_SHIFT_ - MIN_SHIFT_ + 1];
+  static
+  {
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      sizeClasses_[i] = new SizeClass(1 << (MIN_SHIFT_ + i));
+    }
+  }
+
+  private static final class SizeClass
+  {
+    final int size_;
+    final byte[][] free_ = new byte[MAX_RETAINED_][];
+    int count_ = 0;
+
+    // Statistics, guarded by this.
+    long hits_ = 0;
+    long misses_ = 0;
+    long releases_ = 0;
+    long discards_ = 0;
+
+    SizeClass(int size)
+    {
+      size_ = size;
+    }
+  }
+
+  // Returns the size class that holds buffers of at least the given length, or null if the length is not pooled.
+  private static SizeClass getSizeClass(int length)
+  {
+    if (length > (1 << MAX_SHIFT_)) return null;
+    int shift = MIN_SHIFT_;
+    while ((1 << shift) < length) ++shift;
+    return sizeClasses_[shift - MIN_SHIFT_];
+  }
+
+  // Returns a buffer at least length bytes long.
+  // @param  length  The minimum length of the buffer.
+  // @return  The buffer.  The contents are undefined.
+  static byte[] getBuffer(int length)
+  {
+    SizeClass sizeClass = getSizeClass(length);
+    if (sizeClass == null) return new byte[length];
+    synchronized (sizeClass)
+    {
+      if (sizeClass.count_ > 0)
+      {
+        ++sizeClass.hits_;
+        byte[] buffer = sizeClass.free_[--sizeClass.count_];
+        sizeClass.free_[sizeClass.count_] = null;
+        return buffer;
+      }
+      ++sizeClass.misses_;
+    }
+    return new byte[sizeClass.size_];
+  }
+
+  // Returns a buffer to the pool.  Buffers that were not obtained from getBuffer() are ignored.
+  // @param  buffer  The buffer.  The caller must not use it afterwards.
+  static void releaseBuffer(byte[] buffer)
+  {
+    if (buffer == null) return;
+    int length = buffer.length;
+    // Only exact power-of-two lengths within range came from this pool.
+    if (length < (1 << MIN_SHIFT_) || length > (1 << MAX_SHIFT_) || (length & (length - 1)) != 0) return;
+    SizeClass sizeClass = getSizeClass(length);
+    synchronized (sizeClass)
+    {
+      if (sizeClass.count_ < MAX_RETAINED_)
+      {
+        ++sizeClass.releases_;
+        sizeClass.free_[sizeClass.count_++] = buffer;
+      }
+      else
+      {
+        ++sizeClass.discards_;
+      }
+    }
+  }
+
+  // Returns the number of requests satisfied with a pooled buffer.
+  static long getHits()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].hits_; }
+    }
+    return total;
+  }
+
+  // Returns the number of requests that had to allocate a new buffer.
+  static long getMisses()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].misses_; }
+    }
+    return total;
+  }
+
+  // Returns the number of released buffers that were dropped because their size class was full.
+  static long getDiscards()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += sizeClasses_[i].discards_; }
+    }
+    return total;
+  }
+
+  // Returns the number of bytes currently held by free buffers in the pool.
+  static long getRetainedBytes()
+  {
+    long total = 0;
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      synchronized (sizeClasses_[i]) { total += (long)sizeClasses_[i].count_ * sizeClasses_[i].size_; }
+    }
+    return total;
+  }
+
+  // Returns the pool statistics for each size class, for tracing.
+  static String getStatistics()
+  {
+    StringBuffer buf = new StringBuffer("DataStreamBufferPool:");
+    for (int i = 0; i < sizeClasses_.length; ++i)
+    {
+      SizeClass sizeClass = sizeClasses_[i];
+      synchronized (sizeClass)
+      {
+        if (sizeClass.hits_ + sizeClass.misses_ == 0) continue;
+        buf.append(" [size=").append(sizeClass.size_);
+        buf.append(" free=").append(sizeClass.count_);
+        buf.append(" hits=").append(sizeClass.hits_);
+        buf.append(" misses=").append(sizeClass.misses_);
+        buf.append(" releases=").append(sizeClass.releases_);
+        buf.append(" discards=").append(sizeClass.discards_).append(']');
+      }
+    }
+    return buf.toString();
+  }
+}
@@ -61,4 +61,9 @@ Determine if there are more data streams chained to this one.
   {
     return ((get16bit( CHAIN_INDICATOR_OFFSET) & 1) == 0);
   }
+
+  boolean isEndOfReplyChain()
+  {
+    return isEndOfChain();
+  }
 }
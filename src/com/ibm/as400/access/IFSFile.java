@@ -2763,12 +2763,7 @@ public int getASP(boolean retrieveAll) throws IOException, AS400SecurityExceptio
     // List the attributes of all files in this directory.  Have to append
     // a file separator and * to the path so that all files in the
     // directory are returned.
-    String directory = path_;
-    if (directory.lastIndexOf(separatorChar) != directory.length() - 1)
-    {
-      // Add a separator character.
-      directory = directory + separatorChar;
-    }
+    String directory = getListFiles0Directory();
     IFSCachedAttributes[] fileAttributeList; //@C3C
     if (restartName != null) {
       fileAttributeList = impl_.listDirectoryDetails(directory + pattern, directory, maxGetCount, restartName); //@D2C @D4C
@@ -2777,6 +2772,25 @@ public int getASP(boolean retrieveAll) throws IOException, AS400SecurityExceptio
       fileAttributeList = impl_.listDirectoryDetails(directory + pattern, directory, maxGetCount, restartID,allowSortedRequests); //@C3a @D7C
     }
 
+    return listFiles0(filter, fileAttributeList);
+  }
+
+  // Returns the path of this directory, ending with a separator.
+  private String getListFiles0Directory()
+  {
+    String directory = path_;
+    if (directory.lastIndexOf(separatorChar) != directory.length() - 1)
+    {
+      // Add a separator character.
+      directory = directory + separatorChar;
+    }
+    return directory;
+  }
+
+  // Makes IFSFile objects for the attributes returned by the system, and saves the
+  // restart information for the next listFiles0() call.
+  private IFSFile[] listFiles0(IFSFileFilter filter, IFSCachedAttributes[] fileAttributeList)
+  {
     // Add the name for each reply that matches the filter to the array
     // of files.
 
@@ -2840,6 +2854,47 @@ public int getASP(boolean retrieveAll) throws IOException, AS400SecurityExceptio
     return listFiles0(filter, pattern, maxGetCount, null, restartID, false); //@D7C
   }
 
+  // Sends the request for a block of listFiles0() without waiting for the reply, so that
+  // IFSFileEnumeration can fetch the next block while the current one is being read.
+  // The returned object is passed to finishListFiles0() to receive the block.
+  Object startListFiles0(String pattern, int maxGetCount, String restartName)
+    throws IOException, AS400SecurityException
+  {
+    return startListFiles0(pattern, maxGetCount, restartName, null, true);
+  }
+
+  // Restart ID version of startListFiles0().  As for listFiles0(), sorting is not allowed.
+  Object startListFiles0(String pattern, int maxGetCount, byte[] restartID)
+    throws IOException, AS400SecurityException
+  {
+    return startListFiles0(pattern, maxGetCount, null, restartID, false);
+  }
+
+  private Object startListFiles0(String pattern, int maxGetCount, String restartName,
+                                 byte[] restartID, boolean allowSortedRequests)
+    throws IOException, AS400SecurityException
+  {
+    // Ensure that we are connected to the system.
+    if (impl_ == null)
+       chooseImpl();
+
+    String directory = getListFiles0Directory();
+    return impl_.startListDirectoryDetails(directory + pattern, directory, maxGetCount, restartName, restartID, allowSortedRequests);
+  }
+
+  // Receives the block requested by startListFiles0(), and returns the objects that satisfy filter.
+  IFSFile[] finishListFiles0(IFSFileFilter filter, Object request)
+    throws IOException, AS400SecurityException
+  {
+    return listFiles0(filter, impl_.finishListDirectoryDetails(request));
+  }
+
+  // Throws away the block requested by startListFiles0(), without waiting for it.
+  void discardListFiles0(Object request)
+  {
+    impl_.discardListDirectoryDetails(request);
+  }
+
   //@C3a
   IFSFile[] listFiles0(IFSFileFilter filter, String pattern)
     throws IOException, AS400SecurityException
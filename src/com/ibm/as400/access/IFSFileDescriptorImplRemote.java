@@ -76,6 +76,52 @@ implements IFSFileDescriptorImpl
   // When this is false, all debug code will theoretically compile out.
   private static final boolean DEBUG = false;  // @B3A
   
+  // Sequential read-ahead, used by IFSFileInputStreamImplRemote.
+  // Once SEQUENTIAL_READS reads in a row have each started where the previous one ended,
+  // read() keeps readAheadDepth_ requests of readAheadBlockSize_ bytes outstanding at the
+  // file offsets following the reader, and copies the data out of their replies in order.
+  // Moving the file offset any other way, writing, or closing abandons the outstanding requests.
+  private static final int SEQUENTIAL_READS = 2;
+  private static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
+  private static final int DEFAULT_READ_AHEAD_BLOCK_SIZE = 128 * 1024;
+  private boolean     readAheadAllowed_ = false;
+  private int         readAheadDepth_;
+  private int         readAheadBlockSize_;
+  private Object      readAheadLock_ = new Object();
+  private long        lastReadEnd_ = -1;           // The file offset where the previous read ended.
+  private int         sequentialReads_ = 0;        // The number of reads in a row that started at lastReadEnd_.
+  private Vector      readAheadRequests_ = null;   // AS400ReplyFuture for each block requested ahead, in file offset order.
+  private long        readAheadOffset_;            // The file offset of the next block to request.
+  private long        readAheadPosition_;          // The file offset of the next byte to be read from the replies.
+  private int         readAheadCorrelation_;       // The correlation ID of the request being read from.
+  private boolean     readAheadEndOfChain_ = true; // Whether the last reply of that request has been received.
+  private int         readAheadReceived_;          // The number of bytes received for that request so far.
+  private boolean     readAheadEnded_;             // Whether a block came back short, usually at the end of the file.
+  private IFSReadRep  readAheadReply_ = null;      // The reply being read from, or null.
+  private int         readAheadReplyPosition_;     // The position of the next byte in readAheadReply_.
+
+  // Write-behind, used by IFSFileOutputStreamImplRemote and IFSRandomAccessFileImplRemote.
+  // When SystemProperties.IFS_WRITE_BEHIND_WINDOW is set, writeBytes() sends each block without
+  // waiting for its reply, as long as the blocks whose replies have not been checked add up to
+  // no more than writeBehindWindow_ bytes.  The oldest replies are checked when the window is
+  // full, and all of them before a flush, close, read, or change of the file length.  A failed
+  // write is reported by whichever of these checks its reply.
+  private int         writeBehindWindow_ = 0;
+  private Vector      pendingWrites_ = null;   // PendingWrite for each block written behind, oldest first.
+  private int         pendingWriteBytes_ = 0;  // The number of bytes in pendingWrites_.
+
+  private static final class PendingWrite
+  {
+    final AS400ReplyFuture reply_;
+    final int length_;
+
+    PendingWrite(AS400ReplyFuture reply, int length)
+    {
+      reply_ = reply;
+      length_ = length;
+    }
+  }
+
   //@AC7 Start
   String fileOwnerName_ = null;
   boolean isDirectory_ = false;
@@ -142,9 +188,24 @@ implements IFSFileDescriptorImpl
 
   public void close0() throws IOException
   {
-    isOpen_ = false;
-    close(fileHandle_);
-    fileHandle_ = UNINITIALIZED;
+    cancelReadAhead();
+    try
+    {
+      completeWrites(0);
+    }
+    catch (AS400SecurityException e) {
+      IOException throwException = new IOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
+    finally
+    {
+      isOpen_ = false;
+      close(fileHandle_);
+      fileHandle_ = UNINITIALIZED;
+    }
   }
 
   void close(int fileHandle) throws IOException
@@ -565,6 +626,8 @@ implements IFSFileDescriptorImpl
     {
       if (fileHandle_ != UNINITIALIZED)  // @B8c
       {
+        discardWrites();
+
         // Close the file.  Send a close request to the server.
         IFSCloseReq req = new IFSCloseReq(fileHandle_);
         try
@@ -597,6 +660,8 @@ implements IFSFileDescriptorImpl
   void flush()  // @B2A - code relocated from IFSFileOutputStreamImplRemote,etc.
     throws IOException, AS400SecurityException
   {
+    completeWrites(0);
+
     // Request that changes be committed to disk.
     IFSCommitReq req = new IFSCommitReq(fileHandle_);
     ClientAccessDataStream ds = null;
@@ -909,8 +974,6 @@ implements IFSFileDescriptorImpl
   {
     // Assume connect() has already been done.
 
-    errorRC_ = 0;
-    Vector replys = new Vector(256);
     ClientAccessDataStream ds = null;
     try
     {
@@ -931,6 +994,74 @@ implements IFSFileDescriptorImpl
       throw throwException;
     }
 
+    return listAttributes(req, ds);
+  }
+
+
+  // Submit the specified request without waiting for its reply.
+  // The reply(s) are fetched by receiveListAttributes().
+  AS400ReplyFuture sendListAttributes(IFSListAttrsReq req)
+    throws IOException
+  {
+    // Assume connect() has already been done.
+
+    AS400ReplyFuture reply = null;
+    try
+    {
+      reply = server_.sendAsync(req);
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost.");
+      connectionDropped(e);
+    }
+    return reply;
+  }
+
+
+  // Fetch the list attributes reply(s) to a request submitted by sendListAttributes().
+  // The returned Vector contains IFSListAttrsRep objects.
+  Vector receiveListAttributes(IFSListAttrsReq req, AS400ReplyFuture reply)
+    throws IOException, AS400SecurityException
+  {
+    ClientAccessDataStream ds = null;
+    try
+    {
+      ds = (ClientAccessDataStream) reply.get();
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost.");
+      connectionDropped(e);
+    }
+    catch(InterruptedException e)
+    {
+      Trace.log(Trace.ERROR, "Interrupted");
+      InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
+
+    return listAttributes(req, ds);
+  }
+
+
+  // Throw away the list attributes reply(s) to a request submitted by sendListAttributes(), without waiting for them.
+  void discardListAttributes(AS400ReplyFuture reply)
+  {
+    reply.discardChain();
+  }
+
+
+  // Fetch the list attributes reply(s) to the specified request, starting with its first reply.
+  private Vector listAttributes(IFSListAttrsReq req, ClientAccessDataStream ds)
+    throws IOException, AS400SecurityException
+  {
+    errorRC_ = 0;
+    Vector replys = new Vector(256);
+
     // @A1A
     int rc = -1;        // @A1A
 
@@ -1192,6 +1323,8 @@ implements IFSFileDescriptorImpl
   /**
    Reads up to <i>length</i> bytes of data from this input stream into <i>data</i>,
    starting at the array offset <i>dataOffset</i>.
+   If read-ahead is allowed and the reads are sequential, the data is taken from
+   blocks that were requested ahead of time.
    @param data The buffer into which the data is read.
    @param offset The start offset of the data in the buffer.
    @param length The maximum number of bytes to read
@@ -1204,10 +1337,62 @@ implements IFSFileDescriptorImpl
    @exception UnknownHostException If the system cannot be located.
 
    **/
-  int read(byte[] data,  // @B2A - code relocated from IFSFileInputStreamImplRemote,etc.
+  int read(byte[] data,
            int    dataOffset,
            int    length)
     throws IOException, AS400SecurityException
+  {
+    completeWrites(0);
+
+    if (!readAheadAllowed_ || length == 0)
+    {
+      return readDirect(data, dataOffset, length);
+    }
+
+    synchronized(readAheadLock_)
+    {
+      long offset = fileOffset_;
+      if (readAheadRequests_ != null && offset != readAheadPosition_)
+      {
+        // The file offset was moved since the previous read.
+        cancelReadAhead();
+      }
+      if (readAheadRequests_ == null)
+      {
+        sequentialReads_ = (offset == lastReadEnd_ ? sequentialReads_ + 1 : 0);
+        if (sequentialReads_ >= SEQUENTIAL_READS)
+        {
+          startReadAhead(offset);
+        }
+      }
+
+      int bytesRead = (readAheadRequests_ == null ?
+                       readDirect(data, dataOffset, length) :
+                       readAhead(data, dataOffset, length));
+      lastReadEnd_ = fileOffset_;
+      return bytesRead;
+    }
+  }
+
+  /**
+   Reads up to <i>length</i> bytes of data from this input stream into <i>data</i>,
+   starting at the array offset <i>dataOffset</i>.
+   @param data The buffer into which the data is read.
+   @param offset The start offset of the data in the buffer.
+   @param length The maximum number of bytes to read
+   @return The total number of bytes read into the buffer, or -1 if there is no more data because the end of file has been reached.
+
+   @exception ConnectionDroppedException If the connection is dropped unexpectedly.
+   @exception ExtendedIOException If an error occurs while communicating with the server.
+   @exception InterruptedIOException If this thread is interrupted.
+   @exception ServerStartupException If the server cannot be started.
+   @exception UnknownHostException If the system cannot be located.
+
+   **/
+  private int readDirect(byte[] data,  // @B2A - code relocated from IFSFileInputStreamImplRemote,etc.
+                         int    dataOffset,
+                         int    length)
+    throws IOException, AS400SecurityException
   {
     // Assume the arguments have been validated by the public class.
 
@@ -1253,15 +1438,17 @@ implements IFSFileDescriptorImpl
       int bytesReadByThisRequest = 0;
       do
       {
+        // Check for end of chain first, since the reply's buffer may be released below.
+        endOfChain = ((IFSDataStream) ds).isEndOfChain();
         if (ds instanceof IFSReadRep)
         {
-          // Copy the data from the reply to the data parameter.
-          byte[] buffer = ((IFSReadRep) ds).getData();
-          if (buffer.length > 0)
+          // Copy the data from the reply to the data parameter, then give the reply's buffer back to the pool.
+          int bytesCopied = ((IFSReadRep) ds).copyData(data, dataOffset);
+          ds.releaseReplyBuffer();
+          if (bytesCopied > 0)
           {
-            System.arraycopy(buffer, 0, data, dataOffset, buffer.length);
-            bytesReadByThisRequest += buffer.length;
-            dataOffset += buffer.length;
+            bytesReadByThisRequest += bytesCopied;
+            dataOffset += bytesCopied;
           }
           else // no data returned. This implies end-of-file (e.g. if file is empty).
           {
@@ -1300,7 +1487,6 @@ implements IFSFileDescriptorImpl
         }
 
         // Get the next reply if not end of chain.
-        endOfChain = ((IFSDataStream) ds).isEndOfChain();
         if (!endOfChain)
         {
           try
@@ -1340,6 +1526,267 @@ implements IFSFileDescriptorImpl
     return (endOfFile && totalBytesRead == 0 ? -1 : totalBytesRead);
   }
 
+  // Requests the first blocks of a sequential scan that starts at the specified file offset.
+  private void startReadAhead(long offset)
+    throws IOException
+  {
+    readAheadRequests_ = new Vector(readAheadDepth_);
+    readAheadOffset_ = offset;
+    readAheadPosition_ = offset;
+    readAheadEndOfChain_ = true;
+    readAheadEnded_ = false;
+    if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Starting read-ahead of " + path_ + " at offset " + offset);
+    for (int i = 0; i < readAheadDepth_; ++i)
+    {
+      requestReadAhead();
+    }
+  }
+
+  // Requests the next block after the ones already requested.
+  private void requestReadAhead()
+    throws IOException
+  {
+    IFSReadReq req = new IFSReadReq(fileHandle_, readAheadOffset_,
+                                    readAheadBlockSize_, serverDatastreamLevel_);
+    try
+    {
+      readAheadRequests_.addElement(server_.sendAsync(req));
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost");
+      connectionDropped(e);
+    }
+    readAheadOffset_ += readAheadBlockSize_;
+  }
+
+  // Copies data from the blocks requested ahead of time, requesting another block each time one is used up.
+  private int readAhead(byte[] data,
+                        int    dataOffset,
+                        int    length)
+    throws IOException, AS400SecurityException
+  {
+    int totalBytesRead = 0;
+    while (totalBytesRead < length)
+    {
+      if (readAheadReply_ == null && !nextReadAheadReply())
+      {
+        break;
+      }
+      int bytesCopied = readAheadReply_.copyData(readAheadReplyPosition_, data, dataOffset,
+                          Math.min(length - totalBytesRead, readAheadReply_.getDataLength() - readAheadReplyPosition_));
+      readAheadReplyPosition_ += bytesCopied;
+      dataOffset += bytesCopied;
+      totalBytesRead += bytesCopied;
+      if (readAheadReplyPosition_ == readAheadReply_.getDataLength())
+      {
+        readAheadReply_.releaseReplyBuffer();
+        readAheadReply_ = null;
+      }
+    }
+
+    if (totalBytesRead > 0)
+    {
+      readAheadPosition_ += totalBytesRead;
+      incrementFileOffset(totalBytesRead);
+    }
+
+    if (readAheadEnded_ && readAheadReply_ == null)
+    {
+      // A block came back short, so the blocks after it may not follow on from its data.
+      // Go back to reading one request at a time, which also reports the end of the file.
+      cancelReadAhead();
+      sequentialReads_ = 0;
+      if (totalBytesRead == 0)
+      {
+        return readDirect(data, dataOffset, length);
+      }
+    }
+    return totalBytesRead;
+  }
+
+  // Makes the next reply that contains data the one being read from.
+  // Returns false if there is none because a block came back short.
+  private boolean nextReadAheadReply()
+    throws IOException, AS400SecurityException
+  {
+    while (!readAheadEnded_)
+    {
+      ClientAccessDataStream ds = null;
+      try
+      {
+        if (readAheadEndOfChain_)
+        {
+          // Move on to the next block, and keep the same number of blocks requested ahead.
+          AS400ReplyFuture future = (AS400ReplyFuture)readAheadRequests_.remove(0);
+          readAheadCorrelation_ = future.getCorrelation();
+          readAheadReceived_ = 0;
+          ds = (ClientAccessDataStream) future.get();
+          requestReadAhead();
+        }
+        else
+        {
+          ds = (ClientAccessDataStream) server_.receive(readAheadCorrelation_);
+        }
+      }
+      catch(ConnectionDroppedException e)
+      {
+        Trace.log(Trace.ERROR, "Byte stream server connection lost");
+        connectionDropped(e);
+      }
+      catch(InterruptedException e)
+      {
+        Trace.log(Trace.ERROR, "Interrupted", e);
+        InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+        try {
+          throwException.initCause(e); 
+        } catch (Throwable t) {} 
+        throw throwException;
+      }
+
+      readAheadEndOfChain_ = ((IFSDataStream) ds).isEndOfChain();
+      if (ds instanceof IFSReadRep)
+      {
+        int bytesReceived = ((IFSReadRep) ds).getDataLength();
+        readAheadReceived_ += bytesReceived;
+        if (readAheadEndOfChain_ && readAheadReceived_ < readAheadBlockSize_)
+        {
+          readAheadEnded_ = true;
+        }
+        if (bytesReceived > 0)
+        {
+          readAheadReply_ = (IFSReadRep) ds;
+          readAheadReplyPosition_ = 0;
+          return true;
+        }
+        ds.releaseReplyBuffer();
+      }
+      else if (ds instanceof IFSReturnCodeRep)
+      {
+        int rc = ((IFSReturnCodeRep) ds).getReturnCode();
+        if (rc == IFSReturnCodeRep.NO_MORE_DATA)
+        {
+          readAheadEnded_ = true;
+        }
+        else if (rc != IFSReturnCodeRep.SUCCESS)
+        {
+          cancelReadAhead();
+          throwSecurityExceptionIfAccessDenied(path_,rc); // check for "access denied"
+          Trace.log(Trace.ERROR, "IFSReturnCodeRep return code", descriptionForReturnCode(rc));
+          throw new ExtendedIOException(path_, rc);
+        }
+        else if (readAheadEndOfChain_ && readAheadReceived_ < readAheadBlockSize_)
+        {
+          readAheadEnded_ = true;
+        }
+      }
+      else  // neither IFSReadRep nor IFSReturnCodeRep
+      {
+        // Unknown data stream.
+        Trace.log(Trace.ERROR, "Unknown reply data stream", ds.data_);
+        throw new
+          InternalErrorException(Integer.toHexString(ds.getReqRepID()),
+                                 InternalErrorException.DATA_STREAM_UNKNOWN);
+      }
+    }
+    return false;
+  }
+
+  // Abandons the blocks requested ahead of the reader.
+  // Their replies are received and thrown away, since a discarded request could still leave chained replies behind.
+  private void cancelReadAhead()
+    throws IOException
+  {
+    synchronized(readAheadLock_)
+    {
+      if (readAheadRequests_ == null) return;
+      Vector requests = readAheadRequests_;
+      readAheadRequests_ = null;
+      if (readAheadReply_ != null)
+      {
+        readAheadReply_.releaseReplyBuffer();
+        readAheadReply_ = null;
+      }
+      try
+      {
+        if (!readAheadEndOfChain_)
+        {
+          receiveChain(readAheadCorrelation_, null);
+        }
+        for (int i = 0; i < requests.size(); ++i)
+        {
+          AS400ReplyFuture future = (AS400ReplyFuture)requests.elementAt(i);
+          receiveChain(future.getCorrelation(), (ClientAccessDataStream) future.get());
+        }
+      }
+      catch(ConnectionDroppedException e)
+      {
+        Trace.log(Trace.ERROR, "Byte stream server connection lost");
+        connectionDropped(e);
+      }
+      catch(InterruptedException e)
+      {
+        Trace.log(Trace.ERROR, "Interrupted", e);
+        InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+        try {
+          throwException.initCause(e); 
+        } catch (Throwable t) {} 
+        throw throwException;
+      }
+      finally
+      {
+        readAheadEndOfChain_ = true;
+      }
+    }
+  }
+
+  // Receives and throws away the replies for a request, up to the end of the chain.
+  // The first reply is passed in if it has already been received.
+  private void receiveChain(int correlation, ClientAccessDataStream ds)
+    throws IOException, InterruptedException
+  {
+    while (true)
+    {
+      if (ds == null)
+      {
+        ds = (ClientAccessDataStream) server_.receive(correlation);
+      }
+      boolean endOfChain = ((IFSDataStream) ds).isEndOfChain();
+      ds.releaseReplyBuffer();
+      if (endOfChain) return;
+      ds = null;
+    }
+  }
+
+  // Allows read() to request data ahead of the reader once it sees a sequential scan.
+  // The number and size of the blocks come from SystemProperties.IFS_READ_AHEAD_BLOCKS
+  // and SystemProperties.IFS_READ_AHEAD_BLOCK_SIZE.
+  void setReadAheadAllowed(boolean allowed)
+  {
+    readAheadDepth_ = getIntegerProperty(SystemProperties.IFS_READ_AHEAD_BLOCKS, DEFAULT_READ_AHEAD_BLOCKS, 0);
+    readAheadBlockSize_ = Math.min(getIntegerProperty(SystemProperties.IFS_READ_AHEAD_BLOCK_SIZE, DEFAULT_READ_AHEAD_BLOCK_SIZE, 1), MAX_BYTES_PER_READ);
+    readAheadAllowed_ = allowed && readAheadDepth_ > 0;
+  }
+
+  // Returns the value of a system property, or the default if it is not set or not valid.
+  private static int getIntegerProperty(String name, int defaultValue, int minimum)
+  {
+    String value = SystemProperties.getProperty(name);
+    if (value != null)
+    {
+      try
+      {
+        int i = Integer.parseInt(value.trim());
+        if (i >= minimum) return i;
+      }
+      catch (NumberFormatException e)
+      {
+      }
+      if (Trace.traceOn_) Trace.log(Trace.WARNING, "Ignoring invalid value for " + name + ": " + value);
+    }
+    return defaultValue;
+  }
+
   void setConverter(ConverterImplRemote converter)
   {
     converter_ = converter;
@@ -1368,6 +1815,8 @@ implements IFSFileDescriptorImpl
   boolean setLength(long length)
     throws IOException, AS400SecurityException
   {
+    cancelReadAhead();
+    completeWrites(0);
     // Assume that we are connected to the server.
 
     // Prepare to issue a 'change attributes' request.
@@ -1608,6 +2057,16 @@ implements IFSFileDescriptorImpl
   {
     // Assume the arguments have been validated by the caller.
 
+    // Data requested ahead of time may be about to change.
+    cancelReadAhead();
+
+    // A write that must reach storage before it returns is never written behind.
+    boolean writeBehind = (writeBehindWindow_ > 0 && !forceToStorage);
+    if (!writeBehind)
+    {
+      completeWrites(0);
+    }
+
     // Send write requests until all data has been written.
     while(length > 0)
     {
@@ -1626,6 +2085,26 @@ implements IFSFileDescriptorImpl
         req.setChainIndicator(1);
       }
 
+      if (writeBehind)
+      {
+        // Make room in the window, then send the request without waiting for the reply.
+        completeWrites(writeBehindWindow_ - writeLength);
+        try
+        {
+          pendingWrites_.addElement(new PendingWrite(server_.sendAsync(req), writeLength));
+        }
+        catch(ConnectionDroppedException e)
+        {
+          Trace.log(Trace.ERROR, "Byte stream server connection lost");
+          connectionDropped(e);
+        }
+        pendingWriteBytes_ += writeLength;
+        incrementFileOffset(writeLength);
+        dataOffset += writeLength;
+        length -= writeLength;
+        continue;
+      }
+
       // Send the request.
       ClientAccessDataStream ds = null;
       try
@@ -1695,6 +2174,117 @@ implements IFSFileDescriptorImpl
       }
     }
   }
+
+  // Checks the replies to the oldest blocks written behind, until no more than maxPendingBytes remain unchecked.
+  // If a write failed, the replies to the blocks after it are thrown away and the failure is reported.
+  private void completeWrites(int maxPendingBytes)
+    throws IOException, AS400SecurityException
+  {
+    if (pendingWrites_ == null) return;
+    while (pendingWriteBytes_ > maxPendingBytes && !pendingWrites_.isEmpty())
+    {
+      PendingWrite write = (PendingWrite)pendingWrites_.remove(0);
+      pendingWriteBytes_ -= write.length_;
+      boolean succeeded = false;
+      try
+      {
+        receiveWrite(write);
+        succeeded = true;
+      }
+      finally
+      {
+        if (!succeeded) discardWrites();
+      }
+    }
+  }
+
+  // Checks the reply to a block written behind.
+  private void receiveWrite(PendingWrite write)
+    throws IOException, AS400SecurityException
+  {
+    ClientAccessDataStream ds = null;
+    try
+    {
+      ds = (ClientAccessDataStream) write.reply_.get();
+    }
+    catch(ConnectionDroppedException e)
+    {
+      Trace.log(Trace.ERROR, "Byte stream server connection lost");
+      connectionDropped(e);
+    }
+    catch(InterruptedException e)
+    {
+      Trace.log(Trace.ERROR, "Interrupted", e);
+      InterruptedIOException throwException = new InterruptedIOException(e.getMessage());
+      try {
+        throwException.initCause(e); 
+      } catch (Throwable t) {} 
+      throw throwException;
+    }
+
+    if (ds instanceof IFSWriteRep)
+    {
+      IFSWriteRep rep = (IFSWriteRep) ds;
+      int rc = rep.getReturnCode();
+      if (rc != 0)
+      {
+        Trace.log(Trace.ERROR, "IFSWriteRep return code", rc);
+        throw new ExtendedIOException(path_, rc);
+      }
+
+      // Ensure that all data requested was written.
+      int lengthWritten = write.length_ - rep.getLengthNotWritten();
+      if (lengthWritten != write.length_)
+      {
+        Trace.log(Trace.ERROR, "Incomplete write.  Only " +
+                  Integer.toString(lengthWritten) + " bytes of a requested " +
+                  Integer.toString(write.length_) + " were written.");
+        throw new ExtendedIOException(path_, ExtendedIOException.UNKNOWN_ERROR);
+      }
+    }
+    else if (ds instanceof IFSReturnCodeRep)
+    {
+      int rc = ((IFSReturnCodeRep) ds).getReturnCode();
+      if (rc != IFSReturnCodeRep.SUCCESS)
+      {
+        throwSecurityExceptionIfAccessDenied(path_,rc); // check for "access denied"
+        Trace.log(Trace.ERROR, "IFSReturnCodeRep return code", descriptionForReturnCode(rc));
+        throw new ExtendedIOException(path_, rc);
+      }
+    }
+    else
+    {
+      // Unknown data stream.
+      Trace.log(Trace.ERROR, "Unknown reply data stream", ds.data_);
+      throw new
+        InternalErrorException(Integer.toHexString(ds.getReqRepID()),
+                               InternalErrorException.DATA_STREAM_UNKNOWN);
+    }
+  }
+
+  // Throws away the replies to the blocks written behind that have not been checked.
+  private void discardWrites()
+  {
+    if (pendingWrites_ == null) return;
+    for (int i = 0; i < pendingWrites_.size(); ++i)
+    {
+      ((PendingWrite)pendingWrites_.elementAt(i)).reply_.discard();
+    }
+    pendingWrites_.removeAllElements();
+    pendingWriteBytes_ = 0;
+  }
+
+  // Allows writeBytes() to send blocks without waiting for their replies.
+  // The number of bytes that can be outstanding comes from SystemProperties.IFS_WRITE_BEHIND_WINDOW.
+  void setWriteBehindAllowed(boolean allowed)
+  {
+    writeBehindWindow_ = (allowed ? getIntegerProperty(SystemProperties.IFS_WRITE_BEHIND_WINDOW, 0, 0) : 0);
+    if (writeBehindWindow_ > 0 && pendingWrites_ == null)
+    {
+      pendingWrites_ = new Vector();
+    }
+  }
+
   public int getServerDatastreamLevel() {
     return serverDatastreamLevel_;
   }
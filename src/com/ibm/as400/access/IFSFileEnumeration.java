@@ -23,15 +23,22 @@ import java.util.Enumeration;
 import java.util.NoSuchElementException;
 
 
+// The request for the next block is sent as soon as the current block is loaded, and its
+// reply is received when the block is needed, so that a large directory is not read one
+// round trip per block.  At most two blocks are held at a time.
 class IFSFileEnumeration
 implements Enumeration
 {
-    // The block size is hardcoded based on the value chosen by OpNav.  
-    // For now, it is not configurable.
-    private static final int MAXIMUM_GET_COUNT_ = 128;
+    // The default block size is based on the value chosen by OpNav.  
+    // It can be changed with SystemProperties.IFS_LIST_BLOCK_SIZE.
+    private static final int DEFAULT_MAXIMUM_GET_COUNT_ = 128;
+    private static final int MAXIMUM_GET_COUNT_ = getMaximumGetCount();
 
     private IFSFile[]       contents_;
     private IFSFile[]       contentsPending_;  // Staging area for contents_   @A1a
+    private Object          pendingRequest_;   // The request for contentsPending_, if its reply has not been received.
+    private boolean         pendingByName_;    // Whether pendingRequest_ restarts by name.
+    private Exception       loadError_;        // The exception from receiving contentsPending_, or null.
     private IFSFile         file_;
     private IFSFileFilter   filter_;
     private int             index_;
@@ -83,8 +90,74 @@ implements Enumeration
 
     public boolean hasMoreElements()
     {
-        return ((contents_ != null && index_ < contents_.length) ||
-                (contentsPending_ != null));  // @A1c
+        if (contents_ != null && index_ < contents_.length) return true;
+
+        // Whether there are more depends on the block that was requested.  If receiving it
+        // failed, let nextElement() report the failure.
+        receivePendingBlock();
+        return (contentsPending_ != null || loadError_ != null);  // @A1c
+    }
+
+
+    // Returns the block size from the system property, or the default if it is not set or not valid.
+    private static int getMaximumGetCount()
+    {
+      String value = SystemProperties.getProperty(SystemProperties.IFS_LIST_BLOCK_SIZE);
+      if (value != null)
+      {
+        try
+        {
+          int count = Integer.parseInt(value.trim());
+          if (count > 0 && count < 0xffff) return count;
+        }
+        catch (NumberFormatException e)
+        {
+        }
+        if (Trace.traceOn_) Trace.log(Trace.WARNING, "Ignoring invalid value for " + SystemProperties.IFS_LIST_BLOCK_SIZE + ": " + value);
+      }
+      return DEFAULT_MAXIMUM_GET_COUNT_;
+    }
+
+
+    // Sends the request for the next block, from the specified restart name or restart ID.
+    // The reply is received by receivePendingBlock() when the block is needed.
+    private void requestPendingBlock(String restartName, byte[] restartID)
+    throws AS400SecurityException, IOException
+    {
+      pendingByName_ = (restartName != null);
+      if (pendingByName_)
+        pendingRequest_ = file_.startListFiles0(pattern_, MAXIMUM_GET_COUNT_, restartName);
+      else
+        pendingRequest_ = file_.startListFiles0(pattern_, MAXIMUM_GET_COUNT_, restartID);
+    }
+
+
+    // Receives the block requested by requestPendingBlock(), if any, into contentsPending_.
+    // If that fails, the exception is saved in loadError_ for getNextBlock() to throw.
+    private void receivePendingBlock()
+    {
+      if (pendingRequest_ == null) return;
+      Object request = pendingRequest_;
+      pendingRequest_ = null;
+      try
+      {
+        IFSFile[] block = file_.finishListFiles0(filter_, request);
+        if (block.length == 0 && file_.getListFiles0LastNumObjsReturned() > 0)
+        {
+          // Everything in the block was filtered out, so keep reading.       @D5A
+          if (pendingByName_)
+            block = loadPendingBlock(file_.getListFiles0LastRestartName());
+          else
+            block = loadPendingBlock(file_.getListFiles0LastRestartID());
+        }
+        if (block != null && block.length == 0) block = null;  // Never return an empty list.
+        contentsPending_ = block;
+      }
+      catch (Exception e)
+      {
+        if (Trace.traceOn_) Trace.log(Trace.ERROR, "Error loading the next block of " + file_.getPath(), e);
+        loadError_ = e;
+      }
     }
 
 
@@ -128,11 +201,20 @@ implements Enumeration
     }
 
 
-    // Transfers the "pending block" into the "current block".
+    // Transfers the "pending block" into the "current block", and requests the block after it.
     // Assumes loadPendingBlock() has been called at least once, to initialize contentsPending_.
     private void getNextBlock()
     throws AS400SecurityException, IOException
     {
+      receivePendingBlock();
+      if (loadError_ != null) {
+        Exception error = loadError_;
+        loadError_ = null;
+        if (error instanceof AS400SecurityException) throw (AS400SecurityException)error;
+        if (error instanceof IOException) throw (IOException)error;
+        throw (RuntimeException)error;
+      }
+
       // @A1a
       if (contentsPending_ == null) {
         if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC,
@@ -157,7 +239,7 @@ implements Enumeration
         if (isRestartByNameSupported_)
         {
           // Load the next block from the system.
-          contentsPending_ = loadPendingBlock(file_.getListFiles0LastRestartName());// @C3c @D5C
+          requestPendingBlock(file_.getListFiles0LastRestartName(), null);// @C3c @D5C
         }
         else
         {
@@ -176,7 +258,7 @@ implements Enumeration
               String restartName = contents_[contents_.length-1].getName();
               if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC,
                                             "IFSFileEnumeration::getNextBlock(): Specifying restartName '"+restartName+"' for next request.");
-              contentsPending_ = loadPendingBlock(restartName);
+              requestPendingBlock(restartName, null);
               return;
             }
             else {
@@ -184,7 +266,7 @@ implements Enumeration
                                             "IFSFileEnumeration::getNextBlock(): No restartName available from prior reply.");
             }
           }
-          contentsPending_ = loadPendingBlock(restartID);// @C3c @D5C
+          requestPendingBlock(null, restartID);// @C3c @D5C
         }
       }
     }
@@ -207,9 +289,10 @@ implements Enumeration
 
     public Object nextElement()
     {
-        if (index_ < contents_.length)
+        if (contents_ != null && index_ < contents_.length)
             return contents_[index_++];
-        else if (contentsPending_ == null)
+        receivePendingBlock();
+        if (contentsPending_ == null && loadError_ == null)
             throw new NoSuchElementException();
         else {
             try {
@@ -223,4 +306,24 @@ implements Enumeration
     }
 
 
+    // Throws away the reply to the request for the next block, if it has not been received,
+    // so that it is not left queued on the connection.  Nothing is sent or received.
+    void close()
+    {
+      if (pendingRequest_ != null)
+      {
+        Object request = pendingRequest_;
+        pendingRequest_ = null;
+        file_.discardListFiles0(request);
+      }
+    }
+
+
+    protected void finalize() throws Throwable
+    {
+      close();
+      super.finalize();
+    }
+
+
 }
@@ -75,6 +75,19 @@ interface IFSFileImpl
                                              byte[] restartID,            //@D7C
                                              boolean allowSortedRequests) //@D7A
     throws IOException, AS400SecurityException;
+  // Sends the request for a block of directory details without waiting for the reply.
+  // The returned object is passed to finishListDirectoryDetails() to receive the details.
+  Object startListDirectoryDetails(String directoryPattern,
+                                   String directoryPath,
+                                   int maximumGetCount,
+                                   String restartName,
+                                   byte[] restartID,
+                                   boolean allowSortedRequests)
+    throws IOException, AS400SecurityException;
+  IFSCachedAttributes[] finishListDirectoryDetails(Object request)
+    throws IOException, AS400SecurityException;
+  // Throws away the details requested by startListDirectoryDetails(), without waiting for them.
+  void discardListDirectoryDetails(Object request);
   int mkdir(String directory) throws IOException, AS400SecurityException;
   int mkdirs() throws IOException, AS400SecurityException;
   int renameTo(IFSFileImpl file)
@@ -478,6 +478,39 @@ implements IFSFileImpl
     }
   }
 
+  // A proxied call cannot be split into a request and a reply, so the list is retrieved
+  // by finishListDirectoryDetails().  This just holds on to the arguments.
+  public Object startListDirectoryDetails(String directoryPattern,
+                                          String directoryPath,
+                                          int maxGetCount,
+                                          String restartName,
+                                          byte[] restartID,
+                                          boolean allowSortedRequests)
+  {
+    return new Object[] { directoryPattern, directoryPath, new Integer(maxGetCount), restartName, restartID, new Boolean(allowSortedRequests) };
+  }
+
+  // List the file/directory details requested by startListDirectoryDetails().
+  public IFSCachedAttributes[] finishListDirectoryDetails(Object request)
+    throws IOException, AS400SecurityException
+  {
+    Object[] args = (Object[])request;
+    String directoryPattern = (String)args[0];
+    String directoryPath = (String)args[1];
+    int maxGetCount = ((Integer)args[2]).intValue();
+    if (args[3] != null) {
+      return listDirectoryDetails(directoryPattern, directoryPath, maxGetCount, (String)args[3]);
+    }
+    else {
+      return listDirectoryDetails(directoryPattern, directoryPath, maxGetCount, (byte[])args[4], ((Boolean)args[5]).booleanValue());
+    }
+  }
+
+  // Nothing was sent by startListDirectoryDetails(), so there is nothing to throw away.
+  public void discardListDirectoryDetails(Object request)
+  {
+  }
+
   public int mkdir(String directory)
     throws IOException, AS400SecurityException
   {
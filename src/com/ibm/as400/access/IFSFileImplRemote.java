@@ -2006,6 +2006,14 @@ implements IFSFileImpl
   {
     // Assume connect() has already been done.
 
+    IFSListAttrsReq req = listAttributesRequest(path, maxGetCount, restartNameOrID, isRestartName, sortList);
+    return fd_.listAttributes(req);  // Note: This does setFD() on each returned IFSListAttrsRep..
+  }
+
+
+  // Prepare the 'list attributes' request for the specified path.
+  private IFSListAttrsReq listAttributesRequest(String path, int maxGetCount, byte[] restartNameOrID, boolean isRestartName, boolean sortList)
+  {
     // Convert the pathname to the server CCSID.
     byte[] pathname = fd_.converter_.stringToByteArray(path);
 
@@ -2017,7 +2025,7 @@ implements IFSFileImpl
                                               null, 0, false, fd_.patternMatching_);
     
     if (sortList) req.setSorted(true);
-    return fd_.listAttributes(req);  // Note: This does setFD() on each returned IFSListAttrsRep..
+    return req;
   }
 
 
@@ -2101,55 +2109,64 @@ implements IFSFileImpl
       // Only "handle-based" requests can get OA* structures in the reply; and a handls is specific to a single file.
       // This prevents us, for example, from obtaining the "name of file owner" values for an entire list of files at once; rather, we must obtain that attribute one file at a time.
       Vector replys = listAttributes(pathPattern, maxGetCount, restartNameOrID, isRestartName, sortList);
+      fileAttributes = getCachedAttributes(replys, directoryPath);
+    }
+    catch (AS400SecurityException e)
+    {
+      fileAttributes = null;
+      throw e;
+    }
+    return fileAttributes;
+  }
 
-      // Add each file or directory in the specified directory,
-      // to the array of files.
 
-      int j = 0;
-      if (replys != null)
-      {
-        fileAttributes = new IFSCachedAttributes[replys.size()];
-        int dsl = fd_.serverDatastreamLevel_;
-        for (int i = 0; i < replys.size(); i++)
-        {
-          IFSListAttrsRep reply = (IFSListAttrsRep) replys.elementAt(i);
-          String name = fd_.converter_.byteArrayToString(reply.getName(/*dsl*/));
-          if (!(name.equals(".") || name.equals("..")))
-          {
-             // isDirectory and isFile should be different unless the
-             // file is an invalid symbolic link (circular or points
-             // to a non-existent object).  Such a link cannot
-             // be resolved and both determineIsDirectory and
-             // determineIsFile will return false.  Regular symbolic links
-             // will resolve.  For example, a symbolic link to a file will return
-             // true from isFile and false from determineIsDirectory.
-             boolean isDirectory = determineIsDirectory(reply);
-             boolean isFile = determineIsFile(reply);
-             IFSCachedAttributes attributes = new IFSCachedAttributes(reply.getAccessDate(),
-                 reply.getCreationDate(), reply.getFixedAttributes(), reply.getModificationDate(),
-                 reply.getObjectType(), reply.getSize(dsl), name, directoryPath, isDirectory, isFile, 
-                 reply.getRestartID(), reply.isSymbolicLink(dsl), reply.getFileSystemType(dsl)); //@B3A @C3C
-             fileAttributes[j++] = attributes;
-           }
-        }
-      }//end if
+  // Convert list attributes replys to the details of the files/directories they describe.
+  private IFSCachedAttributes[] getCachedAttributes(Vector replys, String directoryPath)
+  {
+    IFSCachedAttributes[] fileAttributes = null;
 
-      if (j == 0)
-      {
-        fileAttributes = new IFSCachedAttributes[0];    //@B3C
-      }
-      else if (fileAttributes.length != j)
+    // Add each file or directory in the specified directory,
+    // to the array of files.
+
+    int j = 0;
+    if (replys != null)
+    {
+      fileAttributes = new IFSCachedAttributes[replys.size()];
+      int dsl = fd_.serverDatastreamLevel_;
+      for (int i = 0; i < replys.size(); i++)
       {
-        //Copy the attributes to an array of the exact size.
-        IFSCachedAttributes[] newFileAttributes = new IFSCachedAttributes[j];   //@B3C
-        System.arraycopy(fileAttributes, 0, newFileAttributes, 0, j);    //@B3C
-        fileAttributes = newFileAttributes;
+        IFSListAttrsRep reply = (IFSListAttrsRep) replys.elementAt(i);
+        String name = fd_.converter_.byteArrayToString(reply.getName(/*dsl*/));
+        if (!(name.equals(".") || name.equals("..")))
+        {
+           // isDirectory and isFile should be different unless the
+           // file is an invalid symbolic link (circular or points
+           // to a non-existent object).  Such a link cannot
+           // be resolved and both determineIsDirectory and
+           // determineIsFile will return false.  Regular symbolic links
+           // will resolve.  For example, a symbolic link to a file will return
+           // true from isFile and false from determineIsDirectory.
+           boolean isDirectory = determineIsDirectory(reply);
+           boolean isFile = determineIsFile(reply);
+           IFSCachedAttributes attributes = new IFSCachedAttributes(reply.getAccessDate(),
+               reply.getCreationDate(), reply.getFixedAttributes(), reply.getModificationDate(),
+               reply.getObjectType(), reply.getSize(dsl), name, directoryPath, isDirectory, isFile, 
+               reply.getRestartID(), reply.isSymbolicLink(dsl), reply.getFileSystemType(dsl)); //@B3A @C3C
+           fileAttributes[j++] = attributes;
+         }
       }
+    }//end if
+
+    if (j == 0)
+    {
+      fileAttributes = new IFSCachedAttributes[0];    //@B3C
     }
-    catch (AS400SecurityException e)
+    else if (fileAttributes.length != j)
     {
-      fileAttributes = null;
-      throw e;
+      //Copy the attributes to an array of the exact size.
+      IFSCachedAttributes[] newFileAttributes = new IFSCachedAttributes[j];   //@B3C
+      System.arraycopy(fileAttributes, 0, newFileAttributes, 0, j);    //@B3C
+      fileAttributes = newFileAttributes;
     }
     return fileAttributes;
   }
@@ -2184,6 +2201,68 @@ implements IFSFileImpl
   }
 
 
+  // A request for directory details that has been sent but whose replys have not been received.
+  private static final class ListRequest
+  {
+    final IFSListAttrsReq req_;
+    final AS400ReplyFuture reply_;
+    final String directoryPath_;
+
+    ListRequest(IFSListAttrsReq req, AS400ReplyFuture reply, String directoryPath)
+    {
+      req_ = req;
+      reply_ = reply;
+      directoryPath_ = directoryPath;
+    }
+  }
+
+
+  // Send the request for the files/directories details in the specified directory, without waiting for the replys.
+  // Specify either restartName or restartID, as for listDirectoryDetails().
+  // The returned object is passed to finishListDirectoryDetails() to receive the details.
+  public Object startListDirectoryDetails(String pathPattern,
+                                          String directoryPath,
+                                          int maxGetCount,
+                                          String restartName,
+                                          byte[] restartID,
+                                          boolean allowSortedRequests)
+     throws IOException, AS400SecurityException
+  {
+    // Ensure that we are connected to the server.
+    fd_.connect();
+
+    IFSListAttrsReq req;
+    if (restartName != null)
+    {
+      byte[] restartNameBytes = fd_.converter_.stringToByteArray(restartName);
+      req = listAttributesRequest(pathPattern, maxGetCount, restartNameBytes, IS_RESTART_NAME, sortLists_);
+    }
+    else
+    {
+      boolean sortParameter = (allowSortedRequests ? sortLists_ : false);
+      req = listAttributesRequest(pathPattern, maxGetCount, restartID, !IS_RESTART_NAME, sortParameter);
+    }
+    return new ListRequest(req, fd_.sendListAttributes(req), directoryPath);
+  }
+
+  // Receive the files/directories details requested by startListDirectoryDetails().
+  // Returns null if specified file or directory does not exist.
+  public IFSCachedAttributes[] finishListDirectoryDetails(Object request)
+     throws IOException, AS400SecurityException
+  {
+    ListRequest listRequest = (ListRequest)request;
+    Vector replys = fd_.receiveListAttributes(listRequest.req_, listRequest.reply_);
+    return getCachedAttributes(replys, listRequest.directoryPath_);
+  }
+
+  // Throw away the files/directories details requested by startListDirectoryDetails(), without waiting for them.
+  public void discardListDirectoryDetails(Object request)
+  {
+    ListRequest listRequest = (ListRequest)request;
+    fd_.discardListAttributes(listRequest.reply_);
+  }
+
+
 
   /**
    Creates an integrated file system directory whose path name is specified by this object.
@@ -486,6 +486,7 @@ implements IFSFileInputStreamImpl
 
     // Cast the argument to an xxxImplRemote.
     fd_ = IFSFileDescriptorImplRemote.castImplToImplRemote(fd);  // @B2C
+    fd_.setReadAheadAllowed(true);
   }
 
 
@@ -288,6 +288,7 @@ implements IFSFileOutputStreamImpl
 
     // Cast the argument to an xxxImplRemote.
     fd_ = IFSFileDescriptorImplRemote.castImplToImplRemote(fd);  // @B2C
+    fd_.setWriteBehindAllowed(true);
   }
 
 
@@ -780,6 +780,7 @@ implements IFSRandomAccessFileImpl
     // Assume the argument has been validated by the public class.
 
     fd_ = IFSFileDescriptorImplRemote.castImplToImplRemote(fd);  // @B2C
+    fd_.setWriteBehindAllowed(true);
   }
 
 
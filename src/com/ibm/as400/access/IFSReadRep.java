@@ -13,6 +13,8 @@
 
 package com.ibm.as400.access;
 
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
 Read data reply.
@@ -41,22 +43,92 @@ Generate a new instance of this type.
     return new IFSReadRep();
   }
 
+/**
+Receive into a pooled buffer, since file data replies can be large.
+The buffer is returned to the pool by releaseReplyBuffer().
+@param length the total length of the reply
+@return the buffer
+**/
+  byte[] allocateReplyBuffer(int length)
+  {
+    return DataStreamBufferPool.getBuffer(length);
+  }
+
+/**
+Read the rest of the reply.  The pooled buffer may be longer than the reply, so the length is taken from the header.
+@param in the input stream
+@return the number of bytes read
+**/
+  protected int readAfterHeader(InputStream in) throws IOException
+  {
+    int length = getLength() - HEADER_LENGTH;
+    int bytesRead = readFromStream(in, data_, HEADER_LENGTH, length);
+    if (bytesRead < length)
+    {
+      if (Trace.traceOn_) Trace.log(Trace.ERROR, "Failed to read all of the data stream.");
+      throw new ConnectionDroppedException(ConnectionDroppedException.CONNECTION_DROPPED);
+    }
+    return bytesRead;
+  }
+
+/**
+Return the buffer to the pool.  The reply must not be used afterwards.
+**/
+  void releaseReplyBuffer()
+  {
+    byte[] data = data_;
+    data_ = null;
+    DataStreamBufferPool.releaseBuffer(data);
+  }
+
 /**
 Get the data.
 @return the bytes read
 **/
   public byte[] getData()
   {
-    int bytesRead = get32bit( FILE_DATA_LL_OFFSET) - 6;
+    int bytesRead = getDataLength();
     byte[] dataRead = new byte[bytesRead];
-    for (int i = 0; i < bytesRead; i++)
-    {
-      dataRead[i] = data_[FILE_DATA_OFFSET + i];
-    }
-
+    System.arraycopy(data_, FILE_DATA_OFFSET, dataRead, 0, bytesRead);
     return dataRead;
   }
 
+/**
+Get the number of bytes read.
+@return the number of bytes read
+**/
+  int getDataLength()
+  {
+    return get32bit( FILE_DATA_LL_OFFSET) - 6;
+  }
+
+/**
+Copy the data directly into the caller's buffer, without an intermediate array.
+@param buffer the destination
+@param offset the offset in the destination
+@return the number of bytes copied
+**/
+  int copyData(byte[] buffer, int offset)
+  {
+    int bytesRead = getDataLength();
+    System.arraycopy(data_, FILE_DATA_OFFSET, buffer, offset, bytesRead);
+    return bytesRead;
+  }
+
+/**
+Copy part of the data directly into the caller's buffer.
+@param start the offset of the first byte to copy, within the data
+@param buffer the destination
+@param offset the offset in the destination
+@param length the number of bytes to copy
+@return the number of bytes copied
+**/
+  int copyData(int start, byte[] buffer, int offset, int length)
+  {
+    System.arraycopy(data_, FILE_DATA_OFFSET + start, buffer, offset, length);
+    return length;
+  }
+
 /**
 Generates a hash code for this data stream.
 @return the hash code
@@ -168,9 +168,8 @@ implements ConnectionEventListener
 
   // Note: At any given moment, the total number of connections in the pool is the difference of the above two values.
 
-
-  private final Object connectionsCreatedLock_ = new Object();
-  private final Object connectionsDestroyedLock_ = new Object();
+  // Guards both of the above counters, so that the difference can be read consistently with a single lock.
+  private final Object connectionCountsLock_ = new Object();
 
 
 
@@ -446,166 +445,163 @@ implements ConnectionEventListener
           {
             synchronized (condemnedConnections_)
             {
-              synchronized (connectionsCreatedLock_)
+              synchronized (connectionCountsLock_)
               {
-                synchronized (connectionsDestroyedLock_)
+                // Count all connections on the 'available' list.
+                int totalAvailConnCount = 0;
+                for (int side = FOREGROUND; side <= BACKGROUND; side++)
                 {
-                  // Count all connections on the 'available' list.
-                  int totalAvailConnCount = 0;
-                  for (int side = FOREGROUND; side <= BACKGROUND; side++)
+                  int availConnCount = 0;
+                  // Get list of all connection keys in the 'available' HashMap.
+                  JDConnectionPoolKey[] poolKeys = (JDConnectionPoolKey[])availableConnections_[side].keySet().toArray(new JDConnectionPoolKey[0]);
+                  for (int i=0; i<poolKeys.length; i++)
                   {
-                    int availConnCount = 0;
-                    // Get list of all connection keys in the 'available' HashMap.
-                    JDConnectionPoolKey[] poolKeys = (JDConnectionPoolKey[])availableConnections_[side].keySet().toArray(new JDConnectionPoolKey[0]);
-                    for (int i=0; i<poolKeys.length; i++)
-                    {
-                      // Count the connections for the specified key.
-                      Stack connStack = (Stack)availableConnections_[side].get(poolKeys[i]);
-                      if (connStack != null) {
-                        availConnCount += connStack.size();
-                      }
-                    }
-                    totalAvailConnCount += availConnCount;
-
-                    // Verify that the associated 'idledSequence' has same number of connections.
-                    if (availableConnectionsIdledSequence_[side].size() != availConnCount)
-                    {
-                      ok = false;
-                      logError("Connection count mismatch for side " + side +": #avail==" + availConnCount + " ; #idled==" + availableConnectionsIdledSequence_[side].size());
-                    }
-
-                    if (poolClosedCompletely_)
-                    {
-                      // Verify that all this 'available' connection list is empty.
-                      if (availConnCount != 0) {
-                        ok = false;
-                        logError("Available connections in list " + side + " ==" + availConnCount + " after pool closed");
-                      }
-                    }
-
-                    if (DEBUG || GATHER_STATS)
-                    {
-                      // Verify that the connections in the 'idledSequence' list are in order of when they were idled.
-                      Iterator idledIter = availableConnectionsIdledSequence_[side].iterator();
-                      long timeWhenPriorConnIdled = 0;
-                      for (int i=0; idledIter.hasNext(); i++)
-                      {
-                        AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection)idledIter.next();
-                        if (conn.timeWhenPoolStatusLastModified_ < timeWhenPriorConnIdled)
-                        {
-                          ok = false;
-                          logError("Idled connection sequence for side " + side + " is not arranged in order of idled-time");
-                        }
-                        timeWhenPriorConnIdled = conn.timeWhenPoolStatusLastModified_;
-                      }
+                    // Count the connections for the specified key.
+                    Stack connStack = (Stack)availableConnections_[side].get(poolKeys[i]);
+                    if (connStack != null) {
+                      availConnCount += connStack.size();
                     }
+                  }
+                  totalAvailConnCount += availConnCount;
 
-                  }  // for (side ...)
-
-                  int totalConnCount = totalAvailConnCount + activeConnections_.size() + condemnedConnections_.size();
-                  if (totalConnCount != numConnectionsCreated_ - numConnectionsDestroyed_)
+                  // Verify that the associated 'idledSequence' has same number of connections.
+                  if (availableConnectionsIdledSequence_[side].size() != availConnCount)
                   {
-                    // We may have interrupted the pool while a connection was in "limbo".
-                    logWarning("totalConnCount==" + totalConnCount + "; numConnectionsCreated_=="+numConnectionsCreated_ + "; numConnectionsDestroyed_==" + numConnectionsDestroyed_ + " (difference: " + (numConnectionsCreated_ - numConnectionsDestroyed_) + ")");
+                    ok = false;
+                    logError("Connection count mismatch for side " + side +": #avail==" + availConnCount + " ; #idled==" + availableConnectionsIdledSequence_[side].size());
                   }
 
                   if (poolClosedCompletely_)
                   {
-                    // Verify that the 'available' connection lists are empty.
-                    if (availableConnections_[FOREGROUND].size() != 0) {
+                    // Verify that all this 'available' connection list is empty.
+                    if (availConnCount != 0) {
                       ok = false;
-                      logError("Available connection list (foreground) is not empty after pool closed");
-                    }
-                    if (availableConnections_[BACKGROUND].size() != 0) {
-                      ok = false;
-                      logError("Available connection list (background) is not empty after pool closed");
-                    }
-                    // Verify that the 'active' connection list is empty.
-                    if (activeConnections_.size() != 0) {
-                      ok = false;
-                      logError("Active connection count is " + activeConnections_.size() + " after pool closed");
-                    }
-                    // Verify that the 'active(error)' connection list is empty.
-                    if (activeConnectionsInError_.size() != 0) {
-                      ok = false;
-                      logError("Active(error) connection count is " + activeConnectionsInError_.size() + " after pool closed");
-                    }
-                    // Verify that the 'condemned' connection list is empty.
-                    if (condemnedConnections_.size() != 0) {
-                      ok = false;
-                      logError("Condemned connection count is " + condemnedConnections_.size() + " after pool closed");
-                    }
-                    // Verify that the total connection count is zero.
-                    if (numConnectionsCreated_ != numConnectionsDestroyed_) {
-                      ok = false;
-                      logError("numConnectionsCreated_ == " + numConnectionsCreated_ + ", numConnectionsDestroyed_ == " + numConnectionsDestroyed_ + " after pool closed");
+                      logError("Available connections in list " + side + " ==" + availConnCount + " after pool closed");
                     }
                   }
 
-                  if (DEBUG)
-                  {
-                    logInformation("Total available connections==" + totalAvailConnCount + "\n activeConnections_.size()=="+activeConnections_.size() + "\n condemnedConnections_.size()==" + condemnedConnections_.size());
-                  }
-
                   if (DEBUG || GATHER_STATS)
                   {
-                    // Verify that the connections in the 'active' list are in proper sequence.
-                    Iterator activeIter = activeConnections_.iterator();
-                    long timeWhenPriorConnWasCreated = 0L;
-                    for (int i=0; activeIter.hasNext(); i++)
+                    // Verify that the connections in the 'idledSequence' list are in order of when they were idled.
+                    Iterator idledIter = availableConnectionsIdledSequence_[side].iterator();
+                    long timeWhenPriorConnIdled = 0;
+                    for (int i=0; idledIter.hasNext(); i++)
                     {
-                      AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection)activeIter.next();
-                      if (conn.timeWhenCreated_ < timeWhenPriorConnWasCreated)
+                      AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection)idledIter.next();
+                      if (conn.timeWhenPoolStatusLastModified_ < timeWhenPriorConnIdled)
                       {
                         ok = false;
-                        logError("Active connection sequence is not arranged in order of creation: conn.timeWhenCreated_=="+conn.timeWhenCreated_+", timeWhenPriorConnWasCreated=="+timeWhenPriorConnWasCreated);
+                        logError("Idled connection sequence for side " + side + " is not arranged in order of idled-time");
                       }
-                      timeWhenPriorConnWasCreated = conn.timeWhenCreated_;
+                      timeWhenPriorConnIdled = conn.timeWhenPoolStatusLastModified_;
                     }
                   }
 
-                  if (DEBUG || logStatistics)
+                }  // for (side ...)
+
+                int totalConnCount = totalAvailConnCount + activeConnections_.size() + condemnedConnections_.size();
+                if (totalConnCount != numConnectionsCreated_ - numConnectionsDestroyed_)
+                {
+                  // We may have interrupted the pool while a connection was in "limbo".
+                  logWarning("totalConnCount==" + totalConnCount + "; numConnectionsCreated_=="+numConnectionsCreated_ + "; numConnectionsDestroyed_==" + numConnectionsDestroyed_ + " (difference: " + (numConnectionsCreated_ - numConnectionsDestroyed_) + ")");
+                }
+
+                if (poolClosedCompletely_)
+                {
+                  // Verify that the 'available' connection lists are empty.
+                  if (availableConnections_[FOREGROUND].size() != 0) {
+                    ok = false;
+                    logError("Available connection list (foreground) is not empty after pool closed");
+                  }
+                  if (availableConnections_[BACKGROUND].size() != 0) {
+                    ok = false;
+                    logError("Available connection list (background) is not empty after pool closed");
+                  }
+                  // Verify that the 'active' connection list is empty.
+                  if (activeConnections_.size() != 0) {
+                    ok = false;
+                    logError("Active connection count is " + activeConnections_.size() + " after pool closed");
+                  }
+                  // Verify that the 'active(error)' connection list is empty.
+                  if (activeConnectionsInError_.size() != 0) {
+                    ok = false;
+                    logError("Active(error) connection count is " + activeConnectionsInError_.size() + " after pool closed");
+                  }
+                  // Verify that the 'condemned' connection list is empty.
+                  if (condemnedConnections_.size() != 0) {
+                    ok = false;
+                    logError("Condemned connection count is " + condemnedConnections_.size() + " after pool closed");
+                  }
+                  // Verify that the total connection count is zero.
+                  if (numConnectionsCreated_ != numConnectionsDestroyed_) {
+                    ok = false;
+                    logError("numConnectionsCreated_ == " + numConnectionsCreated_ + ", numConnectionsDestroyed_ == " + numConnectionsDestroyed_ + " after pool closed");
+                  }
+                }
+
+                if (DEBUG)
+                {
+                  logInformation("Total available connections==" + totalAvailConnCount + "\n activeConnections_.size()=="+activeConnections_.size() + "\n condemnedConnections_.size()==" + condemnedConnections_.size());
+                }
+
+                if (DEBUG || GATHER_STATS)
+                {
+                  // Verify that the connections in the 'active' list are in proper sequence.
+                  Iterator activeIter = activeConnections_.iterator();
+                  long timeWhenPriorConnWasCreated = 0L;
+                  for (int i=0; activeIter.hasNext(); i++)
                   {
-                    String msg =
-                      "\nswapsAttempted_=="+swapsAttempted_+"\n"+
-                      "swapsSucceeded_=="+swapsSucceeded_+"\n"+
-                      "swapsFailed_=="+swapsFailed_+"\n"+
-                      "swapsFailed_notWorthIt_=="+swapsFailed_notWorthIt_+"\n"+
-                      "swapsSucceeded_foreground_=="+swapsSucceeded_foreground_+"\n"+
-                      "swapsSucceeded_background_=="+swapsSucceeded_background_+"\n"+
-                      "swapsFailed_foreground_=="+swapsFailed_foreground_+"\n"+
-                      "swapsFailed_background_=="+swapsFailed_background_+"\n"+
-                      "swapsFailed_premature_=="+swapsFailed_premature_+"\n"+
-                      "swapsFailed_foreground_inProgress_=="+swapsFailed_foreground_inProgress_+"\n"+
-                      "swapsFailed_background_inProgress_=="+swapsFailed_background_inProgress_+"\n"+
-                      "swapsFailed_foreground_daemonAwake_=="+swapsFailed_foreground_daemonAwake_+"\n"+
-
-                      "maintainerDaemonCycles_=="+maintainerDaemonCycles_+"\n"+
-                      "reaperDaemonCycles_=="+reaperDaemonCycles_+"\n"+
-                      "scavengerDaemonCycles_=="+scavengerDaemonCycles_+"\n"+
-
-                      "numGetConnectionCalls_received_=="+numGetConnectionCalls_received_+"\n"+
-                      "numGetConnectionCalls_succeeded_=="+numGetConnectionCalls_succeeded_+"\n"+
-                      "numGetConnectionCalls_returnedNull_=="+numGetConnectionCalls_returnedNull_+"\n"+
-                      "numGetConnectionCalls_whileClosing_=="+numGetConnectionCalls_whileClosing_+"\n"+
-
-                      "connectionsReturnedToPool_=="+connectionsReturnedToPool_ +"\n"+
-                      "connectionErrorsOccurred_=="+connectionErrorsOccurred_ +"\n"+
-
-                      "staleConnectionsIdentified_: " + staleConnectionsIdentified_ +"\n"+
-                      "expiredConnectionsIdentifiedByReaper_: " + expiredConnectionsIdentifiedByReaper_ +"\n"+
-                      "expiredConnectionsIdentifiedWhenReturned_: " + expiredConnectionsIdentifiedWhenReturned_ +"\n"+
-                      "surplusPrecreatedConnectionsRemoved_: " + surplusPrecreatedConnectionsRemoved_ +"\n"+
-                      "survivingConnectionsRemoved_: " + survivingConnectionsRemoved_ +"\n"+
-                      "condemnedConnectionsRemoved_: " + condemnedConnectionsRemoved_ +"\n"+
-
-                      "numConnectionsCreated_: " + numConnectionsCreated_ +"\n"+
-                      "numConnectionsDestroyed_: " + numConnectionsDestroyed_;
-
-                    logInformation(msg);
+                    AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection)activeIter.next();
+                    if (conn.timeWhenCreated_ < timeWhenPriorConnWasCreated)
+                    {
+                      ok = false;
+                      logError("Active connection sequence is not arranged in order of creation: conn.timeWhenCreated_=="+conn.timeWhenCreated_+", timeWhenPriorConnWasCreated=="+timeWhenPriorConnWasCreated);
+                    }
+                    timeWhenPriorConnWasCreated = conn.timeWhenCreated_;
                   }
+                }
 
+                if (DEBUG || logStatistics)
+                {
+                  String msg =
+                    "\nswapsAttempted_=="+swapsAttempted_+"\n"+
+                    "swapsSucceeded_=="+swapsSucceeded_+"\n"+
+                    "swapsFailed_=="+swapsFailed_+"\n"+
+                    "swapsFailed_notWorthIt_=="+swapsFailed_notWorthIt_+"\n"+
+                    "swapsSucceeded_foreground_=="+swapsSucceeded_foreground_+"\n"+
+                    "swapsSucceeded_background_=="+swapsSucceeded_background_+"\n"+
+                    "swapsFailed_foreground_=="+swapsFailed_foreground_+"\n"+
+                    "swapsFailed_background_=="+swapsFailed_background_+"\n"+
+                    "swapsFailed_premature_=="+swapsFailed_premature_+"\n"+
+                    "swapsFailed_foreground_inProgress_=="+swapsFailed_foreground_inProgress_+"\n"+
+                    "swapsFailed_background_inProgress_=="+swapsFailed_background_inProgress_+"\n"+
+                    "swapsFailed_foreground_daemonAwake_=="+swapsFailed_foreground_daemonAwake_+"\n"+
+
+                    "maintainerDaemonCycles_=="+maintainerDaemonCycles_+"\n"+
+                    "reaperDaemonCycles_=="+reaperDaemonCycles_+"\n"+
+                    "scavengerDaemonCycles_=="+scavengerDaemonCycles_+"\n"+
+
+                    "numGetConnectionCalls_received_=="+numGetConnectionCalls_received_+"\n"+
+                    "numGetConnectionCalls_succeeded_=="+numGetConnectionCalls_succeeded_+"\n"+
+                    "numGetConnectionCalls_returnedNull_=="+numGetConnectionCalls_returnedNull_+"\n"+
+                    "numGetConnectionCalls_whileClosing_=="+numGetConnectionCalls_whileClosing_+"\n"+
+
+                    "connectionsReturnedToPool_=="+connectionsReturnedToPool_ +"\n"+
+                    "connectionErrorsOccurred_=="+connectionErrorsOccurred_ +"\n"+
+
+                    "staleConnectionsIdentified_: " + staleConnectionsIdentified_ +"\n"+
+                    "expiredConnectionsIdentifiedByReaper_: " + expiredConnectionsIdentifiedByReaper_ +"\n"+
+                    "expiredConnectionsIdentifiedWhenReturned_: " + expiredConnectionsIdentifiedWhenReturned_ +"\n"+
+                    "surplusPrecreatedConnectionsRemoved_: " + surplusPrecreatedConnectionsRemoved_ +"\n"+
+                    "survivingConnectionsRemoved_: " + survivingConnectionsRemoved_ +"\n"+
+                    "condemnedConnectionsRemoved_: " + condemnedConnectionsRemoved_ +"\n"+
+
+                    "numConnectionsCreated_: " + numConnectionsCreated_ +"\n"+
+                    "numConnectionsDestroyed_: " + numConnectionsDestroyed_;
+
+                  logInformation(msg);
                 }
+
               }
             }
           }
@@ -712,7 +708,7 @@ implements ConnectionEventListener
       if (JDTrace.isTraceOn()) logError(e.getMessage());
     }
     finally {
-      synchronized (connectionsDestroyedLock_) {
+      synchronized (connectionCountsLock_) {
         numConnectionsDestroyed_++;  // increment the 'connections destroyed' counter
       }
     }
@@ -826,11 +822,8 @@ implements ConnectionEventListener
     synchronized (condemnedConnections_) {
       condemnedConnections_.notifyAll();
     }
-    synchronized (connectionsCreatedLock_) {
-      connectionsCreatedLock_.notifyAll();
-    }
-    synchronized (connectionsDestroyedLock_) {
-      connectionsDestroyedLock_.notifyAll();
+    synchronized (connectionCountsLock_) {
+      connectionCountsLock_.notifyAll();
     }
 
     // The pool is being shut down, so we can (and should) go ahead and lock all lists.
@@ -1006,19 +999,25 @@ implements ConnectionEventListener
 
         // Put the connection back on the 'available' list.
         JDConnectionPoolKey poolKey = conn.getPoolKey();
+        boolean added = false;
+        while (!added)
         {
-          synchronized (availableConnections_[FOREGROUND])
+          HashMap available = availableConnections_[FOREGROUND];
+          synchronized (available)
           {  // Don't leave the connection in limbo.
-            Stack connStack = (Stack)availableConnections_[FOREGROUND].get(poolKey);
+            // If the lists were swapped while we waited for the lock, try again with the new foreground list.
+            if (available != availableConnections_[FOREGROUND]) continue;
+            Stack connStack = (Stack)available.get(poolKey);
             if (connStack == null)
             {
               // This could happen if the connection was allocated from the other 'avail' list and the lists have since been swapped.
               connStack = new Stack();
-              availableConnections_[FOREGROUND].put(poolKey, connStack);  // add new stack
+              available.put(poolKey, connStack);  // add new stack
             }
             connStack.push(conn);
             availableConnectionsIdledSequence_[FOREGROUND].add(conn);
             conn.timeWhenPoolStatusLastModified_ = timeNow;
+            added = true;
           }
         }
       }
@@ -1069,7 +1068,9 @@ implements ConnectionEventListener
 
     AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection) event.getSource();
 
-    activeConnectionsInError_.add(conn);  // track this connection until it gets closed
+    synchronized (activeConnections_) {  // the 'error' list is guarded by the 'active' list's lock
+      activeConnectionsInError_.add(conn);  // track this connection until it gets closed
+    }
   }
 
 
@@ -1102,19 +1103,22 @@ implements ConnectionEventListener
       else {
         newConn = (AS400JDBCPooledConnection)cpds_.getPooledConnection(poolKey.getUser(), password);
       }
-      synchronized (connectionsCreatedLock_) { // increment the 'connections created' counter
+      synchronized (connectionCountsLock_) { // increment the 'connections created' counter
         numConnectionsCreated_++;
       }
       newConn.addConnectionEventListener(this);
       newConn.setPoolKey(poolKey);
 
-      synchronized (availableConnections_[FOREGROUND])
+      HashMap available = availableConnections_[FOREGROUND];
+      synchronized (available)
       { // Don't leave the newly-created connection in limbo.
         // Get the stack of connections for the specified key.
-        Stack connStack = (Stack)availableConnections_[FOREGROUND].get(poolKey);
+        // Note: If the lists were swapped while we waited for the lock, the connection goes on what is now the background list, which is harmless.
+        int side = (available == availableConnections_[FOREGROUND] ? FOREGROUND : BACKGROUND);
+        Stack connStack = (Stack)available.get(poolKey);
         if (connStack == null) { // This key doesn't have a stack yet.
           connStack = new Stack();
-          availableConnections_[FOREGROUND].put(poolKey, connStack);  // Add new stack to the list.
+          available.put(poolKey, connStack);  // Add new stack to the list.
         }
 
         // Now that we've got locks, check the totals again.
@@ -1122,7 +1126,7 @@ implements ConnectionEventListener
         if (!isPoolOverFull())
         {
           connStack.push(newConn);
-          availableConnectionsIdledSequence_[FOREGROUND].add(newConn);
+          availableConnectionsIdledSequence_[side].add(newConn);
           addedConnectionToPool = true;
           newConn.timeWhenPoolStatusLastModified_ = System.currentTimeMillis();
         }
@@ -1220,7 +1224,7 @@ implements ConnectionEventListener
       finally
       {
         if (numberOfConnsCreatedForThisRequest != 0) {
-          synchronized (connectionsCreatedLock_) { // increment the 'connections created' counter
+          synchronized (connectionCountsLock_) { // increment the 'connections created' counter
             numConnectionsCreated_ += numberOfConnsCreatedForThisRequest;
           }
         }
@@ -1311,13 +1315,10 @@ implements ConnectionEventListener
       case SYNC_NONE:
         return numConnectionsCreated_ - numConnectionsDestroyed_;
       case SYNC_ALL:
-        synchronized (connectionsCreatedLock_)
-          {
-            synchronized (connectionsDestroyedLock_)
-            {
-              return numConnectionsCreated_ - numConnectionsDestroyed_;
-            }
-          }
+        synchronized (connectionCountsLock_)
+        {
+          return numConnectionsCreated_ - numConnectionsDestroyed_;
+        }
       default:
         logError("Internal error: JDConnectionPoolManager.getConnectionCount("+howToSync+")");
         return numConnectionsCreated_ - numConnectionsDestroyed_;
@@ -1366,22 +1367,34 @@ implements ConnectionEventListener
     boolean done = false;
     for (int ii=0; ii<5 && !done; ii++)
     {
-      synchronized (availableConnections_[FOREGROUND])
+      // Make at most 3 tries to get a connection.
+      // If we're lucky there's a connection available and we'll only need 1 pass to get a connection.
+      // If not, the 2nd pass is after swap attempt.
+      // If still no luck, then the third pass is after we've attempted to add a new physical connection to the pool.
+      // The 'available' list is only locked while a connection is taken from it.  The swap and the creation of a
+      // new physical connection are done outside the lock, so that other threads getting and returning connections
+      // do not wait for them.
+      for (int jj=0; conn1 == null && jj<3; jj++)
       {
-        if (poolClosed_) {
-          if (DEBUG || GATHER_STATS) numGetConnectionCalls_whileClosing_++;
-          String msg = ResourceBundleLoader.getText("EXC_CONN_POOL_CLOSED");
-          Trace.log(Trace.ERROR, msg);
-          throw new SQLException(msg);
-        }
-        // Make at most 3 tries to get a connection.
-        // If we're lucky there's a connection available and we'll only need 1 pass to get a connection.
-        // If not, the 2nd pass is after swap attempt.
-        // If still no luck, then the third pass is after we've attempted to add a new physical connection to the pool.
-        for (int jj=0; conn1 == null && jj<3; jj++)
+        HashMap available = availableConnections_[FOREGROUND];
+        synchronized (available)
         {
+          if (poolClosed_) {
+            if (DEBUG || GATHER_STATS) numGetConnectionCalls_whileClosing_++;
+            String msg = ResourceBundleLoader.getText("EXC_CONN_POOL_CLOSED");
+            Trace.log(Trace.ERROR, msg);
+            throw new SQLException(msg);
+          }
+
+          // If the lists were swapped while we waited for the lock, try again with the new foreground list.
+          if (available != availableConnections_[FOREGROUND])
+          {
+            jj--;
+            continue;
+          }
+
           // See if there's an available connection.
-          Stack connStack = (Stack)availableConnections_[FOREGROUND].get(poolKey);
+          Stack connStack = (Stack)available.get(poolKey);
           if (connStack != null && !connStack.empty())
           {
             // Retrieve the most recently used connection.
@@ -1393,25 +1406,25 @@ implements ConnectionEventListener
             // While we've got the list locked, see if we've taken the last available connection.
             if (keyIsDefault && connStack.empty()) needMoreDefaultConnections = true;
           }
+        }  // synchronized block
 
-          if (conn1 == null)
+        if (conn1 == null)
+        {
+          if (!triedToSwap)  // We haven't tried swapping lists yet.
           {
-            if (!triedToSwap)  // We haven't tried swapping lists yet.
-            {
-              // Try swapping the foreground and background 'available' lists.
-              // Note that the swap may fail if maintainer daemon is running, or if background list is not longer than foreground list.
-              if (DEBUG) logInformation("getConnection() is requesting a swap");
-              swapConnectionLists(FOREGROUND, poolKey);
-              triedToSwap = true;
-            }
-            else if (!triedToCreateNewConnection && !isPoolFull()) // The swap attempt didn't help.  Go ahead a try creating a new connection now.
-            {
-              createNewConnection(poolKey, keyIsDefault, password);  // create new physical connection and add it to pool
-              triedToCreateNewConnection = true;
-            }
+            // Try swapping the foreground and background 'available' lists.
+            // Note that the swap may fail if maintainer daemon is running, or if background list is not longer than foreground list.
+            if (DEBUG) logInformation("getConnection() is requesting a swap");
+            swapConnectionLists(FOREGROUND, poolKey);
+            triedToSwap = true;
           }
-        }  // for jj
-      }  // synchronized block
+          else if (!triedToCreateNewConnection && !isPoolFull()) // The swap attempt didn't help.  Go ahead a try creating a new connection now.
+          {
+            createNewConnection(poolKey, keyIsDefault, password);  // create new physical connection and add it to pool
+            triedToCreateNewConnection = true;
+          }
+        }
+      }  // for jj
 
 
       // If appropriate, pre-test the connection.
@@ -2072,18 +2085,21 @@ implements ConnectionEventListener
               if (isPoolOverFull())
               {
                 // First close any 'condemned' connections.
+                // Take them off the list first, and close them after unlocking it, so that threads condemning connections do not wait for the closes.
                 synchronized (condemnedConnections_)
                 {
                   if (!keepDaemonsAlive_) break;
-                  Iterator condemnedIter = condemnedConnections_.iterator();
-                  while (condemnedIter.hasNext())
-                  {
-                    AS400JDBCPooledConnection conn = (AS400JDBCPooledConnection)condemnedIter.next();
-                    condemnedIter.remove();
-                    closePhysicalConnection(conn);
-                    if (DEBUG || GATHER_STATS) condemnedConnectionsRemoved_++;
-                  }
+                  candidatesForRemoval.addAll(condemnedConnections_);
+                  condemnedConnections_.clear();
+                }
+                candidatesIter = candidatesForRemoval.iterator();
+                while (candidatesIter.hasNext())
+                {
+                  closePhysicalConnection((AS400JDBCPooledConnection)candidatesIter.next());
+                  if (DEBUG || GATHER_STATS) condemnedConnectionsRemoved_++;
+                  candidatesIter.remove();  // remove connection from candidates list
                 }
+                candidatesIter = null;  // We're done with this iterator.
 
                 if (!keepDaemonsAlive_) break;
                 pauseIfPoolPaused(0);  // if pool is paused, wait until unpause() is called
@@ -14,6 +14,7 @@
 package com.ibm.as400.access;
 
 import java.sql.SQLException;
+import java.util.Vector;
 
 
 
@@ -30,6 +31,13 @@ import java.sql.SQLException;
 // Note: A "LOB-character" refers to a one-byte value in the case of a BLOB or CLOB, 
 // and a two-byte value in the case of a DBCLOB.
 //
+// When the "lob block size" property is set, the streams over a locator use
+// requestData() and receiveData() to keep the request for the next block
+// outstanding while the current one is read, and writeDataPipelined() to send
+// writes without waiting for their replies.  The replies to pipelined writes
+// are checked by flushWrites(), which every other request on the locator calls
+// first, so that requests are seen in order and no error is lost.
+//
 class JDLobLocator
 {
   private AS400JDBCConnection     connection_;
@@ -40,8 +48,14 @@ class JDLobLocator
   private int                     maxLength_; // The max length in LOB-characters.
   private int                     columnIndex_        = -1;
   private boolean                 graphic_;        
+  private int                     blockSize_; // The "lob block size" property, in bytes.
+  private Vector                  pendingWrites_      = null; // AS400ReplyFuture for each pipelined write.
   DBReplyRequestedDS retrieveDataReply = null;
 
+  // The number of pipelined writes that can be outstanding before the oldest
+  // reply is waited for.
+  private static final int        MAXIMUM_PENDING_WRITES_ = 4;
+
 
   /**
    * Constructs an JDLobLocator object.  
@@ -56,6 +70,14 @@ class JDLobLocator
     maxLength_       = maxLength;
     dataCompression_ = connection_.getDataCompression() == AS400JDBCConnection.DATA_COMPRESSION_OLD_;
     graphic_ = graphic;
+    try
+    {
+      blockSize_ = connection_.getProperties().getInt(JDProperties.LOB_BLOCK_SIZE);
+    }
+    catch (SQLException e)
+    {
+      blockSize_ = 0;
+    }
   }
 
 
@@ -71,12 +93,24 @@ class JDLobLocator
     maxLength_ = loc.maxLength_;
     dataCompression_ = loc.dataCompression_;
     graphic_ = loc.graphic_;
+    blockSize_ = loc.blockSize_;
     handle_ = loc.handle_;
     length_ = loc.length_;
     columnIndex_ = loc.columnIndex_;
   }
 
 
+  /**
+   * Returns the size of the blocks used to stream the LOB, from the
+   * "lob block size" property.
+   * @return The block size in bytes, or 0 if the LOB is not streamed in blocks.
+  **/
+  int getBlockSize()
+  {
+    return blockSize_;
+  }
+
+
   /**
    * Returns the locator handle.
    * @return The locator handle, or -1 if not set.
@@ -94,6 +128,7 @@ class JDLobLocator
   **/
   synchronized long getLength() throws SQLException
   {
+    flushWrites();
     if (length_ < 0) // Re-retrieve it.
     {
       try
@@ -161,63 +196,60 @@ Retrieves part of the contents of the lob.
 **/
   synchronized DBLobData retrieveData(long offset, int length) throws SQLException
   {
-    if (offset < 0 || length < 0) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
-
-    if (offset >= getMaxLength()) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
-
-    // The DB host server currently only supports 4-byte integers for length and offset on the request.
-    if (offset > 0x7FFFFFFF) offset = 0x7FFFFFFF;
-
+    flushWrites();
     try
     {
       DBSQLRequestDS request = null;
       try
       {
-        request = DBDSPool.getDBSQLRequestDS(DBSQLRequestDS.FUNCTIONID_RETRIEVE_LOB_DATA,
-                                             id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
-                                             + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
-        request.setLOBLocatorHandle(handle_);
-        request.setRequestedSize(length);
-        request.setStartOffset((int)offset); // Some day the IBM i will support 8-byte offsets.
-        request.setCompressionIndicator(dataCompression_ ? 0xF1 : 0xF0);
-        request.setReturnCurrentLengthIndicator(0xF1);
-        // If a column index has not been set for this locator, then do not pass
-        // the optional column index parameter to the system.
-        if (columnIndex_ != -1)
-        {
-          request.setColumnIndex(columnIndex_);
-        }
-
-        if (JDTrace.isTraceOn())
-        {
-          JDTrace.logInformation(connection_, "Retrieving lob data from handle: " + handle_ + 
-                                 " bytesToRead: " + length + " startingOffset: " + offset +
-                                 " dataCompression: " + dataCompression_ + " columnIndex: " + columnIndex_);
-        }
+        request = getRetrieveDataRequest(offset, length);
 
         if (retrieveDataReply != null) { retrieveDataReply.returnToPool(); retrieveDataReply=null; } 
         retrieveDataReply = connection_.sendAndReceive(request, id_);
-        int errorClass = retrieveDataReply.getErrorClass();
-        int returnCode = retrieveDataReply.getReturnCode();
-
-        if (errorClass != 0) JDError.throwSQLException(this, connection_, id_, errorClass, returnCode);
+        return getRetrievedData();
+      }
+      finally
+      {
+        if (request != null) { request.returnToPool(); request =null; } 
+        // Cannot return this to the pool because the data_ array is now part of lobData
+        // if (retrieveDataReply != null) { retrieveDataReply.returnToPool(); retrieveDataReply = null; } 
+      }
+    }
+    catch (DBDataStreamException e)
+    {
+      JDError.throwSQLException(this, JDError.EXC_INTERNAL, e);
+      return null;
+    }
+  }
 
-        length_ = retrieveDataReply.getCurrentLOBLength();
 
-        DBLobData lobData = retrieveDataReply.getLOBData();
+/**
+Requests part of the contents of the lob, without waiting for the reply.
+The reply must be retrieved with receiveData(), or abandoned with
+AS400ReplyFuture.discard().
 
-        if (graphic_)
-        {
-          lobData.adjustForGraphic();   
-        }
+@param  offset      The offset within the LOB, in LOB-characters.
+@param  length      The number of LOB-characters to read from the LOB.
+@return             The object used to retrieve the contents.
 
-        return lobData;
+@exception  SQLException    If the position is not valid,
+                            if the length is not valid,
+                            or an error occurs.
+**/
+  synchronized AS400ReplyFuture requestData(long offset, int length) throws SQLException
+  {
+    flushWrites();
+    try
+    {
+      DBSQLRequestDS request = null;
+      try
+      {
+        request = getRetrieveDataRequest(offset, length);
+        return connection_.sendAsync(request, id_);
       }
       finally
       {
         if (request != null) { request.returnToPool(); request =null; } 
-        // Cannot return this to the pool because the data_ array is now part of lobData
-        // if (retrieveDataReply != null) { retrieveDataReply.returnToPool(); retrieveDataReply = null; } 
       }
     }
     catch (DBDataStreamException e)
@@ -228,6 +260,87 @@ Retrieves part of the contents of the lob.
   }
 
 
+/**
+Retrieves part of the contents of the lob that was requested with requestData().
+
+@param  reply       The object returned by requestData().
+@return             The contents.
+
+@exception  SQLException    If an error occurs.
+**/
+  synchronized DBLobData receiveData(AS400ReplyFuture reply) throws SQLException
+  {
+    try
+    {
+      if (retrieveDataReply != null) { retrieveDataReply.returnToPool(); retrieveDataReply=null; } 
+      retrieveDataReply = connection_.receive(reply);
+      return getRetrievedData();
+    }
+    catch (DBDataStreamException e)
+    {
+      JDError.throwSQLException(this, JDError.EXC_INTERNAL, e);
+      return null;
+    }
+  }
+
+
+  // Builds the request to retrieve part of the contents of the lob.
+  // The caller must return it to the pool.
+  private DBSQLRequestDS getRetrieveDataRequest(long offset, int length) throws SQLException, DBDataStreamException
+  {
+    if (offset < 0 || length < 0) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
+
+    if (offset >= getMaxLength()) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
+
+    // The DB host server currently only supports 4-byte integers for length and offset on the request.
+    if (offset > 0x7FFFFFFF) offset = 0x7FFFFFFF;
+
+    DBSQLRequestDS request = DBDSPool.getDBSQLRequestDS(DBSQLRequestDS.FUNCTIONID_RETRIEVE_LOB_DATA,
+                                         id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
+                                         + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
+    request.setLOBLocatorHandle(handle_);
+    request.setRequestedSize(length);
+    request.setStartOffset((int)offset); // Some day the IBM i will support 8-byte offsets.
+    request.setCompressionIndicator(dataCompression_ ? 0xF1 : 0xF0);
+    request.setReturnCurrentLengthIndicator(0xF1);
+    // If a column index has not been set for this locator, then do not pass
+    // the optional column index parameter to the system.
+    if (columnIndex_ != -1)
+    {
+      request.setColumnIndex(columnIndex_);
+    }
+
+    if (JDTrace.isTraceOn())
+    {
+      JDTrace.logInformation(connection_, "Retrieving lob data from handle: " + handle_ + 
+                             " bytesToRead: " + length + " startingOffset: " + offset +
+                             " dataCompression: " + dataCompression_ + " columnIndex: " + columnIndex_);
+    }
+    return request;
+  }
+
+
+  // Checks retrieveDataReply and returns the contents of the lob in it.
+  private DBLobData getRetrievedData() throws SQLException, DBDataStreamException
+  {
+    int errorClass = retrieveDataReply.getErrorClass();
+    int returnCode = retrieveDataReply.getReturnCode();
+
+    if (errorClass != 0) JDError.throwSQLException(this, connection_, id_, errorClass, returnCode);
+
+    length_ = retrieveDataReply.getCurrentLOBLength();
+
+    DBLobData lobData = retrieveDataReply.getLOBData();
+
+    if (graphic_)
+    {
+      lobData.adjustForGraphic();   
+    }
+
+    return lobData;
+  }
+
+
 /**
 Sets the column index.
 
@@ -278,42 +391,14 @@ Writes part of the contents of the lob.
 **/
   synchronized int writeData(long lobOffset, byte[] data, int offset, int length, boolean truncate) throws SQLException     //@K1C
   {
-    if (data == null) throw new NullPointerException("data");
-
-    if ((lobOffset < 0) || (length < 0)) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
-
-    // The DB host server currently only supports 4-byte integers for the offset on the request.
-    // Note that we can keep the length as a 4-byte integer because Java does not support
-    // using a long as a byte[] index, so the most data we could ever send at a time would
-    // be 2 GB.
-    if (lobOffset > 0x7FFFFFFF) lobOffset = 0x7FFFFFFF;
-
-    // If we are a DBCLOB, the data in the byte array is already double-byte data,
-    // but we need to tell the system that the number of characters we're writing is
-    // half of that (that is, we need to tell it the number of LOB-characters). 
-    // The lobOffset is still the right offset, in terms of LOB-characters.
-    int lengthToUse = graphic_ ? length / 2 : length;
-
+    flushWrites();
     try
     {
       DBSQLRequestDS request = null;
       DBReplyRequestedDS writeDataReply = null;
       try
       {
-        request = DBDSPool.getDBSQLRequestDS(DBSQLRequestDS.FUNCTIONID_WRITE_LOB_DATA,
-                                             id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
-                                             + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
-
-        request.setLobTruncation(truncate);          //Do not truncate   @K1A
-        request.setLOBLocatorHandle(handle_);
-        request.setRequestedSize(lengthToUse);
-        request.setStartOffset((int)lobOffset); // Some day the IBM i will support 8-byte offsets.
-        request.setCompressionIndicator(0xF0); // No compression for now.
-        request.setLOBData(data, offset, length);
-        if (JDTrace.isTraceOn())
-        {
-          JDTrace.logInformation(connection_, "Writing lob data to handle: " + handle_ + " offset: " + lobOffset + " length: " + length);
-        }
+        request = getWriteDataRequest(lobOffset, data, offset, length, truncate);
 
         writeDataReply = connection_.sendAndReceive(request, id_);
         int errorClass = writeDataReply.getErrorClass();
@@ -341,6 +426,139 @@ Writes part of the contents of the lob.
   }
 
 
+/**
+Writes part of the contents of the lob, without waiting for the reply.
+The data is copied into the request, so the caller can reuse the array.
+An error is reported by a later request on this locator, or by flushWrites().
+
+@param  lobOffset   The offset (in LOB-characters) within the lob.
+@param  data        The data to write.
+@param  offset      The offset into the byte array from which to copy data.
+@param  length      The number of bytes out of the byte array to write.
+
+@exception  SQLException    If the position is not valid,
+                            if the length is not valid,
+                            or an error occurs.
+**/
+  synchronized void writeDataPipelined(long lobOffset, byte[] data, int offset, int length, boolean truncate) throws SQLException
+  {
+    if (pendingWrites_ == null) pendingWrites_ = new Vector(MAXIMUM_PENDING_WRITES_);
+
+    // Limit the number of replies the system sends ahead of the caller.
+    while (pendingWrites_.size() >= MAXIMUM_PENDING_WRITES_)
+    {
+      receiveWrite((AS400ReplyFuture)pendingWrites_.remove(0));
+    }
+
+    try
+    {
+      DBSQLRequestDS request = null;
+      try
+      {
+        request = getWriteDataRequest(lobOffset, data, offset, length, truncate);
+        pendingWrites_.addElement(connection_.sendAsync(request, id_));
+        length_ = -1;
+      }
+      finally
+      {
+        if (request != null) { request.returnToPool(); request =null; } 
+      }
+    }
+    catch (DBDataStreamException e)
+    {
+      JDError.throwSQLException(this, JDError.EXC_INTERNAL, e);
+    }
+  }
+
+
+/**
+Waits for the replies to all of the writes sent with writeDataPipelined().
+
+@exception  SQLException    If any of the writes failed.
+**/
+  synchronized void flushWrites() throws SQLException
+  {
+    if (pendingWrites_ == null || pendingWrites_.size() == 0) return;
+
+    try
+    {
+      while (pendingWrites_.size() > 0)
+      {
+        receiveWrite((AS400ReplyFuture)pendingWrites_.remove(0));
+      }
+    }
+    finally
+    {
+      // After a failure, the replies to the remaining writes are not needed.
+      for (int i = 0; i < pendingWrites_.size(); ++i)
+      {
+        ((AS400ReplyFuture)pendingWrites_.elementAt(i)).discard();
+      }
+      pendingWrites_.removeAllElements();
+    }
+  }
+
+
+  // Receives and checks the reply to a pipelined write.
+  private void receiveWrite(AS400ReplyFuture future) throws SQLException
+  {
+    DBReplyRequestedDS writeDataReply = null;
+    try
+    {
+      writeDataReply = connection_.receive(future);
+      int errorClass = writeDataReply.getErrorClass();
+      int returnCode = writeDataReply.getReturnCode();
+
+      if (errorClass != 0)
+      {
+        JDError.throwSQLException(this, connection_, id_, errorClass, returnCode);
+      }
+    }
+    finally
+    {
+      if (writeDataReply != null) { writeDataReply.returnToPool(); writeDataReply= null; } 
+    }
+  }
+
+
+  // Builds the request to write part of the contents of the lob.
+  // The caller must return it to the pool.
+  private DBSQLRequestDS getWriteDataRequest(long lobOffset, byte[] data, int offset, int length, boolean truncate) throws SQLException, DBDataStreamException
+  {
+    if (data == null) throw new NullPointerException("data");
+
+    if ((lobOffset < 0) || (length < 0)) JDError.throwSQLException(this, JDError.EXC_ATTRIBUTE_VALUE_INVALID);
+
+    // The DB host server currently only supports 4-byte integers for the offset on the request.
+    // Note that we can keep the length as a 4-byte integer because Java does not support
+    // using a long as a byte[] index, so the most data we could ever send at a time would
+    // be 2 GB.
+    if (lobOffset > 0x7FFFFFFF) lobOffset = 0x7FFFFFFF;
+
+    // If we are a DBCLOB, the data in the byte array is already double-byte data,
+    // but we need to tell the system that the number of characters we're writing is
+    // half of that (that is, we need to tell it the number of LOB-characters). 
+    // The lobOffset is still the right offset, in terms of LOB-characters.
+    int lengthToUse = graphic_ ? length / 2 : length;
+
+    DBSQLRequestDS request = DBDSPool.getDBSQLRequestDS(DBSQLRequestDS.FUNCTIONID_WRITE_LOB_DATA,
+                                         id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
+                                         + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
+
+    request.setLobTruncation(truncate);          //Do not truncate   @K1A
+    request.setLOBLocatorHandle(handle_);
+    request.setRequestedSize(lengthToUse);
+    request.setStartOffset((int)lobOffset); // Some day the IBM i will support 8-byte offsets.
+    request.setCompressionIndicator(0xF0); // No compression for now.
+    request.setLOBData(data, offset, length);
+    if (JDTrace.isTraceOn())
+    {
+      JDTrace.logInformation(connection_, "Writing lob data to handle: " + handle_ + " offset: " + lobOffset + " length: " + length);
+    }
+    return request;
+  }
+
+
   boolean isGraphic()
   {
     return graphic_;
@@ -364,6 +582,14 @@ Writes part of the contents of the lob.
           return;                                                                //@ns1
       }                                                                          //@ns1
       
+      // Replies to pipelined writes are not needed once the locator is freed.
+      if (pendingWrites_ != null)
+      {
+          for (int i = 0; i < pendingWrites_.size(); ++i)
+              ((AS400ReplyFuture)pendingWrites_.elementAt(i)).discard();
+          pendingWrites_.removeAllElements();
+      }
+
       DBSQLRequestDS request = null;
       DBReplyRequestedDS freeReply = null;
       try
@@ -61,11 +61,13 @@ public class JDMRI extends ListResourceBundle
       { "PROP_NAME_ERRORS", "errors" },
       { "PROP_NAME_EXTENDED_DYNAMIC", "extendedDynamic" },
       { "PROP_NAME_EXTENDED_METADATA", "extendedMetaData" },    // @J2A
+      { "PROP_NAME_FETCH_MEMORY_BUDGET", "fetchMemoryBudget" },
       { "PROP_NAME_FULL_OPEN", "fullOpen" },                    // @W1a
       { "PROP_NAME_KEY_RING_NAME", "keyRingName" },         // @E7A
       { "PROP_NAME_KEY_RING_PASSWORD", "keyRingPassword" }, // @E7A
       { "PROP_NAME_LAZY_CLOSE", "lazyClose" },                  // @E3A
       { "PROP_NAME_LIBRARIES", "libraries" },
+      { "PROP_NAME_LOB_BLOCK_SIZE", "lobBlockSize" },
       { "PROP_NAME_LOB_THRESHOLD", "lobThreshold" },
       { "PROP_NAME_NAMING", "naming" },
       { "PROP_NAME_PACKAGE", "package" },
@@ -77,6 +79,7 @@ public class JDMRI extends ListResourceBundle
       { "PROP_NAME_PACKAGE_LIBRARY", "packageLibrary" },
       { "PROP_NAME_PASSWORD", "password" },
       { "PROP_NAME_PREFETCH", "prefetch" },
+      { "PROP_NAME_PREFETCH_BLOCKS", "prefetchBlocks" },
       { "PROP_NAME_PROMPT", "prompt" },
       { "PROP_NAME_PROXY_SERVER", "proxyServer" },
       { "PROP_NAME_REMARKS", "remarks" },
@@ -88,6 +91,7 @@ public class JDMRI extends ListResourceBundle
       { "PROP_NAME_SORT_LANGUAGE", "sortLanguage" },
       { "PROP_NAME_SORT_TABLE", "sortTable" },
       { "PROP_NAME_SORT_WEIGHT", "sortWeight" },
+      { "PROP_NAME_STATEMENT_CACHE_SIZE", "statementCacheSize" },
       { "PROP_NAME_THREAD_USED", "threadUsed" },
       { "PROP_NAME_TIME_FORMAT", "timeFormat" },
       { "PROP_NAME_TIME_SEPARATOR", "timeSeparator" },
@@ -170,11 +174,13 @@ public class JDMRI extends ListResourceBundle
       { "ERRORS_DESC", "Specifies the amount of detail to be returned in the message for errors that occur on the system." },//@550
       { "EXTENDED_DYNAMIC_DESC", "Specifies whether to use extended dynamic support." },
       { "EXTENDED_METADATA_DESC", "Specifies whether to request extended metadata from the system." },     //@J2A   @550
+      { "FETCH_MEMORY_BUDGET_DESC", "Specifies the memory (in kilobytes) that the result sets of a connection can use to fetch larger blocks of rows." },
       { "FULL_OPEN_DESC", "Specifies whether to use an optimized query." },              // @W1
       { "KEY_RING_NAME_DESC", "Specifies the key ring class name used for SSL communications with the system." }, //@E7A @550
       { "KEY_RING_PASSWORD_DESC", "Specifies the password for the key ring class used for SSL communications with the system." }, //@E7A @550
       { "LAZY_CLOSE_DESC", "Specifies whether to delay closing cursors until subsequent requests." }, // @E3A
       { "LIBRARIES_DESC", "Specifies the libraries to add to the server job's library list." },
+      { "LOB_BLOCK_SIZE_DESC", "Specifies the size (in bytes) of each request used to stream LOB (large object) data through a locator." },
       { "LOB_THRESHOLD_DESC", "Specifies the maximum LOB (large object) size (in kilobytes) that can be retrieved as part of a result set." },
       { "NAMING_DESC", "Specifies the naming convention used when referring to tables." },
       { "PACKAGE_DESC", "Specifies the name of the SQL package." },
@@ -187,6 +193,7 @@ public class JDMRI extends ListResourceBundle
       { "PASSWORD_DESC", "Specifies the password for connecting to the system." }, //@550
       { "PORTNUMBER_DESC", "Specifies the port number used to connect to the ZDA server."},
       { "PREFETCH_DESC", "Specifies whether to prefetch data when running a SELECT statement." },
+      { "PREFETCH_BLOCKS_DESC", "Specifies the number of blocks of data to request from the system ahead of a forward-only result set." },
       { "PROMPT_DESC", "Specifies whether the user should be prompted if a user name or password is needed to connect to the system." }, //@550
       { "PROXY_SERVER_DESC", "Specifies the host name and (optionally) port number of the middle-tier machine where the proxy server is running." },  //@A2A
       { "REMARKS_DESC", "Specifies the source of the text for REMARKS columns in ResultSet objects returned by DatabaseMetaData methods." },
@@ -198,6 +205,7 @@ public class JDMRI extends ListResourceBundle
       { "SORT_LANGUAGE_DESC", "Specifies a 3-character language ID to use for selection of a sort sequence." },
       { "SORT_TABLE_DESC", "Specifies the library and file name of a sort sequence table stored on the system." }, //@550
       { "SORT_WEIGHT_DESC", "Specifies how the system treats case while sorting records." },                        //@550
+      { "STATEMENT_CACHE_SIZE_DESC", "Specifies the number of closed prepared statements that are kept for reuse on each connection." },
       { "THREAD_USED_DESC", "Specifies whether to use threads in communication with the host servers." },  //@E1A
       { "TIME_FORMAT_DESC", "Specifies the time format used in time literals within SQL statements." },
       { "TIMESTAMP_FORMAT_DESC", "Specifies the timestamp format used by JDBC getString methods." },
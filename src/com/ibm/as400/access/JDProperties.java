@@ -177,10 +177,14 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     static final int              ENABLE_SEAMLESS_FAILOVER   = 98; 
     static final int              AFFINITY_FAILBACK_INTERVAL = 99; 
     static final int              TCP_NO_DELAY               = 100; 
+    static final int              PREFETCH_BLOCKS            = 101; 
+    static final int              STATEMENT_CACHE_SIZE       = 102; 
+    static final int              LOB_BLOCK_SIZE             = 103; 
+    static final int              FETCH_MEMORY_BUDGET        = 104; 
 
     // @W2 always add to the end of the array!
 
-    private static final int    NUMBER_OF_ATTRIBUTES_ = 101;    // @A0C @C1C @A3A @D0C @E0C
+    private static final int    NUMBER_OF_ATTRIBUTES_ = 105;    // @A0C @C1C @A3A @D0C @E0C
                                                                // @E1C @D1c @E2C @E3C @E9C @F1C
                                                                // @W1c @j1c @J2c @F5C @F6C @F7c @M0C @K1C @K2C @K5C @KBC @K24 @KBL @K94 @K54 @540 @PDC
                                                                // @PDC @550 @DFA @CE1 @AC1 @igwrn @pw3 @cc1 @DMY @STIMEOUT
@@ -213,10 +217,12 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     private static final String ERRORS_                 = "errors";
     private static final String EXTENDED_DYNAMIC_       = "extended dynamic";
     private static final String EXTENDED_METADATA_      = "extended metadata";      // @F5A
+    private static final String FETCH_MEMORY_BUDGET_    = "fetch memory budget";
     private static final String FULL_OPEN_              = "full open";              // @W1a
     private static final String HOLD_LOCATORS_          = "hold input locators";          // @KBL
     private static final String LAZY_CLOSE_             = "lazy close";             // @E2A
     private static final String LIBRARIES_              = "libraries";
+    private static final String LOB_BLOCK_SIZE_         = "lob block size";
     private static final String LOB_THRESHOLD_          = "lob threshold";
     private static final String MAX_RETRIES_FOR_CLIENT_REROUTE_ = "maxRetriesForClientReroute";
     private static final String MAXIMUM_PRECISION_      = "maximum precision";      // @M0A
@@ -235,6 +241,7 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     static final String PASSWORD_                       = "password";            //@native
     private static final String PORTNUMBER_             = "portNumber"; /*@V1A*/ 
     private static final String PREFETCH_               = "prefetch";
+    private static final String PREFETCH_BLOCKS_        = "prefetch blocks";
     private static final String PROMPT_                 = "prompt";
     private static final String PROXY_SERVER_           = "proxy server";           // @A3A
     //private static final String PROXY_SERVER_SECURE_    = "proxy server secure";    // @A3A
@@ -248,6 +255,7 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
     private static final String SORT_LANGUAGE_          = "sort language";
     private static final String SORT_TABLE_             = "sort table";
     private static final String SORT_WEIGHT_            = "sort weight";
+    private static final String STATEMENT_CACHE_SIZE_   = "statement cache size";
     private static final String TCP_NO_DELAY_           = "tcp no delay"; 
     private static final String THREAD_USED_            = "thread used";            // @E1A
     private static final String TIME_FORMAT_            = "time format";
@@ -848,6 +856,14 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
         dpi_[i].choices     = new String[0];
         defaults_[i]        = EMPTY_;
 
+        // Fetch memory budget.
+        i = FETCH_MEMORY_BUDGET;
+        dpi_[i] = new DriverPropertyInfo (FETCH_MEMORY_BUDGET_, "");
+        dpi_[i].description = "FETCH_MEMORY_BUDGET_DESC";
+        dpi_[i].required    = false;
+        dpi_[i].choices     = new String[0];
+        defaults_[i]        = "0";
+
         // Full Open.   @W1a
         i = FULL_OPEN;
         dpi_[i] = new DriverPropertyInfo (FULL_OPEN_, "");
@@ -877,6 +893,14 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
         dpi_[i].choices     = new String[0];
         defaults_[i]        = EMPTY_;
 
+        // LOB block size.
+        i = LOB_BLOCK_SIZE;
+        dpi_[i] = new DriverPropertyInfo (LOB_BLOCK_SIZE_, "");
+        dpi_[i].description = "LOB_BLOCK_SIZE_DESC";
+        dpi_[i].required    = false;
+        dpi_[i].choices     = new String[0];
+        defaults_[i]        = "0";
+
         // LOB threshold.
         i = LOB_THRESHOLD;
         dpi_[i] = new DriverPropertyInfo (LOB_THRESHOLD_, "");
@@ -1013,6 +1037,19 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
         dpi_[i].choices[1]  = FALSE_;
         defaults_[i]        = TRUE_;
 
+        // Prefetch blocks.
+        i = PREFETCH_BLOCKS;
+        dpi_[i] = new DriverPropertyInfo (PREFETCH_BLOCKS_, "");
+        dpi_[i].description = "PREFETCH_BLOCKS_DESC";
+        dpi_[i].required    = false;
+        dpi_[i].choices     = new String[5];
+        dpi_[i].choices[0]  = "0";
+        dpi_[i].choices[1]  = "1";
+        dpi_[i].choices[2]  = "2";
+        dpi_[i].choices[3]  = "3";
+        dpi_[i].choices[4]  = "4";
+        defaults_[i]        = "0";
+
         // Prompt.
         i = PROMPT;
         dpi_[i] = new DriverPropertyInfo (PROMPT_, "");
@@ -1132,6 +1169,14 @@ public class JDProperties implements Serializable, Cloneable //@PDC 550
         dpi_[i].choices[1]  = SORT_WEIGHT_UNIQUE;
         defaults_[i]        = SORT_WEIGHT_SHARED;
 
+        // Statement cache size.
+        i = STATEMENT_CACHE_SIZE;
+        dpi_[i] = new DriverPropertyInfo (STATEMENT_CACHE_SIZE_, "");
+        dpi_[i].description = "STATEMENT_CACHE_SIZE_DESC";
+        dpi_[i].required    = false;
+        dpi_[i].choices     = new String[0];
+        defaults_[i]        = "0";
+
         
                 // affinity failback interval
         i = TCP_NO_DELAY; 
@@ -0,0 +1,500 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDRowStore.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.SQLException;
+
+// Holds the rows of a fully cached result set as encoded bytes, mostly outside of the Java heap, used
+// by JDSimpleRowCache when it caches the rows of another row cache.
+//
+// Each row is encoded into a byte array: a flag byte for each field (null, data mapping
+// error), then each value with a type tag.  The rows are appended to segments that start
+// at INITIAL_SEGMENT_SIZE_ bytes and double up to SEGMENT_SIZE_, so a small result set such
+// as most DatabaseMetaData results only uses a few kilobytes.  Segments smaller than
+// DIRECT_SEGMENT_SIZE_ are kept on the heap; the larger ones are direct buffers, outside
+// of it.  Once the segments hold more than the spill threshold (see
+// SystemProperties.JDBC_ROW_CACHE_SPILL_THRESHOLD), the remaining rows are written to a
+// temporary file instead.  The only heap used per row is its position and length, so a
+// large result set no longer means millions of small objects for the garbage collector.
+// Rows are decoded each time they are read.
+//
+// Only the value types returned by SQLData.getObject() for character, numeric and binary
+// columns can be encoded.  add() returns false for any other type, and the caller then
+// keeps the rows as objects.
+final class JDRowStore
+{
+  private static final int INITIAL_SEGMENT_SIZE_ = 4 * 1024;
+  private static final int DIRECT_SEGMENT_SIZE_ = 64 * 1024;
+  private static final int SEGMENT_SIZE_ = 1024 * 1024;
+  private static final long DEFAULT_SPILL_THRESHOLD_ = 32L * 1024 * 1024;
+
+  // Field flags.
+  private static final byte FLAG_NULL_ = 0x01;
+  private static final byte FLAG_DATA_MAPPING_ERROR_ = 0x02;
+
+  // Value tags.
+  private static final byte TAG_NULL_ = 0;
+  private static final byte TAG_STRING_ = 1;
+  private static final byte TAG_INTEGER_ = 2;
+  private static final byte TAG_SHORT_ = 3;
+  private static final byte TAG_LONG_ = 4;
+  private static final byte TAG_FLOAT_ = 5;
+  private static final byte TAG_DOUBLE_ = 6;
+  private static final byte TAG_BIG_DECIMAL_ = 7;
+  private static final byte TAG_BYTES_ = 8;
+  private static final byte TAG_BOOLEAN_ = 9;
+
+  private final int fieldCount_;
+  private final long spillThreshold_;
+
+  private ByteBuffer[] segments_ = new ByteBuffer[4];
+  private int segmentCount_ = 0;
+  private long offHeapBytes_ = 0;
+
+  private RandomAccessFile spillFile_ = null;
+  private File spillFileName_ = null;
+  private FileChannel spillChannel_ = null;
+  private ByteBuffer spillBuffer_ = null;  // Rows not yet written to the file.
+  private long spillPosition_ = 0;         // File position of the start of spillBuffer_.
+
+  // The position of each row.  A row in a segment is at (segment << 32) | offset.
+  // A row in the file is at -(file position + 1).
+  private long[] positions_ = new long[1024];
+  private int[] lengths_ = new int[1024];
+  private int rowCount_ = 0;
+
+  // Encoding and decoding work area.
+  private byte[] buffer_ = new byte[256];
+  private int length_;
+
+  JDRowStore(int fieldCount)
+  {
+    fieldCount_ = fieldCount;
+    spillThreshold_ = getSpillThreshold();
+  }
+
+  private static long getSpillThreshold()
+  {
+    String value = SystemProperties.getProperty(SystemProperties.JDBC_ROW_CACHE_SPILL_THRESHOLD);
+    if (value != null)
+    {
+      try
+      {
+        long threshold = Long.parseLong(value.trim());
+        if (threshold >= 0) return threshold;
+      }
+      catch (NumberFormatException e)
+      {
+      }
+      if (Trace.traceOn_) Trace.log(Trace.WARNING, "Ignoring invalid value for " + SystemProperties.JDBC_ROW_CACHE_SPILL_THRESHOLD + ": " + value);
+    }
+    return DEFAULT_SPILL_THRESHOLD_;
+  }
+
+  final int getRowCount()
+  {
+    return rowCount_;
+  }
+
+  // Appends a row.  Returns false, without adding anything, if one of the values cannot be encoded.
+  final boolean add(Object[] data, boolean[] nulls, boolean[] dataMappingErrors)
+  throws SQLException
+  {
+    length_ = 0;
+    ensureCapacity(fieldCount_);
+    for (int i = 0; i < fieldCount_; ++i)
+    {
+      buffer_[length_++] = (byte)((nulls[i] ? FLAG_NULL_ : 0) | (dataMappingErrors[i] ? FLAG_DATA_MAPPING_ERROR_ : 0));
+    }
+    for (int i = 0; i < fieldCount_; ++i)
+    {
+      if (!encode(data[i])) return false;
+    }
+
+    if (rowCount_ == positions_.length)
+    {
+      long[] positions = new long[rowCount_ * 2];
+      System.arraycopy(positions_, 0, positions, 0, rowCount_);
+      positions_ = positions;
+      int[] lengths = new int[rowCount_ * 2];
+      System.arraycopy(lengths_, 0, lengths, 0, rowCount_);
+      lengths_ = lengths;
+    }
+
+    try
+    {
+      positions_[rowCount_] = (offHeapBytes_ < spillThreshold_) ? writeOffHeap() : writeSpill();
+    }
+    catch (IOException e)
+    {
+      close();
+      JDError.throwSQLException(JDError.EXC_INTERNAL, e);
+    }
+    lengths_[rowCount_] = length_;
+    ++rowCount_;
+    return true;
+  }
+
+  // Writes the row in buffer_ to a segment and returns its position.
+  private long writeOffHeap()
+  {
+    ByteBuffer segment = (segmentCount_ == 0) ? null : segments_[segmentCount_ - 1];
+    if (segment == null || segment.remaining() < length_)
+    {
+      if (segmentCount_ == segments_.length)
+      {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount_ * 2];
+        System.arraycopy(segments_, 0, segments, 0, segmentCount_);
+        segments_ = segments;
+      }
+      int size = (segmentCount_ == 0) ? INITIAL_SEGMENT_SIZE_ : Math.min(SEGMENT_SIZE_, segments_[segmentCount_ - 1].capacity() * 2);
+      size = Math.max(size, length_);
+      segment = (size < DIRECT_SEGMENT_SIZE_) ? ByteBuffer.allocate(size) : ByteBuffer.allocateDirect(size);
+      segments_[segmentCount_++] = segment;
+      offHeapBytes_ += segment.capacity();
+    }
+    long position = ((long)(segmentCount_ - 1) << 32) | segment.position();
+    segment.put(buffer_, 0, length_);
+    return position;
+  }
+
+  // Writes the row in buffer_ to the temporary file and returns its position.
+  private long writeSpill()
+  throws IOException
+  {
+    if (spillChannel_ == null)
+    {
+      spillFileName_ = File.createTempFile("jt400rows", ".tmp");
+      spillFileName_.deleteOnExit();
+      spillFile_ = new RandomAccessFile(spillFileName_, "rw");
+      spillChannel_ = spillFile_.getChannel();
+      spillBuffer_ = ByteBuffer.allocateDirect(SEGMENT_SIZE_);
+      if (JDTrace.isTraceOn()) JDTrace.logInformation(this, "Spilling cached rows to " + spillFileName_);
+    }
+    if (spillBuffer_.remaining() < length_) flushSpill();
+
+    long position = spillPosition_ + spillBuffer_.position();
+    if (spillBuffer_.remaining() < length_)
+    {
+      // The row is larger than the buffer, so write it directly.
+      writeFully(ByteBuffer.wrap(buffer_, 0, length_), spillPosition_);
+      spillPosition_ += length_;
+    }
+    else
+    {
+      spillBuffer_.put(buffer_, 0, length_);
+    }
+    return -(position + 1);
+  }
+
+  private void flushSpill()
+  throws IOException
+  {
+    spillBuffer_.flip();
+    int length = spillBuffer_.remaining();
+    writeFully(spillBuffer_, spillPosition_);
+    spillPosition_ += length;
+    spillBuffer_.clear();
+  }
+
+  private void writeFully(ByteBuffer buffer, long position)
+  throws IOException
+  {
+    while (buffer.hasRemaining())
+    {
+      position += spillChannel_.write(buffer, position);
+    }
+  }
+
+  // Called after the last row has been added, before any row is read.
+  final void finish()
+  throws SQLException
+  {
+    if (spillBuffer_ != null && spillBuffer_.position() > 0)
+    {
+      try
+      {
+        flushSpill();
+      }
+      catch (IOException e)
+      {
+        close();
+        JDError.throwSQLException(JDError.EXC_INTERNAL, e);
+      }
+    }
+    if (JDTrace.isTraceOn()) JDTrace.logInformation(this, "Cached " + rowCount_ + " rows in " + offHeapBytes_ + " bytes of segments" + (spillChannel_ == null ? "" : " and " + spillPosition_ + " bytes of " + spillFileName_));
+  }
+
+  // Decodes a row into the arrays.
+  final void get(int rowIndex, Object[] data, boolean[] nulls, boolean[] dataMappingErrors)
+  throws SQLException
+  {
+    length_ = lengths_[rowIndex];
+    ensureCapacity(length_);
+    long position = positions_[rowIndex];
+    if (position >= 0)
+    {
+      ByteBuffer segment = segments_[(int)(position >>> 32)].duplicate();
+      segment.position((int)position);
+      segment.get(buffer_, 0, length_);
+    }
+    else
+    {
+      if (spillChannel_ == null) JDError.throwSQLException(JDError.EXC_FUNCTION_SEQUENCE);
+      try
+      {
+        ByteBuffer buffer = ByteBuffer.wrap(buffer_, 0, length_);
+        long filePosition = -position - 1;
+        while (buffer.hasRemaining())
+        {
+          int read = spillChannel_.read(buffer, filePosition + buffer.position());
+          if (read < 0) throw new IOException("End of file");
+        }
+      }
+      catch (IOException e)
+      {
+        JDError.throwSQLException(JDError.EXC_INTERNAL, e);
+      }
+    }
+
+    for (int i = 0; i < fieldCount_; ++i)
+    {
+      nulls[i] = (buffer_[i] & FLAG_NULL_) != 0;
+      dataMappingErrors[i] = (buffer_[i] & FLAG_DATA_MAPPING_ERROR_) != 0;
+    }
+    int offset = fieldCount_;
+    for (int i = 0; i < fieldCount_; ++i)
+    {
+      byte tag = buffer_[offset++];
+      switch (tag)
+      {
+        case TAG_NULL_:
+          data[i] = null;
+          break;
+        case TAG_STRING_:
+        {
+          int length = getInt(offset);
+          offset += 4;
+          char[] chars = new char[length];
+          for (int j = 0; j < length; ++j, offset += 2)
+          {
+            chars[j] = (char)(((buffer_[offset] & 0xFF) << 8) | (buffer_[offset + 1] & 0xFF));
+          }
+          data[i] = new String(chars);
+          break;
+        }
+        case TAG_INTEGER_:
+          data[i] = new Integer(getInt(offset));
+          offset += 4;
+          break;
+        case TAG_SHORT_:
+          data[i] = new Short((short)(((buffer_[offset] & 0xFF) << 8) | (buffer_[offset + 1] & 0xFF)));
+          offset += 2;
+          break;
+        case TAG_LONG_:
+          data[i] = new Long(getLong(offset));
+          offset += 8;
+          break;
+        case TAG_FLOAT_:
+          data[i] = new Float(Float.intBitsToFloat(getInt(offset)));
+          offset += 4;
+          break;
+        case TAG_DOUBLE_:
+          data[i] = new Double(Double.longBitsToDouble(getLong(offset)));
+          offset += 8;
+          break;
+        case TAG_BIG_DECIMAL_:
+        {
+          int length = getInt(offset);
+          offset += 4;
+          char[] chars = new char[length];
+          for (int j = 0; j < length; ++j)
+          {
+            chars[j] = (char)buffer_[offset++];
+          }
+          data[i] = new BigDecimal(new String(chars));
+          break;
+        }
+        case TAG_BYTES_:
+        {
+          int length = getInt(offset);
+          offset += 4;
+          byte[] bytes = new byte[length];
+          System.arraycopy(buffer_, offset, bytes, 0, length);
+          data[i] = bytes;
+          offset += length;
+          break;
+        }
+        case TAG_BOOLEAN_:
+          data[i] = (buffer_[offset++] != 0) ? Boolean.TRUE : Boolean.FALSE;
+          break;
+        default:
+          JDError.throwSQLException(JDError.EXC_INTERNAL);
+      }
+    }
+  }
+
+  // Appends a value to buffer_.  Returns false if the type of the value is not supported.
+  private boolean encode(Object value)
+  {
+    if (value == null)
+    {
+      ensureCapacity(1);
+      buffer_[length_++] = TAG_NULL_;
+    }
+    else if (value instanceof String)
+    {
+      String s = (String)value;
+      int length = s.length();
+      ensureCapacity(5 + length * 2);
+      buffer_[length_++] = TAG_STRING_;
+      putInt(length);
+      for (int j = 0; j < length; ++j)
+      {
+        char c = s.charAt(j);
+        buffer_[length_++] = (byte)(c >> 8);
+        buffer_[length_++] = (byte)c;
+      }
+    }
+    else if (value instanceof Integer)
+    {
+      ensureCapacity(5);
+      buffer_[length_++] = TAG_INTEGER_;
+      putInt(((Integer)value).intValue());
+    }
+    else if (value instanceof Short)
+    {
+      short s = ((Short)value).shortValue();
+      ensureCapacity(3);
+      buffer_[length_++] = TAG_SHORT_;
+      buffer_[length_++] = (byte)(s >> 8);
+      buffer_[length_++] = (byte)s;
+    }
+    else if (value instanceof Long)
+    {
+      ensureCapacity(9);
+      buffer_[length_++] = TAG_LONG_;
+      putLong(((Long)value).longValue());
+    }
+    else if (value instanceof Float)
+    {
+      ensureCapacity(5);
+      buffer_[length_++] = TAG_FLOAT_;
+      putInt(Float.floatToIntBits(((Float)value).floatValue()));
+    }
+    else if (value instanceof Double)
+    {
+      ensureCapacity(9);
+      buffer_[length_++] = TAG_DOUBLE_;
+      putLong(Double.doubleToLongBits(((Double)value).doubleValue()));
+    }
+    else if (value instanceof BigDecimal)
+    {
+      // The digits of a BigDecimal are ASCII, and the string form keeps the scale.
+      String s = value.toString();
+      int length = s.length();
+      ensureCapacity(5 + length);
+      buffer_[length_++] = TAG_BIG_DECIMAL_;
+      putInt(length);
+      for (int j = 0; j < length; ++j)
+      {
+        buffer_[length_++] = (byte)s.charAt(j);
+      }
+    }
+    else if (value instanceof byte[])
+    {
+      byte[] bytes = (byte[])value;
+      ensureCapacity(5 + bytes.length);
+      buffer_[length_++] = TAG_BYTES_;
+      putInt(bytes.length);
+      System.arraycopy(bytes, 0, buffer_, length_, bytes.length);
+      length_ += bytes.length;
+    }
+    else if (value instanceof Boolean)
+    {
+      ensureCapacity(2);
+      buffer_[length_++] = TAG_BOOLEAN_;
+      buffer_[length_++] = (byte)(((Boolean)value).booleanValue() ? 1 : 0);
+    }
+    else
+    {
+      return false;
+    }
+    return true;
+  }
+
+  private void ensureCapacity(int bytes)
+  {
+    if (length_ + bytes > buffer_.length)
+    {
+      byte[] buffer = new byte[Math.max(buffer_.length * 2, length_ + bytes)];
+      System.arraycopy(buffer_, 0, buffer, 0, length_);
+      buffer_ = buffer;
+    }
+  }
+
+  private void putInt(int value)
+  {
+    buffer_[length_++] = (byte)(value >> 24);
+    buffer_[length_++] = (byte)(value >> 16);
+    buffer_[length_++] = (byte)(value >> 8);
+    buffer_[length_++] = (byte)value;
+  }
+
+  private void putLong(long value)
+  {
+    putInt((int)(value >> 32));
+    putInt((int)value);
+  }
+
+  private int getInt(int offset)
+  {
+    return ((buffer_[offset] & 0xFF) << 24) | ((buffer_[offset + 1] & 0xFF) << 16)
+         | ((buffer_[offset + 2] & 0xFF) << 8) | (buffer_[offset + 3] & 0xFF);
+  }
+
+  private long getLong(int offset)
+  {
+    return ((long)getInt(offset) << 32) | (getInt(offset + 4) & 0xFFFFFFFFL);
+  }
+
+  // Releases the segments and deletes the temporary file.  The direct buffers are
+  // freed by the garbage collector once they are no longer referenced.
+  final void close()
+  {
+    segments_ = new ByteBuffer[0];
+    segmentCount_ = 0;
+    spillBuffer_ = null;
+    if (spillFile_ != null)
+    {
+      try
+      {
+        spillFile_.close();
+      }
+      catch (IOException e)
+      {
+        if (JDTrace.isTraceOn()) JDTrace.logException(this, "Unable to close " + spillFileName_, e);
+      }
+      if (!spillFileName_.delete() && JDTrace.isTraceOn()) JDTrace.logInformation(this, "Unable to delete " + spillFileName_);
+      spillFile_ = null;
+      spillChannel_ = null;
+    }
+  }
+}
@@ -54,11 +54,26 @@ implements JDRow
     private int[]                   sqlTypes_;
     private String[]                sqlTypeNames_;   /*@L1A*/
     private boolean[]               translated_;
+    private int[]                   directTypes_;            // How each field can be decoded by getDirectLong() and getDirectDouble().
     private boolean                 wasCompressed = false;   // set to true if variable length field compression is used
     private Hashtable               insensitiveColumnNames_; // @PDA maps strings to column indexes
     boolean                         containsLob_;     //@re-prep
     boolean                         containsArray_;     //@array
 
+    // Fields that can be decoded straight from the raw bytes, without
+    // converting them into their SQLData objects first.
+    static final int                DIRECT_NONE     = 0;
+    static final int                DIRECT_INTEGER  = 1;    // getDirectLong() and getDirectDouble() can be used.
+    static final int                DIRECT_FLOAT    = 2;    // Only getDirectDouble() can be used.
+
+    private static final int        SMALLINT_       = 1;
+    private static final int        INTEGER_        = 2;
+    private static final int        BIGINT_         = 3;
+    private static final int        REAL_           = 4;
+    private static final int        DOUBLE_         = 5;
+    private static final int        PACKED_         = 6;
+    private static final int        ZONED_          = 7;
+
     /**
     Constructs a JDServerRow object.  Use this constructor
     when the format information has already been retrieved
@@ -138,6 +153,148 @@ implements JDRow
 
 
 
+    /**
+    Returns how the field can be decoded straight from the raw bytes.
+    Only binary and floating point fields, and packed and zoned decimal
+    fields with no scale and at most 18 digits, can be decoded this way.
+
+    @param      index   The field index (1-based).
+    @return             DIRECT_NONE, DIRECT_INTEGER, or DIRECT_FLOAT.
+                        DIRECT_NONE is also returned if there is no current row.
+    **/
+    int getDirectType(int index)
+    {
+        if(rawBytes_ == null || rowDataOffset_ == -1 || index < 1 || index > directTypes_.length)
+            return DIRECT_NONE;
+        switch(directTypes_[index - 1])
+        {
+            case SMALLINT_:
+            case INTEGER_:
+            case BIGINT_:
+            case PACKED_:
+            case ZONED_:
+                return DIRECT_INTEGER;
+            case REAL_:
+            case DOUBLE_:
+                return DIRECT_FLOAT;
+            default:
+                return DIRECT_NONE;
+        }
+    }
+
+
+
+    /**
+    Decodes a field straight from the raw bytes, without
+    converting it into its SQLData object.
+
+    @param      index   The field index (1-based).  getDirectType() must
+                        return DIRECT_INTEGER for the field.
+    @return             The value.
+
+    @exception  NumberFormatException   If a decimal field does not contain valid
+                                        data.  Use getSQLData() to report the error.
+    **/
+    long getDirectLong(int index)
+    {
+        int index0 = index - 1;
+        int offset = rowDataOffset_ + dataOffset_[index0];
+        switch(directTypes_[index0])
+        {
+            case SMALLINT_:
+                return BinaryConverter.byteArrayToShort(rawBytes_, offset);
+            case INTEGER_:
+                return BinaryConverter.byteArrayToInt(rawBytes_, offset);
+            case BIGINT_:
+                return BinaryConverter.byteArrayToLong(rawBytes_, offset);
+            case PACKED_:
+                return packedToLong(rawBytes_, offset, precisions_[index0]);
+            case ZONED_:
+                return zonedToLong(rawBytes_, offset, precisions_[index0]);
+            default:
+                throw new NumberFormatException();
+        }
+    }
+
+
+
+    /**
+    Decodes a field straight from the raw bytes, without
+    converting it into its SQLData object.
+
+    @param      index   The field index (1-based).  getDirectType() must
+                        not return DIRECT_NONE for the field.
+    @return             The value.
+
+    @exception  NumberFormatException   If a decimal field does not contain valid
+                                        data.  Use getSQLData() to report the error.
+    **/
+    double getDirectDouble(int index)
+    {
+        int index0 = index - 1;
+        int offset = rowDataOffset_ + dataOffset_[index0];
+        switch(directTypes_[index0])
+        {
+            case REAL_:
+                return BinaryConverter.byteArrayToFloat(rawBytes_, offset);
+            case DOUBLE_:
+                return BinaryConverter.byteArrayToDouble(rawBytes_, offset);
+            default:
+                return getDirectLong(index);
+        }
+    }
+
+
+
+    // Decodes packed decimal digits with no scale, following AS400PackedDecimal.toObject().
+    private static long packedToLong(byte[] bytes, int offset, int digits)
+    {
+        int size = digits / 2 + 1;
+        int sign = bytes[offset + size - 1] & 0x0F;
+        if(sign < 0x0A)
+            throw new NumberFormatException();
+
+        long value = 0;
+        for(int i = 0; i < size; ++i)
+        {
+            int b = bytes[offset + i] & 0xFF;
+            int high = b >>> 4;
+            if(high > 0x09)
+                throw new NumberFormatException();
+            value = value * 10 + high;
+            if(i < size - 1)
+            {
+                int low = b & 0x0F;
+                if(low > 0x09)
+                    throw new NumberFormatException();
+                value = value * 10 + low;
+            }
+        }
+        return (sign == 0x0B || sign == 0x0D) ? -value : value;
+    }
+
+
+
+    // Decodes zoned decimal digits with no scale, following AS400ZonedDecimal.toObject().
+    private static long zonedToLong(byte[] bytes, int offset, int digits)
+    {
+        int sign = (bytes[offset + digits - 1] & 0xFF) >>> 4;
+        if(sign < 0x0A)
+            throw new NumberFormatException();
+
+        long value = 0;
+        for(int i = 0; i < digits; ++i)
+        {
+            int digit = bytes[offset + i] & 0x0F;
+            if(digit > 0x09)
+                throw new NumberFormatException();
+            value = value * 10 + digit;
+        }
+        return (sign == 0x0B || sign == 0x0D) ? -value : value;
+    }
+
+
+
     /**
     Initializes the state of the object.
 
@@ -184,6 +341,7 @@ implements JDRow
             sqlTypes_   = new int[count];
             sqlTypeNames_ = new String[count];  /*@L1A*/
             translated_ = new boolean[count];
+            directTypes_ = new int[count];
             insensitiveColumnNames_ = null;  //@PDA
             containsLob_ = false;   //@re-prep
             containsArray_ = false; //@array
@@ -250,6 +408,8 @@ implements JDRow
                     // @E2D // SQLDataFactory never returns null.
                     // @E2D if (sqlData_[i] == null)
                     // @E2D    JDError.throwSQLException (JDError.EXC_INTERNAL);
+
+                    directTypes_[i] = getDirectType(sqlData_[i], dataLength_[i], precisions_[i], scales_[i]);
                 }
             }
         }
@@ -259,6 +419,32 @@ implements JDRow
         }
     }
 
+    // Determines whether a field can be decoded straight from the raw bytes,
+    // and how.  Binary fields with a scale are converted through a BigDecimal
+    // by their SQLData objects, so they are left to them.
+    private static int getDirectType(SQLData sqlData, int length, int precision, int scale)
+    {
+        switch(sqlData.getSQLType())
+        {
+            case SQLData.SMALLINT:
+                return (scale == 0 && length == 2) ? SMALLINT_ : 0;
+            case SQLData.INTEGER:
+                return (scale == 0 && length == 4) ? INTEGER_ : 0;
+            case SQLData.BIGINT:
+                return (length == 8) ? BIGINT_ : 0;
+            case SQLData.REAL:
+                return (length == 4) ? REAL_ : 0;
+            case SQLData.DOUBLE:
+                return (length == 8) ? DOUBLE_ : 0;
+            case SQLData.DECIMAL:
+                return (scale == 0 && precision > 0 && precision <= 18 && length == precision / 2 + 1) ? PACKED_ : 0;
+            case SQLData.NUMERIC:
+                return (scale == 0 && precision > 0 && precision <= 18 && length == precision) ? ZONED_ : 0;
+            default:
+                return 0;
+        }
+    }
+
     // If varying length field compression was used, and it was not used on a subsequent request, we need to set the
     // data offsets and data lengths based on the server format
     void setOriginalData() throws SQLException{
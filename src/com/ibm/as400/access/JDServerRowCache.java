@@ -14,6 +14,7 @@
 package com.ibm.as400.access;
 
 import java.sql.SQLException;
+import java.util.Vector;
 
 
 
@@ -44,6 +45,21 @@ implements JDRowCache
   private int                     bufferSize_;                                  //@K54  
   private JDCursor                cursor_ = null; //@pda perf2 - fetch/close
   private DBReplyRequestedDS fetchReply = null; //@P0A
+  private int                     prefetchBlocks_ = 0;
+  private Vector                  pendingFetches_ = null;  // AS400ReplyFuture for each block requested ahead of time.
+
+  // When the connection has a "fetch memory budget", forward-only result sets
+  // start with blocks of the "block size" and double them while that lowers the
+  // time per kilobyte of the replies.  The memory for the larger blocks (for
+  // the block being read and each block requested ahead of time) is reserved
+  // from the connection's budget.
+  private static final int        MAXIMUM_BLOCK_BYTES_ = 8 * 1024 * 1024;
+  private boolean                 adaptive_ = false;
+  private boolean                 growing_ = false;
+  private int                     blockBytes_ = 0;
+  private int                     reservedBytes_ = 0;
+  private int                     rowLength_ = 0;
+  private long                    lastCost_ = -1;  // Microseconds per kilobyte of the last block.
   
 
   // Index always points to the row within the cache.
@@ -114,6 +130,9 @@ prefetched.
 
     bufferSize_ = connection_.getProperties().getInt(JDProperties.BLOCK_SIZE);  //@K54
 
+    setPrefetchBlocks(resultSetType);
+    setAdaptiveBlocks(resultSetType);
+
     // We are before the first row.  Actually there is no data in the cache
     // when this c'tor is used so it shouldn't make any difference, but
     // we will set it to 0 just to be consistent.  When an RS is opened
@@ -195,6 +214,9 @@ prefetched.
 
     bufferSize_ = connection_.getProperties().getInt(JDProperties.BLOCK_SIZE);  //@K54
 
+    setPrefetchBlocks(resultSetType);
+    setAdaptiveBlocks(resultSetType);
+
     try
     {
       cached_ = serverData.getRowCount ();
@@ -292,50 +314,49 @@ Fetches a block of data from the system.
 
     try
     {
+      // If the next block was requested ahead of time, then use that
+      // reply.  Any other fetch moves the cursor on the system, so the
+      // blocks requested ahead of time no longer apply.
+      AS400ReplyFuture pendingFetch = null;
+      if (fetchScrollOption == DBSQLRequestDS.FETCH_NEXT)
+      {
+        if (pendingFetches_ != null && pendingFetches_.size() > 0)
+          pendingFetch = (AS400ReplyFuture)pendingFetches_.remove(0);
+      }
+      else
+        discardPendingFetches();
+
       DBSQLRequestDS request = null; //@P0A
+      boolean fetched = false;
+      long elapsed = -1;
       try
       {
-        request = DBDSPool.getDBSQLRequestDS ( //@P0C
-                                               DBSQLRequestDS.FUNCTIONID_FETCH,
-                                               id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
-                                               + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
-
-        request.setFetchScrollOption (fetchScrollOption, rows);
-
-        // If fetching next, then fetch a block.  Otherwise,
-        // just fetch a single row.  The check was altered under @G1
-        // to fetch a block of rows only when we know the cursor
-        // location.  If we don't know the cursor location when we 
-        // get only one row just in case the next request is to
-        // go backward or relative to the current location.  This 
-        // will be slower but it is the only way to assure accurate 
-        // information is returned to the app. 
-        if ((fetchScrollOption == DBSQLRequestDS.FETCH_NEXT) &&       
-            (blockingFactor_ > 0)                            &&
-            (cursorPositionOfFirstRowInCache_ >= 0))                    // @G1a
+        if (fetchReply != null) { fetchReply.returnToPool(); fetchReply = null; } 
+
+        if (pendingFetch != null)
         {
-            if(variableFieldCompressionSupported_)   //@K54
-            {                   
-                //Do not need to set the blocking factor if using variable-length field compression
-                //If both the buffer size and blocking factor were set, the buffer size will override
-                //the blocking factor and the number of rows that will fit in the buffer size will be returned
-                //regardless of the blocking factor value                                                                                                        //@K54
-                request.setVariableFieldCompression(true);                                                                              //@K54
-                request.setBufferSize(bufferSize_ * 1024);                                                                                     //@K54
-            }                                                                                                                           //@K54
-            else                                                                                                                        //@K54
-                request.setBlockingFactor (blockingFactor_);
+          if (JDTrace.isTraceOn ())
+            JDTrace.logInformation (connection_, "Receiving a block of data requested ahead of time");
+
+          fetchReply = connection_.receive (pendingFetch);
         }
         else
         {
-          request.setBlockingFactor (1);
-        }   
+          request = getFetchRequest (fetchScrollOption, rows);
 
-        if (JDTrace.isTraceOn ())
-          JDTrace.logInformation (connection_, "Fetching a block of data from the system "+fetchScrollOption+","+rows);
+          if (JDTrace.isTraceOn ())
+            JDTrace.logInformation (connection_, "Fetching a block of data from the system "+fetchScrollOption+","+rows);
 
-        if (fetchReply != null) { fetchReply.returnToPool(); fetchReply = null; } 
-        fetchReply = connection_.sendAndReceive (request, id_); //@P0C
+          // Only block fetches that are waited for show the cost of a block.
+          boolean timed = growing_ && (fetchScrollOption == DBSQLRequestDS.FETCH_NEXT)
+                          && (cursorPositionOfFirstRowInCache_ >= 0);
+          long startTime = timed ? AS400ServiceMetrics.currentTime() : 0;
+
+          fetchReply = connection_.sendAndReceive (request, id_); //@P0C
+
+          if (timed)
+            elapsed = AS400ServiceMetrics.currentTime() - startTime;
+        }
 
         int errorClass = fetchReply.getErrorClass();
         int returnCode = fetchReply.getReturnCode();
@@ -384,18 +405,32 @@ Fetches a block of data from the system.
         {
           row_.setServerData (serverData_);
           cached_ = serverData_.getRowCount ();
+
+          if (AS400ServiceMetrics.ENABLED_ && fetchScrollOption == DBSQLRequestDS.FETCH_NEXT && blockingFactor_ > 1)
+            AS400ServiceMetrics.getInstance(AS400.DATABASE).recordFetchBlock(fetchReply.getLength(), cached_);
         }
 
+        // A full block was timed, so see whether a larger block costs less.
+        if (elapsed >= 0 && !endBlock)
+          adaptBlockSize (elapsed, fetchReply.getLength());
+
         if (emptyChecked_ == false) //empty_ is refering to empty resultset, not empty cache_
         {
           emptyChecked_ = true;
           empty_        = (cached_ == 0);
         }
+
+        fetched = true;
       }
       finally
       {
         if (request != null) { request.returnToPool(); request =null; } 
         // if (fetchReply != null) { fetchReply.returnToPool(); fetchReply = null; } 
+
+        // Once the end of the data is reached (or the fetch fails), blocks
+        // requested beyond it will only contain the same condition.
+        if (endBlock || !fetched)
+          discardPendingFetches();
       }
     }
     catch (DBDataStreamException e)
@@ -408,6 +443,229 @@ Fetches a block of data from the system.
 
 
 
+/**
+Builds the request to fetch a block of data from the system.
+
+@param  fetchScrollOption   The fetch scroll option.
+@param  rows                The number of rows when
+                            fetchScrollOption is
+                            DBSQLRequestDS.FETCH_RELATIVE.
+@return                     The request.  The caller must return it to the pool.
+
+@exception  DBDataStreamException   If an error occurs.
+**/
+  private DBSQLRequestDS getFetchRequest (int fetchScrollOption, int rows)
+  throws DBDataStreamException
+  {
+    DBSQLRequestDS request = DBDSPool.getDBSQLRequestDS ( //@P0C
+                                           DBSQLRequestDS.FUNCTIONID_FETCH,
+                                           id_, DBBaseRequestDS.ORS_BITMAP_RETURN_DATA
+                                           + DBBaseRequestDS.ORS_BITMAP_RESULT_DATA, 0);
+
+    request.setFetchScrollOption (fetchScrollOption, rows);
+
+    // If fetching next, then fetch a block.  Otherwise,
+    // just fetch a single row.  The check was altered under @G1
+    // to fetch a block of rows only when we know the cursor
+    // location.  If we don't know the cursor location when we 
+    // get only one row just in case the next request is to
+    // go backward or relative to the current location.  This 
+    // will be slower but it is the only way to assure accurate 
+    // information is returned to the app. 
+    if ((fetchScrollOption == DBSQLRequestDS.FETCH_NEXT) &&       
+        (blockingFactor_ > 0)                            &&
+        (cursorPositionOfFirstRowInCache_ >= 0))                    // @G1a
+    {
+        if(variableFieldCompressionSupported_)   //@K54
+        {                   
+            //Do not need to set the blocking factor if using variable-length field compression
+            //If both the buffer size and blocking factor were set, the buffer size will override
+            //the blocking factor and the number of rows that will fit in the buffer size will be returned
+            //regardless of the blocking factor value                                                                                                        //@K54
+            request.setVariableFieldCompression(true);                                                                              //@K54
+            request.setBufferSize(adaptive_ ? blockBytes_ : bufferSize_ * 1024);                                                          //@K54
+        }                                                                                                                           //@K54
+        else if (adaptive_)
+        {
+            int blockingFactor = blockBytes_ / rowLength_;
+            if (blockingFactor > 32767)
+                blockingFactor = 32767;
+            else if (blockingFactor < blockingFactor_)
+                blockingFactor = blockingFactor_;
+            request.setBlockingFactor (blockingFactor);
+        }
+        else                                                                                                                        //@K54
+            request.setBlockingFactor (blockingFactor_);
+    }
+    else
+    {
+      request.setBlockingFactor (1);
+    }   
+
+    return request;
+  }
+
+
+
+/**
+Determines how many blocks to request ahead of time, based on
+the "prefetch blocks" property.  Blocks are only requested ahead
+of time for forward-only result sets that are fetched in blocks,
+since only then is the next fetch known to be FETCH_NEXT.
+
+@param  resultSetType   The type of result set.
+
+@exception  SQLException    If an error occurs.
+**/
+  private void setPrefetchBlocks (int resultSetType)
+  throws SQLException
+  {
+    if (resultSetType == java.sql.ResultSet.TYPE_FORWARD_ONLY && blockingFactor_ > 1 && bufferSize_ > 0)
+    {
+      prefetchBlocks_ = connection_.getProperties().getInt(JDProperties.PREFETCH_BLOCKS);
+      if (prefetchBlocks_ > 0)
+        pendingFetches_ = new Vector(prefetchBlocks_);
+    }
+  }
+
+
+
+/**
+Determines whether the size of the blocks adapts to the cost of
+fetching them, based on the "fetch memory budget" property.  Like
+blocks requested ahead of time, this is only done for forward-only
+result sets that are fetched in blocks.
+
+@param  resultSetType   The type of result set.
+
+@exception  SQLException    If an error occurs.
+**/
+  private void setAdaptiveBlocks (int resultSetType)
+  throws SQLException
+  {
+    if (resultSetType == java.sql.ResultSet.TYPE_FORWARD_ONLY && blockingFactor_ > 1 && bufferSize_ > 0
+        && connection_.getProperties().getInt(JDProperties.FETCH_MEMORY_BUDGET) > 0)
+    {
+      rowLength_ = row_.getRowLength();
+      if (rowLength_ > 0)
+      {
+        adaptive_ = true;
+        growing_ = true;
+        blockBytes_ = bufferSize_ * 1024;
+      }
+    }
+  }
+
+
+
+/**
+Doubles the size of the next blocks, as long as the time per kilobyte
+of the last block is at least 10 percent lower than that of the block
+before it, and the connection's "fetch memory budget" has room for the
+larger blocks.  Once a larger block does not pay off, the size is kept.
+
+@param  elapsed     The time taken to fetch the last block, in microseconds.
+@param  length      The length of the reply that held the last block.
+**/
+  private void adaptBlockSize (long elapsed, int length)
+  {
+    if (length <= 0)
+      return;
+
+    long cost = elapsed * 1024 / length;
+    if ((lastCost_ >= 0 && cost * 10 > lastCost_ * 9) || blockBytes_ >= MAXIMUM_BLOCK_BYTES_)
+    {
+      growing_ = false;
+      if (JDTrace.isTraceOn ())
+        JDTrace.logInformation (connection_, "Keeping a block size of "+blockBytes_+" bytes");
+      return;
+    }
+    lastCost_ = cost;
+
+    // Every block that may be outstanding at once grows.
+    int blocks = 1 + prefetchBlocks_;
+    int growth = Math.min (blockBytes_, MAXIMUM_BLOCK_BYTES_ - blockBytes_);
+    int reserved = connection_.reserveFetchMemory (growth * blocks);
+    growth = reserved / blocks;
+    if (reserved > growth * blocks)
+      connection_.releaseFetchMemory (reserved - growth * blocks);
+    if (growth < rowLength_)
+    {
+      if (growth > 0)
+        connection_.releaseFetchMemory (growth * blocks);
+      growing_ = false;
+      if (JDTrace.isTraceOn ())
+        JDTrace.logInformation (connection_, "Keeping a block size of "+blockBytes_+" bytes, the fetch memory budget is used");
+      return;
+    }
+
+    reservedBytes_ += growth * blocks;
+    blockBytes_ += growth;
+    if (JDTrace.isTraceOn ())
+      JDTrace.logInformation (connection_, "Increasing the block size to "+blockBytes_+" bytes");
+  }
+
+
+
+/**
+Requests blocks of data ahead of time, so that up to the number of
+blocks given by the "prefetch blocks" property are outstanding.
+The replies are received by fetch() as the rows are read.
+
+@exception  SQLException    If an error occurs.
+**/
+  private void readAhead ()
+  throws SQLException
+  {
+    // Only block fetches can be requested ahead of time, and the rows
+    // in them are only counted when the cursor position is known.
+    if (lastBlock_ || blockingFactor_ <= 1 || cursorPositionOfFirstRowInCache_ < 0)
+      return;
+
+    while (pendingFetches_.size() < prefetchBlocks_)
+    {
+      DBSQLRequestDS request = null;
+      try
+      {
+        request = getFetchRequest (DBSQLRequestDS.FETCH_NEXT, 0);
+
+        if (JDTrace.isTraceOn ())
+          JDTrace.logInformation (connection_, "Requesting a block of data ahead of time");
+
+        pendingFetches_.addElement (connection_.sendAsync (request, id_));
+      }
+      catch (DBDataStreamException e)
+      {
+        JDError.throwSQLException (JDError.EXC_INTERNAL, e);
+      }
+      finally
+      {
+        if (request != null) { request.returnToPool(); request = null; }
+      }
+    }
+  }
+
+
+
+/**
+Abandons any blocks of data requested ahead of time.  The system
+still sends the replies, but they are thrown away when they arrive.
+**/
+  private void discardPendingFetches ()
+  {
+    if (pendingFetches_ != null && pendingFetches_.size() > 0)
+    {
+      if (JDTrace.isTraceOn ())
+        JDTrace.logInformation (connection_, "Discarding "+pendingFetches_.size()+" blocks of data requested ahead of time");
+
+      for (int i = 0; i < pendingFetches_.size(); ++i)
+        ((AS400ReplyFuture)pendingFetches_.elementAt(i)).discard();
+      pendingFetches_.removeAllElements();
+    }
+  }
+
+
+
 /**
 Sets the fetch size.
 
@@ -422,6 +680,10 @@ Sets the fetch size.
     // is set to "0".
     if (connection_.getProperties ().getInt (JDProperties.BLOCK_SIZE) == 0)
       blockingFactor_ = fetchSize;
+
+    // A fetch size set by the application stops the block size from growing.
+    if (fetchSize > 0)
+      growing_ = false;
   }
 
 
@@ -449,10 +711,16 @@ Sets the fetch size.
     // No-op.  It is assumed that the cursor will be closed
     // elsewhere.
     
+      discardPendingFetches();
+
       // Make sure reply is returned to pool 
       if (fetchReply != null) {
         fetchReply.returnToPool();  fetchReply = null; 
       }
+
+      if (reservedBytes_ > 0) {
+        connection_.releaseFetchMemory (reservedBytes_);  reservedBytes_ = 0;
+      }
   }
 
 
@@ -819,6 +1087,11 @@ Sets the fetch size.
           cursorPositionOfFirstRowInCache_ = NOT_KNOWN;//@rel4
     }
 
+    // While the application reads this block, request the
+    // following ones.
+    if (prefetchBlocks_ > 0)
+      readAhead ();
+
     row_.setRowIndex (index_);
   }
 
@@ -953,6 +1226,7 @@ Sets the fetch size.
   
   protected void finalize() throws Throwable {
 		super.finalize();
+        discardPendingFetches();
         if (fetchReply != null) { fetchReply.returnToPool(); fetchReply=null; } 
   }
 
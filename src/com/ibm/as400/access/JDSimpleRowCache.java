@@ -33,6 +33,15 @@ implements JDRowCache
     private boolean[][] nulls_;
     private boolean[][] dataMappingErrors_;
     private boolean     valid_;
+    private int         rowCount_;
+
+    // When the rows are cached from another row cache, they are kept as bytes
+    // in store_ instead of data_, nulls_ and dataMappingErrors_, and decoded
+    // into the arrays of a single row when it becomes the current row.
+    private JDRowStore  store_;
+    private Object[]    rowData_;
+    private boolean[]   rowNulls_;
+    private boolean[]   rowDataMappingErrors_;
 
     /**
     Constructs a JDSimpleRowCache object.  This is intended for
@@ -51,6 +60,7 @@ implements JDRowCache
         data_       = new Object[0][fieldCount];
         nulls_      = new boolean[0][fieldCount];
         dataMappingErrors_ = new boolean[0][fieldCount];
+        rowCount_   = 0;
     }
 
     /**
@@ -74,6 +84,7 @@ implements JDRowCache
         data_       = data;
         nulls_      = nulls;
         dataMappingErrors_ = dataMappingErrors;
+        rowCount_   = data_.length;
     }
 
     /**
@@ -92,6 +103,7 @@ implements JDRowCache
         data_       = data;
         nulls_      = new boolean[data.length][data[0].length];
         dataMappingErrors_ = new boolean[data.length][data[0].length];
+        rowCount_   = data_.length;
     }
 
     /**
@@ -116,34 +128,80 @@ implements JDRowCache
 
         row_ = new JDSimpleRow(otherRow, false);
 
-        otherRowCache.open();
-        otherRowCache.next();
-        while(otherRowCache.isValid())
-        {
-            Object[] rowOfData = new Object[fieldCount];
-            boolean[] rowOfNulls = new boolean[fieldCount];
-            boolean[] rowOfDataMappingErrors = new boolean[fieldCount];
+        // Keep the rows as bytes, unless one of the values cannot be encoded.
+        JDRowStore store = new JDRowStore(fieldCount);
 
-            for(int i = 1; i <= fieldCount; ++i)
+        try
+        {
+            otherRowCache.open();
+            otherRowCache.next();
+            while(otherRowCache.isValid())
             {
-                rowOfData[i-1] = otherRow.getSQLData(i).getObject();
-                rowOfNulls[i-1] = otherRow.isNull(i);
-                rowOfDataMappingErrors[i-1] = otherRow.isDataMappingError(i);
+                Object[] rowOfData = new Object[fieldCount];
+                boolean[] rowOfNulls = new boolean[fieldCount];
+                boolean[] rowOfDataMappingErrors = new boolean[fieldCount];
+
+                for(int i = 1; i <= fieldCount; ++i)
+                {
+                    rowOfData[i-1] = otherRow.getSQLData(i).getObject();
+                    rowOfNulls[i-1] = otherRow.isNull(i);
+                    rowOfDataMappingErrors[i-1] = otherRow.isDataMappingError(i);
+                }
+
+                if(store != null && !store.add(rowOfData, rowOfNulls, rowOfDataMappingErrors))
+                {
+                    // Go back to objects, starting with the rows stored so far.
+                    if (JDTrace.isTraceOn())
+                        JDTrace.logInformation(this, "Caching rows as objects");
+                    store.finish();
+                    for(int i = 0; i < store.getRowCount(); ++i)
+                    {
+                        Object[] storedData = new Object[fieldCount];
+                        boolean[] storedNulls = new boolean[fieldCount];
+                        boolean[] storedDataMappingErrors = new boolean[fieldCount];
+                        store.get(i, storedData, storedNulls, storedDataMappingErrors);
+                        tempData.addElement(storedData);
+                        tempNulls.addElement(storedNulls);
+                        tempDataMappingErrors.addElement(storedDataMappingErrors);
+                    }
+                    store.close();
+                    store = null;
+                }
+                if(store == null)
+                {
+                    tempData.addElement(rowOfData);
+                    tempNulls.addElement(rowOfNulls);
+                    tempDataMappingErrors.addElement(rowOfDataMappingErrors);
+                }
+
+                ++rowCount;
+                otherRowCache.next();
             }
+        }
+        catch(SQLException e)
+        {
+            if(store != null)
+                store.close();
+            throw e;
+        }
 
-            tempData.addElement(rowOfData);
-            tempNulls.addElement(rowOfNulls);
-            tempDataMappingErrors.addElement(rowOfDataMappingErrors);
+        index_      = -1;
+        valid_      = false;
+        rowCount_   = rowCount;
 
-            ++rowCount;
-            otherRowCache.next();
+        if(store != null)
+        {
+            store.finish();
+            store_ = store;
+            rowData_ = new Object[fieldCount];
+            rowNulls_ = new boolean[fieldCount];
+            rowDataMappingErrors_ = new boolean[fieldCount];
+            return;
         }
 
-        index_      = -1;
         data_       = new Object[rowCount][fieldCount];
         nulls_      = new boolean[rowCount][fieldCount];
         dataMappingErrors_ = new boolean[rowCount][fieldCount];
-        valid_      = false;
 
         for(int i = 0; i < rowCount; ++i)
         {
@@ -163,7 +221,14 @@ implements JDRowCache
     throws SQLException
     {
         valid_ = valid;
-        if(valid_)
+        if(valid_ && store_ != null)
+        {
+            store_.get(index_, rowData_, rowNulls_, rowDataMappingErrors_);
+            row_.setData(rowData_);
+            row_.setNulls(rowNulls_);
+            row_.setDataMappingErrors(rowDataMappingErrors_);
+        }
+        else if(valid_)
         {
             row_.setData(data_[index_]);
             row_.setNulls(nulls_[index_]);
@@ -186,7 +251,8 @@ implements JDRowCache
     public void close()
     throws SQLException
     {
-        // No-op.
+        if(store_ != null)
+            store_.close();
     }
 
     public void flush()
@@ -203,7 +269,7 @@ implements JDRowCache
     public boolean isEmpty()
     throws SQLException
     {
-        return data_.length == 0;
+        return rowCount_ == 0;
     }
 
     public boolean isValid()
@@ -216,22 +282,22 @@ implements JDRowCache
     {
         if(rowNumber > 0)
         {
-            if(rowNumber <= data_.length)
+            if(rowNumber <= rowCount_)
             {
                 index_ = rowNumber - 1;
                 reposition(true);
             }
             else
             {
-                index_ = data_.length;
+                index_ = rowCount_;
                 reposition(false);
             }
         }
         else if(rowNumber < 0)
         {
-            if(-rowNumber <= data_.length)
+            if(-rowNumber <= rowCount_)
             {
-                index_ = data_.length + rowNumber;
+                index_ = rowCount_ + rowNumber;
                 reposition(true);
             }
             else
@@ -253,7 +319,7 @@ implements JDRowCache
     public void afterLast()
     throws SQLException
     {
-        index_ = data_.length;
+        index_ = rowCount_;
         reposition(false);
     }
 
@@ -268,27 +334,27 @@ implements JDRowCache
     throws SQLException
     {
         index_ = 0;
-        reposition(data_.length > 0);
+        reposition(rowCount_ > 0);
     }
 
     public void last()
     throws SQLException
     {
-        index_ = data_.length - 1;
-        reposition(data_.length > 0);
+        index_ = rowCount_ - 1;
+        reposition(rowCount_ > 0);
     }
 
     public void next()
     throws SQLException
     {
-        if(index_ < data_.length - 1)
+        if(index_ < rowCount_ - 1)
         {
             ++index_;
             reposition(true);
         }
         else
         {
-            index_ = data_.length;
+            index_ = rowCount_;
             reposition(false);
         }
     }
@@ -318,7 +384,7 @@ implements JDRowCache
     throws SQLException
     {
         int newIndex = index_ + rowIndex;
-        if((newIndex >= 0) && (newIndex < data_.length))
+        if((newIndex >= 0) && (newIndex < rowCount_))
         {
             index_ = newIndex;
             reposition(true);
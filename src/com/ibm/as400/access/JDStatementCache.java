@@ -0,0 +1,145 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDStatementCache.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.Hashtable;
+
+// A least recently used cache of prepared statements, used by AS400JDBCConnectionImpl
+// when the "statement cache size" property is greater than 0.
+//
+// When the application closes a cached prepared statement, the statement keeps its RPB,
+// ORS and prepared SQL on the system, and a copy of the statement object is put here
+// instead.  The next prepareStatement() on the same connection with the same SQL text and
+// result set attributes takes the copy, so the prepare is bypassed.  Each checkout is a
+// different object, so a reference kept to a closed statement never reaches its reuse.
+// A cached statement is in the cache or in use, never both.
+// When the cache is full, the least recently used statement is handed back to the caller
+// to be closed for real.
+final class JDStatementCache
+{
+  private final int maximumSize_;
+  private final Hashtable entries_ = new Hashtable();
+
+  // The most recently used entry is at the head of the list, the least recently used at the tail.
+  private Entry head_ = null;
+  private Entry tail_ = null;
+
+  // Statistics, guarded by this.
+  private long hits_ = 0;
+  private long misses_ = 0;
+  private long evictions_ = 0;
+
+  private static final class Entry
+  {
+    final String key_;
+    final AS400JDBCPreparedStatementImpl statement_;
+    Entry previous_;
+    Entry next_;
+
+    Entry(String key, AS400JDBCPreparedStatementImpl statement)
+    {
+      key_ = key;
+      statement_ = statement;
+    }
+  }
+
+  JDStatementCache(int maximumSize)
+  {
+    maximumSize_ = maximumSize;
+  }
+
+  // Builds the cache key for a prepared statement.  Statements are only interchangeable
+  // when the SQL text and all of the result set attributes match.
+  static String getKey(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+  {
+    return resultSetType + ":" + resultSetConcurrency + ":" + resultSetHoldability + ":" + sql;
+  }
+
+  // Removes and returns the cached statement for the key, or returns null if there is none.
+  final synchronized AS400JDBCPreparedStatementImpl get(String key)
+  {
+    Entry entry = (Entry)entries_.remove(key);
+    if (entry == null)
+    {
+      ++misses_;
+      return null;
+    }
+    unlink(entry);
+    ++hits_;
+    return entry.statement_;
+  }
+
+  // Adds a statement that the application has closed.  Returns the statement that the caller
+  // must now close for real, or null if there is none.  This is the least recently used
+  // statement when the cache is full, or the statement itself when another statement with
+  // the same key is already cached.
+  final synchronized AS400JDBCPreparedStatementImpl put(String key, AS400JDBCPreparedStatementImpl statement)
+  {
+    if (entries_.containsKey(key)) return statement;
+
+    Entry entry = new Entry(key, statement);
+    entries_.put(key, entry);
+    entry.next_ = head_;
+    if (head_ != null) head_.previous_ = entry;
+    head_ = entry;
+    if (tail_ == null) tail_ = entry;
+
+    if (entries_.size() > maximumSize_)
+    {
+      Entry eldest = tail_;
+      entries_.remove(eldest.key_);
+      unlink(eldest);
+      ++evictions_;
+      return eldest.statement_;
+    }
+    return null;
+  }
+
+  // Removes all of the statements from the cache and returns them, most recently used first.
+  final synchronized AS400JDBCPreparedStatementImpl[] clear()
+  {
+    AS400JDBCPreparedStatementImpl[] statements = new AS400JDBCPreparedStatementImpl[entries_.size()];
+    int i = 0;
+    for (Entry entry = head_; entry != null; entry = entry.next_)
+    {
+      statements[i++] = entry.statement_;
+    }
+    entries_.clear();
+    head_ = null;
+    tail_ = null;
+    return statements;
+  }
+
+  private void unlink(Entry entry)
+  {
+    if (entry.previous_ == null) head_ = entry.next_;
+    else entry.previous_.next_ = entry.next_;
+    if (entry.next_ == null) tail_ = entry.previous_;
+    else entry.next_.previous_ = entry.previous_;
+    entry.previous_ = null;
+    entry.next_ = null;
+  }
+
+  final synchronized int size()
+  {
+    return entries_.size();
+  }
+
+  // Returns a summary of the cache statistics, for the JDBC trace.
+  final synchronized String getStatistics()
+  {
+    return "Statement cache: size " + entries_.size() + " of " + maximumSize_
+         + ", hits " + hits_ + ", misses " + misses_ + ", evictions " + evictions_;
+  }
+}
@@ -0,0 +1,178 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: JDStatementIdAllocator.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+// Hands out the statement ids of a connection, used by AS400JDBCConnectionImpl.
+//
+// Id 0 represents the connection itself and is never handed out.  The remaining ids
+// are split into three ranges, because a connection used for DRDA must use ids
+// 1-128 for non-scrollable cursors and 129-254 for scrollable cursors.  Other
+// connections use the ranges in order, so ids stay as low as before.
+//
+// Each range has a heap of ids that have been released and the next id that has
+// never been handed out.  The lowest unused id of the range is handed out, as the
+// scan of every id below it did, but in logarithmic time.
+final class JDStatementIdAllocator
+{
+  static final int RANGE_DRDA_NON_SCROLLABLE = 0;
+  static final int RANGE_DRDA_SCROLLABLE = 1;
+  static final int RANGE_OTHER = 2;
+
+  private final boolean[] assigned_;
+  private final Range[] ranges_;
+
+  private static final class Range
+  {
+    final int first_;
+    final int limit_;
+    int next_;
+    int[] free_ = new int[16];
+    int freeCount_ = 0;
+
+    Range(int first, int limit)
+    {
+      first_ = first;
+      limit_ = limit;
+      next_ = first;
+    }
+
+    // Adds a released id to the heap.
+    final void push(int id)
+    {
+      if (freeCount_ == free_.length)
+      {
+        int[] free = new int[free_.length * 2];
+        System.arraycopy(free_, 0, free, 0, freeCount_);
+        free_ = free;
+      }
+      int i = freeCount_++;
+      while (i > 0)
+      {
+        int parent = (i - 1) / 2;
+        if (free_[parent] <= id) break;
+        free_[i] = free_[parent];
+        i = parent;
+      }
+      free_[i] = id;
+    }
+
+    // Removes and returns the lowest released id.  The heap must not be empty.
+    final int pop()
+    {
+      int lowest = free_[0];
+      int last = free_[--freeCount_];
+      int i = 0;
+      while (true)
+      {
+        int child = 2 * i + 1;
+        if (child >= freeCount_) break;
+        if (child + 1 < freeCount_ && free_[child + 1] < free_[child]) ++child;
+        if (last <= free_[child]) break;
+        free_[i] = free_[child];
+        i = child;
+      }
+      free_[i] = last;
+      return lowest;
+    }
+  }
+
+  // The ids are 1 to maximum-1.  Ids below drdaCutoff are for non-scrollable DRDA
+  // cursors, ids from drdaCutoff to below drdaMaximum are for scrollable DRDA cursors.
+  JDStatementIdAllocator(int drdaCutoff, int drdaMaximum, int maximum)
+  {
+    assigned_ = new boolean[maximum];
+    ranges_ = new Range[] { new Range(1, drdaCutoff), new Range(drdaCutoff, drdaMaximum), new Range(drdaMaximum, maximum) };
+  }
+
+  // Returns an unused id from the range, or -1 if all of the ids in the range are in use.
+  private int allocate(Range range)
+  {
+    if (range.freeCount_ > 0)
+    {
+      // Released ids are always below next_.
+      int id = range.pop();
+      assigned_[id] = true;
+      return id;
+    }
+    if (range.next_ < range.limit_)
+    {
+      int id = range.next_++;
+      assigned_[id] = true;
+      return id;
+    }
+    return -1;
+  }
+
+  // Returns an unused id from the range, or -1 if all of the ids in the range are in use.
+  final synchronized int allocate(int range)
+  {
+    return allocate(ranges_[range]);
+  }
+
+  // Returns an unused id from any range, lowest range first, or -1 if all of the ids are in use.
+  final synchronized int allocateAny()
+  {
+    for (int i = 0; i < ranges_.length; ++i)
+    {
+      int id = allocate(ranges_[i]);
+      if (id != -1) return id;
+    }
+    return -1;
+  }
+
+  // Makes an id available again.  Releasing an id that is not in use has no effect.
+  final synchronized void release(int id)
+  {
+    if (id <= 0 || id >= assigned_.length || !assigned_[id]) return;
+    assigned_[id] = false;
+    for (int i = 0; i < ranges_.length; ++i)
+    {
+      if (id < ranges_[i].limit_)
+      {
+        ranges_[i].push(id);
+        return;
+      }
+    }
+  }
+
+  // Replaces the state of this allocator with the ids in use by another connection.
+  // This is not constant time, but is only done when statements are moved to a new connection.
+  final void copyFrom(JDStatementIdAllocator other)
+  {
+    boolean[] assigned;
+    synchronized (other)
+    {
+      assigned = (boolean[])other.assigned_.clone();
+    }
+    synchronized (this)
+    {
+      System.arraycopy(assigned, 0, assigned_, 0, assigned_.length);
+      for (int i = 0; i < ranges_.length; ++i)
+      {
+        Range range = ranges_[i];
+        int next = range.first_;
+        for (int id = range.first_; id < range.limit_; ++id)
+        {
+          if (assigned_[id]) next = id + 1;
+        }
+        range.next_ = next;
+        range.freeCount_ = 0;
+        for (int id = next - 1; id >= range.first_; --id)
+        {
+          if (!assigned_[id]) range.push(id);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: PartitionedReadBuffer.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.util.Vector;
+
+// Holds the items that the partitions of a parallel reader (AS400JDBCPartitionedReader, SequentialFileParallelReader) have read ahead of the caller, and the first failure of any partition.
+// Each partition runs on its own thread and adds its items with put(), then end(); the caller removes them with next().
+// When ordered, each partition has its own buffer and the items are returned partition by partition; otherwise, all of the partitions share one buffer.
+// Each buffer holds a limited number of items, so a slow caller slows the partitions down instead of running out of memory.
+final class PartitionedReadBuffer
+{
+    // Returned by next() when all of the partitions have ended.  Also marks the end of a partition in a buffer.
+    static final Object END_ = new Object();
+
+    private final Buffer[] buffers_;
+    private final int partitionCount_;
+    private final boolean ordered_;
+
+    // Guarded by this.
+    private Exception error_ = null;
+    private boolean closed_ = false;
+
+    // State of the caller.
+    private int current_ = 0;
+    private int ended_ = 0;
+
+    PartitionedReadBuffer(int partitionCount, int capacity, boolean ordered)
+    {
+        partitionCount_ = partitionCount;
+        ordered_ = ordered;
+        buffers_ = new Buffer[ordered ? partitionCount : 1];
+        for (int i = 0; i < buffers_.length; ++i) buffers_[i] = new Buffer(capacity);
+    }
+
+    // Adds an item read by a partition, waiting while its buffer is full.  Returns false if the buffer is closed.
+    boolean put(int partition, Object item) throws InterruptedException
+    {
+        return buffers_[ordered_ ? partition : 0].put(item);
+    }
+
+    // Marks the end of a partition.
+    void end(int partition) throws InterruptedException
+    {
+        buffers_[ordered_ ? partition : 0].put(END_);
+    }
+
+    // Returns the next item, waiting until a partition has read it.  Returns END_ if all of the partitions have ended, or null if a partition failed or the buffer was closed.
+    Object next() throws InterruptedException
+    {
+        while (true)
+        {
+            if (getError() != null) return null;
+            if (ordered_ ? current_ == buffers_.length : ended_ == partitionCount_) return END_;
+
+            Object item = buffers_[ordered_ ? current_ : 0].take();
+            if (item == null) return null;
+            if (item != END_) return item;
+
+            if (ordered_) ++current_;
+            else ++ended_;
+        }
+    }
+
+    // Returns the first failure of any partition, or null.
+    synchronized Exception getError()
+    {
+        return error_;
+    }
+
+    // Records the first failure of any partition, and wakes the caller.  Failures after the buffer is closed are ignored.
+    void fail(Exception e)
+    {
+        synchronized (this)
+        {
+            if (error_ == null && !closed_) error_ = e;
+        }
+        for (int i = 0; i < buffers_.length; ++i) buffers_[i].wake();
+    }
+
+    // Discards the items, and wakes the partitions and the caller.
+    void close()
+    {
+        synchronized (this)
+        {
+            closed_ = true;
+        }
+        for (int i = 0; i < buffers_.length; ++i) buffers_[i].close();
+    }
+
+    private static final class Buffer
+    {
+        private final Vector items_ = new Vector();
+        private final int capacity_;
+        private boolean closed_ = false;
+        private boolean woken_ = false;
+
+        Buffer(int capacity)
+        {
+            capacity_ = capacity;
+        }
+
+        // Adds an item, waiting while the buffer is full.  The end of a partition is always added, so the caller can count it.  Returns false if the buffer is closed.
+        synchronized boolean put(Object item) throws InterruptedException
+        {
+            while (!closed_ && item != END_ && items_.size() >= capacity_) wait();
+            if (closed_) return false;
+            items_.addElement(item);
+            notifyAll();
+            return true;
+        }
+
+        // Removes the oldest item, waiting while the buffer is empty.  Returns null if the buffer is closed, or END_ if a partition failed.
+        synchronized Object take() throws InterruptedException
+        {
+            while (!closed_ && !woken_ && items_.isEmpty()) wait();
+            if (closed_) return null;
+            if (items_.isEmpty()) return END_;
+            Object item = items_.remove(0);
+            notifyAll();
+            return item;
+        }
+
+        synchronized void wake()
+        {
+            woken_ = true;
+            notifyAll();
+        }
+
+        synchronized void close()
+        {
+            closed_ = true;
+            items_.removeAllElements();
+            notifyAll();
+        }
+    }
+}
@@ -144,6 +144,16 @@ class PoolItem
   }
 
 
+  /**
+   *  Marks the pooled connection as in use, if it is not already in use.
+   *  @return true if the connection was available and is now in use; false if another thread got it first.
+   **/
+  boolean claim()
+  {
+    return properties_.claim();
+  }
+
+
   /**
   *  Returns the AS400 contained in the pool item.
   *  @return The AS400 object.  Never returns null.
@@ -121,6 +121,20 @@ class PoolItemProperties
    }
 
 
+   /**
+   *  Marks the connection as in use, if it is not already in use.
+   *  The test and the change are made together, so that only one of several threads
+   *  trying to get the same available connection succeeds.
+   *  @return true if the connection was available and is now in use; false if it was already in use.
+   **/
+   synchronized boolean claim()
+   {
+      if (lastUseTime_ != 0) return false;
+      setInUse(true);
+      return true;
+   }
+
+
    /**
    *  Records that the connection has failed a pretest validity check.
    **/
@@ -53,6 +53,7 @@ class RCCallProgramReplyDataStream extends ClientAccessDataStream
                 if (parameterUsage == 22 || parameterUsage == 23)
                 {
                     outputData = DataStreamCompression.decompressRLE(data_, index + 12, byteLength - 12, outputDataLength, DataStreamCompression.DEFAULT_ESCAPE);
+                    if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(AS400.COMMAND).recordCompression(outputDataLength, byteLength - 12);
                 }
                 else
                 {
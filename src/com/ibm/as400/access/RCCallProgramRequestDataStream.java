@@ -58,6 +58,7 @@ class RCCallProgramRequestDataStream extends ClientAccessDataStream
                     {
                         parameterLength = compressedInputData.length;
                         parameterUsage += 20;
+                        if (AS400ServiceMetrics.ENABLED_) AS400ServiceMetrics.getInstance(AS400.COMMAND).recordCompression(tempInputData.length, parameterLength);
                     }
                 }
             }
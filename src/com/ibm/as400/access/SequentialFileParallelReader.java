@@ -0,0 +1,354 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// JTOpen (IBM Toolbox for Java - OSS version)
+//
+// Filename: SequentialFileParallelReader.java
+//
+// The source code contained herein is licensed under the IBM Public License
+// Version 1.0, which has been approved by the Open Source Initiative.
+// Copyright (C) 2026 International Business Machines Corporation and
+// others. All rights reserved.
+//
+///////////////////////////////////////////////////////////////////////////////
+
+package com.ibm.as400.access;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.Vector;
+
+/**
+ Reads all of the records of a file member in arrival sequence, using several connections at the same time.  This is intended for scanning large physical files, where reading the records with a single {@link SequentialFile SequentialFile} is limited by one connection and one thread.
+ <p>The member is divided into partitions of consecutive record numbers.  Each partition is read by its own thread, with its own SequentialFile and its own connection to the record level access host server, and the fields of each record are converted to Java objects on that thread.  The records are returned by {@link #nextRecord nextRecord()}.  The records read by the partitions are held in a buffer of limited size, so a slow caller slows the partitions down instead of running out of memory.  When the reader is ordered, the records are returned in the order of their record numbers; otherwise, they are returned as soon as any partition has read them.
+ <p>The following example reads a file using four connections:
+ <pre>
+ AS400 system = new AS400("mySystem", "myUser", "myPassword");
+ SequentialFileParallelReader reader = new SequentialFileParallelReader(system, "/QSYS.LIB/MYLIB.LIB/MYFILE.FILE/MYMBR.MBR", 4);
+ try
+ {
+     reader.open();
+     Record record;
+     while ((record = reader.nextRecord()) != null)
+     {
+         // Process the record.
+     }
+ }
+ finally
+ {
+     reader.close();
+ }
+ </pre>
+ <p>The partitions divide the range of record numbers in use evenly, so members with many deleted records may have partitions of uneven size.  Records that are added or deleted while the member is being read may or may not be returned.
+ **/
+public class SequentialFileParallelReader
+{
+    private final AS400 system_;
+    private final String path_;
+    private final int partitionCount_;
+    private RecordFormat recordFormat_ = null;
+    private boolean ordered_ = true;
+    private int bufferSize_ = 1000;
+    private int blockingFactor_ = 0;
+
+    // State of an open reader, guarded by this.
+    private PartitionedReadBuffer buffer_ = null;
+    private Worker[] workers_ = null;
+    private boolean closed_ = false;
+
+    /**
+     Constructs a SequentialFileParallelReader object.
+     @param  system  The system.  Each partition is read using a copy of this object, so that it has its own connection.
+     @param  path  The integrated file system path name of the file.  If a member is not specified in the path, the first member of the file is read.
+     @param  partitionCount  The number of partitions, which is also the number of connections and threads used.
+     **/
+    public SequentialFileParallelReader(AS400 system, String path, int partitionCount)
+    {
+        if (system == null) throw new NullPointerException("system");
+        if (path == null) throw new NullPointerException("path");
+        if (partitionCount < 1) throw new ExtendedIllegalArgumentException("partitionCount", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        system_ = system;
+        path_ = path;
+        partitionCount_ = partitionCount;
+    }
+
+    /**
+     Returns the record format used to read the records.
+     @return  The record format, or null if it has not been set and the reader has not been opened.
+     **/
+    public synchronized RecordFormat getRecordFormat()
+    {
+        return recordFormat_;
+    }
+
+    /**
+     Sets the record format used to read the records.  If it is not set, the record format of the file is retrieved from the system when the reader is opened.  This cannot be changed after the reader is opened.
+     @param  recordFormat  The record format.
+     **/
+    public synchronized void setRecordFormat(RecordFormat recordFormat)
+    {
+        if (recordFormat == null) throw new NullPointerException("recordFormat");
+        if (buffer_ != null) throw new ExtendedIllegalStateException("recordFormat", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        recordFormat_ = recordFormat;
+    }
+
+    /**
+     Indicates whether the records are returned in the order of their record numbers.
+     @return  true if the records are returned in the order of their record numbers; false if they are returned as soon as any partition has read them.  The default is true.
+     **/
+    public boolean isOrdered()
+    {
+        return ordered_;
+    }
+
+    /**
+     Sets whether the records are returned in the order of their record numbers.  This cannot be changed after the reader is opened.
+     @param  ordered  true to return the records in the order of their record numbers; false to return them as soon as any partition has read them.  The default is true.
+     **/
+    public synchronized void setOrdered(boolean ordered)
+    {
+        if (buffer_ != null) throw new ExtendedIllegalStateException("ordered", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        ordered_ = ordered;
+    }
+
+    /**
+     Returns the number of records that can be read ahead of the caller.
+     @return  The number of records.  The default is 1000.
+     **/
+    public int getBufferSize()
+    {
+        return bufferSize_;
+    }
+
+    /**
+     Sets the number of records that can be read ahead of the caller.  When the reader is ordered, each partition may read this many records ahead; otherwise, this is shared by all of the partitions.  This cannot be changed after the reader is opened.
+     @param  bufferSize  The number of records.  The default is 1000.
+     **/
+    public synchronized void setBufferSize(int bufferSize)
+    {
+        if (bufferSize < 1) throw new ExtendedIllegalArgumentException("bufferSize", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        if (buffer_ != null) throw new ExtendedIllegalStateException("bufferSize", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        bufferSize_ = bufferSize;
+    }
+
+    /**
+     Sets the blocking factor with which each partition opens the file.  This cannot be changed after the reader is opened.
+     @param  blockingFactor  The number of records to retrieve in each request, or 0 to have the blocking factor calculated from the record length, as for {@link AS400File#open(int, int, int) AS400File.open()}.  The default is 0.
+     **/
+    public synchronized void setBlockingFactor(int blockingFactor)
+    {
+        if (blockingFactor < 0) throw new ExtendedIllegalArgumentException("blockingFactor", ExtendedIllegalArgumentException.RANGE_NOT_VALID);
+        if (buffer_ != null) throw new ExtendedIllegalStateException("blockingFactor", ExtendedIllegalStateException.PROPERTY_NOT_CHANGED);
+        blockingFactor_ = blockingFactor;
+    }
+
+    /**
+     Finds the range of record numbers in the member, and starts reading all of the partitions.
+     @exception  AS400Exception  If the system returns an error message.
+     @exception  AS400SecurityException  If a security or authority error occurs.
+     @exception  InterruptedException  If this thread is interrupted.
+     @exception  IOException  If an error occurs while communicating with the system.
+     **/
+    public synchronized void open() throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+    {
+        if (buffer_ != null) throw new ExtendedIllegalStateException("reader", ExtendedIllegalStateException.OBJECT_CAN_NOT_BE_OPEN);
+
+        // Find the first and last record numbers.
+        long first;
+        long last;
+        SequentialFile file = new SequentialFile(system_, path_);
+        try
+        {
+            if (recordFormat_ == null)
+            {
+                file.setRecordFormat();
+                recordFormat_ = file.getRecordFormat();
+            }
+            else
+            {
+                file.setRecordFormat(recordFormat_);
+            }
+            file.open(AS400File.READ_ONLY, 1, AS400File.COMMIT_LOCK_LEVEL_NONE);
+            Record record = file.readFirst();
+            first = (record == null) ? 0 : record.getRecordNumberLong();
+            record = file.readLast();
+            last = (record == null) ? -1 : record.getRecordNumberLong();
+        }
+        catch (PropertyVetoException e)
+        {
+            // This won't ever happen; the file has no listeners.
+            throw new InternalErrorException(InternalErrorException.UNEXPECTED_EXCEPTION, e);
+        }
+        finally
+        {
+            file.close();
+        }
+
+        // Divide the record numbers into partitions of [start, end).
+        Vector starts = new Vector();
+        long size = (last - first + partitionCount_) / partitionCount_;
+        for (long start = first; start <= last && starts.size() < partitionCount_; start += size)
+        {
+            starts.addElement(new Long(start));
+        }
+        int count = starts.size();
+        long[] start = new long[count];
+        long[] end = new long[count];
+        for (int i = 0; i < count; ++i)
+        {
+            start[i] = ((Long)starts.elementAt(i)).longValue();
+            end[i] = (i == count - 1) ? last + 1 : ((Long)starts.elementAt(i + 1)).longValue();
+        }
+        if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Reading records " + first + " to " + last + " of " + path_ + " in " + count + " partitions.");
+
+        buffer_ = new PartitionedReadBuffer(count, bufferSize_, ordered_);
+
+        workers_ = new Worker[count];
+        for (int i = 0; i < count; ++i)
+        {
+            workers_[i] = new Worker(i, start[i], end[i], buffer_);
+            Thread thread = new Thread(workers_[i], "SequentialFileParallelReader-" + i);
+            thread.setDaemon(true);
+            workers_[i].thread_ = thread;
+        }
+        for (int i = 0; i < count; ++i) workers_[i].thread_.start();
+    }
+
+    /**
+     Returns the next record.  This waits until a partition has read the record.
+     @return  The record, or null if there are no more records.
+     @exception  AS400Exception  If a partition failed because the system returned an error message.
+     @exception  AS400SecurityException  If a partition failed because of a security or authority error.
+     @exception  InterruptedException  If this thread is interrupted.
+     @exception  IOException  If a partition failed because of an error while communicating with the system, or converting a record.
+     **/
+    public Record nextRecord() throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+    {
+        PartitionedReadBuffer buffer;
+        synchronized (this)
+        {
+            if (buffer_ == null || closed_) throw new ExtendedIllegalStateException("reader", ExtendedIllegalStateException.OBJECT_MUST_BE_OPEN);
+            buffer = buffer_;
+        }
+
+        Object record = buffer.next();
+        if (record == null)
+        {
+            throwError(buffer.getError());
+            // The reader was closed by another thread.
+            throw new ExtendedIllegalStateException("reader", ExtendedIllegalStateException.OBJECT_MUST_BE_OPEN);
+        }
+        if (record == PartitionedReadBuffer.END_) return null;
+        return (Record)record;
+    }
+
+    /**
+     Stops reading the partitions, and closes their files and connections.  This waits until all of the partitions have stopped.
+     **/
+    public void close()
+    {
+        Worker[] workers;
+        synchronized (this)
+        {
+            if (closed_ || workers_ == null)
+            {
+                closed_ = true;
+                return;
+            }
+            closed_ = true;
+            workers = workers_;
+            buffer_.close();
+        }
+
+        for (int i = 0; i < workers.length; ++i)
+        {
+            try
+            {
+                workers[i].thread_.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Throws the failure of a partition, if there is one.
+    private static void throwError(Exception error) throws AS400Exception, AS400SecurityException, InterruptedException, IOException
+    {
+        if (error == null) return;
+        if (error instanceof AS400Exception) throw (AS400Exception)error;
+        if (error instanceof AS400SecurityException) throw (AS400SecurityException)error;
+        if (error instanceof IOException) throw (IOException)error;
+        if (error instanceof InterruptedException) throw (InterruptedException)error;
+        throw (RuntimeException)error;
+    }
+
+    // Reads one partition with its own file and connection.
+    private final class Worker implements Runnable
+    {
+        private final int partition_;
+        private final long start_;
+        private final long end_;
+        private final PartitionedReadBuffer buffer_;
+        Thread thread_;
+
+        Worker(int partition, long start, long end, PartitionedReadBuffer buffer)
+        {
+            partition_ = partition;
+            start_ = start;
+            end_ = end;
+            buffer_ = buffer;
+        }
+
+        public void run()
+        {
+            AS400 system = new AS400(system_);
+            SequentialFile file = new SequentialFile(system, path_);
+            try
+            {
+                file.setRecordFormat(recordFormat_);
+                file.open(AS400File.READ_ONLY, blockingFactor_, AS400File.COMMIT_LOCK_LEVEL_NONE);
+
+                // Start at the first record of the partition that has not been deleted.
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Reading records " + start_ + " to " + (end_ - 1) + " of " + path_ + " in partition " + partition_ + ".");
+                Record record = null;
+                for (long recordNumber = start_; record == null && recordNumber < end_; ++recordNumber)
+                {
+                    record = file.read((int)recordNumber);
+                }
+
+                long records = 0;
+                while (record != null && record.getRecordNumberLong() < end_)
+                {
+                    // Convert the fields on this thread, instead of on the caller's.
+                    record.getFields();
+                    if (!buffer_.put(partition_, record)) return;
+                    ++records;
+                    record = file.readNext();
+                }
+                if (Trace.traceOn_) Trace.log(Trace.DIAGNOSTIC, "Read " + records + " records from partition " + partition_ + ".");
+                buffer_.end(partition_);
+            }
+            catch (Exception e)
+            {
+                // This includes an InterruptedException: close() does not interrupt the partitions,
+                // so the caller would otherwise wait for this partition forever.  A failure after
+                // the reader is closed is ignored.
+                buffer_.fail(e);
+            }
+            finally
+            {
+                try
+                {
+                    file.close();
+                }
+                catch (Exception e)
+                {
+                    if (Trace.traceOn_) Trace.log(Trace.WARNING, "Closing the file of partition " + partition_ + " failed:", e);
+                }
+                system.disconnectAllServices();
+            }
+        }
+    }
+}
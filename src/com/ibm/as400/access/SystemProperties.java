@@ -127,6 +127,102 @@ public class SystemProperties
      **/
     public static final String AS400_THREAD_USED = ACCESS_PREFIX + "AS400.threadUsed";
 
+    /**
+     Specifies whether the threads that listen on communication sockets to the host servers are virtual threads.
+     By default, each connection to a host server has its own platform thread ("AS400 Read Daemon").  Setting this property to <tt>true</tt> directs the Toolbox to create these threads as virtual threads instead, so that an application holding many mostly idle connections does not also hold as many platform threads.  This property is ignored if the Java runtime does not support virtual threads, or if threads are not used (see {@link #AS400_THREAD_USED AS400_THREAD_USED}).
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.virtualThreads
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String AS400_VIRTUAL_THREADS = ACCESS_PREFIX + "AS400.virtualThreads";
+
+    /**
+     Specifies whether traffic statistics are collected for the host servers.
+     By default, no statistics are collected.  Setting this property to <tt>true</tt> directs the Toolbox to count the requests, replies, round trips, and bytes exchanged with each host server, and to keep a histogram of round trip latencies.  The statistics are available from {@link AS400ServiceMetrics AS400ServiceMetrics}, and through JMX if the Java runtime has a platform MBean server.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400.metrics
+     <li>Values/syntax: <tt>true</tt> or <tt>false</tt>
+     <li>Default: <tt>false</tt>
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String AS400_METRICS = ACCESS_PREFIX + "AS400.metrics";
+
+    /**
+     Specifies the number of bytes of cached result set rows that the JDBC driver keeps in memory before it writes the rest to a temporary file.
+     Result sets that the JDBC driver caches completely on the client, such as those returned by DatabaseMetaData, keep their rows as bytes in direct buffers outside of the Java heap, and decode each row when it is read.  Once the buffers reach this size, the remaining rows are written to a temporary file in the directory given by the <tt>java.io.tmpdir</tt> system property, which is deleted when the result set is closed.
+     <ul>
+     <li>Property name: com.ibm.as400.access.JDBC.rowCacheSpillThreshold
+     <li>Values/syntax: <tt>0 or greater</tt> (0 means "write all rows to the file")
+     <li>Default: 33554432 (32 megabytes)
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String JDBC_ROW_CACHE_SPILL_THRESHOLD = ACCESS_PREFIX + "JDBC.rowCacheSpillThreshold";
+
+    /**
+     Specifies the number of blocks that IFSFileInputStream requests ahead of the reader during a sequential scan.
+     When an IFSFileInputStream sees reads that each start where the previous one ended, it keeps this many read requests outstanding at the offsets that follow, so that the data arrives while the application processes the previous block.  Reading from another offset stops the read-ahead until the reads are sequential again.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFS.readAheadBlocks
+     <li>Values/syntax: <tt>0 or greater</tt> (0 means "do not read ahead")
+     <li>Default: 4
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_READ_AHEAD_BLOCKS = ACCESS_PREFIX + "IFS.readAheadBlocks";
+
+    /**
+     Specifies the size in bytes of each block that IFSFileInputStream requests ahead of the reader.
+     See {@link #IFS_READ_AHEAD_BLOCKS IFS_READ_AHEAD_BLOCKS}.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFS.readAheadBlockSize
+     <li>Values/syntax: <tt>1 or greater</tt>
+     <li>Default: 131072 (128 kilobytes)
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_READ_AHEAD_BLOCK_SIZE = ACCESS_PREFIX + "IFS.readAheadBlockSize";
+
+    /**
+     Specifies the number of bytes that IFSFileOutputStream and IFSRandomAccessFile can write without waiting for the system to confirm them.
+     By default, each block of data written to an integrated file system file waits for the system's reply before the next block is sent.  Setting this property allows blocks to be sent while earlier ones are still outstanding, up to this many bytes in total.  A write that fails is then reported by a later write, or by flush() or close(), so applications that set this property should check the result of flush() or close().  Writes to an IFSRandomAccessFile opened in a mode that forces data to storage are never written behind.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFS.writeBehindWindow
+     <li>Values/syntax: <tt>0 or greater</tt> (0 means "wait for each block")
+     <li>Default: 0
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_WRITE_BEHIND_WINDOW = ACCESS_PREFIX + "IFS.writeBehindWindow";
+
+    /**
+     Specifies the number of directory entries that the Enumeration returned by IFSFile.enumerateFiles() requests from the system at a time.
+     The Enumeration holds at most two blocks of entries: the one being read, and the next one, which is requested from the system while the first is read.  Larger blocks mean fewer round trips for large directories, at the cost of more memory.
+     <ul>
+     <li>Property name: com.ibm.as400.access.IFS.listBlockSize
+     <li>Values/syntax: <tt>1</tt> to <tt>65534</tt>
+     <li>Default: 128
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String IFS_LIST_BLOCK_SIZE = ACCESS_PREFIX + "IFS.listBlockSize";
+
+    /**
+     Specifies the number of blocks of records that AS400File.write(Record[]) can send to the system before it waits for the reply to the first one.
+     By default, each block waits for the system's reply before the next block is sent.  Setting this property to more than 1 allows blocks to be sent while earlier ones are still outstanding.  If the system then returns an error for a block, blocks after it that were already sent may have been written too.
+     <ul>
+     <li>Property name: com.ibm.as400.access.AS400File.pendingWrites
+     <li>Values/syntax: <tt>1 or greater</tt>
+     <li>Default: 1
+     <li>Overridden by: (none)
+     </ul>
+     **/
+    public static final String AS400FILE_PENDING_WRITES = ACCESS_PREFIX + "AS400File.pendingWrites";
+
     /*public*/ static final String SECUREAS400_PROXY_ENCRYPTION_MODE = ACCESS_PREFIX + "SecureAS400.proxyEncryptionMode";
 
     /**